@@ -0,0 +1,183 @@
+"""
+Benchmark de inicialização: tempo até a aplicação atender e memória residente.
+
+Compara o jar comum com as formas de inicialização rápida:
+
+- jar:     java -jar com o jar de um build sem perfis (--jar-comum), como hoje;
+- aot:     o mesmo jar com o contexto do Spring processado na compilação
+           (-Dspring.aot.enabled=true; o jar precisa ter sido gerado com -Paot);
+- cds+aot: o jar extraído, com um arquivo de CDS (class data sharing) gerado por
+           uma execução de treino, e com AOT;
+- nativo:  a imagem nativa, se informada em --nativo.
+
+Uso:
+    ./mvnw -DskipTests clean package && cp target/pacientes-api-0.0.1-SNAPSHOT-exec.jar /tmp/comum.jar
+    ./mvnw -Paot -DskipTests clean package
+    python3 benchmark_inicializacao.py --jar target/pacientes-api-0.0.1-SNAPSHOT-exec.jar --jar-comum /tmp/comum.jar
+
+    # com a imagem nativa (GraalVM 21+), no lugar do build com -Paot:
+    ./mvnw -Pnative -DskipTests clean package native:compile
+    python3 benchmark_inicializacao.py --jar target/pacientes-api-0.0.1-SNAPSHOT-exec.jar --jar-comum /tmp/comum.jar \
+        --nativo target/pacientes-api
+
+A aplicação precisa do PostgreSQL em execução, inclusive no treino do CDS, que
+sobe o contexto (migrações e validação do esquema) e sai logo em seguida. Os
+modos são iniciados alternadamente, --rodadas vezes cada, e o resultado é a
+mediana; as primeiras rodadas (--aquecimento) são descartadas. O tempo é medido
+do início do processo até /actuator/health responder UP; a memória (RSS) é
+lida nesse momento, antes de qualquer requisição à API.
+"""
+import argparse
+import json
+import os
+import re
+import statistics
+import subprocess
+import sys
+import tempfile
+import time
+import urllib.error
+import urllib.request
+
+# --- Configurações ---
+PACIENTES_API_URL = "http://localhost:8080"
+ARQUIVO_CDS = "aplicacao.jsa"
+
+
+def print_step(message):
+    print(f"\n{'='*50}")
+    print(f"STEP: {message}")
+    print(f"{'='*50}")
+
+
+def saude():
+    try:
+        with urllib.request.urlopen(f"{PACIENTES_API_URL}/actuator/health", timeout=1) as response:
+            return json.loads(response.read().decode('utf-8')).get("status")
+    except (urllib.error.URLError, OSError, ValueError):
+        return None
+
+
+def memoria_residente_mb(pid):
+    saida = subprocess.run(["ps", "-o", "rss=", "-p", str(pid)], capture_output=True, text=True).stdout
+    return round(int(saida.strip()) / 1024, 1)
+
+
+def java(args):
+    if args.java:
+        return args.java
+    java_home = os.environ.get("JAVA_HOME")
+    return os.path.join(java_home, "bin", "java") if java_home else "java"
+
+
+def preparar_cds(args):
+    """Extrai o jar e gera o arquivo de CDS com uma execução de treino."""
+    print_step(f"Extraindo o jar em {args.diretorio}")
+    subprocess.run([java(args), "-Djarmode=tools", "-jar", args.jar, "extract",
+                    "--destination", args.diretorio, "--force"], check=True, stdout=subprocess.DEVNULL)
+    jar_extraido = os.path.join(args.diretorio, os.path.basename(args.jar))
+
+    print_step("Execução de treino do CDS")
+    arquivo = os.path.join(args.diretorio, ARQUIVO_CDS)
+    subprocess.run([java(args), f"-XX:ArchiveClassesAtExit={arquivo}", "-Dspring.aot.enabled=true",
+                    "-Dspring.context.exit=onRefresh", "-jar", jar_extraido],
+                   check=True, stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    return [java(args), f"-XX:SharedArchiveFile={arquivo}", "-Dspring.aot.enabled=true", "-jar", jar_extraido]
+
+
+def iniciar_uma_vez(comando, limite_segundos):
+    with tempfile.TemporaryFile(mode="w+") as log:
+        inicio = time.perf_counter()
+        processo = subprocess.Popen(comando, stdout=log, stderr=subprocess.STDOUT)
+        try:
+            while saude() != "UP":
+                if processo.poll() is not None:
+                    log.seek(0)
+                    print(log.read()[-2000:])
+                    print("A aplicação terminou antes de ficar pronta.")
+                    sys.exit(1)
+                if time.perf_counter() - inicio > limite_segundos:
+                    print("A aplicação não ficou pronta a tempo.")
+                    sys.exit(1)
+                time.sleep(0.05)
+            pronta_s = time.perf_counter() - inicio
+            rss_mb = memoria_residente_mb(processo.pid)
+        finally:
+            processo.terminate()
+            processo.wait(timeout=30)
+        log.seek(0)
+        # "Started PacientesApiApplication in 2.1 seconds (process running for 2.4)"
+        iniciada = re.search(r"Started \S+ in ([\d.]+) seconds", log.read())
+    return pronta_s, float(iniciada.group(1)) if iniciada else None, rss_mb
+
+
+def medir(modos, args):
+    """Inicia os modos alternadamente, rodada a rodada, para que variações da
+    máquina ao longo da medição (cache de disco, outros processos) não caiam
+    todas sobre um modo só. A rodada de aquecimento não entra na mediana."""
+    amostras = {nome: {"prontas": [], "spring": [], "rss": []} for nome in modos}
+    for rodada in range(args.aquecimento + args.rodadas):
+        aquecimento = rodada < args.aquecimento
+        print_step(f"Rodada {rodada + 1}" + (" (aquecimento)" if aquecimento else ""))
+        for nome, comando in modos.items():
+            pronta_s, spring_s, rss_mb = iniciar_uma_vez(comando, args.limite)
+            print(f"  {nome}: pronta em {pronta_s:.2f}s, {rss_mb} MB")
+            if aquecimento:
+                continue
+            amostras[nome]["prontas"].append(pronta_s)
+            amostras[nome]["rss"].append(rss_mb)
+            if spring_s is not None:
+                amostras[nome]["spring"].append(spring_s)
+    return {
+        nome: {
+            "pronta_s": round(statistics.median(a["prontas"]), 2),
+            "spring_s": round(statistics.median(a["spring"]), 2) if a["spring"] else None,
+            "rss_mb": round(statistics.median(a["rss"]), 1),
+        }
+        for nome, a in amostras.items()
+    }
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--jar", required=True, help="jar executável gerado com -Paot")
+    parser.add_argument("--jar-comum", help="jar executável gerado sem perfis, base da comparação (padrão: --jar)")
+    parser.add_argument("--nativo", help="executável gerado com -Pnative native:compile")
+    parser.add_argument("--java", help="executável java (padrão: o de JAVA_HOME)")
+    parser.add_argument("--rodadas", type=int, default=5)
+    parser.add_argument("--aquecimento", type=int, default=1, help="rodadas iniciais descartadas")
+    parser.add_argument("--limite", type=int, default=120, help="segundos de espera por inicialização")
+    parser.add_argument("--diretorio", default="target/cds", help="onde extrair o jar e gravar o arquivo de CDS")
+    parser.add_argument("--saida", help="grava os resultados em JSON neste arquivo")
+    args = parser.parse_args()
+
+    if saude() is not None:
+        print(f"Já há uma aplicação em {PACIENTES_API_URL}; encerre-a antes de medir.")
+        sys.exit(1)
+
+    print(">>> Benchmark: inicialização e memória <<<")
+    modos = {
+        "jar": [java(args), "-jar", args.jar_comum or args.jar],
+        "aot": [java(args), "-Dspring.aot.enabled=true", "-jar", args.jar],
+        "cds+aot": preparar_cds(args),
+    }
+    if args.nativo:
+        modos["nativo"] = [args.nativo]
+
+    resultados = medir(modos, args)
+
+    print_step("Resultados (medianas)")
+    base = resultados["jar"]["pronta_s"]
+    print(f"{'modo':<10}{'pronta s':>10}{'spring s':>10}{'RSS MB':>10}{'x jar':>8}")
+    for nome, r in resultados.items():
+        spring = r['spring_s'] if r['spring_s'] is not None else '-'
+        print(f"{nome:<10}{r['pronta_s']:>10}{spring:>10}{r['rss_mb']:>10}{base / r['pronta_s']:>8.1f}")
+
+    if args.saida:
+        with open(args.saida, "w") as arquivo:
+            json.dump({"rodadas": args.rodadas, "resultados": resultados}, arquivo, indent=2)
+        print(f"\nResultados gravados em {args.saida}")
+
+
+if __name__ == "__main__":
+    main()
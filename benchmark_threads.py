@@ -0,0 +1,186 @@
+"""
+Benchmark de vazão e latência: threads virtuais x threads de plataforma.
+
+Sobe a aplicação (o jar gerado por `./mvnw package`) uma vez em cada modo de
+execução, dispara requisições com concorrência fixa durante um tempo fixo e
+compara vazão (req/s) e latências p50/p99 entre os dois modos.
+
+Uso:
+    ./mvnw -DskipTests package
+    python3 benchmark_threads.py --jar target/pacientes-api-0.0.1-SNAPSHOT-exec.jar
+
+Se a aplicação já estiver rodando, use --sem-jar para medir apenas o modo atual.
+O token é obtido no Auth Service, como em test_integracao.py, ou passado em --token.
+"""
+import argparse
+import json
+import os
+import subprocess
+import sys
+import threading
+import time
+import urllib.error
+import urllib.request
+
+# --- Configurações ---
+AUTH_SERVICE_URL = "http://localhost:9000"
+PACIENTES_API_URL = "http://localhost:8080"
+USERNAME = "usuario_teste_integracao"
+PASSWORD = "senha_secreta_123"
+CAMINHOS_PADRAO = ["/api/pacientes?limite=50", "/api/consultas"]
+
+
+def print_step(message):
+    print(f"\n{'='*50}")
+    print(f"STEP: {message}")
+    print(f"{'='*50}")
+
+
+def make_request(url, method="GET", data=None, headers=None, timeout=30):
+    if headers is None:
+        headers = {}
+
+    if data:
+        json_data = json.dumps(data).encode('utf-8')
+        headers["Content-Type"] = "application/json"
+    else:
+        json_data = None
+
+    req = urllib.request.Request(url, data=json_data, headers=headers, method=method)
+
+    try:
+        with urllib.request.urlopen(req, timeout=timeout) as response:
+            return response.getcode(), response.read().decode('utf-8')
+    except urllib.error.HTTPError as e:
+        return e.code, e.read().decode('utf-8')
+    except Exception as e:
+        return 0, str(e)
+
+
+def obter_token():
+    payload = {"username": USERNAME, "password": PASSWORD}
+    make_request(f"{AUTH_SERVICE_URL}/api/auth/registrar", "POST", payload)
+    status, body = make_request(f"{AUTH_SERVICE_URL}/api/auth/login", "POST", payload)
+    if status != 200:
+        print(f"Falha no login. Status: {status} | Body: {body}")
+        sys.exit(1)
+    return json.loads(body)["access_token"]
+
+
+def aguardar_aplicacao(headers, limite_segundos=90):
+    inicio = time.time()
+    while time.time() - inicio < limite_segundos:
+        status, _ = make_request(f"{PACIENTES_API_URL}{CAMINHOS_PADRAO[0]}", headers=headers, timeout=2)
+        if status == 200:
+            return
+        time.sleep(1)
+    print("A aplicação não respondeu a tempo.")
+    sys.exit(1)
+
+
+def percentil(valores_ordenados, p):
+    if not valores_ordenados:
+        return 0.0
+    indice = min(len(valores_ordenados) - 1, int(round(p / 100.0 * (len(valores_ordenados) - 1))))
+    return valores_ordenados[indice]
+
+
+def medir(caminhos, headers, concorrencia, duracao, aquecimento):
+    """Roda `concorrencia` clientes em laço fechado; só conta o que termina após o aquecimento."""
+    latencias = []
+    erros = {}
+    trava = threading.Lock()
+    inicio_medicao = time.time() + aquecimento
+    fim = inicio_medicao + duracao
+
+    def cliente(numero):
+        i = numero
+        while True:
+            agora = time.time()
+            if agora >= fim:
+                return
+            caminho = caminhos[i % len(caminhos)]
+            i += 1
+            comeco = time.perf_counter()
+            status, _ = make_request(f"{PACIENTES_API_URL}{caminho}", headers=headers)
+            decorrido_ms = (time.perf_counter() - comeco) * 1000
+            if time.time() < inicio_medicao:
+                continue
+            with trava:
+                if status == 200:
+                    latencias.append(decorrido_ms)
+                else:
+                    erros[status] = erros.get(status, 0) + 1
+
+    threads = [threading.Thread(target=cliente, args=(n,)) for n in range(concorrencia)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+
+    latencias.sort()
+    return {
+        "requisicoes": len(latencias),
+        "vazao_rps": round(len(latencias) / duracao, 1),
+        "p50_ms": round(percentil(latencias, 50), 1),
+        "p99_ms": round(percentil(latencias, 99), 1),
+        "max_ms": round(latencias[-1], 1) if latencias else 0.0,
+        "erros": erros,
+    }
+
+
+def rodar_modo(jar, virtuais, args, headers):
+    # Um único token a dezenas de requisições simultâneas seria barrado pelos
+    # limites de carga, que não são o que se mede aqui.
+    ambiente = dict(os.environ, CONSULTORIO_THREADS_VIRTUAIS=str(virtuais).lower(), CONSULTORIO_LIMITES="false")
+    processo = subprocess.Popen(["java", "-jar", jar], env=ambiente,
+                                stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    try:
+        aguardar_aplicacao(headers)
+        return medir(args.caminhos, headers, args.concorrencia, args.duracao, args.aquecimento)
+    finally:
+        processo.terminate()
+        processo.wait(timeout=30)
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--jar", help="jar executável da aplicação")
+    parser.add_argument("--sem-jar", action="store_true", help="mede a aplicação já em execução")
+    parser.add_argument("--token", help="token de acesso (se omitido, é obtido no Auth Service)")
+    parser.add_argument("--concorrencia", type=int, default=64)
+    parser.add_argument("--duracao", type=int, default=30, help="segundos medidos")
+    parser.add_argument("--aquecimento", type=int, default=10, help="segundos descartados")
+    parser.add_argument("--caminhos", nargs="+", default=CAMINHOS_PADRAO)
+    parser.add_argument("--saida", help="grava os resultados em JSON neste arquivo")
+    args = parser.parse_args()
+
+    if not args.jar and not args.sem_jar:
+        parser.error("informe --jar ou --sem-jar")
+
+    print(">>> Benchmark: threads virtuais x threads de plataforma <<<")
+    headers = {"Authorization": f"Bearer {args.token or obter_token()}"}
+
+    resultados = {}
+    if args.sem_jar:
+        print_step(f"Medindo a aplicação em execução ({args.concorrencia} clientes, {args.duracao}s)")
+        resultados["atual"] = medir(args.caminhos, headers, args.concorrencia, args.duracao, args.aquecimento)
+    else:
+        for nome, virtuais in (("plataforma", False), ("virtuais", True)):
+            print_step(f"Modo {nome}: {args.concorrencia} clientes, {args.duracao}s")
+            resultados[nome] = rodar_modo(args.jar, virtuais, args, headers)
+
+    print_step("Resultados")
+    print(f"{'modo':<12}{'req/s':>10}{'p50 ms':>10}{'p99 ms':>10}{'max ms':>10}  erros")
+    for nome, r in resultados.items():
+        print(f"{nome:<12}{r['vazao_rps']:>10}{r['p50_ms']:>10}{r['p99_ms']:>10}{r['max_ms']:>10}  {r['erros'] or '-'}")
+
+    if args.saida:
+        with open(args.saida, "w") as arquivo:
+            json.dump({"concorrencia": args.concorrencia, "duracao": args.duracao,
+                       "caminhos": args.caminhos, "resultados": resultados}, arquivo, indent=2)
+        print(f"\nResultados gravados em {args.saida}")
+
+
+if __name__ == "__main__":
+    main()
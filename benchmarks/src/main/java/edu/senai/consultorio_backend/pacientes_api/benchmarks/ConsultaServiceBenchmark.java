@@ -0,0 +1,165 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.EventoConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
+import edu.senai.consultorio_backend.pacientes_api.service.AlteracoesDaAgenda;
+import edu.senai.consultorio_backend.pacientes_api.service.ConsultaService;
+import edu.senai.consultorio_backend.pacientes_api.service.IndiceAgenda;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the {@link ConsultaService} methods on top of in-memory
+ * repositories and a real {@link IndiceAgenda}.
+ * Bookings walk through consecutive free slots, spread over the dentists, so
+ * every booking succeeds; when the slots run out the agenda and the stored
+ * appointments are reset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsultaServiceBenchmark {
+
+    private static final int QUANTIDADE_DE_PACIENTES = 1_000;
+    private static final int QUANTIDADE_DE_DENTISTAS = 10;
+    private static final int HORARIOS_POR_DENTISTA = 2_000;
+    private static final int TAMANHO_DO_LOTE = 50;
+
+    private ConsultaService consultaService;
+    private IndiceAgenda indiceAgenda;
+    private RepositorioEmMemoria<Consulta, UUID> consultas;
+    private RepositorioEmMemoria<EventoConsulta, Long> eventos;
+    private List<Paciente> pacientes;
+    private List<Dentista> dentistas;
+    private LocalDateTime primeiroHorario;
+    private LocalDateTime diaConsultado;
+    private UUID consultaExistente;
+    private int proximoHorario;
+
+    @Setup
+    public void preparar() {
+        pacientes = DadosDeExemplo.pacientes(QUANTIDADE_DE_PACIENTES);
+        dentistas = DadosDeExemplo.dentistas(QUANTIDADE_DE_DENTISTAS);
+        primeiroHorario = LocalDate.now().plusDays(1).atStartOfDay();
+        diaConsultado = primeiroHorario.withHour(15);
+
+        RepositorioEmMemoria<Paciente, UUID> repositorioDePacientes =
+                new RepositorioEmMemoria<>(Paciente::getId, Paciente::setId, UUID::randomUUID);
+        pacientes.forEach(repositorioDePacientes::salvar);
+        RepositorioEmMemoria<Dentista, UUID> repositorioDeDentistas =
+                new RepositorioEmMemoria<>(Dentista::getId, Dentista::setId, UUID::randomUUID);
+        dentistas.forEach(repositorioDeDentistas::salvar);
+
+        // A dentist's day as returned by the agenda query; the service only
+        // computes the day window and hands the list back.
+        List<ConsultaView> agendaDoDia = new ArrayList<>();
+        Dentista dentista = dentistas.get(0);
+        for (int i = 0; i < 16; i++) {
+            Paciente paciente = pacientes.get(i);
+            agendaDoDia.add(new ConsultaView(UUID.randomUUID(), diaConsultado.withHour(8).plusMinutes(30L * i),
+                    30, paciente.getId(), paciente.getNome(), paciente.getTelefoneWhatsapp(),
+                    dentista.getId(), dentista.getNome(), dentista.getEspecialidade()));
+        }
+        consultaExistente = agendaDoDia.get(0).getId();
+
+        consultas = new RepositorioEmMemoria<Consulta, UUID>(Consulta::getId, Consulta::setId, UUID::randomUUID)
+                .consulta("listarVisoesPorDentistaEPeriodo", args -> agendaDoDia)
+                .consulta("buscarVisaoPorId", args -> agendaDoDia.stream()
+                        .filter(visao -> visao.getId().equals(args[0])).findFirst())
+                .consulta("buscarIntervalos", args -> Collections.emptyList());
+        ConsultaRepository consultaRepository = consultas.como(ConsultaRepository.class);
+
+        // The outbox keeps every event, keyed by its own ID as the sequence
+        // assigns it; it is emptied together with the appointments.
+        AtomicLong sequenciaDeEventos = new AtomicLong();
+        eventos = new RepositorioEmMemoria<>(EventoConsulta::getId, EventoConsulta::setId,
+                sequenciaDeEventos::incrementAndGet);
+
+        indiceAgenda = new IndiceAgenda(consultaRepository);
+        consultaService = new ConsultaService(consultaRepository, repositorioDePacientes.como(PacienteRepository.class),
+                repositorioDeDentistas.como(DentistaRepository.class), indiceAgenda,
+                eventos.como(EventoConsultaRepository.class), new AlteracoesDaAgenda(new SimpleMeterRegistry(), 1000));
+    }
+
+    /**
+     * The start of the next free slot; each dentist gets every tenth slot, and
+     * consecutive slots of one dentist are 30 minutes apart.
+     */
+    private AgendamentoRequest proximoAgendamento() {
+        if (proximoHorario == QUANTIDADE_DE_DENTISTAS * HORARIOS_POR_DENTISTA) {
+            proximoHorario = 0;
+            indiceAgenda.invalidar();
+            consultas.limpar();
+            eventos.limpar();
+        }
+        int horario = proximoHorario++;
+        AgendamentoRequest agendamento = new AgendamentoRequest();
+        agendamento.setPacienteId(pacientes.get(horario % QUANTIDADE_DE_PACIENTES).getId());
+        agendamento.setDentistaId(dentistas.get(horario % QUANTIDADE_DE_DENTISTAS).getId());
+        agendamento.setDataHora(primeiroHorario.plusMinutes(30L * (horario / QUANTIDADE_DE_DENTISTAS)));
+        agendamento.setDuracaoMinutos(30);
+        return agendamento;
+    }
+
+    @Benchmark
+    public Consulta agendar() {
+        AgendamentoRequest agendamento = proximoAgendamento();
+        return consultaService.agendar(agendamento.getPacienteId(), agendamento.getDentistaId(),
+                agendamento.getDataHora(), agendamento.getDuracaoMinutos());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<ResultadoAgendamento> agendarEmLote() {
+        List<AgendamentoRequest> lote = new ArrayList<>(TAMANHO_DO_LOTE);
+        for (int i = 0; i < TAMANHO_DO_LOTE; i++) {
+            lote.add(proximoAgendamento());
+        }
+        return consultaService.agendarEmLote(lote);
+    }
+
+    @Benchmark
+    public ConsultaView buscarPorId() {
+        return consultaService.buscarPorId(consultaExistente);
+    }
+
+    /**
+     * The day-window calculation of the daily agenda: the repository answers
+     * from memory with a fixed list, so what is left is turning the requested
+     * date and time into the bounds of its day.
+     */
+    @Benchmark
+    public List<ConsultaView> buscarConsultasDoDiaPorDentista() {
+        return consultaService.buscarConsultasDoDiaPorDentista(dentistas.get(0).getId(), diaConsultado);
+    }
+}
@@ -0,0 +1,56 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic sample data shared by the benchmarks.
+ */
+final class DadosDeExemplo {
+
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela",
+            "Henrique", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira",
+            "Costa", "Rodrigues", "Almeida", "Nascimento", "Carvalho", "Araújo"};
+    private static final String[] ESPECIALIDADES = {"Ortodontia", "Endodontia", "Periodontia", "Implantodontia"};
+
+    private DadosDeExemplo() {
+    }
+
+    static Paciente paciente(int numero) {
+        Random aleatorio = new Random(numero);
+        String nome = NOMES[aleatorio.nextInt(NOMES.length)] + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+        return new Paciente(new UUID(0, numero + 1L), nome,
+                String.format("%011d", 10_000_000_000L + numero),
+                "paciente" + numero + "@exemplo.com.br",
+                String.format("119%08d", numero),
+                LocalDate.of(1960, 1, 1).plusDays(aleatorio.nextInt(20_000)),
+                LocalDate.of(2025, 1, 1).plusDays(aleatorio.nextInt(250)),
+                "Limpeza",
+                LocalDate.of(2025, 6, 1).plusDays(aleatorio.nextInt(90)));
+    }
+
+    static List<Paciente> pacientes(int quantidade) {
+        List<Paciente> pacientes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            pacientes.add(paciente(i));
+        }
+        return pacientes;
+    }
+
+    static List<Dentista> dentistas(int quantidade) {
+        List<Dentista> dentistas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            dentistas.add(new Dentista(new UUID(1, i + 1L), "Dr(a). " + NOMES[i % NOMES.length] + " "
+                    + SOBRENOMES[i % SOBRENOMES.length], ESPECIALIDADES[i % ESPECIALIDADES.length]));
+        }
+        return dentistas;
+    }
+}
@@ -0,0 +1,61 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Accepts the usual JMH command line options, but writes the results as JSON
+ * by default, to "jmh-pacientes-api-&lt;version&gt;.json", so that the results of
+ * different releases can be kept side by side and compared.
+ */
+public final class ExecutarBenchmarks {
+
+    private ExecutarBenchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks selected on the command line (all of them by default).
+     * @param args The JMH command line options.
+     * @throws Exception if the options are invalid or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp()) {
+            linhaDeComando.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linhaDeComando.getResult().hasValue()) {
+            opcoes.result("jmh-pacientes-api-" + versaoDaAplicacao() + ".json");
+        }
+
+        Runner runner = new Runner(opcoes.build());
+        if (linhaDeComando.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+
+    private static String versaoDaAplicacao() throws IOException {
+        Properties propriedades = new Properties();
+        try (InputStream entrada = ExecutarBenchmarks.class.getResourceAsStream("/benchmarks.properties")) {
+            if (entrada != null) {
+                propriedades.load(entrada);
+            }
+        }
+        return propriedades.getProperty("versao", "desconhecida");
+    }
+}
@@ -0,0 +1,151 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import edu.senai.consultorio_backend.pacientes_api.config.FormatosDeRespostaConfig;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the response formats of the list endpoints: plain JSON with
+ * reflection-based serializers (the previous setup), JSON with Blackbird, CBOR
+ * and Smile, built the way FormatosDeRespostaConfig builds them. The payloads
+ * are a page of the patient listing and a week of agenda for ten dentists.
+ *
+ * The payload sizes, raw and gzipped, are printed once per format in the
+ * setup; the benchmarks measure the CPU time to write (and read) them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatosDeRespostaBenchmark {
+
+    /**
+     * The format: "json-reflexao" is the baseline, without Blackbird.
+     */
+    @Param({"json-reflexao", "json", "cbor", "smile"})
+    public String formato;
+
+    private ObjectWriter escritorPagina;
+    private ObjectWriter escritorAgenda;
+    private ObjectReader leitorPagina;
+
+    private List<Paciente> pagina;
+    private List<ConsultaView> agenda;
+    private byte[] paginaSerializada;
+
+    @Setup
+    public void preparar() throws Exception {
+        ObjectMapper mapper = criarMapper(formato);
+        escritorPagina = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Paciente.class));
+        escritorAgenda = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ConsultaView.class));
+        leitorPagina = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Paciente.class));
+
+        pagina = DadosDeExemplo.pacientes(50);
+        agenda = agendaDaSemana(DadosDeExemplo.dentistas(10), DadosDeExemplo.pacientes(200));
+        paginaSerializada = escritorPagina.writeValueAsBytes(pagina);
+
+        byte[] agendaSerializada = escritorAgenda.writeValueAsBytes(agenda);
+        System.out.printf("%n%s: página de %d pacientes = %d bytes (%d com gzip); agenda de %d consultas = %d bytes (%d com gzip)%n",
+                formato, pagina.size(), paginaSerializada.length, gzip(paginaSerializada).length,
+                agenda.size(), agendaSerializada.length, gzip(agendaSerializada).length);
+    }
+
+    private static ObjectMapper criarMapper(String formato) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!formato.equals("json-reflexao")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        FormatosDeRespostaConfig config = new FormatosDeRespostaConfig();
+        return switch (formato) {
+            case "json-reflexao", "json" -> builder.build();
+            case "cbor" -> config.conversorCbor(builder).getObjectMapper();
+            case "smile" -> config.conversorSmile(builder).getObjectMapper();
+            default -> throw new IllegalArgumentException("Formato desconhecido: " + formato);
+        };
+    }
+
+    /**
+     * Five days of 8 appointments for each dentist, as returned by the agenda endpoint.
+     */
+    private static List<ConsultaView> agendaDaSemana(List<Dentista> dentistas, List<Paciente> pacientes) {
+        List<ConsultaView> agenda = new ArrayList<>();
+        LocalDateTime segunda = LocalDateTime.of(2025, 9, 8, 8, 0);
+        for (Dentista dentista : dentistas) {
+            for (int dia = 0; dia < 5; dia++) {
+                for (int horario = 0; horario < 8; horario++) {
+                    Paciente paciente = pacientes.get(agenda.size() % pacientes.size());
+                    agenda.add(new ConsultaView(new UUID(2, agenda.size() + 1L), segunda.plusDays(dia).plusHours(horario), 45,
+                            paciente.getId(), paciente.getNome(), paciente.getTelefoneWhatsapp(),
+                            dentista.getId(), dentista.getNome(), dentista.getEspecialidade()));
+                }
+            }
+        }
+        return agenda;
+    }
+
+    private static byte[] gzip(byte[] conteudo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(conteudo.length / 4);
+        try (GZIPOutputStream compactada = new GZIPOutputStream(saida)) {
+            compactada.write(conteudo);
+        }
+        return saida.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaDePacientes() throws Exception {
+        return escritorPagina.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public List<Paciente> desserializarPaginaDePacientes() throws Exception {
+        return leitorPagina.readValue(paginaSerializada);
+    }
+
+    @Benchmark
+    public byte[] serializarAgenda() throws Exception {
+        return escritorAgenda.writeValueAsBytes(agenda);
+    }
+
+    /**
+     * The agenda as sent to a client that accepts gzip: serialization plus
+     * the compression done by Tomcat.
+     */
+    @Benchmark
+    public byte[] serializarAgendaComGzip() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream compactada = new GZIPOutputStream(saida)) {
+            escritorAgenda.writeValue(compactada, agenda);
+        }
+        return saida.toByteArray();
+    }
+}
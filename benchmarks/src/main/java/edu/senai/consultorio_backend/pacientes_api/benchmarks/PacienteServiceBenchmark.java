@@ -0,0 +1,125 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
+import edu.senai.consultorio_backend.pacientes_api.service.AplicadorMergePatch;
+import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link PacienteService} methods on top of an in-memory
+ * repository, so the numbers show the cost of the service itself (cursor
+ * encoding, paging, copying fields) without the database round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacienteServiceBenchmark {
+
+    private static final Comparator<Paciente> ORDEM_DA_LISTAGEM =
+            Comparator.comparing(Paciente::getNome).thenComparing(Paciente::getId);
+
+    @Param("10000")
+    private int quantidadeDePacientes;
+
+    private PacienteService pacienteService;
+    private List<Paciente> ordenados;
+    private UUID idExistente;
+    private Paciente alteracoes;
+    private String cursorDoMeio;
+
+    @Setup
+    public void preparar() {
+        RepositorioEmMemoria<Paciente, UUID> repositorio =
+                new RepositorioEmMemoria<>(Paciente::getId, Paciente::setId, UUID::randomUUID);
+        ordenados = new ArrayList<>(DadosDeExemplo.pacientes(quantidadeDePacientes));
+        ordenados.forEach(repositorio::salvar);
+        ordenados.sort(ORDEM_DA_LISTAGEM);
+
+        repositorio
+                .consulta("buscarPrimeiraPagina", args -> primeiros(0, (Pageable) args[0]))
+                .consulta("buscarPaginaApos", args -> {
+                    Paciente posicao = new Paciente();
+                    posicao.setNome((String) args[0]);
+                    posicao.setId((UUID) args[1]);
+                    int encontrado = Collections.binarySearch(ordenados, posicao, ORDEM_DA_LISTAGEM);
+                    int inicio = encontrado >= 0 ? encontrado + 1 : -encontrado - 1;
+                    return primeiros(inicio, (Pageable) args[2]);
+                })
+                .consulta("transmitirTodos", args -> ordenados.stream());
+
+        EntityManager entityManager = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, metodo, args) -> null);
+        pacienteService = new PacienteService(repositorio.como(PacienteRepository.class), entityManager,
+                new AplicadorMergePatch(new ObjectMapper()));
+
+        idExistente = ordenados.get(quantidadeDePacientes / 2).getId();
+        alteracoes = DadosDeExemplo.paciente(quantidadeDePacientes + 1);
+
+        String cursor = null;
+        for (int pagina = 0; pagina < quantidadeDePacientes / 2 / PacienteService.TAMANHO_PAGINA_PADRAO; pagina++) {
+            cursor = pacienteService.listarPagina(cursor, null).getProximoCursor();
+        }
+        cursorDoMeio = cursor;
+    }
+
+    private List<Paciente> primeiros(int inicio, Pageable pagina) {
+        return ordenados.subList(Math.min(inicio, ordenados.size()),
+                Math.min(inicio + pagina.getPageSize(), ordenados.size()));
+    }
+
+    @Benchmark
+    public PaginaCursor<Paciente> listarPrimeiraPagina() {
+        return pacienteService.listarPagina(null, null);
+    }
+
+    /**
+     * A page in the middle of the listing: decodes the cursor and seeks to it.
+     */
+    @Benchmark
+    public PaginaCursor<Paciente> listarPaginaComCursor() {
+        return pacienteService.listarPagina(cursorDoMeio, null);
+    }
+
+    @Benchmark
+    public Paciente buscarPorId() {
+        return pacienteService.buscarPorId(idExistente);
+    }
+
+    @Benchmark
+    public Paciente atualizar() {
+        return pacienteService.atualizar(idExistente, alteracoes);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void percorrerTodos(Blackhole blackhole) {
+        pacienteService.percorrerTodos(blackhole::consume);
+    }
+}
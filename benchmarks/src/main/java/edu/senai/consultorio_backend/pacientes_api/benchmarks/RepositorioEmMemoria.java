@@ -0,0 +1,133 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stand-in for a Spring Data repository interface.
+ * The CRUD methods the services use are backed by a hash map keyed by ID;
+ * custom query methods are answered by the functions registered with
+ * {@link #consulta(String, Function)}. Any other method throws, so a benchmark
+ * never silently measures a method the stand-in does not implement.
+ *
+ * @param <T> The entity type.
+ * @param <K> The type of the entity's ID.
+ */
+final class RepositorioEmMemoria<T, K> implements InvocationHandler {
+
+    private final Map<K, T> entidades = new ConcurrentHashMap<>();
+    private final Map<String, Function<Object[], Object>> consultas = new HashMap<>();
+    private final Function<T, K> id;
+    private final BiConsumer<T, K> atribuirId;
+    private final Supplier<K> novoId;
+
+    RepositorioEmMemoria(Function<T, K> id, BiConsumer<T, K> atribuirId, Supplier<K> novoId) {
+        this.id = id;
+        this.atribuirId = atribuirId;
+        this.novoId = novoId;
+    }
+
+    /**
+     * Registers the answer to a custom query method, by name.
+     */
+    RepositorioEmMemoria<T, K> consulta(String metodo, Function<Object[], Object> resposta) {
+        consultas.put(metodo, resposta);
+        return this;
+    }
+
+    /**
+     * Stores an entity, assigning it an ID if it has none.
+     */
+    T salvar(T entidade) {
+        if (id.apply(entidade) == null) {
+            atribuirId.accept(entidade, novoId.get());
+        }
+        entidades.put(id.apply(entidade), entidade);
+        return entidade;
+    }
+
+    /**
+     * Removes every stored entity.
+     */
+    void limpar() {
+        entidades.clear();
+    }
+
+    /**
+     * Creates the proxy that implements the repository interface.
+     */
+    <R> R como(Class<R> repositorio) {
+        return repositorio.cast(Proxy.newProxyInstance(repositorio.getClassLoader(), new Class<?>[]{repositorio}, this));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+        Function<Object[], Object> consulta = consultas.get(metodo.getName());
+        if (consulta != null) {
+            return consulta.apply(args);
+        }
+        switch (metodo.getName()) {
+            case "findById":
+                return Optional.ofNullable(entidades.get((K) args[0]));
+            case "existsById":
+                return entidades.containsKey((K) args[0]);
+            case "findAllById": {
+                List<T> encontradas = new ArrayList<>();
+                for (K chave : (Iterable<K>) args[0]) {
+                    T entidade = entidades.get(chave);
+                    if (entidade != null) {
+                        encontradas.add(entidade);
+                    }
+                }
+                return encontradas;
+            }
+            case "findAll":
+                return new ArrayList<>(entidades.values());
+            case "count":
+                return (long) entidades.size();
+            case "save":
+                return salvar((T) args[0]);
+            case "saveAll": {
+                List<T> salvas = new ArrayList<>();
+                for (T entidade : (Iterable<T>) args[0]) {
+                    salvas.add(salvar(entidade));
+                }
+                return salvas;
+            }
+            case "deleteById":
+                entidades.remove((K) args[0]);
+                return null;
+            case "delete":
+                entidades.remove(id.apply((T) args[0]));
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "RepositorioEmMemoria(" + metodo.getDeclaringClass().getSimpleName() + ")";
+            default:
+                if (metodo.isDefault()) {
+                    try {
+                        return InvocationHandler.invokeDefault(proxy, metodo, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+                throw new UnsupportedOperationException("Método não implementado pelo repositório em memória: "
+                        + metodo.getName());
+        }
+    }
+}
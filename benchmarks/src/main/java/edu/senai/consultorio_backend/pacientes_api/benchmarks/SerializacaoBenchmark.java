@@ -0,0 +1,119 @@
+package edu.senai.consultorio_backend.pacientes_api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON serialization and deserialization of the request and
+ * response bodies of the API, with an ObjectMapper configured the way Spring
+ * Boot configures the one used by the controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoBenchmark {
+
+    private ObjectWriter escritorPaciente;
+    private ObjectWriter escritorConsulta;
+    private ObjectWriter escritorAgendamento;
+    private ObjectWriter escritorPagina;
+    private ObjectReader leitorPaciente;
+    private ObjectReader leitorConsulta;
+    private ObjectReader leitorAgendamento;
+
+    private Paciente paciente;
+    private Consulta consulta;
+    private AgendamentoRequest agendamento;
+    private List<Paciente> pagina;
+    private byte[] pacienteJson;
+    private byte[] consultaJson;
+    private byte[] agendamentoJson;
+
+    @Setup
+    public void preparar() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        escritorPaciente = mapper.writerFor(Paciente.class);
+        escritorConsulta = mapper.writerFor(Consulta.class);
+        escritorAgendamento = mapper.writerFor(AgendamentoRequest.class);
+        escritorPagina = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Paciente.class));
+        leitorPaciente = mapper.readerFor(Paciente.class);
+        leitorConsulta = mapper.readerFor(Consulta.class);
+        leitorAgendamento = mapper.readerFor(AgendamentoRequest.class);
+
+        paciente = DadosDeExemplo.paciente(42);
+        Dentista dentista = DadosDeExemplo.dentistas(1).get(0);
+        consulta = new Consulta(UUID.randomUUID(), paciente, dentista, LocalDateTime.of(2025, 9, 8, 14, 30), 45);
+        agendamento = new AgendamentoRequest();
+        agendamento.setPacienteId(paciente.getId());
+        agendamento.setDentistaId(dentista.getId());
+        agendamento.setDataHora(consulta.getDataHora());
+        agendamento.setDuracaoMinutos(45);
+        pagina = DadosDeExemplo.pacientes(50);
+
+        pacienteJson = escritorPaciente.writeValueAsBytes(paciente);
+        consultaJson = escritorConsulta.writeValueAsBytes(consulta);
+        agendamentoJson = escritorAgendamento.writeValueAsBytes(agendamento);
+    }
+
+    @Benchmark
+    public byte[] serializarPaciente() throws Exception {
+        return escritorPaciente.writeValueAsBytes(paciente);
+    }
+
+    @Benchmark
+    public Paciente desserializarPaciente() throws Exception {
+        return leitorPaciente.readValue(pacienteJson);
+    }
+
+    @Benchmark
+    public byte[] serializarConsulta() throws Exception {
+        return escritorConsulta.writeValueAsBytes(consulta);
+    }
+
+    @Benchmark
+    public Consulta desserializarConsulta() throws Exception {
+        return leitorConsulta.readValue(consultaJson);
+    }
+
+    @Benchmark
+    public byte[] serializarAgendamentoRequest() throws Exception {
+        return escritorAgendamento.writeValueAsBytes(agendamento);
+    }
+
+    @Benchmark
+    public AgendamentoRequest desserializarAgendamentoRequest() throws Exception {
+        return leitorAgendamento.readValue(agendamentoJson);
+    }
+
+    /**
+     * A full page of the patient listing, at the default page size.
+     */
+    @Benchmark
+    public byte[] serializarPaginaDePacientes() throws Exception {
+        return escritorPagina.writeValueAsBytes(pagina);
+    }
+}
@@ -1,13 +1,17 @@
 package edu.senai.consultorio_backend.pacientes_api;
 
+import edu.senai.consultorio_backend.pacientes_api.config.DicasDeImagemNativa;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * The main class for the Pacientes API application.
  * This class is responsible for bootstrapping and launching the Spring Boot application.
+ * The hints in {@link DicasDeImagemNativa} are only read when building a native image.
  */
 @SpringBootApplication
+@ImportRuntimeHints(DicasDeImagemNativa.class)
 public class PacientesApiApplication {
 
 	/**
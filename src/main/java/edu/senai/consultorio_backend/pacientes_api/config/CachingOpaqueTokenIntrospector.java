@@ -0,0 +1,222 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link OpaqueTokenIntrospector} that caches the answers of another introspector.
+ * Every request to "/api/**" would otherwise make a blocking HTTP call to the
+ * authorization server; with this wrapper only the first request carrying a
+ * given token pays for that call.
+ *
+ * <ul>
+ *     <li>The cache is bounded to a maximum number of tokens.</li>
+ *     <li>An active token is kept for the shorter of the configured TTL and the
+ *     time left until its {@code exp} claim, so it never outlives its expiry.</li>
+ *     <li>Concurrent introspections of the same token are merged into a single
+ *     call to the delegate; the other callers wait for its answer. The call is
+ *     made on the caller's thread after the cache entry has been created, never
+ *     inside the cache's own lock, so a virtual thread waiting on the
+ *     authorization server does not pin its carrier thread.</li>
+ *     <li>Inactive tokens are cached too (negative caching), for a separate and
+ *     usually shorter TTL. Failures to reach the authorization server are not
+ *     cached.</li>
+ * </ul>
+ *
+ * As a {@link MeterBinder} it publishes the cache statistics ("cache.*" with
+ * cache="introspeccao"), the rejections of inactive tokens and the duration of
+ * each call to the authorization server ("seguranca.introspeccao", tagged with
+ * its outcome).
+ */
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector, MeterBinder {
+
+    /**
+     * Name of the timer of the calls made to the authorization server.
+     */
+    public static final String METRICA_INTROSPECCAO = "seguranca.introspeccao";
+
+    private final OpaqueTokenIntrospector delegate;
+    private final AsyncCache<String, Resultado> cache;
+    private final LongAdder acertosNegativos = new LongAdder();
+    private volatile MeterRegistry registro;
+
+    /**
+     * Constructs a new CachingOpaqueTokenIntrospector.
+     * @param delegate The introspector that calls the authorization server.
+     * @param ttl The longest time an active token is kept.
+     * @param ttlNegativo The time an inactive token is kept.
+     * @param tamanhoMaximo The maximum number of tokens kept.
+     */
+    public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, Duration ttl,
+                                          Duration ttlNegativo, long tamanhoMaximo) {
+        this(delegate, ttl, ttlNegativo, tamanhoMaximo, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs a new CachingOpaqueTokenIntrospector with explicit time sources, for tests.
+     */
+    CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, Duration ttl, Duration ttlNegativo,
+                                   long tamanhoMaximo, Clock clock, Ticker ticker) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDoToken(ttl, ttlNegativo, clock))
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Introspects the token, answering from the cache when possible.
+     * @param token The opaque token sent by the client.
+     * @return The principal described by the token.
+     * @throws BadOpaqueTokenException if the token is not active.
+     */
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        CompletableFuture<Resultado> carga = new CompletableFuture<>();
+        CompletableFuture<Resultado> emCache = cache.get(token, (chave, executor) -> carga);
+        if (emCache == carga) {
+            introspectarNoServidor(token, carga);
+        }
+
+        Resultado resultado;
+        try {
+            resultado = emCache.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        if (resultado.principal() == null) {
+            acertosNegativos.increment();
+            throw new BadOpaqueTokenException(resultado.erro());
+        }
+        return resultado.principal();
+    }
+
+    /**
+     * Gets the hit, miss and load statistics of the cache.
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats estatisticas() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * Gets how many requests were rejected because their token is cached as inactive.
+     * This includes the first rejection of each token, which reached the server.
+     * @return The number of rejections of inactive tokens.
+     */
+    public long rejeicoesDeTokensInativos() {
+        return acertosNegativos.sum();
+    }
+
+    /**
+     * Gets the number of tokens currently cached.
+     * @return The approximate number of cached tokens.
+     */
+    public long tamanho() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Registers the metrics of the cache and of the calls to the authorization server.
+     * @param registry The registry the meters are added to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "introspeccao");
+        FunctionCounter.builder(METRICA_INTROSPECCAO + ".rejeicoes", this,
+                        CachingOpaqueTokenIntrospector::rejeicoesDeTokensInativos)
+                .description("Requests rejected because their token is inactive")
+                .register(registry);
+        this.registro = registry;
+    }
+
+    /**
+     * Calls the delegate and completes the pending cache entry with its answer.
+     * A failure other than an inactive token completes the entry exceptionally,
+     * which removes it from the cache so that the next request tries again.
+     */
+    private void introspectarNoServidor(String token, CompletableFuture<Resultado> carga) {
+        MeterRegistry registro = this.registro;
+        Timer.Sample amostra = registro == null ? null : Timer.start(registro);
+        String desfecho = "ativo";
+        try {
+            carga.complete(new Resultado(delegate.introspect(token), null));
+        } catch (BadOpaqueTokenException e) {
+            desfecho = "inativo";
+            carga.complete(new Resultado(null, e.getMessage()));
+        } catch (Throwable e) {
+            desfecho = "erro";
+            carga.completeExceptionally(e);
+        } finally {
+            if (amostra != null) {
+                amostra.stop(Timer.builder(METRICA_INTROSPECCAO)
+                        .description("Calls to the token introspection endpoint of the authorization server")
+                        .tag("desfecho", desfecho)
+                        .register(registro));
+            }
+        }
+    }
+
+    /**
+     * The cached answer for one token: either the principal of an active token
+     * or the reason an inactive token was rejected.
+     */
+    private record Resultado(OAuth2AuthenticatedPrincipal principal, String erro) {
+    }
+
+    /**
+     * Computes how long each answer may stay in the cache.
+     */
+    private record ExpiracaoDoToken(Duration ttl, Duration ttlNegativo, Clock clock) implements Expiry<String, Resultado> {
+
+        @Override
+        public long expireAfterCreate(String token, Resultado resultado, long currentTime) {
+            if (resultado.principal() == null) {
+                return ttlNegativo.toNanos();
+            }
+            Duration validade = ttl;
+            Object exp = resultado.principal().getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
+            if (exp instanceof Instant expiraEm) {
+                Duration restante = Duration.between(clock.instant(), expiraEm);
+                if (restante.compareTo(validade) < 0) {
+                    validade = restante.isNegative() ? Duration.ZERO : restante;
+                }
+            }
+            return validade.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Resultado resultado, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, resultado, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Resultado resultado, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendaDentista;
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.AlteracaoAgenda;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.DisponibilidadeDentista;
+import edu.senai.consultorio_backend.pacientes_api.dto.FaixaRecall;
+import edu.senai.consultorio_backend.pacientes_api.dto.ImportacaoPacientes;
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.dto.RejeicaoImportacao;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * What a native image needs to know at build time about what the application
+ * reaches only through reflection, proxies or class path resources. Spring's
+ * AOT processing finds most of it on its own (beans, repositories, the bodies
+ * of most controller methods); these are the rest:
+ *
+ * <ul>
+ *     <li>The entities and DTOs, for Jackson and Hibernate. Several reach
+ *     Jackson through an untyped path (ResponseEntity&lt;?&gt;, the stored
+ *     Idempotency-Key responses, server-sent events, the exports) where AOT
+ *     cannot see their type.</li>
+ *     <li>The Hibernate session listener, created from its class name in
+ *     "hibernate.session.events.auto".</li>
+ *     <li>The JDK proxy of the connections handed out before the routing to
+ *     the read replica picks a database.</li>
+ *     <li>The cache regions read by the JCache provider from application.conf.</li>
+ * </ul>
+ */
+public class DicasDeImagemNativa implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] ENTIDADES = {
+            Paciente.class, Dentista.class, Consulta.class, EventoConsulta.class
+    };
+
+    private static final Class<?>[] DTOS = {
+            AgendamentoRequest.class, AgendaDentista.class, AlteracaoAgenda.class, ConsultaView.class,
+            DisponibilidadeDentista.class, FaixaRecall.class, ImportacaoPacientes.class, IntervaloAgendado.class,
+            PaginaCursor.class, RejeicaoImportacao.class, ResultadoAgendamento.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar jackson = new BindingReflectionHintsRegistrar();
+        jackson.registerReflectionHints(hints.reflection(), ENTIDADES);
+        jackson.registerReflectionHints(hints.reflection(), DTOS);
+        for (Class<?> entidade : ENTIDADES) {
+            hints.reflection().registerType(entidade, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(MetricasDaSessaoHibernate.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.proxies().registerJdkProxy(ConnectionProxy.class);
+        hints.resources().registerPattern("application.conf").registerPattern("reference.conf");
+    }
+}
@@ -0,0 +1,19 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Async} methods and {@code @Scheduled} jobs.
+ * The executors themselves are auto-configured by Spring Boot and follow the
+ * "spring.threads.virtual.enabled" property: when it is true, Tomcat request
+ * handling, async methods and scheduled jobs all run on virtual threads;
+ * otherwise they use bounded pools of platform threads. Either way, database
+ * access is bounded by the connection pool ("spring.datasource.hikari.*").
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecucaoConfig {
+}
@@ -0,0 +1,219 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.senai.consultorio_backend.pacientes_api.controllers.TratadorDeSobrecarga;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load before it reaches the controllers. It runs in the security
+ * filter chain, right after the bearer token is authenticated, on every
+ * authenticated request to "/api/**":
+ *
+ * <ul>
+ *     <li>A client over the rate of the endpoint group gets a 429 Too Many
+ *     Requests, with a Retry-After of the seconds until its next token, so
+ *     a single client cannot take the capacity of the others.</li>
+ *     <li>A request over the global concurrency limit gets a 503 Service
+ *     Unavailable with a Retry-After of one second, instead of queueing for
+ *     a database connection. Long-running transfers and live agenda
+ *     subscriptions are not counted.</li>
+ *     <li>Long-running transfers hold a database connection until the last
+ *     byte is written, so at most "transmissoesSimultaneas" of them run at
+ *     once, whatever the client; the next one gets the same 503. Live agenda
+ *     subscriptions hold no connection and are not bounded.</li>
+ * </ul>
+ *
+ * Rejections are counted in "limites.rejeicoes", by reason and group.
+ */
+public class FiltroDeCarga extends OncePerRequestFilter {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String METRICA_LIMITES = "limites";
+
+    private final LimiteDeTaxa limiteDeTaxa;
+    private final LimiteDeConcorrencia limiteDeConcorrencia;
+    private final Semaphore transmissoes;
+    private final ObjectMapper objectMapper;
+    private final Map<GrupoDeEndpoints, Counter> rejeicoesPorTaxa = new EnumMap<>(GrupoDeEndpoints.class);
+    private final Map<GrupoDeEndpoints, Counter> rejeicoesPorConcorrencia = new EnumMap<>(GrupoDeEndpoints.class);
+
+    /**
+     * Constructs a new FiltroDeCarga.
+     * @param limiteDeTaxa The per-client rate limits.
+     * @param limiteDeConcorrencia The global concurrency limit.
+     * @param transmissoesSimultaneas The most long-running transfers in progress at once.
+     * @param objectMapper The JSON mapper that writes the problem details.
+     * @param registro The meter registry that receives the limit metrics.
+     */
+    public FiltroDeCarga(LimiteDeTaxa limiteDeTaxa, LimiteDeConcorrencia limiteDeConcorrencia,
+                         int transmissoesSimultaneas, ObjectMapper objectMapper, MeterRegistry registro) {
+        this.limiteDeTaxa = limiteDeTaxa;
+        this.limiteDeConcorrencia = limiteDeConcorrencia;
+        this.transmissoes = new Semaphore(transmissoesSimultaneas);
+        this.objectMapper = objectMapper;
+        for (GrupoDeEndpoints grupo : GrupoDeEndpoints.values()) {
+            rejeicoesPorTaxa.put(grupo, rejeicoes(registro, "taxa", grupo));
+            rejeicoesPorConcorrencia.put(grupo, rejeicoes(registro, "concorrencia", grupo));
+        }
+        Gauge.builder(METRICA_LIMITES + ".concorrencia.limite", limiteDeConcorrencia, LimiteDeConcorrencia::getLimite)
+                .description("Requests admitted at the same time")
+                .register(registro);
+        Gauge.builder(METRICA_LIMITES + ".concorrencia.em-andamento", limiteDeConcorrencia,
+                        LimiteDeConcorrencia::getEmAndamento)
+                .description("Admitted requests in progress")
+                .register(registro);
+        Gauge.builder(METRICA_LIMITES + ".transmissao.em-andamento", transmissoes,
+                        semaforo -> transmissoesSimultaneas - semaforo.availablePermits())
+                .description("Long-running transfers in progress")
+                .register(registro);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated()) {
+            // Rejected further down the chain.
+            chain.doFilter(request, response);
+            return;
+        }
+        GrupoDeEndpoints grupo = GrupoDeEndpoints.de(request);
+        long espera = limiteDeTaxa.admitir(autenticacao.getName(), grupo);
+        if (espera > 0) {
+            rejeicoesPorTaxa.get(grupo).increment();
+            rejeitar(response, HttpStatus.TOO_MANY_REQUESTS, segundos(espera),
+                    "Limite de requisições excedido. Tente novamente após o intervalo indicado em Retry-After.");
+            return;
+        }
+        if (grupo == GrupoDeEndpoints.ASSINATURA) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (grupo == GrupoDeEndpoints.TRANSMISSAO) {
+            transmitir(request, response, chain);
+            return;
+        }
+        if (!limiteDeConcorrencia.adquirir()) {
+            rejeicoesPorConcorrencia.get(grupo).increment();
+            rejeitar(response, HttpStatus.SERVICE_UNAVAILABLE, TratadorDeSobrecarga.SEGUNDOS_PARA_NOVA_TENTATIVA,
+                    "O servidor está sobrecarregado. Tente novamente em instantes.");
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiteDeConcorrencia.liberar(System.nanoTime() - inicio,
+                    response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    /**
+     * Runs a long-running transfer within the bound on transfers. Exports and
+     * streamed listings write their body asynchronously, after this filter
+     * returns, so the permit is released when the async request completes.
+     */
+    private void transmitir(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!transmissoes.tryAcquire()) {
+            rejeicoesPorConcorrencia.get(GrupoDeEndpoints.TRANSMISSAO).increment();
+            rejeitar(response, HttpStatus.SERVICE_UNAVAILABLE, TratadorDeSobrecarga.SEGUNDOS_PARA_NOVA_TENTATIVA,
+                    "Há transferências demais em andamento. Tente novamente em instantes.");
+            return;
+        }
+        AtomicBoolean liberada = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberada.compareAndSet(false, true)) {
+                transmissoes.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberacaoAoTerminar(liberar));
+            } else {
+                liberar.run();
+            }
+        }
+    }
+
+    private void rejeitar(HttpServletResponse response, HttpStatus status, String segundos, String detalhe)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, segundos);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ProblemDetail.forStatusAndDetail(status, detalhe));
+    }
+
+    /**
+     * Rounds a wait up to whole seconds, as Retry-After requires.
+     */
+    private static String segundos(long nanos) {
+        return Long.toString(Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Releases a transfer permit when its async request ends, however it ends.
+     */
+    private record LiberacaoAoTerminar(Runnable liberar) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            liberar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+            liberar.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+            liberar.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+            evento.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static Counter rejeicoes(MeterRegistry registro, String motivo, GrupoDeEndpoints grupo) {
+        return Counter.builder(METRICA_LIMITES + ".rejeicoes")
+                .description("Requests rejected by the load limits")
+                .tag("motivo", motivo)
+                .tag("grupo", grupo.name().toLowerCase(Locale.ROOT))
+                .register(registro);
+    }
+}
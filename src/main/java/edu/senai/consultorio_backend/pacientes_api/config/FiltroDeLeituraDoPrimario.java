@@ -0,0 +1,41 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps a client from missing its own writes when reads go to the replica.
+ * Within a request, once a read-write transaction has run, the following
+ * read-only transactions use the primary. A client that must see a write it
+ * made in an earlier request, such as the agenda right after a booking, sends
+ * the "Consistencia-Leitura: primario" header, and the whole request reads
+ * from the primary.
+ */
+public class FiltroDeLeituraDoPrimario extends OncePerRequestFilter {
+
+    /**
+     * The header that asks for reads from the primary.
+     */
+    public static final String CABECALHO = "Consistencia-Leitura";
+
+    /**
+     * The value of {@link #CABECALHO} that asks for reads from the primary.
+     */
+    public static final String PRIMARIO = "primario";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RoteamentoDeLeitura.iniciarRequisicao(PRIMARIO.equalsIgnoreCase(request.getHeader(CABECALHO)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoteamentoDeLeitura.encerrarRequisicao();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.UUID;
+
+/**
+ * Binary representations of the API, chosen by the Accept header.
+ * Besides JSON, the responses (and request bodies) can be CBOR
+ * ("application/cbor") or Smile ("application/x-jackson-smile"): the same
+ * fields, in a more compact encoding that is cheaper to write and parse.
+ * JSON stays the default, for clients that accept anything.
+ *
+ * Spring MVC would register both converters on its own, but with a plain
+ * ObjectMapper; these are built from Spring Boot's builder, so dates, modules
+ * and "spring.jackson.*" settings are the same in every format. IDs stay
+ * text, as in JSON, instead of the 16-byte binary Jackson would otherwise
+ * write in binary formats, so clients can use them in URLs as they are.
+ */
+@Configuration
+public class FormatosDeRespostaConfig {
+
+    /**
+     * Replaces reflection in the Jackson (de)serializers with generated
+     * lambdas. Spring Boot registers every Module bean in its ObjectMapper
+     * builder, so it applies to JSON, CBOR and Smile alike. A native image
+     * cannot define classes at run time, so there it is replaced by an empty
+     * module and Jackson keeps its reflection, resolved at build time.
+     * @return The Blackbird module, or an empty one in a native image.
+     */
+    @Bean
+    public Module moduloBlackbird() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("sem-blackbird") : new BlackbirdModule();
+    }
+
+    /**
+     * Reads and writes CBOR (RFC 8949).
+     * @param builder Spring Boot's ObjectMapper builder, a new instance per injection point.
+     * @return The CBOR converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(comIdsEmTexto(builder.factory(new CBORFactory())).build());
+    }
+
+    /**
+     * Reads and writes Smile, Jackson's binary JSON.
+     * @param builder Spring Boot's ObjectMapper builder, a new instance per injection point.
+     * @return The Smile converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(comIdsEmTexto(builder.factory(new SmileFactory())).build());
+    }
+
+    private static Jackson2ObjectMapperBuilder comIdsEmTexto(Jackson2ObjectMapperBuilder builder) {
+        return builder.postConfigurer(mapper -> mapper.configOverride(UUID.class)
+                .setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING)));
+    }
+}
@@ -0,0 +1,54 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The groups of endpoints that have rate limits of their own.
+ */
+public enum GrupoDeEndpoints {
+
+    /**
+     * Reads answered from the database at once: listings, lookups, agendas.
+     */
+    LEITURA,
+
+    /**
+     * Requests that change data: POST, PUT, PATCH and DELETE.
+     */
+    ESCRITA,
+
+    /**
+     * Long-running transfers: exports, streamed listings and bulk imports.
+     * They are few but hold a connection for a long time, so they have their
+     * own, much lower, rate; and being slow by design, they are kept out of
+     * the adaptive concurrency limit.
+     */
+    TRANSMISSAO,
+
+    /**
+     * Subscriptions to the live agenda. A screen opens one per dentist and
+     * day, and reopens it whenever the server closes it, so the burst must
+     * cover every dentist followed at once. They hold no connection while
+     * open and are kept out of the concurrency limits.
+     */
+    ASSINATURA;
+
+    /**
+     * Finds the group of a request to "/api/**".
+     * @param request The request.
+     * @return The group of its endpoint.
+     */
+    static GrupoDeEndpoints de(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        boolean leitura = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (caminho.endsWith("/alteracoes")) {
+            return ASSINATURA;
+        }
+        if (caminho.endsWith("/exportacao")
+                || (leitura && "true".equals(request.getParameter("stream")))
+                || (!leitura && caminho.equals("/api/pacientes/importacoes"))) {
+            return TRANSMISSAO;
+        }
+        return leitura ? LEITURA : ESCRITA;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A global limit on the requests in progress that adapts to the latency the
+ * application is delivering (additive increase, multiplicative decrease).
+ *
+ * <ul>
+ *     <li>A request that takes longer than the target latency, or that could
+ *     not get a database connection, shows the application is past its
+ *     capacity: the limit is multiplied by the reduction factor. Only a
+ *     request admitted after the last reduction counts: the ones already in
+ *     progress then were admitted under the old limit, and their slowness is
+ *     the same overload the reduction answered, so a burst of slow responses
+ *     reduces the limit once, as TCP reduces its window once per round
+ *     trip.</li>
+ *     <li>A request within the target, while the limit is at least half in
+ *     use, raises it by 1/limit, so it grows by about one per round of
+ *     requests, as a TCP congestion window does.</li>
+ *     <li>The limit stays between the configured minimum and maximum.</li>
+ * </ul>
+ *
+ * A request over the limit is rejected at once instead of waiting, so the
+ * latency of the admitted ones stays low while the excess is shed.
+ */
+public class LimiteDeConcorrencia {
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaAlvo;
+    private final double fatorDeReducao;
+    private final Ticker ticker;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limite;
+    private long ultimaReducao = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new LimiteDeConcorrencia.
+     * @param inicial The limit at startup.
+     * @param minimo The lowest the limit goes.
+     * @param maximo The highest the limit goes.
+     * @param latenciaAlvo The latency above which a request counts as a sign of overload.
+     * @param fatorDeReducao What the limit is multiplied by on overload, between 0 and 1.
+     */
+    public LimiteDeConcorrencia(int inicial, int minimo, int maximo, Duration latenciaAlvo, double fatorDeReducao) {
+        this(inicial, minimo, maximo, latenciaAlvo, fatorDeReducao, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs a new LimiteDeConcorrencia with an explicit time source, for tests.
+     */
+    LimiteDeConcorrencia(int inicial, int minimo, int maximo, Duration latenciaAlvo, double fatorDeReducao,
+                         Ticker ticker) {
+        this.ticker = ticker;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaAlvo = latenciaAlvo.toNanos();
+        this.fatorDeReducao = fatorDeReducao;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+    }
+
+    /**
+     * Admits a request if the limit allows.
+     * @return true if the request was admitted; it must then call {@link #liberar}.
+     */
+    public boolean adquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= (int) limite) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit to its outcome.
+     * @param duracaoNanos How long the request took, ending now.
+     * @param sobrecarga Whether it failed for lack of a database connection.
+     */
+    public void liberar(long duracaoNanos, boolean sobrecarga) {
+        int emUso = emAndamento.getAndDecrement();
+        long agora = ticker.read();
+        lock.lock();
+        try {
+            if (sobrecarga || duracaoNanos > latenciaAlvo) {
+                if (agora - duracaoNanos > ultimaReducao) {
+                    limite = Math.max(minimo, limite * fatorDeReducao);
+                    ultimaReducao = agora;
+                }
+            } else if (emUso * 2 >= limite) {
+                limite = Math.min(maximo, limite + 1 / limite);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     * @return The most requests admitted at once.
+     */
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    /**
+     * Gets the requests in progress.
+     * @return The requests admitted and not yet released.
+     */
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+}
@@ -0,0 +1,91 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limits, one token bucket per client and endpoint group.
+ * A client may send up to "rajada" requests at once, and then
+ * "porSegundo" requests per second on average. The buckets are kept as the
+ * generic cell rate algorithm: a single timestamp per bucket, the theoretical
+ * arrival time of the next request, advanced with a compare-and-set, so
+ * admitting a request takes no lock.
+ *
+ * Buckets of clients that went quiet are dropped after a while; by then they
+ * would be full anyway.
+ */
+public class LimiteDeTaxa {
+
+    /**
+     * The limit of an endpoint group.
+     *
+     * @param porSegundo The sustained rate, in requests per second.
+     * @param rajada The most requests accepted at once after a quiet period.
+     */
+    public record Taxa(double porSegundo, int rajada) {
+    }
+
+    private record Chave(String cliente, GrupoDeEndpoints grupo) {
+    }
+
+    private static final Duration INATIVIDADE = Duration.ofMinutes(10);
+
+    private final Map<GrupoDeEndpoints, Taxa> taxas;
+    private final Cache<Chave, AtomicLong> baldes;
+    private final Ticker ticker;
+
+    /**
+     * Constructs a new LimiteDeTaxa.
+     * @param taxas The limit of each endpoint group; every group must have one.
+     * @param maximoDeClientes The most buckets kept in memory.
+     */
+    public LimiteDeTaxa(Map<GrupoDeEndpoints, Taxa> taxas, long maximoDeClientes) {
+        this(taxas, maximoDeClientes, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs a new LimiteDeTaxa with an explicit time source, for tests.
+     */
+    LimiteDeTaxa(Map<GrupoDeEndpoints, Taxa> taxas, long maximoDeClientes, Ticker ticker) {
+        this.taxas = new EnumMap<>(taxas);
+        this.ticker = ticker;
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(maximoDeClientes)
+                .expireAfterAccess(INATIVIDADE)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket for the group.
+     *
+     * @param cliente The name of the authenticated client.
+     * @param grupo The group of the endpoint.
+     * @return 0 if the request is admitted; otherwise the nanoseconds until
+     *         the client may send the next one.
+     */
+    public long admitir(String cliente, GrupoDeEndpoints grupo) {
+        Taxa taxa = taxas.get(grupo);
+        long intervalo = (long) (1_000_000_000L / taxa.porSegundo());
+        long tolerancia = intervalo * (taxa.rajada() - 1);
+        AtomicLong proximaChegada = baldes.get(new Chave(cliente, grupo), chave -> new AtomicLong(ticker.read()));
+        while (true) {
+            long agora = ticker.read();
+            long atual = proximaChegada.get();
+            long base = Math.max(atual, agora);
+            long espera = base - tolerancia - agora;
+            if (espera > 0) {
+                return espera;
+            }
+            if (proximaChegada.compareAndSet(atual, base + intervalo)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Defines the load limits applied by {@link FiltroDeCarga}, configured by the
+ * "consultorio.limites.*" properties. Setting "consultorio.limites.habilitados"
+ * to false removes the filter.
+ */
+@Configuration
+@ConditionalOnProperty(name = "consultorio.limites.habilitados", havingValue = "true", matchIfMissing = true)
+public class LimitesDeCargaConfig {
+
+    /**
+     * Defines the per-client rate limits of each endpoint group.
+     * @param leituraPorSegundo The sustained rate of reads, per client.
+     * @param leituraRajada The burst of reads accepted at once.
+     * @param escritaPorSegundo The sustained rate of writes, per client.
+     * @param escritaRajada The burst of writes accepted at once.
+     * @param transmissaoPorSegundo The sustained rate of long-running transfers, per client.
+     * @param transmissaoRajada The burst of long-running transfers accepted at once.
+     * @param assinaturaPorSegundo The sustained rate of live agenda subscriptions, per client.
+     * @param assinaturaRajada The burst of live agenda subscriptions accepted at once.
+     * @param maximoDeClientes The most client buckets kept in memory.
+     * @return The rate limits.
+     */
+    @Bean
+    public LimiteDeTaxa limiteDeTaxa(
+            @Value("${consultorio.limites.leitura.por-segundo:20}") double leituraPorSegundo,
+            @Value("${consultorio.limites.leitura.rajada:40}") int leituraRajada,
+            @Value("${consultorio.limites.escrita.por-segundo:5}") double escritaPorSegundo,
+            @Value("${consultorio.limites.escrita.rajada:20}") int escritaRajada,
+            @Value("${consultorio.limites.transmissao.por-segundo:0.1}") double transmissaoPorSegundo,
+            @Value("${consultorio.limites.transmissao.rajada:3}") int transmissaoRajada,
+            @Value("${consultorio.limites.assinatura.por-segundo:0.2}") double assinaturaPorSegundo,
+            @Value("${consultorio.limites.assinatura.rajada:20}") int assinaturaRajada,
+            @Value("${consultorio.limites.maximo-de-clientes:100000}") long maximoDeClientes) {
+        return new LimiteDeTaxa(Map.of(
+                GrupoDeEndpoints.LEITURA, new LimiteDeTaxa.Taxa(leituraPorSegundo, leituraRajada),
+                GrupoDeEndpoints.ESCRITA, new LimiteDeTaxa.Taxa(escritaPorSegundo, escritaRajada),
+                GrupoDeEndpoints.TRANSMISSAO, new LimiteDeTaxa.Taxa(transmissaoPorSegundo, transmissaoRajada),
+                GrupoDeEndpoints.ASSINATURA, new LimiteDeTaxa.Taxa(assinaturaPorSegundo, assinaturaRajada)),
+                maximoDeClientes);
+    }
+
+    /**
+     * Defines the global adaptive concurrency limit.
+     * @param inicial The limit at startup.
+     * @param minimo The lowest the limit goes.
+     * @param maximo The highest the limit goes.
+     * @param latenciaAlvo The latency above which a request counts as a sign of overload.
+     * @param fatorDeReducao What the limit is multiplied by on overload.
+     * @return The concurrency limit.
+     */
+    @Bean
+    public LimiteDeConcorrencia limiteDeConcorrencia(
+            @Value("${consultorio.limites.concorrencia.inicial:40}") int inicial,
+            @Value("${consultorio.limites.concorrencia.minimo:10}") int minimo,
+            @Value("${consultorio.limites.concorrencia.maximo:200}") int maximo,
+            @Value("${consultorio.limites.concorrencia.latencia-alvo:500ms}") Duration latenciaAlvo,
+            @Value("${consultorio.limites.concorrencia.fator-de-reducao:0.9}") double fatorDeReducao) {
+        return new LimiteDeConcorrencia(inicial, minimo, maximo, latenciaAlvo, fatorDeReducao);
+    }
+
+    /**
+     * Defines the filter that applies the limits. It is added to the security
+     * filter chain by {@link SecurityConfig}, after authentication.
+     * @param limiteDeTaxa The per-client rate limits.
+     * @param limiteDeConcorrencia The global concurrency limit.
+     * @param transmissoesSimultaneas The most long-running transfers in progress at once; each
+     *                                holds a database connection, so keep it well below the pool size.
+     * @param objectMapper The JSON mapper that writes the rejections.
+     * @param registro The meter registry that receives the limit metrics.
+     * @return The filter.
+     */
+    @Bean
+    public FiltroDeCarga filtroDeCarga(
+            LimiteDeTaxa limiteDeTaxa, LimiteDeConcorrencia limiteDeConcorrencia,
+            @Value("${consultorio.limites.transmissao.simultaneas:5}") int transmissoesSimultaneas,
+            ObjectMapper objectMapper, MeterRegistry registro) {
+        return new FiltroDeCarga(limiteDeTaxa, limiteDeConcorrencia, transmissoesSimultaneas, objectMapper, registro);
+    }
+
+    /**
+     * Keeps the servlet container from running the filter on its own, before
+     * the request is authenticated.
+     * @param filtro The filter.
+     * @return The disabled registration.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroDeCarga> registroDoFiltroDeCarga(FiltroDeCarga filtro) {
+        FilterRegistrationBean<FiltroDeCarga> registro = new FilterRegistrationBean<>(filtro);
+        registro.setEnabled(false);
+        return registro;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records what each Hibernate session did, once the session ends.
+ * Hibernate creates one instance per session (it is registered through the
+ * "hibernate.session.events.auto" property), and with open-in-view a session
+ * lasts for one HTTP request, so these are per-request figures: statements
+ * executed, time spent in JDBC, flushes and entities flushed. They replace
+ * the SQL console logging as a way to spot N+1 queries and chatty endpoints.
+ *
+ * Counting is done with plain fields, since a session is used by one thread
+ * at a time; the meters are only touched when the session ends. Meters go to
+ * {@link Metrics#globalRegistry}, which Spring Boot links to its own registry,
+ * because Hibernate instantiates the listener itself.
+ */
+public class MetricasDaSessaoHibernate implements SessionEventListener {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String PREFIXO = "hibernate.sessao";
+
+    private final transient MeterRegistry registro;
+
+    private int instrucoes;
+    private int lotes;
+    private int flushes;
+    private int entidadesSincronizadas;
+    private long inicioDaExecucao;
+    private long nanosEmJdbc;
+
+    /**
+     * Constructs a listener that records to the global registry.
+     * Used by Hibernate, once per session.
+     */
+    public MetricasDaSessaoHibernate() {
+        this(Metrics.globalRegistry);
+    }
+
+    /**
+     * Constructs a listener that records to the given registry, for tests.
+     */
+    MetricasDaSessaoHibernate(MeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicioDaExecucao = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        instrucoes++;
+        nanosEmJdbc += System.nanoTime() - inicioDaExecucao;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicioDaExecucao = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        lotes++;
+        nanosEmJdbc += System.nanoTime() - inicioDaExecucao;
+    }
+
+    /**
+     * Counts full flushes only; the auto-flush checks Hibernate makes before
+     * each query report as partial flushes and would inflate the figure.
+     */
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+        entidadesSincronizadas += numberOfEntities;
+    }
+
+    @Override
+    public void end() {
+        DistributionSummary.builder(PREFIXO + ".instrucoes")
+                .description("JDBC statements executed per Hibernate session (batches count once)")
+                .register(registro)
+                .record(instrucoes + lotes);
+        DistributionSummary.builder(PREFIXO + ".flushes")
+                .description("Flushes per Hibernate session")
+                .register(registro)
+                .record(flushes);
+        DistributionSummary.builder(PREFIXO + ".entidades.sincronizadas")
+                .description("Entities processed by the flushes of a Hibernate session")
+                .register(registro)
+                .record(entidadesSincronizadas);
+        Timer.builder(PREFIXO + ".jdbc")
+                .description("Time a Hibernate session spent executing JDBC statements")
+                .register(registro)
+                .record(nanosEmJdbc, TimeUnit.NANOSECONDS);
+    }
+}
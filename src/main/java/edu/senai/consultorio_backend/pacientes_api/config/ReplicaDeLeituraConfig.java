@@ -0,0 +1,134 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Spreads reads over a read replica, when "consultorio.datasource.replica.url"
+ * is set. Without it, Spring Boot's single data source is used as before.
+ *
+ * The primary keeps its "spring.datasource.*" settings and receives writes,
+ * migrations and every transaction that is not read-only; the replica has a
+ * pool of its own, configured by "consultorio.datasource.replica.hikari.*".
+ * The application sees a single data source that picks one of them per
+ * transaction (see {@link RoteamentoDeLeitura}). The two pools are not
+ * candidates for injection by type, so nothing reaches them around the routing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "consultorio.datasource.replica.url")
+public class ReplicaDeLeituraConfig {
+
+    /**
+     * Defines the pool of the primary database, the one Flyway migrates.
+     * @param properties The "spring.datasource.*" properties.
+     * @param registro The meter registry that receives the pool metrics.
+     * @return The pool, named "primario" unless configured otherwise.
+     */
+    @Bean(defaultCandidate = false)
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties, MeterRegistry registro) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+        return dataSource;
+    }
+
+    /**
+     * Defines the pool of the read replica. Its user and password default to
+     * those of the primary.
+     * @param properties The "spring.datasource.*" properties.
+     * @param registro The meter registry that receives the pool metrics.
+     * @param url The JDBC URL of the replica.
+     * @param usuario The user of the replica, or empty for the primary's.
+     * @param senha The password of the replica, or empty for the primary's.
+     * @return The pool, named "replica" unless configured otherwise.
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("consultorio.datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(
+            DataSourceProperties properties,
+            MeterRegistry registro,
+            @Value("${consultorio.datasource.replica.url}") String url,
+            @Value("${consultorio.datasource.replica.username:}") String usuario,
+            @Value("${consultorio.datasource.replica.password:}") String senha) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(usuario.isEmpty() ? properties.determineUsername() : usuario);
+        dataSource.setPassword(senha.isEmpty() ? properties.determinePassword() : senha);
+        dataSource.setPoolName("replica");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+        return dataSource;
+    }
+
+    /**
+     * Defines the data source that picks the primary or the replica.
+     * @param primario The pool of the primary database.
+     * @param replica The pool of the read replica.
+     * @param registro The meter registry that receives the routing metrics.
+     * @param atrasoMaximo How far behind the primary the replica may be and still be read.
+     * @return The routing data source; its replica check runs on the scheduler.
+     */
+    @Bean(defaultCandidate = false)
+    public RoteamentoDeLeitura roteamentoDeLeitura(
+            @Qualifier("dataSourcePrimario") DataSource primario,
+            @Qualifier("dataSourceReplica") DataSource replica,
+            MeterRegistry registro,
+            @Value("${consultorio.datasource.replica.atraso-maximo:10s}") Duration atrasoMaximo) {
+        return new RoteamentoDeLeitura(primario, replica, atrasoMaximo, registro);
+    }
+
+    /**
+     * Defines the data source used by the application: JPA, JdbcTemplate and
+     * the exports. The connection is only taken from the routing data source
+     * at the first statement, when the transaction, and whether it is
+     * read-only, is already known.
+     * @param roteamento The routing data source.
+     * @return The lazy proxy.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("roteamentoDeLeitura") RoteamentoDeLeitura roteamento) {
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    /**
+     * Makes Hibernate give back its connection at the end of each transaction
+     * instead of holding it until the session closes. With the session open
+     * for the whole request, a held connection would carry a read-only
+     * transaction's replica connection into a later read-write transaction.
+     * @return The customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer conexaoPorTransacao() {
+        return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Registers the filter that sends a request's reads to the primary after
+     * a write, or when the client asks for it.
+     * @return The filter, applied to every request.
+     */
+    @Bean
+    public FiltroDeLeituraDoPrimario filtroDeLeituraDoPrimario() {
+        return new FiltroDeLeituraDoPrimario();
+    }
+}
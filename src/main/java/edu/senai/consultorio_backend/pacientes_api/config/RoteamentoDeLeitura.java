@@ -0,0 +1,185 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends the connections of read-only transactions to a read replica and all
+ * others to the primary.
+ * The choice is made when a connection is requested, from the read-only flag
+ * of the current transaction; it must therefore sit behind a
+ * LazyConnectionDataSourceProxy, which only asks for the connection at the
+ * first statement, once the transaction has been set up.
+ *
+ * Read-only transactions go to the primary instead when the replica is
+ * unavailable (it refused a connection, failed its last check, or lags more
+ * than "consultorio.datasource.replica.atraso-maximo" behind the primary),
+ * and within a request that asked for it or that has already written (see
+ * {@link FiltroDeLeituraDoPrimario}), so a client reads its own writes.
+ */
+public class RoteamentoDeLeitura extends AbstractRoutingDataSource {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String METRICA_REPLICA = "banco.replica";
+
+    enum Destino {
+        PRIMARIO, REPLICA
+    }
+
+    /**
+     * The seconds since the last transaction replayed by the replica, or 0 if
+     * it has replayed everything it received (or is not a standby at all).
+     */
+    private static final String CONSULTAR_ATRASO = """
+            select coalesce(case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                                 else extract(epoch from now() - pg_last_xact_replay_timestamp()) end, 0)
+            """;
+
+    /**
+     * The state of the request being handled by the current thread, or null
+     * outside a request.
+     */
+    private static final ThreadLocal<Requisicao> REQUISICAO = new ThreadLocal<>();
+
+    private static final class Requisicao {
+        private boolean exigePrimario;
+    }
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final JdbcTemplate consultaReplica;
+    private final Duration atrasoMaximo;
+
+    private volatile boolean replicaDisponivel = true;
+    private volatile double atrasoDaReplica;
+
+    private final Counter leiturasNaReplica;
+    private final Counter leiturasNoPrimario;
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param primario The primary database, which receives every write.
+     * @param replica The read replica.
+     * @param atrasoMaximo How far behind the primary the replica may be and still be read.
+     * @param registro The meter registry that receives the routing metrics.
+     */
+    public RoteamentoDeLeitura(DataSource primario, DataSource replica, Duration atrasoMaximo, MeterRegistry registro) {
+        this.primario = primario;
+        this.replica = replica;
+        this.consultaReplica = new JdbcTemplate(replica);
+        this.consultaReplica.setQueryTimeout(5);
+        this.atrasoMaximo = atrasoMaximo;
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+
+        Gauge.builder(METRICA_REPLICA + ".disponivel", this, roteamento -> roteamento.replicaDisponivel ? 1 : 0)
+                .description("Whether read-only transactions are sent to the read replica")
+                .register(registro);
+        Gauge.builder(METRICA_REPLICA + ".atraso", this, roteamento -> roteamento.atrasoDaReplica)
+                .description("How far the read replica was behind the primary at its last check")
+                .baseUnit("seconds")
+                .register(registro);
+        this.leiturasNaReplica = Counter.builder(METRICA_REPLICA + ".leituras")
+                .description("Read-only transactions and the database they were sent to")
+                .tag("destino", "replica")
+                .register(registro);
+        this.leiturasNoPrimario = Counter.builder(METRICA_REPLICA + ".leituras")
+                .description("Read-only transactions and the database they were sent to")
+                .tag("destino", "primario")
+                .register(registro);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return lerDaReplica() ? Destino.REPLICA : Destino.PRIMARIO;
+    }
+
+    /**
+     * Gets a connection from the database chosen for the current transaction.
+     * If the replica refuses the connection, it is taken as unavailable until
+     * its next successful check, and the primary is used instead.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Requisicao requisicao = REQUISICAO.get();
+            if (requisicao != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                requisicao.exigePrimario = true;
+            }
+            return primario.getConnection();
+        }
+        if (lerDaReplica()) {
+            try {
+                Connection conexao = replica.getConnection();
+                leiturasNaReplica.increment();
+                return conexao;
+            } catch (SQLException e) {
+                replicaDisponivel = false;
+            }
+        }
+        leiturasNoPrimario.increment();
+        return primario.getConnection();
+    }
+
+    /**
+     * Checks whether the replica answers and how far behind the primary it is.
+     */
+    @Scheduled(fixedDelayString = "${consultorio.datasource.replica.verificacao:5s}")
+    public void verificarReplica() {
+        try {
+            Double atraso = consultaReplica.queryForObject(CONSULTAR_ATRASO, Double.class);
+            atrasoDaReplica = atraso == null ? 0 : atraso;
+            replicaDisponivel = atrasoDaReplica * 1000 <= atrasoMaximo.toMillis();
+        } catch (DataAccessException e) {
+            replicaDisponivel = false;
+        }
+    }
+
+    /**
+     * Tells whether read-only transactions are currently sent to the replica.
+     * @return false while the replica is taken as unavailable.
+     */
+    public boolean isReplicaDisponivel() {
+        return replicaDisponivel;
+    }
+
+    /**
+     * Starts tracking the request handled by the current thread.
+     * @param exigePrimario Whether every transaction of the request must use the primary.
+     */
+    static void iniciarRequisicao(boolean exigePrimario) {
+        Requisicao requisicao = new Requisicao();
+        requisicao.exigePrimario = exigePrimario;
+        REQUISICAO.set(requisicao);
+    }
+
+    /**
+     * Stops tracking the request handled by the current thread.
+     */
+    static void encerrarRequisicao() {
+        REQUISICAO.remove();
+    }
+
+    private boolean lerDaReplica() {
+        if (!replicaDisponivel || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        Requisicao requisicao = REQUISICAO.get();
+        return requisicao == null || !requisicao.exigePrimario;
+    }
+}
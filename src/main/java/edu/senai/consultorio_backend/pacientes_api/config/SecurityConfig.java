@@ -1,11 +1,19 @@
 package edu.senai.consultorio_backend.pacientes_api.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.introspection.SpringOpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 /**
  * Configures the security settings for the application.
  * This class enables web security and defines the security filter chain that
@@ -20,20 +28,52 @@ public class SecurityConfig {
      * This method configures the HttpSecurity object to require authentication
      * for all requests to "/api/**" and permits all other requests. It also
      * configures the application as an OAuth 2.0 Resource Server using opaque
-     * token validation.
+     * token validation. When the load limits are enabled, their filter runs
+     * right after the bearer token is authenticated.
      *
      * @param http The HttpSecurity object to be configured.
+     * @param filtroDeCarga The filter applying the load limits, if enabled.
      * @return The configured SecurityFilterChain object.
      * @throws Exception if an error occurs during configuration.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<FiltroDeCarga> filtroDeCarga)
+            throws Exception {
         http
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
             )
             .oauth2ResourceServer(oauth2 -> oauth2.opaqueToken());
+        filtroDeCarga.ifAvailable(filtro -> http.addFilterAfter(filtro, BearerTokenAuthenticationFilter.class));
         return http.build();
     }
+
+    /**
+     * Defines the introspector used to validate opaque tokens.
+     * The introspector that calls the authorization server, configured by the
+     * "spring.security.oauth2.resourceserver.opaque-token" properties, is wrapped
+     * in a {@link CachingOpaqueTokenIntrospector} so that repeated requests with
+     * the same token do not pay for another HTTP round trip.
+     *
+     * @param properties The resource server properties holding the introspection URI and client credentials.
+     * @param ttl The longest time an active token is cached.
+     * @param ttlNegativo The time an inactive token is cached.
+     * @param tamanhoMaximo The maximum number of cached tokens.
+     * @return The caching introspector.
+     */
+    @Bean
+    public CachingOpaqueTokenIntrospector opaqueTokenIntrospector(
+            OAuth2ResourceServerProperties properties,
+            @Value("${consultorio.seguranca.introspeccao.cache.ttl:60s}") Duration ttl,
+            @Value("${consultorio.seguranca.introspeccao.cache.ttl-negativo:10s}") Duration ttlNegativo,
+            @Value("${consultorio.seguranca.introspeccao.cache.tamanho-maximo:10000}") long tamanhoMaximo) {
+        OAuth2ResourceServerProperties.Opaquetoken opaqueToken = properties.getOpaquetoken();
+        OpaqueTokenIntrospector servidor = SpringOpaqueTokenIntrospector
+                .withIntrospectionUri(opaqueToken.getIntrospectionUri())
+                .clientId(opaqueToken.getClientId())
+                .clientSecret(opaqueToken.getClientSecret())
+                .build();
+        return new CachingOpaqueTokenIntrospector(servidor, ttl, ttlNegativo, tamanhoMaximo);
+    }
 }
@@ -0,0 +1,79 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.service.AlteracoesDaAgenda;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * REST Controller that pushes the changes of a dentist's agenda as server-sent events.
+ * The reception screen keeps one connection open per dentist and day instead
+ * of polling the day agenda: it loads the day once and then applies each
+ * booking ("agendada") and cancellation ("cancelada") as it commits.
+ */
+@RestController
+@RequestMapping("/api/consultas")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AlteracoesDaAgendaController {
+
+    private final AlteracoesDaAgenda alteracoesDaAgenda;
+    private final int capacidadeDaFila;
+    private final Duration intervaloHeartbeat;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param alteracoesDaAgenda The subscriptions to the changes of each agenda.
+     * @param capacidadeDaFila How many changes may wait for a slow client before it is disconnected.
+     * @param intervaloHeartbeat How long a stream may stay silent before a heartbeat is sent.
+     */
+    @Autowired
+    public AlteracoesDaAgendaController(
+            AlteracoesDaAgenda alteracoesDaAgenda,
+            @Value("${consultorio.agenda.alteracoes.fila-por-cliente:256}") int capacidadeDaFila,
+            @Value("${consultorio.agenda.alteracoes.heartbeat:15s}") Duration intervaloHeartbeat) {
+        this.alteracoesDaAgenda = alteracoesDaAgenda;
+        this.capacidadeDaFila = capacidadeDaFila;
+        this.intervaloHeartbeat = intervaloHeartbeat;
+    }
+
+    /**
+     * Endpoint to follow the changes of a dentist's agenda on one day.
+     * Mapped to the GET request on /api/consultas/dentista/{dentistaId}/alteracoes.
+     * A new stream starts with a "conectado" event; one resumed with a
+     * Last-Event-ID header first replays the changes the client missed or, if
+     * they are no longer known, starts with a "reinicio" event telling the
+     * client to reload the day.
+     *
+     * @param dentistaId The ID of the dentist.
+     * @param dia The day (e.g., 2026-11-02).
+     * @param ultimoEventoId The ID of the last event the client received, sent by the browser on reconnection.
+     * @return The event stream.
+     */
+    @GetMapping(path = "/dentista/{dentistaId}/alteracoes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanhar(
+            @PathVariable UUID dentistaId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia,
+            @RequestHeader(name = "Last-Event-ID", required = false) String ultimoEventoId) {
+        TransmissaoDaAgenda transmissao = new TransmissaoDaAgenda(capacidadeDaFila, intervaloHeartbeat);
+        AlteracoesDaAgenda.Assinatura assinatura = alteracoesDaAgenda.assinar(dentistaId, dia, ultimoEventoId, transmissao);
+
+        SseEmitter.SseEventBuilder primeiroEvento = null;
+        if (ultimoEventoId == null || !assinatura.historicoCompleto()) {
+            primeiroEvento = SseEmitter.event()
+                    .id(assinatura.ultimoId())
+                    .name(ultimoEventoId == null ? "conectado" : "reinicio")
+                    .data(Map.of("dentistaId", dentistaId, "dia", dia), MediaType.APPLICATION_JSON);
+        }
+        transmissao.iniciar(primeiroEvento, () -> alteracoesDaAgenda.cancelar(dentistaId, dia, transmissao));
+        return transmissao.getEmitter();
+    }
+}
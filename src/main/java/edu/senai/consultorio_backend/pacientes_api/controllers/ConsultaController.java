@@ -1,15 +1,23 @@
 package edu.senai.consultorio_backend.pacientes_api.controllers;
 
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendaDentista;
 import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
 import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
 import edu.senai.consultorio_backend.pacientes_api.service.ConsultaService;
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -17,6 +25,9 @@ import java.util.UUID;
 /**
  * Controller for managing appointments.
  * This class provides endpoints for scheduling, canceling, and retrieving appointments.
+ * Reads carry an ETag and are answered with 304 (Not Modified) when the client
+ * already has that version. The agenda views include the patient and the
+ * dentist, so their ETags change when either of them does.
  */
 @RestController
 @RequestMapping("/api/consultas")
@@ -24,31 +35,61 @@ import java.util.UUID;
 public class ConsultaController {
 
     private final ConsultaService consultaService;
+    private final VersoesDasTabelas versoesDasTabelas;
+    private final Idempotencia idempotencia;
 
     /**
      * Constructs a new ConsultaController with the given ConsultaService.
      * @param consultaService The service for managing appointments.
+     * @param versoesDasTabelas The table versions, used as the ETag of the listings.
+     * @param idempotencia The responses stored for the Idempotency-Key of the bookings.
      */
     @Autowired
-    public ConsultaController(ConsultaService consultaService) {
+    public ConsultaController(ConsultaService consultaService, VersoesDasTabelas versoesDasTabelas,
+                              Idempotencia idempotencia) {
         this.consultaService = consultaService;
+        this.versoesDasTabelas = versoesDasTabelas;
+        this.idempotencia = idempotencia;
     }
 
     /**
      * Schedules a new appointment.
-     * @param agendamentoRequest The request object containing the patient ID, dentist ID, and date/time of the appointment.
-     * @return A ResponseEntity containing the newly created appointment and a URI to the new resource.
+     * With an Idempotency-Key header, a retry gets the response of the first
+     * booking instead of booking the appointment again.
+     * @param agendamentoRequest The request object containing the patient ID, dentist ID, date/time and optional duration of the appointment.
+     * @param chaveIdempotencia The optional Idempotency-Key header.
+     * @return A ResponseEntity containing the newly created appointment and a URI to the new resource,
+     * HTTP 409 (Conflict) if the dentist already has an appointment in that interval,
+     * or HTTP 422 (Unprocessable Content) if the key was used with another body.
      */
     @PostMapping("/agendar")
-    public ResponseEntity<Consulta> agendar(@RequestBody AgendamentoRequest agendamentoRequest) {
-        Consulta novaConsulta = consultaService.agendar(
-                agendamentoRequest.getPacienteId(),
-                agendamentoRequest.getDentistaId(),
-                agendamentoRequest.getDataHora()
-        );
-        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-                .buildAndExpand(novaConsulta.getId()).toUri();
-        return ResponseEntity.created(location).body(novaConsulta);
+    public ResponseEntity<?> agendar(
+            @RequestBody AgendamentoRequest agendamentoRequest,
+            @RequestHeader(name = RespostasIdempotentes.CABECALHO, required = false) String chaveIdempotencia) {
+        return RespostasIdempotentes.responder(idempotencia, "consultas.agendar", chaveIdempotencia, agendamentoRequest, () -> {
+            Consulta novaConsulta = consultaService.agendar(
+                    agendamentoRequest.getPacienteId(),
+                    agendamentoRequest.getDentistaId(),
+                    agendamentoRequest.getDataHora(),
+                    agendamentoRequest.getDuracaoMinutos()
+            );
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+                    .buildAndExpand(novaConsulta.getId()).toUri();
+            return ResponseEntity.created(location).body(novaConsulta);
+        });
+    }
+
+    /**
+     * Schedules several appointments at once, in a single transaction.
+     * Useful for recurring treatments, such as ten weekly sessions.
+     * @param agendamentos The appointments to schedule.
+     * @return A ResponseEntity containing one result per item, in request order,
+     * telling whether it was booked and, if not, why.
+     */
+    @PostMapping("/agendar/lote")
+    public ResponseEntity<List<ResultadoAgendamento>> agendarEmLote(@RequestBody List<AgendamentoRequest> agendamentos) {
+        List<ResultadoAgendamento> resultados = consultaService.agendarEmLote(agendamentos);
+        return ResponseEntity.ok(resultados);
     }
 
     /**
@@ -64,36 +105,76 @@ public class ConsultaController {
 
     /**
      * Retrieves all appointments.
-     * @return A ResponseEntity containing a list of all appointments.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing the agenda views of all appointments, or 304 (Not Modified)
+     * if nothing changed since the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping
-    public ResponseEntity<List<Consulta>> listarTodas() {
-        List<Consulta> consultas = consultaService.listarTodas();
-        return ResponseEntity.ok(consultas);
+    public ResponseEntity<List<ConsultaView>> listarTodas(WebRequest requisicao) {
+        return RespostasCondicionais.responder(requisicao, etagDasAgendas(), consultaService::listarTodas);
     }
 
     /**
      * Retrieves an appointment by its ID.
      * @param id The ID of the appointment to retrieve.
-     * @return A ResponseEntity containing the appointment with the given ID.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing the agenda view of the appointment with the given ID,
+     * or 304 (Not Modified) if the appointment, its patient and its dentist are still at the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/{id}")
-    public ResponseEntity<Consulta> buscarPorId(@PathVariable UUID id) {
-        Consulta consulta = consultaService.buscarPorId(id);
-        return ResponseEntity.ok(consulta);
+    public ResponseEntity<ConsultaView> buscarPorId(@PathVariable UUID id, WebRequest requisicao) {
+        String etag = consultaService.buscarVersao(id).map(RespostasCondicionais::etagForte).orElse(null);
+        return RespostasCondicionais.responder(requisicao, etag, () -> consultaService.buscarPorId(id));
+    }
+
+    /**
+     * Retrieves the agenda of several dentists over several days, grouped by dentist and day.
+     * Replaces one call to the day agenda per dentist and day, e.g. for the week view.
+     * @param inicio The first day of the period (e.g., 2025-12-01).
+     * @param fim The day after the last day of the period, exclusive; at most
+     *            {@value ConsultaService#DIAS_MAXIMOS_AGENDA} days after the first.
+     * @param dentistaIds The IDs of the dentists; omitted for every dentist.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing the agenda of each dentist, ordered by name,
+     * or 304 (Not Modified) if nothing changed since the client's ETag.
+     */
+    @Transactional(readOnly = true)
+    @GetMapping("/agenda")
+    public ResponseEntity<List<AgendaDentista>> buscarAgenda(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(required = false) List<UUID> dentistaIds,
+            WebRequest requisicao) {
+        return RespostasCondicionais.responder(requisicao, etagDasAgendas(),
+                () -> consultaService.buscarAgenda(inicio, fim, dentistaIds));
     }
 
     /**
      * Retrieves all appointments for a given dentist on a specific day.
      * @param dentistaId The ID of the dentist.
      * @param dia The day to retrieve appointments for.
-     * @return A ResponseEntity containing a list of appointments for the given dentist on the specified day.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing the agenda views of the appointments for the given dentist on the specified day,
+     * or 304 (Not Modified) if nothing changed since the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/dentista/{dentistaId}")
-    public ResponseEntity<List<Consulta>> buscarConsultasDoDiaPorDentista(
+    public ResponseEntity<List<ConsultaView>> buscarConsultasDoDiaPorDentista(
             @PathVariable UUID dentistaId,
-            @RequestParam("dia") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dia) {
-        List<Consulta> consultas = consultaService.buscarConsultasDoDiaPorDentista(dentistaId, dia);
-        return ResponseEntity.ok(consultas);
+            @RequestParam("dia") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dia,
+            WebRequest requisicao) {
+        return RespostasCondicionais.responder(requisicao, etagDasAgendas(),
+                () -> consultaService.buscarConsultasDoDiaPorDentista(dentistaId, dia));
+    }
+
+    /**
+     * Builds the weak ETag of the agenda listings, which read appointments,
+     * patients and dentists.
+     */
+    private String etagDasAgendas() {
+        return RespostasCondicionais.etagFraca(versoesDasTabelas.versao(
+                VersoesDasTabelas.CONSULTAS, VersoesDasTabelas.PACIENTES, VersoesDasTabelas.DENTISTAS));
     }
 }
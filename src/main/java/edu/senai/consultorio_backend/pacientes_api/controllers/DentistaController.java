@@ -1,10 +1,16 @@
 package edu.senai.consultorio_backend.pacientes_api.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.service.AplicadorMergePatch;
 import edu.senai.consultorio_backend.pacientes_api.service.DentistaService;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -14,6 +20,8 @@ import java.util.UUID;
 /**
  * Controller for managing dentists.
  * This class provides endpoints for creating, retrieving, updating, and deleting dentists.
+ * Reads carry an ETag and are answered with 304 (Not Modified) when the client
+ * already has that version.
  */
 @RestController
 @RequestMapping("/api/dentistas")
@@ -21,35 +29,44 @@ import java.util.UUID;
 public class DentistaController {
 
     private final DentistaService dentistaService;
+    private final VersoesDasTabelas versoesDasTabelas;
 
     /**
      * Constructs a new DentistaController with the given DentistaService.
      * @param dentistaService The service for managing dentists.
+     * @param versoesDasTabelas The table versions, used as the ETag of the listing.
      */
     @Autowired
-    public DentistaController(DentistaService dentistaService) {
+    public DentistaController(DentistaService dentistaService, VersoesDasTabelas versoesDasTabelas) {
         this.dentistaService = dentistaService;
+        this.versoesDasTabelas = versoesDasTabelas;
     }
 
     /**
      * Retrieves all dentists.
-     * @return A ResponseEntity containing a list of all dentists.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing a list of all dentists, or 304 (Not Modified)
+     * if no dentist changed since the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping
-    public ResponseEntity<List<Dentista>> listarTodos() {
-        List<Dentista> dentistas = dentistaService.listarTodos();
-        return ResponseEntity.ok(dentistas);
+    public ResponseEntity<List<Dentista>> listarTodos(WebRequest requisicao) {
+        String etag = RespostasCondicionais.etagFraca(versoesDasTabelas.versao(VersoesDasTabelas.DENTISTAS));
+        return RespostasCondicionais.responder(requisicao, etag, dentistaService::listarTodos);
     }
 
     /**
      * Retrieves a dentist by their ID.
      * @param id The ID of the dentist to retrieve.
-     * @return A ResponseEntity containing the dentist with the given ID.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return A ResponseEntity containing the dentist with the given ID, or 304 (Not Modified)
+     * if the dentist is still at the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/{id}")
-    public ResponseEntity<Dentista> buscarPorId(@PathVariable UUID id) {
-        Dentista dentista = dentistaService.buscarPorId(id);
-        return ResponseEntity.ok(dentista);
+    public ResponseEntity<Dentista> buscarPorId(@PathVariable UUID id, WebRequest requisicao) {
+        String etag = dentistaService.buscarVersao(id).map(RespostasCondicionais::etagForte).orElse(null);
+        return RespostasCondicionais.responder(requisicao, etag, () -> dentistaService.buscarPorId(id));
     }
 
     /**
@@ -62,7 +79,9 @@ public class DentistaController {
         Dentista novoDentista = dentistaService.cadastrar(dentista);
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(novoDentista.getId()).toUri();
-        return ResponseEntity.created(location).body(novoDentista);
+        return ResponseEntity.created(location)
+                .eTag(RespostasCondicionais.etagForte(novoDentista.getVersao()))
+                .body(novoDentista);
     }
 
     /**
@@ -74,7 +93,24 @@ public class DentistaController {
     @PutMapping("/{id}")
     public ResponseEntity<Dentista> atualizar(@PathVariable UUID id, @RequestBody Dentista dentistaDetails) {
         Dentista dentistaAtualizado = dentistaService.atualizar(id, dentistaDetails);
-        return ResponseEntity.ok(dentistaAtualizado);
+        return ResponseEntity.ok()
+                .eTag(RespostasCondicionais.etagForte(dentistaAtualizado.getVersao()))
+                .body(dentistaAtualizado);
+    }
+
+    /**
+     * Updates some fields of an existing dentist with a JSON Merge Patch (RFC 7396).
+     * Only the fields sent are changed, and only the columns whose value differs are written.
+     * @param id The ID of the dentist to update.
+     * @param alteracoes The merge patch, e.g. {"especialidade": "Ortodontia"}.
+     * @return A ResponseEntity containing the updated dentist, or 400 (Bad Request) if the patch is malformed.
+     */
+    @PatchMapping(value = "/{id}", consumes = {AplicadorMergePatch.APPLICATION_MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Dentista> atualizarParcialmente(@PathVariable UUID id, @RequestBody JsonNode alteracoes) {
+        Dentista dentistaAtualizado = dentistaService.atualizarParcialmente(id, alteracoes);
+        return ResponseEntity.ok()
+                .eTag(RespostasCondicionais.etagForte(dentistaAtualizado.getVersao()))
+                .body(dentistaAtualizado);
     }
 
     /**
@@ -0,0 +1,57 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.DisponibilidadeDentista;
+import edu.senai.consultorio_backend.pacientes_api.service.DisponibilidadeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST Controller for the dentists' availability.
+ * It gives the booking screen every free slot of a period in one response,
+ * instead of one agenda request per day.
+ */
+@RestController
+@RequestMapping("/api/disponibilidade")
+@CrossOrigin(origins = "http://localhost:4200")
+public class DisponibilidadeController {
+
+    private final DisponibilidadeService disponibilidadeService;
+
+    /**
+     * Constructor for dependency injection of DisponibilidadeService.
+     *
+     * @param disponibilidadeService The availability service instance.
+     */
+    @Autowired
+    public DisponibilidadeController(DisponibilidadeService disponibilidadeService) {
+        this.disponibilidadeService = disponibilidadeService;
+    }
+
+    /**
+     * Endpoint to find the free slots of a dentist, or of every dentist of a specialty.
+     * Mapped to the GET request on /api/disponibilidade.
+     *
+     * @param dentistaId The ID of the dentist; omitted when searching by specialty.
+     * @param especialidade The specialty; omitted when searching by dentist.
+     * @param de The first day of the period (e.g., 2026-11-01).
+     * @param ate The last day of the period, inclusive; at most
+     *            {@value DisponibilidadeService#DIAS_MAXIMOS} days after the first.
+     * @param duracaoMinutos The length of the slots in minutes; defaults to the default appointment duration.
+     * @return ResponseEntity containing the free slots of each dentist and HTTP status 200 (OK).
+     */
+    @GetMapping
+    public ResponseEntity<List<DisponibilidadeDentista>> buscarHorariosLivres(
+            @RequestParam(required = false) UUID dentistaId,
+            @RequestParam(required = false) String especialidade,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) Integer duracaoMinutos) {
+        return ResponseEntity.ok(disponibilidadeService.buscarHorariosLivres(dentistaId, especialidade, de, ate, duracaoMinutos));
+    }
+}
@@ -0,0 +1,105 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.service.ExportacaoService;
+import edu.senai.consultorio_backend.pacientes_api.service.FormatoExportacao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST Controller for the patient and appointment exports.
+ * Meant for reports and backups: the rows are streamed from a database cursor
+ * straight to the response, in CSV or NDJSON, and compressed with gzip when
+ * the client accepts it.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:4200")
+public class ExportacaoController {
+
+    private static final int TAMANHO_BUFFER_GZIP = 64 * 1024;
+
+    private final ExportacaoService exportacaoService;
+
+    /**
+     * Constructor for dependency injection of ExportacaoService.
+     *
+     * @param exportacaoService The export service instance.
+     */
+    @Autowired
+    public ExportacaoController(ExportacaoService exportacaoService) {
+        this.exportacaoService = exportacaoService;
+    }
+
+    /**
+     * Endpoint to export all patients.
+     * Mapped to the GET request on /api/pacientes/exportacao.
+     *
+     * @param formato The format of the file: "ndjson" (default) or "csv".
+     * @param aceitaCodificacao The Accept-Encoding header; the file is gzipped when it includes "gzip".
+     * @return ResponseEntity whose body streams the file, with HTTP status 200 (OK).
+     */
+    @GetMapping("/api/pacientes/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportarPacientes(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceitaCodificacao) {
+        FormatoExportacao formatoExportacao = FormatoExportacao.deNome(formato);
+        return responder("pacientes", formatoExportacao, aceitaCodificacao, exportacaoService::exportarPacientes);
+    }
+
+    /**
+     * Endpoint to export appointments, optionally within a period.
+     * Mapped to the GET request on /api/consultas/exportacao.
+     *
+     * @param formato The format of the file: "ndjson" (default) or "csv".
+     * @param inicio The start of the period, inclusive (e.g., 2025-12-01T00:00:00); omitted for no lower bound.
+     * @param fim The end of the period, exclusive; omitted for no upper bound.
+     * @param aceitaCodificacao The Accept-Encoding header; the file is gzipped when it includes "gzip".
+     * @return ResponseEntity whose body streams the file, with HTTP status 200 (OK).
+     */
+    @GetMapping("/api/consultas/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportarConsultas(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceitaCodificacao) {
+        FormatoExportacao formatoExportacao = FormatoExportacao.deNome(formato);
+        // Checked before streaming, since the body only runs after the 200 status has been sent.
+        ExportacaoService.validarPeriodo(inicio, fim);
+        return responder("consultas", formatoExportacao, aceitaCodificacao,
+                (formatoDoArquivo, saida) -> exportacaoService.exportarConsultas(inicio, fim, formatoDoArquivo, saida));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> responder(String nome, FormatoExportacao formato,
+            String aceitaCodificacao, BiConsumer<FormatoExportacao, OutputStream> exportacao) {
+        boolean gzip = aceitaCodificacao != null && aceitaCodificacao.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody corpo = saida -> {
+            if (gzip) {
+                GZIPOutputStream compactada = new GZIPOutputStream(saida, TAMANHO_BUFFER_GZIP);
+                exportacao.accept(formato, compactada);
+                compactada.finish();
+            } else {
+                exportacao.accept(formato, saida);
+            }
+        };
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getTipoDeConteudo()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nome + "." + formato.getExtensao()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta.body(corpo);
+    }
+}
@@ -0,0 +1,108 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.ImportacaoPacientes;
+import edu.senai.consultorio_backend.pacientes_api.service.FormatoImportacao;
+import edu.senai.consultorio_backend.pacientes_api.service.ImportacaoPacientesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST Controller for bulk patient imports.
+ * The request body is handed to the service as a stream, so files of any size
+ * can be posted. The POST returns as soon as the file is stored, before any
+ * row is inserted; the import runs in the background and its progress can be
+ * followed through the GET endpoints.
+ */
+@RestController
+@RequestMapping("/api/pacientes/importacoes")
+@CrossOrigin(origins = "http://localhost:4200")
+public class ImportacaoPacientesController {
+
+    /**
+     * Media type of newline-delimited JSON files.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Media type of CSV files.
+     */
+    public static final String TEXT_CSV = "text/csv";
+
+    private final ImportacaoPacientesService importacaoService;
+
+    /**
+     * Constructor for dependency injection of ImportacaoPacientesService.
+     *
+     * @param importacaoService The patient import service instance.
+     */
+    @Autowired
+    public ImportacaoPacientesController(ImportacaoPacientesService importacaoService) {
+        this.importacaoService = importacaoService;
+    }
+
+    /**
+     * Endpoint to import patients from a CSV file.
+     * Mapped to the POST request on /api/pacientes/importacoes with Content-Type text/csv.
+     *
+     * @param corpo The CSV file, whose header row names the patient fields.
+     * @return ResponseEntity with HTTP status 202 (Accepted), the import just
+     * started in the response body, and the 'Location' header with the URL of its report.
+     * @throws IOException if the file cannot be read or stored.
+     */
+    @PostMapping(consumes = TEXT_CSV)
+    public ResponseEntity<ImportacaoPacientes> importarCsv(InputStream corpo) throws IOException {
+        return responder(importacaoService.importar(corpo, FormatoImportacao.CSV));
+    }
+
+    /**
+     * Endpoint to import patients from a newline-delimited JSON file.
+     * Mapped to the POST request on /api/pacientes/importacoes with Content-Type application/x-ndjson.
+     *
+     * @param corpo The NDJSON file, with one patient object per line.
+     * @return ResponseEntity with HTTP status 202 (Accepted), the import just
+     * started in the response body, and the 'Location' header with the URL of its report.
+     * @throws IOException if the file cannot be read or stored.
+     */
+    @PostMapping(consumes = APPLICATION_NDJSON)
+    public ResponseEntity<ImportacaoPacientes> importarNdjson(InputStream corpo) throws IOException {
+        return responder(importacaoService.importar(corpo, FormatoImportacao.NDJSON));
+    }
+
+    /**
+     * Endpoint to list the imports that are running or finished recently.
+     * Mapped to the GET request on /api/pacientes/importacoes.
+     *
+     * @return ResponseEntity containing the imports, newest first, and HTTP status 200 (OK).
+     */
+    @GetMapping
+    public ResponseEntity<List<ImportacaoPacientes>> listar() {
+        return ResponseEntity.ok(importacaoService.listarImportacoes());
+    }
+
+    /**
+     * Endpoint to follow the progress of an import.
+     * Mapped to the GET request on /api/pacientes/importacoes/{id}.
+     *
+     * @param id The UUID of the import.
+     * @return ResponseEntity containing the import and HTTP status 200 (OK),
+     * or HTTP status 404 (Not Found) if it does not exist or has been discarded.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportacaoPacientes> buscarPorId(@PathVariable UUID id) {
+        return ResponseEntity.of(importacaoService.buscarImportacao(id));
+    }
+
+    private static ResponseEntity<ImportacaoPacientes> responder(ImportacaoPacientes importacao) {
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+                .buildAndExpand(importacao.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(importacao);
+    }
+}
@@ -1,14 +1,28 @@
 package edu.senai.consultorio_backend.pacientes_api.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.AplicadorMergePatch;
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
 import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -16,6 +30,8 @@ import java.util.UUID;
  * This class exposes API endpoints to perform CRUD operations on patients.
  * It receives HTTP requests, triggers the corresponding service layer,
  * and returns an appropriate HTTP response.
+ * Reads carry an ETag (strong for a patient, weak for the listings) and are
+ * answered with 304 (Not Modified) when the client already has that version.
  */
 @RestController
 @RequestMapping("/api/pacientes")
@@ -23,27 +39,104 @@ import java.util.UUID;
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final VersoesDasTabelas versoesDasTabelas;
+    private final ObjectMapper objectMapper;
+    private final Idempotencia idempotencia;
 
     /**
      * Constructor for dependency injection of PacienteService.
      *
      * @param pacienteService The patient service instance.
+     * @param versoesDasTabelas The table versions, used as the ETag of the listings.
+     * @param objectMapper The JSON mapper used to write streamed responses.
+     * @param idempotencia The responses stored for the Idempotency-Key of the registrations.
      */
     @Autowired
-    public PacienteController(PacienteService pacienteService) {
+    public PacienteController(PacienteService pacienteService, VersoesDasTabelas versoesDasTabelas,
+                              ObjectMapper objectMapper, Idempotencia idempotencia) {
         this.pacienteService = pacienteService;
+        this.versoesDasTabelas = versoesDasTabelas;
+        this.objectMapper = objectMapper;
+        this.idempotencia = idempotencia;
     }
 
     /**
-     * Endpoint to list all patients.
+     * Endpoint to list patients one page at a time.
      * Mapped to the GET request on /api/pacientes.
      *
-     * @return ResponseEntity containing the list of all patients and HTTP status 200 (OK).
+     * @param cursor The opaque cursor returned with the previous page; omitted for the first page.
+     * @param limite The page size; defaults to {@value PacienteService#TAMANHO_PAGINA_PADRAO}
+     *               and is capped at {@value PacienteService#TAMANHO_PAGINA_MAXIMO}.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return ResponseEntity containing the page of patients and HTTP status 200 (OK),
+     * or HTTP status 304 (Not Modified) if no patient changed since the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping
-    public ResponseEntity<List<Paciente>> listarTodos() {
-        List<Paciente> pacientes = pacienteService.listarTodos();
-        return ResponseEntity.ok(pacientes);
+    public ResponseEntity<PaginaCursor<Paciente>> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            WebRequest requisicao) {
+        String etag = RespostasCondicionais.etagFraca(versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+        return RespostasCondicionais.responder(requisicao, etag, () -> pacienteService.listarPagina(cursor, limite));
+    }
+
+    /**
+     * Endpoint to stream all patients as a single JSON array.
+     * Mapped to the GET request on /api/pacientes?stream=true.
+     * Each patient is written to the response as soon as it is read from the
+     * database cursor, so the full table is never held in memory.
+     *
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return ResponseEntity whose body writes the JSON array of all patients,
+     * or HTTP status 304 (Not Modified) if no patient changed since the client's ETag.
+     */
+    @Transactional(readOnly = true)
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> transmitirTodos(WebRequest requisicao) {
+        String etag = RespostasCondicionais.etagFraca(versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+        if (requisicao.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        StreamingResponseBody corpo = saida -> {
+            try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+                gerador.writeStartArray();
+                pacienteService.percorrerTodos(paciente -> {
+                    try {
+                        gerador.writeObject(paciente);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gerador.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corpo);
+    }
+
+    /**
+     * Endpoint to search patients by name, CPF, WhatsApp phone or email.
+     * Mapped to the GET request on /api/pacientes/search.
+     *
+     * @param q The search term: a name (accents and case are ignored), an email
+     *          prefix, or the digits of a CPF or phone number.
+     * @param cursor The opaque cursor returned with the previous page; omitted for the first page.
+     * @param limite The page size; defaults to {@value PacienteService#TAMANHO_PAGINA_BUSCA}
+     *               and is capped at {@value PacienteService#TAMANHO_PAGINA_BUSCA_MAXIMO}.
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return ResponseEntity containing the page of matching patients, most relevant first,
+     * and HTTP status 200 (OK), or HTTP status 304 (Not Modified) if no patient changed
+     * since the client's ETag.
+     */
+    @Transactional(readOnly = true)
+    @GetMapping("/search")
+    public ResponseEntity<PaginaCursor<Paciente>> buscar(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            WebRequest requisicao) {
+        String etag = RespostasCondicionais.etagFraca(versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+        return RespostasCondicionais.responder(requisicao, etag, () -> pacienteService.buscar(q, cursor, limite));
     }
 
     /**
@@ -51,28 +144,42 @@ public class PacienteController {
      * Mapped to the GET request on /api/pacientes/{id}.
      *
      * @param id The UUID of the patient to be fetched.
-     * @return ResponseEntity containing the found patient and HTTP status 200 (OK).
+     * @param requisicao The current request, for the If-None-Match check.
+     * @return ResponseEntity containing the found patient and HTTP status 200 (OK),
+     * or HTTP status 304 (Not Modified) if the patient is still at the client's ETag.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/{id}")
-    public ResponseEntity<Paciente> buscarPorId(@PathVariable UUID id) {
-        Paciente paciente = pacienteService.buscarPorId(id);
-        return ResponseEntity.ok(paciente);
+    public ResponseEntity<Paciente> buscarPorId(@PathVariable UUID id, WebRequest requisicao) {
+        String etag = pacienteService.buscarVersao(id).map(RespostasCondicionais::etagForte).orElse(null);
+        return RespostasCondicionais.responder(requisicao, etag, () -> pacienteService.buscarPorId(id));
     }
 
     /**
      * Endpoint to register a new patient.
      * Mapped to the POST request on /api/pacientes.
      *
+     * With an Idempotency-Key header, a retry gets the response of the first
+     * registration instead of registering the patient again.
+     *
      * @param paciente The Patient object sent in the request body.
+     * @param chaveIdempotencia The optional Idempotency-Key header.
      * @return ResponseEntity with HTTP status 201 (Created), the created patient
-     * in the response body, and the 'Location' header with the URL of the new resource.
+     * in the response body, and the 'Location' header with the URL of the new resource,
+     * or HTTP status 422 (Unprocessable Content) if the key was used with another body.
      */
     @PostMapping
-    public ResponseEntity<Paciente> cadastrar(@RequestBody Paciente paciente) {
-        Paciente novoPaciente = pacienteService.cadastrar(paciente);
-        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-                .buildAndExpand(novoPaciente.getId()).toUri();
-        return ResponseEntity.created(location).body(novoPaciente);
+    public ResponseEntity<?> cadastrar(
+            @RequestBody Paciente paciente,
+            @RequestHeader(name = RespostasIdempotentes.CABECALHO, required = false) String chaveIdempotencia) {
+        return RespostasIdempotentes.responder(idempotencia, "pacientes.cadastrar", chaveIdempotencia, paciente, () -> {
+            Paciente novoPaciente = pacienteService.cadastrar(paciente);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+                    .buildAndExpand(novoPaciente.getId()).toUri();
+            return ResponseEntity.created(location)
+                    .eTag(RespostasCondicionais.etagForte(novoPaciente.getVersao()))
+                    .body(novoPaciente);
+        });
     }
 
     /**
@@ -81,12 +188,45 @@ public class PacienteController {
      *
      * @param id The UUID of the patient to be updated.
      * @param pacienteDetails The Patient object with the new data.
-     * @return ResponseEntity containing the updated patient and HTTP status 200 (OK).
+     * @param seCorresponder The optional If-Match header: the ETag of the version the client last read.
+     * @return ResponseEntity containing the updated patient, with its new ETag, and HTTP status 200 (OK),
+     * or HTTP status 412 (Precondition Failed) if the patient changed since the If-Match version.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Paciente> atualizar(@PathVariable UUID id, @RequestBody Paciente pacienteDetails) {
-        Paciente pacienteAtualizado = pacienteService.atualizar(id, pacienteDetails);
-        return ResponseEntity.ok(pacienteAtualizado);
+    public ResponseEntity<Paciente> atualizar(
+            @PathVariable UUID id,
+            @RequestBody Paciente pacienteDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String seCorresponder) {
+        Paciente pacienteAtualizado = pacienteService.atualizar(id, pacienteDetails,
+                RespostasCondicionais.versaoEsperada(seCorresponder));
+        return ResponseEntity.ok()
+                .eTag(RespostasCondicionais.etagForte(pacienteAtualizado.getVersao()))
+                .body(pacienteAtualizado);
+    }
+
+    /**
+     * Endpoint to update some fields of an existing patient with a JSON Merge Patch (RFC 7396).
+     * Mapped to the PATCH request on /api/pacientes/{id}.
+     * Only the fields sent are changed, and only the columns whose value
+     * differs are written.
+     *
+     * @param id The UUID of the patient to be updated.
+     * @param alteracoes The merge patch, e.g. {"email": "novo@email.com", "ultimoProcedimento": null}.
+     * @param seCorresponder The optional If-Match header: the ETag of the version the client last read.
+     * @return ResponseEntity containing the updated patient, with its ETag, and HTTP status 200 (OK),
+     * HTTP status 400 (Bad Request) if the patch is malformed, or HTTP status 412 (Precondition Failed)
+     * if the patient changed since the If-Match version.
+     */
+    @PatchMapping(value = "/{id}", consumes = {AplicadorMergePatch.APPLICATION_MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Paciente> atualizarParcialmente(
+            @PathVariable UUID id,
+            @RequestBody JsonNode alteracoes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String seCorresponder) {
+        Paciente pacienteAtualizado = pacienteService.atualizarParcialmente(id, alteracoes,
+                RespostasCondicionais.versaoEsperada(seCorresponder));
+        return ResponseEntity.ok()
+                .eTag(RespostasCondicionais.etagForte(pacienteAtualizado.getVersao()))
+                .body(pacienteAtualizado);
     }
 
     /**
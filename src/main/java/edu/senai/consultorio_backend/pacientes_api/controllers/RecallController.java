@@ -0,0 +1,63 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.FaixaRecall;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.RecallService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for the patient recall buckets.
+ * It exposes, for re-engagement campaigns, the patients grouped by how long
+ * ago their last appointment or contact was.
+ */
+@RestController
+@RequestMapping("/api/recall")
+@CrossOrigin(origins = "http://localhost:4200")
+public class RecallController {
+
+    private final RecallService recallService;
+
+    /**
+     * Constructor for dependency injection of RecallService.
+     *
+     * @param recallService The recall service instance.
+     */
+    @Autowired
+    public RecallController(RecallService recallService) {
+        this.recallService = recallService;
+    }
+
+    /**
+     * Endpoint to list the recall buckets and how many patients each holds.
+     * Mapped to the GET request on /api/recall.
+     *
+     * @return ResponseEntity containing the buckets and HTTP status 200 (OK).
+     */
+    @GetMapping
+    public ResponseEntity<List<FaixaRecall>> listarFaixas() {
+        return ResponseEntity.ok(recallService.listarFaixas());
+    }
+
+    /**
+     * Endpoint to list the patients of a recall bucket one page at a time.
+     * Mapped to the GET request on /api/recall/{meses}.
+     *
+     * @param meses The number of months that opens the bucket (e.g., 6, 12 or 24).
+     * @param cursor The opaque cursor returned with the previous page; omitted for the first page.
+     * @param limite The page size; defaults to {@value RecallService#TAMANHO_PAGINA_PADRAO}
+     *               and is capped at {@value RecallService#TAMANHO_PAGINA_MAXIMO}.
+     * @return ResponseEntity containing the page of patients, most overdue first, and HTTP status 200 (OK).
+     */
+    @GetMapping("/{meses}")
+    public ResponseEntity<PaginaCursor<Paciente>> listarFaixa(
+            @PathVariable int meses,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(recallService.listarFaixa(meses, cursor, limite));
+    }
+}
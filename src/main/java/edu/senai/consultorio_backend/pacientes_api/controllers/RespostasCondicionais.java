@@ -0,0 +1,181 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.service.VersaoDesatualizadaException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for conditional requests. Single resources carry a strong ETag, the
+ * version of the row; listings carry a weak ETag, the version of the tables
+ * they are built from. The version is looked up before the body is built, so
+ * a matching If-None-Match is answered with 304 without loading anything.
+ *
+ * The controller methods that use these helpers are read-only transactions,
+ * which the services reading the body join: the version and the body come
+ * from the same connection, and so from the same database, primary or read
+ * replica. The version is read first, so the body is never older than its
+ * ETag; otherwise a lagging replica could serve an old body under the
+ * primary's new ETag, and the client would keep it until the next write.
+ *
+ * The same version is sent as JSON, CBOR or Smile depending on the Accept
+ * header, and each is a different representation, so each gets its own ETag:
+ * JSON's is the bare version ("3"), and the binary formats add a suffix
+ * ("3-cbor", "3-smile"). The format is taken from the Accept header of the
+ * current request, the way Spring MVC picks the converter: the acceptable
+ * type with the highest quality, and among the formats it admits, the first
+ * of JSON, CBOR and Smile.
+ */
+final class RespostasCondicionais {
+
+    /**
+     * A format of the responses and the suffix it adds to the ETag.
+     */
+    private record Formato(MediaType tipo, String sufixo) {
+    }
+
+    /**
+     * The formats of the responses, in the order Spring MVC prefers them.
+     */
+    private static final List<Formato> FORMATOS = List.of(
+            new Formato(MediaType.APPLICATION_JSON, ""),
+            new Formato(MediaType.APPLICATION_CBOR, "-cbor"),
+            new Formato(new MediaType("application", "x-jackson-smile"), "-smile"));
+
+    private RespostasCondicionais() {
+    }
+
+    /**
+     * Builds the strong ETag of a single resource, in the format the current
+     * request accepts.
+     *
+     * @param versao The version of the resource, or null.
+     * @return The quoted ETag, or null when there is no version.
+     */
+    static String etagForte(Object versao) {
+        return versao == null ? null : "\"" + versao + sufixoDoFormato() + "\"";
+    }
+
+    /**
+     * Builds the weak ETag of a listing, in the format the current request accepts.
+     *
+     * @param versao The version of the tables behind the listing.
+     * @return The weak, quoted ETag.
+     */
+    static String etagFraca(long versao) {
+        return "W/\"" + versao + sufixoDoFormato() + "\"";
+    }
+
+    /**
+     * Rewrites an ETag built for any format into the format the current
+     * request accepts, for responses stored and sent again.
+     *
+     * @param etag A strong ETag built by {@link #etagForte(Object)}, or null.
+     * @return The ETag of the same version in the current format, or null.
+     */
+    static String noFormatoPedido(String etag) {
+        if (etag == null || !etag.startsWith("\"")) {
+            return etag;
+        }
+        return etagForte(versaoDaEtag(etag.substring(1, etag.length() - 1)));
+    }
+
+    /**
+     * Answers a GET with 304 (Not Modified) when the client's If-None-Match
+     * matches the ETag, and with 200 and the body otherwise. The ETag header
+     * is set in both cases. The body is only built for the 200 response.
+     * Both vary by Accept, since the body may be JSON, CBOR or Smile.
+     *
+     * @param requisicao The current request.
+     * @param etag The ETag of the current version, or null when it is unknown.
+     * @param corpo Builds the body of the 200 response.
+     * @return The response.
+     */
+    static <T> ResponseEntity<T> responder(WebRequest requisicao, String etag, Supplier<T> corpo) {
+        if (etag != null && requisicao.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(corpo.get());
+    }
+
+    /**
+     * Reads the version an update is conditioned on from an If-Match header.
+     * Only a single strong ETag issued by this API is accepted; weak or
+     * unknown ETags can never match, as required for If-Match.
+     *
+     * @param seCorresponder The If-Match header, or null.
+     * @return The expected version, or null when the update is unconditional (no header or "*").
+     * @throws VersaoDesatualizadaException if the header holds anything but a single ETag of this API.
+     */
+    static Long versaoEsperada(String seCorresponder) {
+        if (seCorresponder == null || seCorresponder.isBlank() || seCorresponder.trim().equals("*")) {
+            return null;
+        }
+        String etag = seCorresponder.trim();
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            try {
+                return Long.parseLong(versaoDaEtag(etag.substring(1, etag.length() - 1)));
+            } catch (NumberFormatException e) {
+                // Falls through: not an ETag of this API.
+            }
+        }
+        throw new VersaoDesatualizadaException("If-Match não corresponde à versão atual do recurso: " + seCorresponder);
+    }
+
+    /**
+     * Removes the format suffix from the value of an ETag.
+     */
+    private static String versaoDaEtag(String valor) {
+        for (Formato formato : FORMATOS) {
+            if (!formato.sufixo().isEmpty() && valor.endsWith(formato.sufixo())) {
+                return valor.substring(0, valor.length() - formato.sufixo().length());
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * The ETag suffix of the format the current request accepts: empty for
+     * JSON, the default when there is no request, no Accept header, or none of
+     * the formats is acceptable (Spring MVC then answers 406 anyway).
+     */
+    private static String sufixoDoFormato() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (!(atributos instanceof ServletRequestAttributes servlet)) {
+            return "";
+        }
+        String aceitos = servlet.getRequest().getHeader(HttpHeaders.ACCEPT);
+        if (aceitos == null || aceitos.isBlank()) {
+            return "";
+        }
+        List<MediaType> tipos;
+        try {
+            tipos = new ArrayList<>(MediaType.parseMediaTypes(aceitos));
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        tipos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType tipo : tipos) {
+            if (tipo.getQualityValue() == 0) {
+                break;
+            }
+            for (Formato formato : FORMATOS) {
+                if (tipo.isCompatibleWith(formato.tipo())) {
+                    return formato.sufixo();
+                }
+            }
+        }
+        return "";
+    }
+}
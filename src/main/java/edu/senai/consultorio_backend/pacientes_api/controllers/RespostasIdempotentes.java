@@ -0,0 +1,58 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Helpers for POSTs that accept an Idempotency-Key header. A request with
+ * the header runs through {@link Idempotencia}, so a retry of a request that
+ * succeeded gets the same status, Location, ETag and body back, in the format
+ * of its own Accept header, without repeating the write. A request without
+ * the header is handled as usual.
+ */
+final class RespostasIdempotentes {
+
+    /**
+     * The header carrying the key chosen by the client, usually a UUID.
+     */
+    static final String CABECALHO = "Idempotency-Key";
+
+    private RespostasIdempotentes() {
+    }
+
+    /**
+     * Runs a write at most once per key of the authenticated user.
+     *
+     * @param idempotencia The stored responses.
+     * @param operacao The name of the operation, so the same key can be used for different operations.
+     * @param chave The Idempotency-Key header, or null.
+     * @param requisicao The request body.
+     * @param escrita Runs the write and builds its response.
+     * @return The response of the write, or the one stored for the key.
+     */
+    static ResponseEntity<?> responder(Idempotencia idempotencia, String operacao, String chave, Object requisicao,
+                                       Supplier<ResponseEntity<?>> escrita) {
+        if (chave == null) {
+            return escrita.get();
+        }
+        String usuario = SecurityContextHolder.getContext().getAuthentication().getName();
+        Idempotencia.Resposta resposta = idempotencia.executar(operacao, usuario, chave, requisicao, () -> {
+            ResponseEntity<?> entidade = escrita.get();
+            HttpHeaders cabecalhos = entidade.getHeaders();
+            return new Idempotencia.Resposta(entidade.getStatusCode().value(),
+                    cabecalhos.getFirst(HttpHeaders.LOCATION), cabecalhos.getETag(), entidade.getBody());
+        });
+        ResponseEntity.BodyBuilder construtor = ResponseEntity.status(resposta.status());
+        if (resposta.location() != null) {
+            construtor.header(HttpHeaders.LOCATION, resposta.location());
+        }
+        if (resposta.etag() != null) {
+            construtor.eTag(RespostasCondicionais.noFormatoPedido(resposta.etag()));
+        }
+        return construtor.body(resposta.corpo());
+    }
+}
@@ -0,0 +1,109 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AlteracaoAgenda;
+import edu.senai.consultorio_backend.pacientes_api.service.AlteracoesDaAgenda;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One client's server-sent event stream of agenda changes.
+ * Changes are buffered in a bounded queue and written by a virtual thread of
+ * its own, so a slow client only ever delays itself. When the queue fills up
+ * the stream is closed; the browser reconnects with the ID of the last change
+ * it got and picks up the rest from the history; the same happens when the
+ * application shuts down. While nothing changes, a
+ * comment line is sent every heartbeat interval, which keeps proxies from
+ * closing an idle connection and reveals clients that went away.
+ */
+final class TransmissaoDaAgenda implements AlteracoesDaAgenda.Assinante {
+
+    private final SseEmitter emitter = new SseEmitter();
+    private final BlockingQueue<AlteracaoAgenda> fila;
+    private final Duration intervaloHeartbeat;
+
+    private volatile boolean transbordou;
+    private volatile boolean encerrada;
+    private volatile Thread remetente;
+
+    /**
+     * @param capacidade How many changes may wait for the client.
+     * @param intervaloHeartbeat How long the stream may stay silent.
+     */
+    TransmissaoDaAgenda(int capacidade, Duration intervaloHeartbeat) {
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.intervaloHeartbeat = intervaloHeartbeat;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    @Override
+    public boolean entregar(AlteracaoAgenda alteracao) {
+        if (fila.offer(alteracao)) {
+            return true;
+        }
+        transbordou = true;
+        return false;
+    }
+
+    /**
+     * Starts writing the stream.
+     *
+     * @param primeiroEvento An event to send before the changes, or null.
+     * @param aoEncerrar Called once when the stream ends, to unsubscribe.
+     */
+    void iniciar(SseEmitter.SseEventBuilder primeiroEvento, Runnable aoEncerrar) {
+        emitter.onCompletion(this::encerrar);
+        emitter.onTimeout(this::encerrar);
+        emitter.onError(erro -> encerrar());
+        remetente = Thread.ofVirtual().name("agenda-alteracoes").start(() -> transmitir(primeiroEvento, aoEncerrar));
+    }
+
+    private void transmitir(SseEmitter.SseEventBuilder primeiroEvento, Runnable aoEncerrar) {
+        try {
+            if (primeiroEvento != null) {
+                emitter.send(primeiroEvento);
+            }
+            while (!encerrada && !transbordou) {
+                AlteracaoAgenda alteracao;
+                try {
+                    alteracao = fila.poll(intervaloHeartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Woken up by encerrar().
+                    break;
+                }
+                if (alteracao == null) {
+                    emitter.send(SseEmitter.event().comment(""));
+                } else if (!transbordou) {
+                    emitter.send(SseEmitter.event()
+                            .id(alteracao.getId())
+                            .name(alteracao.getTipo().name().toLowerCase(Locale.ROOT))
+                            .data(alteracao, MediaType.APPLICATION_JSON));
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the stream was completed meanwhile;
+            // Spring MVC completes the request.
+        } finally {
+            aoEncerrar.run();
+        }
+    }
+
+    @Override
+    public void encerrar() {
+        encerrada = true;
+        Thread thread = remetente;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+}
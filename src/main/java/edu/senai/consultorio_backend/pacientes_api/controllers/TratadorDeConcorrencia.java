@@ -0,0 +1,31 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns a lost update into a 409 Conflict.
+ * Patients, dentists and appointments carry a version that is checked by the
+ * UPDATE itself, so when two requests change the same row at the same time
+ * the second to commit fails instead of silently overwriting the first. The
+ * client should read the resource again and reapply its change.
+ */
+@RestControllerAdvice
+public class TratadorDeConcorrencia {
+
+    /**
+     * Handles the exception thrown when the version checked by an update is no longer current.
+     * @param e The exception thrown at commit.
+     * @return A 409 response.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> alteracaoConcorrente(OptimisticLockingFailureException e) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "O recurso foi alterado por outra requisição. Leia-o novamente e refaça a alteração.");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problema);
+    }
+}
@@ -0,0 +1,40 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns a failure to get a database connection into a 503 Service Unavailable.
+ * With virtual threads there is no request thread pool to queue excess load,
+ * so the connection pool is the limit: a request that cannot get a connection
+ * within "spring.datasource.hikari.connection-timeout" is rejected with a
+ * Retry-After header instead of waiting indefinitely or failing with a 500.
+ */
+@RestControllerAdvice
+public class TratadorDeSobrecarga {
+
+    /**
+     * The Retry-After, in seconds, of a response to an overloaded server.
+     */
+    public static final String SEGUNDOS_PARA_NOVA_TENTATIVA = "1";
+
+    /**
+     * Handles the exceptions thrown when no database connection is available.
+     * @param e The exception thrown by the transaction manager or the repository.
+     * @return A 503 response with a Retry-After header.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ProblemDetail> bancoIndisponivel(RuntimeException e) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "O banco de dados está sobrecarregado ou indisponível. Tente novamente em instantes.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_PARA_NOVA_TENTATIVA)
+                .body(problema);
+    }
+}
@@ -0,0 +1,64 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.UUID;
+
+/**
+ * Represents the agenda of one dentist over a period: the appointments of
+ * each day, with every day of the period present, even when it is empty.
+ */
+public class AgendaDentista {
+    private final UUID dentistaId;
+    private final String dentistaNome;
+    private final String dentistaEspecialidade;
+    private final SortedMap<LocalDate, List<ConsultaView>> dias;
+
+    /**
+     * Constructs a new AgendaDentista with the given parameters.
+     * @param dentistaId The ID of the dentist.
+     * @param dentistaNome The name of the dentist.
+     * @param dentistaEspecialidade The specialty of the dentist.
+     * @param dias The appointments of each day of the period, ordered by date and time.
+     */
+    public AgendaDentista(UUID dentistaId, String dentistaNome, String dentistaEspecialidade,
+                          SortedMap<LocalDate, List<ConsultaView>> dias) {
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+        this.dentistaEspecialidade = dentistaEspecialidade;
+        this.dias = dias;
+    }
+
+    /**
+     * Gets the ID of the dentist.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Gets the name of the dentist.
+     * @return The name of the dentist.
+     */
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    /**
+     * Gets the specialty of the dentist.
+     * @return The specialty of the dentist.
+     */
+    public String getDentistaEspecialidade() {
+        return dentistaEspecialidade;
+    }
+
+    /**
+     * Gets the appointments of each day.
+     * @return The appointments of each day of the period, keyed by date in chronological order.
+     */
+    public SortedMap<LocalDate, List<ConsultaView>> getDias() {
+        return dias;
+    }
+}
@@ -11,6 +11,7 @@ public class AgendamentoRequest {
     private UUID pacienteId;
     private UUID dentistaId;
     private LocalDateTime dataHora;
+    private Integer duracaoMinutos;
 
     /**
      * Gets the patient ID.
@@ -59,4 +60,20 @@ public class AgendamentoRequest {
     public void setDataHora(LocalDateTime dataHora) {
         this.dataHora = dataHora;
     }
+
+    /**
+     * Gets the duration of the appointment, in minutes.
+     * @return The duration of the appointment, or null to use the default duration.
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Sets the duration of the appointment, in minutes.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     */
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
 }
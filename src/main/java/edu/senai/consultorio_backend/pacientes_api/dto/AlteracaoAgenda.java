@@ -0,0 +1,91 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Represents a change to a dentist's agenda, as pushed to the screens that
+ * follow that dentist's day. A booking carries the new appointment, in the
+ * same form as the agenda listings; a cancellation only identifies the
+ * appointment to remove.
+ */
+public class AlteracaoAgenda {
+    private final String id;
+    private final EventoConsulta.Tipo tipo;
+    private final UUID consultaId;
+    private final UUID dentistaId;
+    private final LocalDateTime dataHora;
+    private final ConsultaView consulta;
+
+    /**
+     * Constructs a new AlteracaoAgenda with the given parameters.
+     * @param id The ID of the change, unique within this application instance and run.
+     * @param tipo Whether the appointment was booked or cancelled.
+     * @param consultaId The ID of the appointment.
+     * @param dentistaId The ID of the dentist.
+     * @param dataHora The date and time of the appointment.
+     * @param consulta The new appointment, or null for a cancellation.
+     */
+    public AlteracaoAgenda(String id, EventoConsulta.Tipo tipo, UUID consultaId, UUID dentistaId,
+                           LocalDateTime dataHora, ConsultaView consulta) {
+        this.id = id;
+        this.tipo = tipo;
+        this.consultaId = consultaId;
+        this.dentistaId = dentistaId;
+        this.dataHora = dataHora;
+        this.consulta = consulta;
+    }
+
+    /**
+     * Gets the ID of the change. It is sent as the ID of the server-sent
+     * event, not in its data.
+     * @return The ID of the change.
+     */
+    @JsonIgnore
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the kind of change.
+     * @return Whether the appointment was booked or cancelled.
+     */
+    public EventoConsulta.Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Gets the ID of the appointment.
+     * @return The ID of the appointment.
+     */
+    public UUID getConsultaId() {
+        return consultaId;
+    }
+
+    /**
+     * Gets the ID of the dentist.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Gets the date and time of the appointment.
+     * @return The date and time of the appointment.
+     */
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    /**
+     * Gets the new appointment.
+     * @return The agenda view of the booked appointment, or null for a cancellation.
+     */
+    public ConsultaView getConsulta() {
+        return consulta;
+    }
+}
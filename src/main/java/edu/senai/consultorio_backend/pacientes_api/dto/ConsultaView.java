@@ -0,0 +1,121 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Represents an appointment as shown on the agenda screen.
+ * This read model is filled by a single constructor-projection query that
+ * joins the patient and the dentist, so listing appointments never touches
+ * lazy proxies nor issues one query per row. It carries only the patient
+ * and dentist fields the agenda needs.
+ */
+public class ConsultaView {
+    private final UUID id;
+    private final LocalDateTime dataHora;
+    private final Integer duracaoMinutos;
+    private final UUID pacienteId;
+    private final String pacienteNome;
+    private final String pacienteTelefoneWhatsapp;
+    private final UUID dentistaId;
+    private final String dentistaNome;
+    private final String dentistaEspecialidade;
+
+    /**
+     * Constructs a new ConsultaView with the given parameters.
+     * @param id The ID of the appointment.
+     * @param dataHora The date and time of the appointment.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     * @param pacienteId The ID of the patient.
+     * @param pacienteNome The name of the patient.
+     * @param pacienteTelefoneWhatsapp The WhatsApp phone number of the patient.
+     * @param dentistaId The ID of the dentist.
+     * @param dentistaNome The name of the dentist.
+     * @param dentistaEspecialidade The specialty of the dentist.
+     */
+    public ConsultaView(UUID id, LocalDateTime dataHora, Integer duracaoMinutos,
+                        UUID pacienteId, String pacienteNome, String pacienteTelefoneWhatsapp,
+                        UUID dentistaId, String dentistaNome, String dentistaEspecialidade) {
+        this.id = id;
+        this.dataHora = dataHora;
+        this.duracaoMinutos = duracaoMinutos;
+        this.pacienteId = pacienteId;
+        this.pacienteNome = pacienteNome;
+        this.pacienteTelefoneWhatsapp = pacienteTelefoneWhatsapp;
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+        this.dentistaEspecialidade = dentistaEspecialidade;
+    }
+
+    /**
+     * Gets the ID of the appointment.
+     * @return The ID of the appointment.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Gets the date and time of the appointment.
+     * @return The date and time of the appointment.
+     */
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    /**
+     * Gets the duration of the appointment, in minutes.
+     * @return The duration of the appointment, or null if it was never set.
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Gets the ID of the patient.
+     * @return The ID of the patient.
+     */
+    public UUID getPacienteId() {
+        return pacienteId;
+    }
+
+    /**
+     * Gets the name of the patient.
+     * @return The name of the patient.
+     */
+    public String getPacienteNome() {
+        return pacienteNome;
+    }
+
+    /**
+     * Gets the WhatsApp phone number of the patient.
+     * @return The WhatsApp phone number of the patient.
+     */
+    public String getPacienteTelefoneWhatsapp() {
+        return pacienteTelefoneWhatsapp;
+    }
+
+    /**
+     * Gets the ID of the dentist.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Gets the name of the dentist.
+     * @return The name of the dentist.
+     */
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    /**
+     * Gets the specialty of the dentist.
+     * @return The specialty of the dentist.
+     */
+    public String getDentistaEspecialidade() {
+        return dentistaEspecialidade;
+    }
+}
@@ -0,0 +1,74 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents the free time of one dentist within a period: the start of every
+ * slot of {@code duracaoMinutos} minutes that can still be booked.
+ */
+public class DisponibilidadeDentista {
+    private final UUID dentistaId;
+    private final String dentistaNome;
+    private final String especialidade;
+    private final int duracaoMinutos;
+    private final List<LocalDateTime> horarios;
+
+    /**
+     * Constructs a new DisponibilidadeDentista with the given parameters.
+     * @param dentistaId The ID of the dentist.
+     * @param dentistaNome The name of the dentist.
+     * @param especialidade The specialty of the dentist.
+     * @param duracaoMinutos The length of each slot, in minutes.
+     * @param horarios The start of each free slot, in chronological order.
+     */
+    public DisponibilidadeDentista(UUID dentistaId, String dentistaNome, String especialidade,
+                                   int duracaoMinutos, List<LocalDateTime> horarios) {
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+        this.especialidade = especialidade;
+        this.duracaoMinutos = duracaoMinutos;
+        this.horarios = horarios;
+    }
+
+    /**
+     * Gets the ID of the dentist.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Gets the name of the dentist.
+     * @return The name of the dentist.
+     */
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    /**
+     * Gets the specialty of the dentist.
+     * @return The specialty of the dentist.
+     */
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    /**
+     * Gets the length of each slot.
+     * @return The length of each slot, in minutes.
+     */
+    public int getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Gets the free slots.
+     * @return The start of each free slot, in chronological order.
+     */
+    public List<LocalDateTime> getHorarios() {
+        return horarios;
+    }
+}
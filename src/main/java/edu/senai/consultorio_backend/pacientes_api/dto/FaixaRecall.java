@@ -0,0 +1,61 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Represents one recall bucket: the patients whose latest appointment or
+ * contact happened at least {@code meses} months ago, but not as long ago as
+ * the next bucket.
+ */
+public class FaixaRecall {
+    private final int meses;
+    private final LocalDate referenciaDesde;
+    private final LocalDate referenciaAte;
+    private final long pacientes;
+
+    /**
+     * Constructs a new FaixaRecall with the given parameters.
+     * @param meses The number of months since the last appointment or contact that opens the bucket.
+     * @param referenciaDesde The earliest reference date in the bucket, or null for the oldest bucket.
+     * @param referenciaAte The reference date that closes the bucket, exclusive.
+     * @param pacientes The number of patients in the bucket.
+     */
+    public FaixaRecall(int meses, LocalDate referenciaDesde, LocalDate referenciaAte, long pacientes) {
+        this.meses = meses;
+        this.referenciaDesde = referenciaDesde;
+        this.referenciaAte = referenciaAte;
+        this.pacientes = pacientes;
+    }
+
+    /**
+     * Gets the number of months that opens the bucket.
+     * @return The number of months since the last appointment or contact.
+     */
+    public int getMeses() {
+        return meses;
+    }
+
+    /**
+     * Gets the earliest reference date in the bucket.
+     * @return The inclusive lower bound, or null for the oldest bucket.
+     */
+    public LocalDate getReferenciaDesde() {
+        return referenciaDesde;
+    }
+
+    /**
+     * Gets the reference date that closes the bucket.
+     * @return The exclusive upper bound.
+     */
+    public LocalDate getReferenciaAte() {
+        return referenciaAte;
+    }
+
+    /**
+     * Gets the number of patients in the bucket.
+     * @return The number of patients in the bucket.
+     */
+    public long getPacientes() {
+        return pacientes;
+    }
+}
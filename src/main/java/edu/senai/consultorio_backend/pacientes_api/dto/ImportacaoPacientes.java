@@ -0,0 +1,177 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import edu.senai.consultorio_backend.pacientes_api.service.FormatoImportacao;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents the progress and the report of a patient import.
+ * The import updates it from a single thread while the file is read, and any
+ * number of requests may read it meanwhile: the counters are volatile, and
+ * the rejected rows are guarded by the object's lock.
+ */
+public class ImportacaoPacientes {
+
+    /**
+     * The states of an import.
+     */
+    public enum Situacao {
+        EM_ANDAMENTO, CONCLUIDA, FALHOU
+    }
+
+    private final UUID id;
+    private final FormatoImportacao formato;
+    private final Instant iniciadaEm;
+    private final int maximoDeRejeicoesRelatadas;
+    private final List<RejeicaoImportacao> rejeicoes = new ArrayList<>();
+    private volatile Instant concluidaEm;
+    private volatile Situacao situacao = Situacao.EM_ANDAMENTO;
+    private volatile String erro;
+    private volatile long linhasLidas;
+    private volatile long inseridas;
+    private volatile long rejeitadas;
+
+    /**
+     * Constructs a new import that has just started.
+     * @param formato The format of the file being imported.
+     * @param maximoDeRejeicoesRelatadas How many rejected rows are kept in the report; the rest are only counted.
+     */
+    public ImportacaoPacientes(FormatoImportacao formato, int maximoDeRejeicoesRelatadas) {
+        this.id = UUID.randomUUID();
+        this.formato = formato;
+        this.iniciadaEm = Instant.now();
+        this.maximoDeRejeicoesRelatadas = maximoDeRejeicoesRelatadas;
+    }
+
+    /**
+     * Counts a row read from the file, before it is validated.
+     */
+    public void registrarLinhaLida() {
+        linhasLidas++;
+    }
+
+    /**
+     * Counts the rows of a chunk that were inserted.
+     * @param quantidade The number of rows inserted.
+     */
+    public void registrarInseridas(int quantidade) {
+        inseridas += quantidade;
+    }
+
+    /**
+     * Counts a rejected row and keeps it in the report while there is room.
+     * @param linha The line of the file the row came from.
+     * @param motivo The reason the row was rejected.
+     */
+    public synchronized void registrarRejeicao(long linha, String motivo) {
+        rejeitadas++;
+        if (rejeicoes.size() < maximoDeRejeicoesRelatadas) {
+            rejeicoes.add(new RejeicaoImportacao(linha, motivo));
+        }
+    }
+
+    /**
+     * Marks the import as finished, successfully or not.
+     * @param erro The reason the import stopped, or null if the whole file was read.
+     */
+    public void concluir(String erro) {
+        this.erro = erro;
+        this.concluidaEm = Instant.now();
+        this.situacao = erro == null ? Situacao.CONCLUIDA : Situacao.FALHOU;
+    }
+
+    /**
+     * Gets the ID of the import.
+     * @return The ID of the import.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Gets the format of the imported file.
+     * @return The format of the imported file.
+     */
+    public FormatoImportacao getFormato() {
+        return formato;
+    }
+
+    /**
+     * Gets the state of the import.
+     * @return The state of the import.
+     */
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    /**
+     * Gets the instant the import started.
+     * @return The instant the import started.
+     */
+    public Instant getIniciadaEm() {
+        return iniciadaEm;
+    }
+
+    /**
+     * Gets the instant the import finished.
+     * @return The instant the import finished, or null while it runs.
+     */
+    public Instant getConcluidaEm() {
+        return concluidaEm;
+    }
+
+    /**
+     * Gets the reason the import stopped before the end of the file.
+     * @return The error message, or null if the import did not fail.
+     */
+    public String getErro() {
+        return erro;
+    }
+
+    /**
+     * Gets the number of rows read from the file so far.
+     * @return The number of rows read.
+     */
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    /**
+     * Gets the number of patients inserted so far.
+     * @return The number of patients inserted.
+     */
+    public long getInseridas() {
+        return inseridas;
+    }
+
+    /**
+     * Gets the number of rows rejected so far, including those left out of the report.
+     * @return The number of rows rejected.
+     */
+    public long getRejeitadas() {
+        return rejeitadas;
+    }
+
+    /**
+     * Gets the throughput of the import: rows processed (inserted or rejected)
+     * per second since it started, or until it finished.
+     * @return The number of rows processed per second.
+     */
+    public long getLinhasPorSegundo() {
+        Instant fim = concluidaEm == null ? Instant.now() : concluidaEm;
+        long milissegundos = Math.max(1, Duration.between(iniciadaEm, fim).toMillis());
+        return (inseridas + rejeitadas) * 1000 / milissegundos;
+    }
+
+    /**
+     * Gets the rejected rows kept in the report, in the order they were found.
+     * @return A copy of the rejected rows.
+     */
+    public synchronized List<RejeicaoImportacao> getRejeicoes() {
+        return List.copyOf(rejeicoes);
+    }
+}
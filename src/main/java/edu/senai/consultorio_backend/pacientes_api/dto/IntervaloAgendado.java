@@ -0,0 +1,53 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Represents the time a dentist is busy with one appointment.
+ * This is a lightweight projection of {@link Consulta}, filled directly by a
+ * query, for code that only needs to know when a dentist is occupied.
+ */
+public class IntervaloAgendado {
+    private final UUID dentistaId;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+
+    /**
+     * Constructs a new IntervaloAgendado from the columns of an appointment.
+     * @param dentistaId The ID of the dentist.
+     * @param dataHora The date and time the appointment starts.
+     * @param duracaoMinutos The duration of the appointment, or null for the default duration.
+     */
+    public IntervaloAgendado(UUID dentistaId, LocalDateTime dataHora, Integer duracaoMinutos) {
+        this.dentistaId = dentistaId;
+        this.inicio = dataHora;
+        this.fim = dataHora.plusMinutes(duracaoMinutos == null ? Consulta.DURACAO_PADRAO_MINUTOS : duracaoMinutos);
+    }
+
+    /**
+     * Gets the ID of the dentist.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Gets the date and time the appointment starts.
+     * @return The start of the interval, inclusive.
+     */
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Gets the date and time the appointment ends.
+     * @return The end of the interval, exclusive.
+     */
+    public LocalDateTime getFim() {
+        return fim;
+    }
+}
@@ -0,0 +1,41 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.util.List;
+
+/**
+ * Represents one page of a keyset-paginated listing.
+ * The next page is requested by sending back the opaque cursor returned in
+ * {@code proximoCursor}; when it is null, the listing has been fully read.
+ *
+ * @param <T> The type of the items in the page.
+ */
+public class PaginaCursor<T> {
+    private final List<T> itens;
+    private final String proximoCursor;
+
+    /**
+     * Constructs a new PaginaCursor with the given parameters.
+     * @param itens The items of the page.
+     * @param proximoCursor The opaque cursor of the next page, or null if this is the last page.
+     */
+    public PaginaCursor(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Gets the items of the page.
+     * @return The items of the page.
+     */
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * Gets the opaque cursor of the next page.
+     * @return The cursor of the next page, or null if this is the last page.
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+/**
+ * Represents a row of an import file that was not inserted.
+ */
+public class RejeicaoImportacao {
+    private final long linha;
+    private final String motivo;
+
+    /**
+     * Constructs a new RejeicaoImportacao with the given parameters.
+     * @param linha The line of the file (for CSV, the record number counting the header as line 1).
+     * @param motivo The reason the row was rejected.
+     */
+    public RejeicaoImportacao(long linha, String motivo) {
+        this.linha = linha;
+        this.motivo = motivo;
+    }
+
+    /**
+     * Gets the line of the file the row came from.
+     * @return The one-based line number.
+     */
+    public long getLinha() {
+        return linha;
+    }
+
+    /**
+     * Gets the reason the row was rejected.
+     * @return The reason the row was rejected.
+     */
+    public String getMotivo() {
+        return motivo;
+    }
+}
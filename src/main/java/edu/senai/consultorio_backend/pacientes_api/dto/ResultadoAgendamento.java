@@ -0,0 +1,81 @@
+package edu.senai.consultorio_backend.pacientes_api.dto;
+
+import java.util.UUID;
+
+/**
+ * Represents the outcome of one item of a batch booking.
+ * Items are reported in the same order, and with the same index, as they
+ * were sent in the request.
+ */
+public class ResultadoAgendamento {
+    private final int indice;
+    private final boolean sucesso;
+    private UUID consultaId;
+    private final String erro;
+
+    private ResultadoAgendamento(int indice, boolean sucesso, String erro) {
+        this.indice = indice;
+        this.sucesso = sucesso;
+        this.erro = erro;
+    }
+
+    /**
+     * Creates the result of an item that was booked.
+     * The appointment ID is filled in once the appointment has been persisted.
+     * @param indice The position of the item in the request.
+     * @return The successful result.
+     */
+    public static ResultadoAgendamento sucesso(int indice) {
+        return new ResultadoAgendamento(indice, true, null);
+    }
+
+    /**
+     * Creates the result of an item that was rejected.
+     * @param indice The position of the item in the request.
+     * @param erro The reason the item was rejected.
+     * @return The failed result.
+     */
+    public static ResultadoAgendamento falha(int indice, String erro) {
+        return new ResultadoAgendamento(indice, false, erro);
+    }
+
+    /**
+     * Gets the position of the item in the request.
+     * @return The zero-based position of the item.
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Tells whether the item was booked.
+     * @return true if the appointment was created.
+     */
+    public boolean isSucesso() {
+        return sucesso;
+    }
+
+    /**
+     * Gets the ID of the created appointment.
+     * @return The ID of the appointment, or null if the item was rejected.
+     */
+    public UUID getConsultaId() {
+        return consultaId;
+    }
+
+    /**
+     * Sets the ID of the created appointment.
+     * @param consultaId The ID of the appointment.
+     */
+    public void setConsultaId(UUID consultaId) {
+        this.consultaId = consultaId;
+    }
+
+    /**
+     * Gets the reason the item was rejected.
+     * @return The error message, or null if the item was booked.
+     */
+    public String getErro() {
+        return erro;
+    }
+}
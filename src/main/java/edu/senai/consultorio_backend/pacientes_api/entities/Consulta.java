@@ -1,5 +1,6 @@
 package edu.senai.consultorio_backend.pacientes_api.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -13,6 +14,16 @@ import java.util.UUID;
 @Table(name = "consultas")
 public class Consulta {
 
+    /**
+     * Duration, in minutes, assumed for appointments booked without one.
+     */
+    public static final int DURACAO_PADRAO_MINUTOS = 30;
+
+    /**
+     * Longest duration, in minutes, an appointment may have.
+     */
+    public static final int DURACAO_MAXIMA_MINUTOS = 480;
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
@@ -28,6 +39,18 @@ public class Consulta {
     @Column(name = "data_hora", nullable = false)
     private LocalDateTime dataHora;
 
+    @Column(name = "duracao_minutos")
+    private Integer duracaoMinutos;
+
+    /**
+     * Version of the row, incremented by Hibernate on every update. It is the
+     * strong ETag of the appointment and is never read from request bodies.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
     /**
      * Default constructor.
      */
@@ -48,6 +71,19 @@ public class Consulta {
         this.dataHora = dataHora;
     }
 
+    /**
+     * Constructs a new Consulta with the given parameters, including its duration.
+     * @param id The ID of the appointment.
+     * @param paciente The patient associated with the appointment.
+     * @param dentista The dentist associated with the appointment.
+     * @param dataHora The date and time of the appointment.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     */
+    public Consulta(UUID id, Paciente paciente, Dentista dentista, LocalDateTime dataHora, Integer duracaoMinutos) {
+        this(id, paciente, dentista, dataHora);
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
     /**
      * Gets the ID of the appointment.
      * @return The ID of the appointment.
@@ -112,6 +148,40 @@ public class Consulta {
         this.dataHora = dataHora;
     }
 
+    /**
+     * Gets the duration of the appointment, in minutes.
+     * Appointments booked before durations existed have none; they are treated
+     * as lasting {@value #DURACAO_PADRAO_MINUTOS} minutes.
+     * @return The duration of the appointment, in minutes, or null if it was never set.
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Sets the duration of the appointment, in minutes.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     */
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    /**
+     * Gets the version of the appointment.
+     * @return The version, or null if the appointment has not been saved yet.
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Sets the version of the appointment.
+     * @param versao The version.
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,17 +1,35 @@
 package edu.senai.consultorio_backend.pacientes_api.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Represents a dentist entity.
  * This class is mapped to the "dentistas" table in the database.
+ * Dentists are read on every booking but rarely change, so they are kept in
+ * the second-level cache (region {@value #REGIAO_CACHE}). The READ_WRITE
+ * strategy updates or evicts an entry when the transaction that changed or
+ * deleted the dentist commits.
+ * Updates write only the changed columns.
  */
 @Entity
 @Table(name = "dentistas")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Dentista.REGIAO_CACHE)
 public class Dentista {
 
+    /**
+     * Name of the second-level cache region that holds dentists by ID.
+     */
+    public static final String REGIAO_CACHE = "dentistas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
@@ -22,6 +40,15 @@ public class Dentista {
     @Column(nullable = false)
     private String especialidade;
 
+    /**
+     * Version of the row, incremented by Hibernate on every update. It is the
+     * strong ETag of the dentist and is never read from request bodies.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
     /**
      * Default constructor.
      */
@@ -88,6 +115,22 @@ public class Dentista {
         this.especialidade = especialidade;
     }
 
+    /**
+     * Gets the version of the dentist.
+     * @return The version, or null if the dentist has not been saved yet.
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Sets the version of the dentist.
+     * @param versao The version.
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
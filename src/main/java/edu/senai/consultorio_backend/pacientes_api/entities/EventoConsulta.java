@@ -0,0 +1,255 @@
+package edu.senai.consultorio_backend.pacientes_api.entities;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represents an event of the appointment agenda, waiting in the transactional outbox.
+ * This class is mapped to the "eventos_consultas" table in the database.
+ * Events are written in the same transaction as the booking or cancellation
+ * they describe and are removed once they have been published. They carry
+ * the IDs and the time of the appointment, so consumers do not need to query
+ * the appointment, which no longer exists after a cancellation.
+ */
+@Entity
+@Table(name = "eventos_consultas")
+public class EventoConsulta {
+
+    /**
+     * IDs reserved per round trip to the sequence; it must match the
+     * increment of "eventos_consultas_seq".
+     */
+    public static final int IDS_POR_RESERVA = 50;
+
+    /**
+     * Kinds of event.
+     */
+    public enum Tipo {
+
+        /**
+         * An appointment was booked.
+         */
+        AGENDADA,
+
+        /**
+         * An appointment was cancelled.
+         */
+        CANCELADA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventos_consultas_seq")
+    @SequenceGenerator(name = "eventos_consultas_seq", sequenceName = "eventos_consultas_seq",
+            allocationSize = IDS_POR_RESERVA)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Tipo tipo;
+
+    @Column(name = "consulta_id", nullable = false)
+    private UUID consultaId;
+
+    @Column(name = "paciente_id", nullable = false)
+    private UUID pacienteId;
+
+    @Column(name = "dentista_id", nullable = false)
+    private UUID dentistaId;
+
+    @Column(name = "data_hora", nullable = false)
+    private LocalDateTime dataHora;
+
+    @Column(name = "duracao_minutos")
+    private Integer duracaoMinutos;
+
+    @Column(name = "ocorrido_em", nullable = false)
+    private Instant ocorridoEm;
+
+    /**
+     * Default constructor.
+     */
+    public EventoConsulta() {
+    }
+
+    /**
+     * Constructs a new EventoConsulta with the given parameters.
+     * @param id The ID of the event.
+     * @param tipo The kind of event.
+     * @param consultaId The ID of the appointment.
+     * @param pacienteId The ID of the patient of the appointment.
+     * @param dentistaId The ID of the dentist of the appointment.
+     * @param dataHora The date and time of the appointment.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     * @param ocorridoEm When the booking or cancellation happened.
+     */
+    public EventoConsulta(Long id, Tipo tipo, UUID consultaId, UUID pacienteId, UUID dentistaId,
+                          LocalDateTime dataHora, Integer duracaoMinutos, Instant ocorridoEm) {
+        this.id = id;
+        this.tipo = tipo;
+        this.consultaId = consultaId;
+        this.pacienteId = pacienteId;
+        this.dentistaId = dentistaId;
+        this.dataHora = dataHora;
+        this.duracaoMinutos = duracaoMinutos;
+        this.ocorridoEm = ocorridoEm;
+    }
+
+    /**
+     * Creates the event of a booking or cancellation that happens now.
+     * Only the IDs of the patient and the dentist are read, so lazy
+     * associations are not initialized.
+     * @param tipo The kind of event.
+     * @param consulta The appointment, already saved.
+     * @return The new event, not saved yet.
+     */
+    public static EventoConsulta de(Tipo tipo, Consulta consulta) {
+        return new EventoConsulta(null, tipo, consulta.getId(), consulta.getPaciente().getId(),
+                consulta.getDentista().getId(), consulta.getDataHora(), consulta.getDuracaoMinutos(), Instant.now());
+    }
+
+    /**
+     * Gets the ID of the event. IDs grow in the order the events are saved by
+     * each application instance.
+     * @return The ID of the event.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the event.
+     * @param id The ID of the event.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the kind of event.
+     * @return The kind of event.
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Sets the kind of event.
+     * @param tipo The kind of event.
+     */
+    public void setTipo(Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    /**
+     * Gets the ID of the appointment.
+     * @return The ID of the appointment.
+     */
+    public UUID getConsultaId() {
+        return consultaId;
+    }
+
+    /**
+     * Sets the ID of the appointment.
+     * @param consultaId The ID of the appointment.
+     */
+    public void setConsultaId(UUID consultaId) {
+        this.consultaId = consultaId;
+    }
+
+    /**
+     * Gets the ID of the patient of the appointment.
+     * @return The ID of the patient.
+     */
+    public UUID getPacienteId() {
+        return pacienteId;
+    }
+
+    /**
+     * Sets the ID of the patient of the appointment.
+     * @param pacienteId The ID of the patient.
+     */
+    public void setPacienteId(UUID pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    /**
+     * Gets the ID of the dentist of the appointment.
+     * @return The ID of the dentist.
+     */
+    public UUID getDentistaId() {
+        return dentistaId;
+    }
+
+    /**
+     * Sets the ID of the dentist of the appointment.
+     * @param dentistaId The ID of the dentist.
+     */
+    public void setDentistaId(UUID dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    /**
+     * Gets the date and time of the appointment.
+     * @return The date and time of the appointment.
+     */
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    /**
+     * Sets the date and time of the appointment.
+     * @param dataHora The date and time of the appointment.
+     */
+    public void setDataHora(LocalDateTime dataHora) {
+        this.dataHora = dataHora;
+    }
+
+    /**
+     * Gets the duration of the appointment, in minutes.
+     * @return The duration, or null for appointments booked before durations existed.
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Sets the duration of the appointment, in minutes.
+     * @param duracaoMinutos The duration, in minutes.
+     */
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    /**
+     * Gets when the booking or cancellation happened.
+     * @return When the event happened.
+     */
+    public Instant getOcorridoEm() {
+        return ocorridoEm;
+    }
+
+    /**
+     * Sets when the booking or cancellation happened.
+     * @param ocorridoEm When the event happened.
+     */
+    public void setOcorridoEm(Instant ocorridoEm) {
+        this.ocorridoEm = ocorridoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventoConsulta evento = (EventoConsulta) o;
+        return Objects.equals(id, evento.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
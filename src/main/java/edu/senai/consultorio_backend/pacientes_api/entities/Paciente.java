@@ -1,11 +1,17 @@
 package edu.senai.consultorio_backend.pacientes_api.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityResult;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 import java.util.Objects;
 import java.util.UUID;
@@ -21,11 +27,23 @@ import java.util.UUID;
  * @Id: Designates the id field as the primary key of the table.
  * @GeneratedValue(strategy = GenerationType.IDENTITY): Configures the primary key generation to be auto-incremental, delegating this responsibility to the database.
  * @Column(...): Maps the field to a column in the table, allowing the definition of constraints such as nullable=false (cannot be null) and unique=true (must be unique).
+ * @DynamicUpdate: Makes Hibernate write only the changed columns, so an edit that keeps the CPF and email does not touch their unique indexes.
+ * @SqlResultSetMapping: Reads a search result as the patient plus its rank and similarity, the keyset of the search pages.
  */
 @Entity
 @Table(name = "pacientes")
+@DynamicUpdate
+@SqlResultSetMapping(name = Paciente.RESULTADO_RANQUEADO,
+        entities = @EntityResult(entityClass = Paciente.class),
+        columns = {@ColumnResult(name = "faixa", type = Integer.class),
+                @ColumnResult(name = "semelhanca", type = Double.class)})
 public class Paciente {
 
+    /**
+     * Name of the result mapping of the ranked patient search.
+     */
+    public static final String RESULTADO_RANQUEADO = "Paciente.ranqueado";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
@@ -54,6 +72,15 @@ public class Paciente {
     @Column(name = "data_ultimo_contato")
     private LocalDate dataUltimoContato;
 
+    /**
+     * Version of the row, incremented by Hibernate on every update. It is the
+     * strong ETag of the patient and is never read from request bodies.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
     /**
      * Default constructor required by JPA.
      */
@@ -230,6 +257,22 @@ public class Paciente {
         this.dataUltimoContato = dataUltimoContato;
     }
 
+    /**
+     * Gets the version of the patient.
+     * @return The version, or null if the patient has not been saved yet.
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Sets the version of the patient.
+     * @param versao The version.
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     /**
      * equals and hashCode methods for object comparisons
      */
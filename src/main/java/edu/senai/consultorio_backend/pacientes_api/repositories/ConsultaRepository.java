@@ -1,11 +1,16 @@
 package edu.senai.consultorio_backend.pacientes_api.repositories;
 
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
 import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -16,11 +21,127 @@ import java.util.UUID;
 public interface ConsultaRepository extends JpaRepository<Consulta, UUID> {
 
     /**
-     * Finds all appointments for a given dentist within a specific time range.
+     * Finds all appointments, as agenda views, ordered by date and time.
+     * The patient and dentist are joined in the same query.
+     * @return The views of all appointments.
+     */
+    @IndiceDeSuporte("idx_consultas_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView(
+                c.id, c.dataHora, c.duracaoMinutos, p.id, p.nome, p.telefoneWhatsapp, d.id, d.nome, d.especialidade)
+            from Consulta c join c.paciente p join c.dentista d
+            order by c.dataHora
+            """)
+    List<ConsultaView> listarVisoes();
+
+    /**
+     * Finds one appointment, as an agenda view.
+     * @param id The ID of the appointment.
+     * @return The view of the appointment, if it exists.
+     */
+    @IndiceDeSuporte("consultas_pkey")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView(
+                c.id, c.dataHora, c.duracaoMinutos, p.id, p.nome, p.telefoneWhatsapp, d.id, d.nome, d.especialidade)
+            from Consulta c join c.paciente p join c.dentista d
+            where c.id = :id
+            """)
+    Optional<ConsultaView> buscarVisaoPorId(UUID id);
+
+    /**
+     * Finds all appointments for a given dentist that start within the half-open range [inicio, fim), as agenda views.
+     * @param dentistaId The ID of the dentist.
+     * @param inicio The start of the range, inclusive.
+     * @param fim The end of the range, exclusive.
+     * @return The views of the appointments for the given dentist within the specified time range, ordered by date and time.
+     */
+    @IndiceDeSuporte("idx_consultas_dentista_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView(
+                c.id, c.dataHora, c.duracaoMinutos, p.id, p.nome, p.telefoneWhatsapp, d.id, d.nome, d.especialidade)
+            from Consulta c join c.paciente p join c.dentista d
+            where d.id = :dentistaId and c.dataHora >= :inicio and c.dataHora < :fim
+            order by c.dataHora
+            """)
+    List<ConsultaView> listarVisoesPorDentistaEPeriodo(UUID dentistaId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Finds all appointments for several dentists that start within the half-open range [inicio, fim), as agenda views.
+     * @param dentistaIds The IDs of the dentists.
+     * @param inicio The start of the range, inclusive.
+     * @param fim The end of the range, exclusive.
+     * @return The views of the appointments of those dentists within the range, ordered by date and time.
+     */
+    @IndiceDeSuporte("idx_consultas_dentista_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView(
+                c.id, c.dataHora, c.duracaoMinutos, p.id, p.nome, p.telefoneWhatsapp, d.id, d.nome, d.especialidade)
+            from Consulta c join c.paciente p join c.dentista d
+            where d.id in :dentistaIds and c.dataHora >= :inicio and c.dataHora < :fim
+            order by c.dataHora
+            """)
+    List<ConsultaView> listarVisoesPorDentistasEPeriodo(Collection<UUID> dentistaIds, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Finds the appointments of every dentist that start within the half-open range [inicio, fim), as agenda views.
+     * @param inicio The start of the range, inclusive.
+     * @param fim The end of the range, exclusive.
+     * @return The views of the appointments within the range, ordered by date and time.
+     */
+    @IndiceDeSuporte("idx_consultas_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView(
+                c.id, c.dataHora, c.duracaoMinutos, p.id, p.nome, p.telefoneWhatsapp, d.id, d.nome, d.especialidade)
+            from Consulta c join c.paciente p join c.dentista d
+            where c.dataHora >= :inicio and c.dataHora < :fim
+            order by c.dataHora
+            """)
+    List<ConsultaView> listarVisoesPorPeriodo(LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Finds the busy intervals of a dentist that start within the half-open range [inicio, fim).
+     * Only the columns needed to build the intervals are read.
      * @param dentistaId The ID of the dentist.
-     * @param startOfDay The start of the time range.
-     * @param endOfDay The end of the time range.
-     * @return A list of appointments for the given dentist within the specified time range.
+     * @param inicio The start of the range, inclusive.
+     * @param fim The end of the range, exclusive.
+     * @return The intervals of the appointments that start within the range.
+     */
+    @IndiceDeSuporte("idx_consultas_dentista_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado(c.dentista.id, c.dataHora, c.duracaoMinutos)
+            from Consulta c
+            where c.dentista.id = :dentistaId and c.dataHora >= :inicio and c.dataHora < :fim
+            """)
+    List<IntervaloAgendado> buscarIntervalos(UUID dentistaId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Finds the busy intervals of several dentists that start within the half-open range [inicio, fim).
+     * Only the columns needed to build the intervals are read.
+     * @param dentistaIds The IDs of the dentists.
+     * @param inicio The start of the range, inclusive.
+     * @param fim The end of the range, exclusive.
+     * @return The intervals of the appointments of those dentists that start within the range.
+     */
+    @IndiceDeSuporte("idx_consultas_dentista_data_hora")
+    @Query("""
+            select new edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado(c.dentista.id, c.dataHora, c.duracaoMinutos)
+            from Consulta c
+            where c.dentista.id in :dentistaIds and c.dataHora >= :inicio and c.dataHora < :fim
+            """)
+    List<IntervaloAgendado> buscarIntervalosDosDentistas(Collection<UUID> dentistaIds, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Finds the version of the agenda view of an appointment without loading it:
+     * the versions of the appointment, its patient and its dentist, since the
+     * view shows data of all three.
+     * @param id The ID of the appointment.
+     * @return The version, as "appointment.patient.dentist", if the appointment exists.
      */
-    List<Consulta> findByDentistaIdAndDataHoraBetween(UUID dentistaId, LocalDateTime startOfDay, LocalDateTime endOfDay);
+    @IndiceDeSuporte("consultas_pkey")
+    @Query("""
+            select concat(c.versao, '.', p.versao, '.', d.versao)
+            from Consulta c join c.paciente p join c.dentista d
+            where c.id = :id
+            """)
+    Optional<String> buscarVersaoDaVisao(UUID id);
 }
@@ -1,9 +1,13 @@
 package edu.senai.consultorio_backend.pacientes_api.repositories;
 
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -12,4 +16,40 @@ import java.util.UUID;
  */
 @Repository
 public interface DentistaRepository extends JpaRepository<Dentista, UUID> {
+
+    /**
+     * Name of the query cache region that holds the result of {@link #findAll()}.
+     */
+    String REGIAO_CACHE_LISTAGEM = "dentistas-listagem";
+
+    /**
+     * Name of the query cache region that holds the results of {@link #findByEspecialidadeOrderByNome(String)}.
+     */
+    String REGIAO_CACHE_ESPECIALIDADE = "dentistas-especialidade";
+
+    /**
+     * Finds all dentists, answering from the query cache when possible.
+     * The cached result is the list of IDs, resolved through the entity cache;
+     * any insert, update or delete on "dentistas" invalidates it.
+     * @return All dentists.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CACHE_LISTAGEM)
+    })
+    List<Dentista> findAll();
+
+    /**
+     * Finds the dentists of a specialty, ordered by name, answering from the
+     * query cache when possible, like {@link #findAll()}.
+     * @param especialidade The specialty, as stored (e.g., "Ortodontia").
+     * @return The dentists of the specialty.
+     */
+    @IndiceDeSuporte("idx_dentistas_especialidade")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CACHE_ESPECIALIDADE)
+    })
+    List<Dentista> findByEspecialidadeOrderByNome(String especialidade);
 }
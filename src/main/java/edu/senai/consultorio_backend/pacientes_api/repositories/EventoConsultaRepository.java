@@ -0,0 +1,14 @@
+package edu.senai.consultorio_backend.pacientes_api.repositories;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the EventoConsulta entity.
+ * The booking path only saves events; they are read and removed in batches
+ * by DespachanteDeEventos, with plain SQL.
+ */
+@Repository
+public interface EventoConsultaRepository extends JpaRepository<EventoConsulta, Long> {
+}
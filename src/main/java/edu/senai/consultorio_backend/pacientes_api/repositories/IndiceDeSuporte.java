@@ -0,0 +1,26 @@
+package edu.senai.consultorio_backend.pacientes_api.repositories;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the database indexes that support a repository query method.
+ * Every query method declared in a repository must carry this annotation, and
+ * every index it names must be created by a migration script under
+ * "db/migration"; the build fails otherwise. This keeps each new query from
+ * silently turning into a full table scan.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IndiceDeSuporte {
+
+    /**
+     * The names of the indexes (or primary key and unique constraints) the query relies on.
+     * @return The index names.
+     */
+    String[] value();
+}
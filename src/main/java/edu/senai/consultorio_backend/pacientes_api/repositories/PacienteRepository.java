@@ -1,10 +1,20 @@
 package edu.senai.consultorio_backend.pacientes_api.repositories;
 
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for the Patient entity.
@@ -19,12 +29,146 @@ import java.util.UUID;
  */
 @Repository
 public interface PacienteRepository extends JpaRepository<Paciente, UUID> {
-    
-    /*
-     * No methods need to be declared here for basic CRUD operations,
-     * as they are inherited from JpaRepository. Custom Query Methods
-     * can be added in the future if necessary.
-     * Ex: findByCpf(String cpf);
-     */
-    
-}
\ No newline at end of file
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming patients.
+     */
+    String TAMANHO_FETCH_STREAM = "500";
+
+    /**
+     * Finds the first page of patients in the stable (nome, id) order.
+     * Only the page size of the Pageable is used; no count query is issued.
+     * @param pageable The page request carrying the page size.
+     * @return The first patients in (nome, id) order.
+     */
+    @IndiceDeSuporte("idx_pacientes_nome_id")
+    @Query("select p from Paciente p order by p.nome, p.id")
+    List<Paciente> buscarPrimeiraPagina(Pageable pageable);
+
+    /**
+     * Finds the page of patients that follows the given keyset position.
+     * The row comparison lets the database seek directly to the position
+     * instead of skipping rows with an offset.
+     * @param nome The name of the last patient of the previous page.
+     * @param id The ID of the last patient of the previous page.
+     * @param pageable The page request carrying the page size.
+     * @return The patients that come after (nome, id), in (nome, id) order.
+     */
+    @IndiceDeSuporte("idx_pacientes_nome_id")
+    @Query("select p from Paciente p where (p.nome, p.id) > (:nome, :id) order by p.nome, p.id")
+    List<Paciente> buscarPaginaApos(String nome, UUID id, Pageable pageable);
+
+    /**
+     * Streams all patients in (nome, id) order through a server-side cursor.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     * @return A stream over all patients.
+     */
+    @IndiceDeSuporte("idx_pacientes_nome_id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANHO_FETCH_STREAM),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Paciente p order by p.nome, p.id")
+    Stream<Paciente> transmitirTodos();
+
+    /**
+     * Searches patients by name, CPF, phone or email, most relevant first.
+     * Every criterion is optional and skipped when its parameter is empty; the
+     * patterns must already have their LIKE wildcards escaped. Results are
+     * ranked as: exact CPF or phone, CPF or phone prefix, name or email prefix,
+     * a word of the name starting with the term, and finally names that only
+     * contain the term or resemble it, as a whole or in part; ties are broken by
+     * trigram similarity and then by (nome, id). Names are matched on the
+     * "nome_busca" column, which the database keeps lower-cased and unaccented.
+     *
+     * Pages are keyset based on that whole ranking: each row comes with its
+     * rank ("faixa") and similarity ("semelhanca"), and the next page starts
+     * after the (faixa, semelhanca, nome, id) of the last row already read,
+     * so a deep page sorts only the rows that follow it and stays stable
+     * when patients are added before it. The first page starts after rank -1.
+     * @param digitos The digits of a CPF or phone number, or "" when the term is not numeric.
+     * @param email The lower-cased prefix of an email, or "".
+     * @param nome The prefix of a name (accents and case are ignored), or "".
+     * @param termo The unescaped name term, used for the similarity ranking.
+     * @param aposFaixa The rank of the last patient already read, or -1 for the first page.
+     * @param aposSemelhanca The similarity of the last patient already read.
+     * @param aposNome The name of the last patient already read.
+     * @param aposId The ID of the last patient already read.
+     * @param limite The maximum number of patients to return.
+     * @return The matching patients, in ranking order, each as {Paciente, faixa, semelhanca}.
+     */
+    @IndiceDeSuporte({"idx_pacientes_nome_trgm", "idx_pacientes_nome_prefixo", "idx_pacientes_cpf_prefixo",
+            "idx_pacientes_telefone_prefixo", "idx_pacientes_email_prefixo"})
+    @NativeQuery(sqlResultSetMapping = Paciente.RESULTADO_RANQUEADO, value = """
+            select r.* from (
+                select p.*,
+                    case
+                        when :digitos <> '' and (p.cpf = :digitos or p.telefone_whatsapp = :digitos) then 0
+                        when :digitos <> '' then 1
+                        when :nome <> '' and p.nome_busca like consultorio_normalizar(:nome) || '%' then 2
+                        when :email <> '' and lower(p.email) like :email || '%' then 2
+                        when p.nome_busca like '% ' || consultorio_normalizar(:nome) || '%' then 3
+                        else 4
+                    end as faixa,
+                    cast(greatest(word_similarity(consultorio_normalizar(:termo), p.nome_busca),
+                                  similarity(p.nome_busca, consultorio_normalizar(:termo))) as double precision)
+                        as semelhanca
+                from pacientes p
+                where (:digitos <> '' and (p.cpf like :digitos || '%' or p.telefone_whatsapp like :digitos || '%'))
+                   or (:email <> '' and lower(p.email) like :email || '%')
+                   or (:nome <> '' and p.nome_busca like consultorio_normalizar(:nome) || '%')
+                   or (length(:termo) >= 3 and (p.nome_busca like '%' || consultorio_normalizar(:nome) || '%'
+                                               or consultorio_normalizar(:termo) <% p.nome_busca
+                                               or p.nome_busca % consultorio_normalizar(:termo)))
+            ) r
+            where (r.faixa, -r.semelhanca, r.nome, r.id) > (:aposFaixa, -:aposSemelhanca, :aposNome, :aposId)
+            order by r.faixa, r.semelhanca desc, r.nome, r.id
+            limit :limite
+            """)
+    List<Object[]> buscar(String digitos, String email, String nome, String termo,
+                          int aposFaixa, double aposSemelhanca, String aposNome, UUID aposId, int limite);
+
+    /**
+     * Finds the page of patients due a recall whose reference date (the latest
+     * of the last appointment and the last contact) falls before the given
+     * date, following the given keyset position in (reference date, id) order.
+     * The first page of a recall bucket starts at the bucket's lower bound and
+     * the nil UUID.
+     * @param ate The exclusive upper bound of the reference date.
+     * @param aposData The reference date of the last patient already read.
+     * @param aposId The ID of the last patient already read.
+     * @param limite The maximum number of patients to return.
+     * @return The patients of the page, most overdue first.
+     */
+    @IndiceDeSuporte("idx_pacientes_recall")
+    @Query(nativeQuery = true, value = """
+            select p.* from pacientes p
+            where p.data_referencia_recall < :ate
+              and (p.data_referencia_recall, p.id) > (:aposData, :aposId)
+            order by p.data_referencia_recall, p.id
+            limit :limite
+            """)
+    List<Paciente> buscarPaginaDeRecall(LocalDate ate, LocalDate aposData, UUID aposId, int limite);
+
+    /**
+     * Counts the patients whose recall reference date falls in [desde, ate).
+     * @param desde The inclusive lower bound of the reference date.
+     * @param ate The exclusive upper bound of the reference date.
+     * @return The number of patients in the interval.
+     */
+    @IndiceDeSuporte("idx_pacientes_recall")
+    @Query(nativeQuery = true, value = """
+            select count(*) from pacientes p
+            where p.data_referencia_recall >= :desde and p.data_referencia_recall < :ate
+            """)
+    long contarRecall(LocalDate desde, LocalDate ate);
+
+    /**
+     * Finds the version of a patient without loading the entity.
+     * @param id The ID of the patient.
+     * @return The version of the patient, if it exists.
+     */
+    @IndiceDeSuporte("pacientes_pkey")
+    @Query("select p.versao from Paciente p where p.id = :id")
+    Optional<Long> buscarVersao(UUID id);
+}
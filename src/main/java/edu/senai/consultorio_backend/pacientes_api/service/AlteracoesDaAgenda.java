@@ -0,0 +1,306 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AlteracaoAgenda;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands the changes to each dentist's agenda to the clients following it.
+ * Clients subscribe to a topic, one dentist on one day, and receive every
+ * booking and cancellation of that day once its transaction commits; changes
+ * of rolled back transactions are never seen.
+ *
+ * The latest "consultorio.agenda.alteracoes.historico" changes, of every
+ * topic, are kept in a ring buffer, so a client that reconnects with the ID of
+ * the last change it received gets the ones it missed. IDs are only
+ * meaningful within one run of one application instance: a client coming
+ * from another instance, from before a restart or from too far back is told
+ * that its history is incomplete and must reload the day. Like
+ * {@link IndiceAgenda}, only changes made through this instance are seen.
+ *
+ * Delivering a change never blocks the committing thread: each subscriber
+ * buffers it, and a subscriber whose buffer is full is dropped. When the
+ * application shuts down, every subscriber is closed before the web server
+ * waits for the open requests to finish.
+ */
+@Component
+public class AlteracoesDaAgenda {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String METRICA_ALTERACOES = "agenda.alteracoes";
+
+    /**
+     * A client following a topic.
+     */
+    public interface Assinante {
+
+        /**
+         * Buffers a change for delivery, without blocking.
+         *
+         * @param alteracao The change.
+         * @return false if the buffer is full; the subscriber is then dropped
+         *         and should close its connection so the client reconnects.
+         */
+        boolean entregar(AlteracaoAgenda alteracao);
+
+        /**
+         * Closes the client's connection, so that it reconnects elsewhere.
+         * Called when the application shuts down.
+         */
+        void encerrar();
+    }
+
+    /**
+     * The result of a subscription.
+     *
+     * @param historicoCompleto Whether every change after the client's last
+     *                          one was delivered; always true for a client
+     *                          without a last change.
+     * @param ultimoId The ID of the latest change of any topic at the time of
+     *                 the subscription; the client can resume from it.
+     */
+    public record Assinatura(boolean historicoCompleto, String ultimoId) {
+    }
+
+    /**
+     * One dentist on one day.
+     */
+    private record Topico(UUID dentistaId, LocalDate dia) {
+    }
+
+    private record Registro(long sequencia, Topico topico, AlteracaoAgenda alteracao) {
+    }
+
+    private final int tamanhoHistorico;
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Registro> historico = new ArrayDeque<>();
+    private final Map<Topico, Set<Assinante>> assinantes = new HashMap<>();
+    private long ultimaSequencia;
+
+    private final AtomicInteger assinantesConectados = new AtomicInteger();
+    private final Counter assinantesDescartados;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param registro The meter registry that receives the subscription metrics.
+     * @param tamanhoHistorico How many of the latest changes are kept for clients that reconnect.
+     */
+    @Autowired
+    public AlteracoesDaAgenda(MeterRegistry registro,
+                              @Value("${consultorio.agenda.alteracoes.historico:1000}") int tamanhoHistorico) {
+        this.tamanhoHistorico = tamanhoHistorico;
+        Gauge.builder(METRICA_ALTERACOES + ".assinantes", assinantesConectados, AtomicInteger::get)
+                .description("Clients following the changes of an agenda")
+                .register(registro);
+        this.assinantesDescartados = Counter.builder(METRICA_ALTERACOES + ".descartados")
+                .description("Clients dropped because they did not keep up with the changes")
+                .register(registro);
+    }
+
+    /**
+     * Publishes the bookings or cancellations of appointments once the current
+     * transaction commits, or right away outside a transaction.
+     * The agenda views of booked appointments are built now, from the patient
+     * and dentist already loaded; cancellations read only IDs, so no lazy
+     * association is initialized.
+     *
+     * @param tipo Whether the appointments were booked or cancelled.
+     * @param consultas The appointments, already saved.
+     */
+    public void publicarAposCommit(EventoConsulta.Tipo tipo, Collection<Consulta> consultas) {
+        if (consultas.isEmpty()) {
+            return;
+        }
+        List<AlteracaoAgenda> alteracoes = consultas.stream()
+                .map(consulta -> new AlteracaoAgenda(null, tipo, consulta.getId(), consulta.getDentista().getId(),
+                        consulta.getDataHora(), tipo == EventoConsulta.Tipo.AGENDADA ? visao(consulta) : null))
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicar(alteracoes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publicar(alteracoes);
+            }
+        });
+    }
+
+    /**
+     * Subscribes a client to the changes of a dentist's day. If the client
+     * gives the ID of the last change it received, the later changes of the
+     * topic still in the history are delivered to it first, before any new one.
+     *
+     * @param dentistaId The ID of the dentist.
+     * @param dia The day.
+     * @param ultimoIdRecebido The ID of the last change the client received, or null.
+     * @param assinante The client.
+     * @return Whether the client's history is complete, and the latest ID.
+     */
+    public Assinatura assinar(UUID dentistaId, LocalDate dia, String ultimoIdRecebido, Assinante assinante) {
+        Topico topico = new Topico(dentistaId, dia);
+        lock.lock();
+        try {
+            boolean historicoCompleto = true;
+            if (ultimoIdRecebido != null) {
+                long sequencia = sequencia(ultimoIdRecebido);
+                long primeiraGuardada = historico.isEmpty() ? ultimaSequencia + 1 : historico.peekFirst().sequencia();
+                historicoCompleto = sequencia >= primeiraGuardada - 1 && sequencia <= ultimaSequencia;
+                if (historicoCompleto) {
+                    for (Registro registro : historico) {
+                        if (registro.sequencia() > sequencia && registro.topico().equals(topico)) {
+                            assinante.entregar(registro.alteracao());
+                        }
+                    }
+                }
+            }
+            if (assinantes.computeIfAbsent(topico, t -> new LinkedHashSet<>()).add(assinante)) {
+                assinantesConectados.incrementAndGet();
+            }
+            return new Assinatura(historicoCompleto, id(ultimaSequencia));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unsubscribes a client. Does nothing if it was already dropped.
+     *
+     * @param dentistaId The ID of the dentist.
+     * @param dia The day.
+     * @param assinante The client.
+     */
+    public void cancelar(UUID dentistaId, LocalDate dia, Assinante assinante) {
+        Topico topico = new Topico(dentistaId, dia);
+        lock.lock();
+        try {
+            Set<Assinante> doTopico = assinantes.get(topico);
+            if (doTopico != null && doTopico.remove(assinante)) {
+                assinantesConectados.decrementAndGet();
+                if (doTopico.isEmpty()) {
+                    assinantes.remove(topico);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes every subscriber when the application context starts closing,
+     * before the lifecycle beans, and the graceful shutdown of the web server
+     * among them, are stopped.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void encerrarAssinantes() {
+        List<Assinante> todos;
+        lock.lock();
+        try {
+            todos = assinantes.values().stream().flatMap(Set::stream).toList();
+        } finally {
+            lock.unlock();
+        }
+        todos.forEach(Assinante::encerrar);
+    }
+
+    /**
+     * Numbers the changes, records them in the history and buffers them for
+     * the subscribers of their topics. Everything happens under the lock, so
+     * every subscriber sees the changes in the order of their IDs, and a
+     * client subscribing at the same time gets each change exactly once,
+     * either from the history or live.
+     */
+    private void publicar(List<AlteracaoAgenda> alteracoes) {
+        lock.lock();
+        try {
+            for (AlteracaoAgenda pendente : alteracoes) {
+                long sequencia = ++ultimaSequencia;
+                AlteracaoAgenda alteracao = new AlteracaoAgenda(id(sequencia), pendente.getTipo(),
+                        pendente.getConsultaId(), pendente.getDentistaId(), pendente.getDataHora(), pendente.getConsulta());
+                Topico topico = new Topico(alteracao.getDentistaId(), alteracao.getDataHora().toLocalDate());
+                historico.addLast(new Registro(sequencia, topico, alteracao));
+                if (historico.size() > tamanhoHistorico) {
+                    historico.removeFirst();
+                }
+
+                Set<Assinante> doTopico = assinantes.get(topico);
+                if (doTopico != null) {
+                    doTopico.removeIf(assinante -> {
+                        if (assinante.entregar(alteracao)) {
+                            return false;
+                        }
+                        assinantesConectados.decrementAndGet();
+                        assinantesDescartados.increment();
+                        return true;
+                    });
+                    if (doTopico.isEmpty()) {
+                        assinantes.remove(topico);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String id(long sequencia) {
+        return instancia + "-" + sequencia;
+    }
+
+    /**
+     * Reads the sequence number of an ID of this instance and run.
+     * @return The sequence number, or -1 if the ID is not one of ours.
+     */
+    private long sequencia(String id) {
+        String prefixo = instancia + "-";
+        if (!id.startsWith(prefixo)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(prefixo.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ConsultaView visao(Consulta consulta) {
+        Paciente paciente = consulta.getPaciente();
+        Dentista dentista = consulta.getDentista();
+        return new ConsultaView(consulta.getId(), consulta.getDataHora(), consulta.getDuracaoMinutos(),
+                paciente.getId(), paciente.getNome(), paciente.getTelefoneWhatsapp(),
+                dentista.getId(), dentista.getNome(), dentista.getEspecialidade());
+    }
+}
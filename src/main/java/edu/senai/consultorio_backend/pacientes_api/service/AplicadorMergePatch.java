@@ -0,0 +1,100 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) to entities.
+ * A member of the patch replaces the field of the same name, a null member
+ * clears it, and absent members are left untouched. The entities are flat,
+ * so there are no nested objects to merge.
+ *
+ * The patch is applied to the managed entity, in the caller's transaction:
+ * Hibernate's dirty checking then writes only the fields whose value actually
+ * changed, and nothing at all when the patch repeats the current values.
+ */
+@Component
+public class AplicadorMergePatch {
+
+    /**
+     * Media type of a JSON Merge Patch document.
+     */
+    public static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    /**
+     * Members that are never applied: the ID identifies the resource and the
+     * version is managed by Hibernate.
+     */
+    private static final List<String> CAMPOS_IGNORADOS = List.of("id", "versao");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param objectMapper The JSON mapper, whose date and time settings the patches follow.
+     */
+    @Autowired
+    public AplicadorMergePatch(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Applies a merge patch to an entity.
+     *
+     * @param patch The merge patch document.
+     * @param alvo The entity to change.
+     * @param camposObrigatorios The fields that cannot be cleared with a null member.
+     * @throws RequisicaoInvalidaException if the patch is not a JSON object, clears a
+     *         required field, names an unknown field or holds a value of the wrong type.
+     *         The entity may have been partially changed, so the caller's transaction
+     *         must roll back, as it does for any runtime exception.
+     */
+    public void aplicar(JsonNode patch, Object alvo, Set<String> camposObrigatorios) {
+        if (patch == null || !patch.isObject()) {
+            throw new RequisicaoInvalidaException("O merge patch deve ser um objeto JSON.");
+        }
+        ObjectNode alteracoes = ((ObjectNode) patch).deepCopy();
+        alteracoes.remove(CAMPOS_IGNORADOS);
+        for (Map.Entry<String, JsonNode> campo : alteracoes.properties()) {
+            if (campo.getValue().isNull() && camposObrigatorios.contains(campo.getKey())) {
+                throw new RequisicaoInvalidaException("O campo " + campo.getKey() + " é obrigatório e não pode ser removido.");
+            }
+        }
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+
+        ObjectReader leitor = objectMapper.readerForUpdating(alvo)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try {
+            leitor.readValue(alteracoes);
+        } catch (UnrecognizedPropertyException e) {
+            throw new RequisicaoInvalidaException("Campo desconhecido no merge patch: " + e.getPropertyName());
+        } catch (JsonMappingException e) {
+            String campo = e.getPath().stream()
+                    .map(JsonMappingException.Reference::getFieldName)
+                    .collect(Collectors.joining("."));
+            throw new RequisicaoInvalidaException("Valor inválido no merge patch para o campo " + campo + ".");
+        } catch (JsonProcessingException e) {
+            throw new RequisicaoInvalidaException("Merge patch inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a different request body.
+ * It is translated into an HTTP 422 (Unprocessable Content) response.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ChaveDeIdempotenciaReutilizadaException extends RuntimeException {
+
+    /**
+     * Constructs a new ChaveDeIdempotenciaReutilizadaException with the given message.
+     * @param message The detail message.
+     */
+    public ChaveDeIdempotenciaReutilizadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an appointment would overlap another appointment of the same dentist.
+ * It is translated into an HTTP 409 (Conflict) response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflitoDeAgendaException extends RuntimeException {
+
+    /**
+     * Constructs a new ConflitoDeAgendaException with the given message.
+     * @param message The detail message.
+     */
+    public ConflitoDeAgendaException(String message) {
+        super(message);
+    }
+}
@@ -1,104 +1,326 @@
 package edu.senai.consultorio_backend.pacientes_api.service;
 
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendaDentista;
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
 import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
 import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
 import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.EventoConsultaRepository;
 import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing appointments.
  * This class provides business logic for scheduling, canceling, and retrieving appointments.
+ * Every booking and cancellation also saves an {@link EventoConsulta} in the
+ * same transaction (the transactional outbox), which DespachanteDeEventos
+ * publishes after the commit; the screens following a dentist's day are told
+ * of the change by {@link AlteracoesDaAgenda} once the transaction commits.
  */
 @Service
 public class ConsultaService {
 
+    /**
+     * Largest number of appointments accepted in one batch booking.
+     */
+    public static final int TAMANHO_MAXIMO_LOTE = 500;
+
+    /**
+     * Longest period, in days, of one agenda request.
+     */
+    public static final int DIAS_MAXIMOS_AGENDA = 31;
+
     private final ConsultaRepository consultaRepository;
     private final PacienteRepository pacienteRepository;
     private final DentistaRepository dentistaRepository;
+    private final IndiceAgenda indiceAgenda;
+    private final EventoConsultaRepository eventoConsultaRepository;
+    private final AlteracoesDaAgenda alteracoesDaAgenda;
 
     /**
      * Constructs a new ConsultaService with the given repositories.
      * @param consultaRepository The repository for appointments.
      * @param pacienteRepository The repository for patients.
      * @param dentistaRepository The repository for dentists.
+     * @param indiceAgenda The in-memory index used to detect overlapping appointments.
+     * @param eventoConsultaRepository The outbox of appointment events.
+     * @param alteracoesDaAgenda The subscriptions to the changes of each dentist's agenda.
      */
     @Autowired
-    public ConsultaService(ConsultaRepository consultaRepository, PacienteRepository pacienteRepository, DentistaRepository dentistaRepository) {
+    public ConsultaService(ConsultaRepository consultaRepository, PacienteRepository pacienteRepository,
+                           DentistaRepository dentistaRepository, IndiceAgenda indiceAgenda,
+                           EventoConsultaRepository eventoConsultaRepository,
+                           AlteracoesDaAgenda alteracoesDaAgenda) {
         this.consultaRepository = consultaRepository;
         this.pacienteRepository = pacienteRepository;
         this.dentistaRepository = dentistaRepository;
+        this.indiceAgenda = indiceAgenda;
+        this.eventoConsultaRepository = eventoConsultaRepository;
+        this.alteracoesDaAgenda = alteracoesDaAgenda;
     }
 
     /**
      * Schedules a new appointment.
+     * The dentist's agenda is checked against the in-memory {@link IndiceAgenda},
+     * so rejecting a double booking costs no extra query, and the dentist itself
+     * normally comes from the second-level cache.
      * @param pacienteId The ID of the patient.
      * @param dentistaId The ID of the dentist.
      * @param dataHora The date and time of the appointment.
+     * @param duracaoMinutos The duration of the appointment in minutes, or null for the default duration.
      * @return The newly created appointment.
+     * @throws RequisicaoInvalidaException if the duration is not between 1 and {@value Consulta#DURACAO_MAXIMA_MINUTOS} minutes.
+     * @throws ConflitoDeAgendaException if the dentist already has an appointment in that interval.
      */
     @Transactional
-    public Consulta agendar(UUID pacienteId, UUID dentistaId, LocalDateTime dataHora) {
+    public Consulta agendar(UUID pacienteId, UUID dentistaId, LocalDateTime dataHora, Integer duracaoMinutos) {
+        int duracao = validarDuracao(duracaoMinutos);
         Paciente paciente = pacienteRepository.findById(pacienteId)
                 .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
         Dentista dentista = dentistaRepository.findById(dentistaId)
                 .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
 
+        indiceAgenda.reservar(dentistaId, dataHora, duracao);
+
         Consulta novaConsulta = new Consulta();
         novaConsulta.setPaciente(paciente);
         novaConsulta.setDentista(dentista);
         novaConsulta.setDataHora(dataHora);
+        novaConsulta.setDuracaoMinutos(duracao);
 
-        return consultaRepository.save(novaConsulta);
+        Consulta salva = consultaRepository.save(novaConsulta);
+        eventoConsultaRepository.save(EventoConsulta.de(EventoConsulta.Tipo.AGENDADA, salva));
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, List.of(salva));
+        return salva;
+    }
+
+    /**
+     * Schedules several appointments in a single transaction.
+     * Every patient referenced by the batch is loaded with a single query, and
+     * every dentist is looked up once by ID, which the second-level cache
+     * usually answers without touching the database. The new appointments are
+     * written as batched JDBC inserts when the transaction flushes, followed
+     * by their events, also batched. Items that refer to unknown
+     * patients or dentists, carry an invalid duration, or overlap another
+     * appointment (including one earlier in the same batch) are reported as
+     * failures without aborting the rest of the batch.
+     *
+     * @param agendamentos The appointments to schedule.
+     * @return One result per item, in the order of the request.
+     * @throws RequisicaoInvalidaException if the batch is empty or larger than {@value #TAMANHO_MAXIMO_LOTE} items.
+     */
+    @Transactional
+    public List<ResultadoAgendamento> agendarEmLote(List<AgendamentoRequest> agendamentos) {
+        if (agendamentos == null || agendamentos.isEmpty() || agendamentos.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new RequisicaoInvalidaException("O lote deve ter entre 1 e " + TAMANHO_MAXIMO_LOTE + " agendamentos");
+        }
+
+        Map<UUID, Paciente> pacientes = pacienteRepository.findAllById(agendamentos.stream()
+                        .map(AgendamentoRequest::getPacienteId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Paciente::getId, Function.identity()));
+        // Looked up one by one, rather than with findAllById, so that each lookup
+        // can be served by the second-level cache; a query would always hit the database.
+        Map<UUID, Dentista> dentistas = new HashMap<>();
+        agendamentos.stream().map(AgendamentoRequest::getDentistaId).filter(Objects::nonNull).distinct()
+                .forEach(id -> dentistaRepository.findById(id).ifPresent(dentista -> dentistas.put(id, dentista)));
+
+        List<ResultadoAgendamento> resultados = new ArrayList<>(agendamentos.size());
+        List<ResultadoAgendamento> agendados = new ArrayList<>();
+        List<Consulta> novasConsultas = new ArrayList<>();
+        for (int indice = 0; indice < agendamentos.size(); indice++) {
+            AgendamentoRequest agendamento = agendamentos.get(indice);
+            try {
+                Consulta novaConsulta = prepararConsulta(agendamento, pacientes, dentistas);
+                ResultadoAgendamento resultado = ResultadoAgendamento.sucesso(indice);
+                resultados.add(resultado);
+                agendados.add(resultado);
+                novasConsultas.add(novaConsulta);
+            } catch (RequisicaoInvalidaException | ConflitoDeAgendaException e) {
+                resultados.add(ResultadoAgendamento.falha(indice, e.getMessage()));
+            }
+        }
+
+        List<Consulta> salvas = consultaRepository.saveAll(novasConsultas);
+        List<EventoConsulta> eventos = new ArrayList<>(salvas.size());
+        for (int i = 0; i < salvas.size(); i++) {
+            agendados.get(i).setConsultaId(salvas.get(i).getId());
+            eventos.add(EventoConsulta.de(EventoConsulta.Tipo.AGENDADA, salvas.get(i)));
+        }
+        eventoConsultaRepository.saveAll(eventos);
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, salvas);
+        return resultados;
     }
 
     /**
      * Cancels an appointment by its ID.
+     * Cancelling an appointment that does not exist does nothing, and publishes no event.
      * @param consultaId The ID of the appointment to cancel.
      */
     @Transactional
     public void cancelar(UUID consultaId) {
-        consultaRepository.deleteById(consultaId);
+        consultaRepository.findById(consultaId).ifPresent(consulta -> {
+            consultaRepository.delete(consulta);
+            eventoConsultaRepository.save(EventoConsulta.de(EventoConsulta.Tipo.CANCELADA, consulta));
+            alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.CANCELADA, List.of(consulta));
+            indiceAgenda.cancelar(consulta.getDentista().getId(), consulta.getDataHora());
+        });
     }
 
     /**
      * Retrieves all appointments.
-     * @return A list of all appointments.
+     * @return A list of the agenda views of all appointments, ordered by date and time.
      */
     @Transactional(readOnly = true)
-    public List<Consulta> listarTodas() {
-        return consultaRepository.findAll();
+    public List<ConsultaView> listarTodas() {
+        return consultaRepository.listarVisoes();
     }
 
     /**
      * Retrieves an appointment by its ID.
      * @param id The ID of the appointment to retrieve.
-     * @return The appointment with the given ID.
+     * @return The agenda view of the appointment with the given ID.
      */
     @Transactional(readOnly = true)
-    public Consulta buscarPorId(UUID id) {
-        return consultaRepository.findById(id)
+    public ConsultaView buscarPorId(UUID id) {
+        return consultaRepository.buscarVisaoPorId(id)
                 .orElseThrow(() -> new RuntimeException("Consulta não encontrada com o ID: " + id));
     }
 
+    /**
+     * Finds the version of the agenda view of an appointment, its strong ETag,
+     * without loading it. It changes when the appointment, its patient or its
+     * dentist changes.
+     * @param id The ID of the appointment.
+     * @return The version of the view, if the appointment exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> buscarVersao(UUID id) {
+        return consultaRepository.buscarVersaoDaVisao(id);
+    }
+
     /**
      * Retrieves all appointments for a given dentist on a specific day.
      * @param dentistaId The ID of the dentist.
      * @param dia The day to retrieve appointments for.
-     * @return A list of appointments for the given dentist on the specified day.
+     * @return A list of the agenda views of the appointments for the given dentist on the specified day.
      */
     @Transactional(readOnly = true)
-    public List<Consulta> buscarConsultasDoDiaPorDentista(UUID dentistaId, LocalDateTime dia) {
+    public List<ConsultaView> buscarConsultasDoDiaPorDentista(UUID dentistaId, LocalDateTime dia) {
         LocalDateTime inicioDoDia = dia.toLocalDate().atStartOfDay();
-        LocalDateTime fimDoDia = dia.toLocalDate().atTime(23, 59, 59);
-        return consultaRepository.findByDentistaIdAndDataHoraBetween(dentistaId, inicioDoDia, fimDoDia);
+        return consultaRepository.listarVisoesPorDentistaEPeriodo(dentistaId, inicioDoDia, inicioDoDia.plusDays(1));
+    }
+
+    /**
+     * Retrieves the agenda of several dentists over several days with a single query.
+     * The appointments that start within [inicio, fim) are grouped by dentist
+     * and then by day; every requested dentist and every day of the period is
+     * present in the result, even without appointments.
+     * @param inicio The first day of the period, inclusive.
+     * @param fim The day after the period, exclusive.
+     * @param dentistaIds The IDs of the dentists, or null or empty for every dentist.
+     * @return The agenda of each dentist, ordered by the dentist's name.
+     * @throws RequisicaoInvalidaException if the period is empty or longer than {@value #DIAS_MAXIMOS_AGENDA} days,
+     * or a dentist does not exist.
+     */
+    @Transactional(readOnly = true)
+    public List<AgendaDentista> buscarAgenda(LocalDate inicio, LocalDate fim, Collection<UUID> dentistaIds) {
+        long dias = ChronoUnit.DAYS.between(inicio, fim);
+        if (dias < 1 || dias > DIAS_MAXIMOS_AGENDA) {
+            throw new RequisicaoInvalidaException("O período da agenda deve ter entre 1 e " + DIAS_MAXIMOS_AGENDA + " dias.");
+        }
+
+        List<Dentista> dentistas;
+        List<ConsultaView> consultas;
+        if (dentistaIds == null || dentistaIds.isEmpty()) {
+            dentistas = new ArrayList<>(dentistaRepository.findAll());
+            consultas = consultaRepository.listarVisoesPorPeriodo(inicio.atStartOfDay(), fim.atStartOfDay());
+        } else {
+            // Looked up one by one so that the second-level cache can answer, as in agendarEmLote.
+            dentistas = new ArrayList<>();
+            for (UUID id : new LinkedHashSet<>(dentistaIds)) {
+                dentistas.add(dentistaRepository.findById(id)
+                        .orElseThrow(() -> new RequisicaoInvalidaException("Dentista não encontrado: " + id)));
+            }
+            consultas = consultaRepository.listarVisoesPorDentistasEPeriodo(
+                    dentistas.stream().map(Dentista::getId).toList(), inicio.atStartOfDay(), fim.atStartOfDay());
+        }
+        dentistas.sort(Comparator.comparing(Dentista::getNome));
+
+        Map<UUID, SortedMap<LocalDate, List<ConsultaView>>> agendas = new HashMap<>();
+        for (Dentista dentista : dentistas) {
+            SortedMap<LocalDate, List<ConsultaView>> diasDaAgenda = new TreeMap<>();
+            for (LocalDate dia = inicio; dia.isBefore(fim); dia = dia.plusDays(1)) {
+                diasDaAgenda.put(dia, new ArrayList<>());
+            }
+            agendas.put(dentista.getId(), diasDaAgenda);
+        }
+        for (ConsultaView consulta : consultas) {
+            SortedMap<LocalDate, List<ConsultaView>> diasDaAgenda = agendas.get(consulta.getDentistaId());
+            if (diasDaAgenda != null) {
+                diasDaAgenda.get(consulta.getDataHora().toLocalDate()).add(consulta);
+            }
+        }
+        return dentistas.stream()
+                .map(dentista -> new AgendaDentista(dentista.getId(), dentista.getNome(),
+                        dentista.getEspecialidade(), agendas.get(dentista.getId())))
+                .toList();
+    }
+
+    private static int validarDuracao(Integer duracaoMinutos) {
+        if (duracaoMinutos == null) {
+            return Consulta.DURACAO_PADRAO_MINUTOS;
+        }
+        if (duracaoMinutos < 1 || duracaoMinutos > Consulta.DURACAO_MAXIMA_MINUTOS) {
+            throw new RequisicaoInvalidaException("A duração da consulta deve estar entre 1 e "
+                    + Consulta.DURACAO_MAXIMA_MINUTOS + " minutos");
+        }
+        return duracaoMinutos;
+    }
+
+    /**
+     * Validates one item of a batch and reserves its interval in the agenda.
+     */
+    private Consulta prepararConsulta(AgendamentoRequest agendamento, Map<UUID, Paciente> pacientes,
+                                      Map<UUID, Dentista> dentistas) {
+        if (agendamento == null || agendamento.getDataHora() == null) {
+            throw new RequisicaoInvalidaException("A data e hora da consulta são obrigatórias");
+        }
+        int duracao = validarDuracao(agendamento.getDuracaoMinutos());
+        Paciente paciente = pacientes.get(agendamento.getPacienteId());
+        if (paciente == null) {
+            throw new RequisicaoInvalidaException("Paciente não encontrado");
+        }
+        Dentista dentista = dentistas.get(agendamento.getDentistaId());
+        if (dentista == null) {
+            throw new RequisicaoInvalidaException("Dentista não encontrado");
+        }
+
+        indiceAgenda.reservar(dentista.getId(), agendamento.getDataHora(), duracao);
+        return new Consulta(null, paciente, dentista, agendamento.getDataHora(), duracao);
     }
 }
@@ -1,5 +1,6 @@
 package edu.senai.consultorio_backend.pacientes_api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
 import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -16,19 +19,28 @@ import java.util.UUID;
 @Service
 public class DentistaService {
 
+    /**
+     * Fields that a merge patch cannot clear, the NOT NULL columns.
+     */
+    private static final Set<String> CAMPOS_OBRIGATORIOS = Set.of("nome", "especialidade");
+
     private final DentistaRepository dentistaRepository;
+    private final AplicadorMergePatch aplicadorMergePatch;
 
     /**
      * Constructs a new DentistaService with the given DentistaRepository.
      * @param dentistaRepository The repository for dentists.
+     * @param aplicadorMergePatch Applies the partial updates.
      */
     @Autowired
-    public DentistaService(DentistaRepository dentistaRepository) {
+    public DentistaService(DentistaRepository dentistaRepository, AplicadorMergePatch aplicadorMergePatch) {
         this.dentistaRepository = dentistaRepository;
+        this.aplicadorMergePatch = aplicadorMergePatch;
     }
 
     /**
      * Retrieves all dentists.
+     * The result comes from the query cache until a dentist is created, changed or deleted.
      * @return A list of all dentists.
      */
     @Transactional(readOnly = true)
@@ -47,6 +59,18 @@ public class DentistaService {
                 .orElseThrow(() -> new RuntimeException("Dentista não encontrado com o ID: " + id));
     }
 
+    /**
+     * Finds the version of a dentist, its strong ETag.
+     * Dentists are in the second-level cache, so reading the entity is
+     * usually cheaper than a version query.
+     * @param id The ID of the dentist.
+     * @return The version of the dentist, if it exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersao(UUID id) {
+        return dentistaRepository.findById(id).map(Dentista::getVersao);
+    }
+
     /**
      * Creates a new dentist.
      * @param dentista The dentist to create.
@@ -59,6 +83,8 @@ public class DentistaService {
 
     /**
      * Updates an existing dentist.
+     * When the transaction commits, the dentist's second-level cache entry is
+     * replaced and the cached listing is invalidated.
      * @param id The ID of the dentist to update.
      * @param dentistaDetails The new details for the dentist.
      * @return The updated dentist.
@@ -71,8 +97,26 @@ public class DentistaService {
         return dentistaRepository.save(dentista);
     }
 
+    /**
+     * Updates only the fields of a dentist present in a JSON Merge Patch (RFC 7396).
+     * Only the columns whose value changed are written; when the patch changes
+     * nothing, there is no UPDATE and the cache entries are kept.
+     * @param id The ID of the dentist to update.
+     * @param patch The merge patch: the fields to change.
+     * @return The updated dentist.
+     * @throws RequisicaoInvalidaException if the patch is malformed or clears a required field.
+     */
+    @Transactional
+    public Dentista atualizarParcialmente(UUID id, JsonNode patch) {
+        Dentista dentista = buscarPorId(id);
+        aplicadorMergePatch.aplicar(patch, dentista, CAMPOS_OBRIGATORIOS);
+        return dentistaRepository.save(dentista);
+    }
+
     /**
      * Deletes a dentist by their ID.
+     * When the transaction commits, the dentist is evicted from the second-level
+     * cache and the cached listing is invalidated.
      * @param id The ID of the dentist to delete.
      */
     @Transactional
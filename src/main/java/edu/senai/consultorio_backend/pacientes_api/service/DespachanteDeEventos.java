@@ -0,0 +1,179 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains the transactional outbox of appointment events.
+ * Every "consultorio.eventos.intervalo" it reads the oldest events, up to
+ * "consultorio.eventos.tamanho-lote" at a time, hands them to the configured
+ * {@link PublicadorDeEventos} and removes them, repeating while full batches
+ * come back. Each batch is read, published and removed in one transaction:
+ * if publishing fails the transaction rolls back and the batch is retried
+ * on the next run, so events are delivered at least once. Published events
+ * are deleted rather than tracked by position, so an event that commits late
+ * is still picked up by a later run, never skipped.
+ *
+ * Events are read in "ordem" order, a sequence value the database assigns
+ * as each event is inserted (V10__ordem_dos_eventos.sql). An event inserted
+ * after another transaction committed its events, such as the cancellation
+ * of an appointment whose booking it reads, or a booking of a slot another
+ * cancellation freed, is always published after them. Events of transactions
+ * that ran concurrently have no causal order and may be published in either.
+ *
+ * Only one application instance drains at a time: each batch first takes a
+ * transaction-scoped PostgreSQL advisory lock, and an instance that does not
+ * get it skips the run instead of waiting, leaving the batch to the instance
+ * that holds it.
+ */
+@Service
+public class DespachanteDeEventos {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String METRICA_EVENTOS = "consultas.eventos";
+
+    private static final String BLOQUEAR = "select pg_try_advisory_xact_lock(hashtext('eventos_consultas'))";
+
+    private static final String LER_LOTE = """
+            select id, tipo, consulta_id, paciente_id, dentista_id, data_hora, duracao_minutos, ocorrido_em
+            from eventos_consultas
+            order by ordem
+            limit ?
+            """;
+
+    private static final String REMOVER_LOTE = "delete from eventos_consultas where id = any(?)";
+
+    private static final RowMapper<EventoConsulta> MAPEAMENTO = (linha, numero) -> new EventoConsulta(
+            linha.getLong("id"),
+            EventoConsulta.Tipo.valueOf(linha.getString("tipo")),
+            linha.getObject("consulta_id", UUID.class),
+            linha.getObject("paciente_id", UUID.class),
+            linha.getObject("dentista_id", UUID.class),
+            linha.getObject("data_hora", LocalDateTime.class),
+            linha.getObject("duracao_minutos", Integer.class),
+            linha.getObject("ocorrido_em", OffsetDateTime.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PublicadorDeEventos publicador;
+    private final int tamanhoLote;
+
+    private final Counter eventosPublicados;
+    private final Counter lotesComFalha;
+    private final Timer duracaoDoLote;
+    private final Timer atrasoDosEventos;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate The JDBC template used to read and remove the events.
+     * @param transactionManager The transaction manager that scopes each batch.
+     * @param publicador The destination of the events.
+     * @param registro The meter registry that receives the dispatch metrics.
+     * @param tamanhoLote The largest number of events read and published at once.
+     */
+    @Autowired
+    public DespachanteDeEventos(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PublicadorDeEventos publicador,
+            MeterRegistry registro,
+            @Value("${consultorio.eventos.tamanho-lote:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publicador = publicador;
+        this.tamanhoLote = tamanhoLote;
+        this.eventosPublicados = Counter.builder(METRICA_EVENTOS + ".publicados")
+                .description("Appointment events published and removed from the outbox")
+                .register(registro);
+        this.lotesComFalha = Counter.builder(METRICA_EVENTOS + ".falhas")
+                .description("Batches of appointment events whose publication failed and will be retried")
+                .register(registro);
+        this.duracaoDoLote = Timer.builder(METRICA_EVENTOS + ".lote")
+                .description("Time to read, publish and remove one batch of appointment events")
+                .register(registro);
+        this.atrasoDosEventos = Timer.builder(METRICA_EVENTOS + ".atraso")
+                .description("Time from a booking or cancellation to the publication of its event")
+                .register(registro);
+    }
+
+    /**
+     * Publishes every event waiting in the outbox, batch by batch.
+     * A failure ends the run; Spring logs it and the next run retries the batch.
+     */
+    @Scheduled(fixedDelayString = "${consultorio.eventos.intervalo:1s}")
+    public void despachar() {
+        int publicados;
+        do {
+            publicados = despacharLote();
+        } while (publicados == tamanhoLote);
+    }
+
+    /**
+     * Reads, publishes and removes one batch of the oldest events.
+     *
+     * @return The number of events published: 0 when the outbox is empty or
+     *         another instance holds the lock.
+     */
+    public int despacharLote() {
+        long inicio = System.nanoTime();
+        Integer publicados;
+        try {
+            publicados = transactionTemplate.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(BLOQUEAR, Boolean.class))) {
+                    return 0;
+                }
+                List<EventoConsulta> eventos = jdbcTemplate.query(LER_LOTE, MAPEAMENTO, tamanhoLote);
+                if (eventos.isEmpty()) {
+                    return 0;
+                }
+                publicar(eventos);
+                jdbcTemplate.update(REMOVER_LOTE,
+                        (Object) eventos.stream().map(EventoConsulta::getId).toArray(Long[]::new));
+                return eventos.size();
+            });
+        } catch (RuntimeException e) {
+            lotesComFalha.increment();
+            throw e;
+        }
+        if (publicados == null || publicados == 0) {
+            return 0;
+        }
+        duracaoDoLote.record(Duration.ofNanos(System.nanoTime() - inicio));
+        eventosPublicados.increment(publicados);
+        return publicados;
+    }
+
+    private void publicar(List<EventoConsulta> eventos) {
+        try {
+            publicador.publicar(eventos);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao publicar " + eventos.size() + " eventos de consultas", e);
+        }
+        Instant agora = Instant.now();
+        for (EventoConsulta evento : eventos) {
+            atrasoDosEventos.record(Duration.between(evento.getOcorridoEm(), agora));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.DisponibilidadeDentista;
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service that finds the free slots in the dentists' agendas.
+ * The working day is divided into blocks of
+ * "consultorio.disponibilidade.granularidade-minutos" minutes. Each dentist
+ * has, for each day of the period, a bitmap of those blocks: the working
+ * hours template ("consultorio.disponibilidade.turnos", on the days in
+ * "consultorio.disponibilidade.dias") with the blocks touched by an
+ * appointment cleared. Free slots are then found by scanning the runs of set
+ * bits, so a month of availability costs one range query and a few bit
+ * operations per day.
+ */
+@Service
+public class DisponibilidadeService {
+
+    /**
+     * Longest period, in days, that one request may cover.
+     */
+    public static final int DIAS_MAXIMOS = 31;
+
+    private static final int MINUTOS_POR_DIA = 24 * 60;
+
+    private final DentistaRepository dentistaRepository;
+    private final ConsultaRepository consultaRepository;
+    private final Set<DayOfWeek> diasDeAtendimento;
+    private final int granularidade;
+    private final BitSet expediente;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param dentistaRepository The dentist repository instance.
+     * @param consultaRepository The appointment repository instance.
+     * @param diasDeAtendimento The days of the week the office is open.
+     * @param turnos The working hours of each open day, as "HH:mm-HH:mm" ranges.
+     * @param granularidade The length, in minutes, of each block of the bitmaps; it must divide a day.
+     */
+    @Autowired
+    public DisponibilidadeService(
+            DentistaRepository dentistaRepository,
+            ConsultaRepository consultaRepository,
+            @Value("${consultorio.disponibilidade.dias:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}") DayOfWeek[] diasDeAtendimento,
+            @Value("${consultorio.disponibilidade.turnos:08:00-12:00,13:00-18:00}") String[] turnos,
+            @Value("${consultorio.disponibilidade.granularidade-minutos:15}") int granularidade) {
+        if (granularidade < 1 || MINUTOS_POR_DIA % granularidade != 0) {
+            throw new IllegalArgumentException(
+                    "consultorio.disponibilidade.granularidade-minutos deve dividir um dia: " + granularidade);
+        }
+        this.dentistaRepository = dentistaRepository;
+        this.consultaRepository = consultaRepository;
+        this.diasDeAtendimento = diasDeAtendimento.length == 0
+                ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.of(diasDeAtendimento[0], diasDeAtendimento);
+        this.granularidade = granularidade;
+        this.expediente = new BitSet(MINUTOS_POR_DIA / granularidade);
+        for (String turno : turnos) {
+            marcarTurno(turno.trim());
+        }
+    }
+
+    /**
+     * Finds the free slots of one dentist, or of every dentist of a specialty,
+     * between two days. Slots start on a block boundary, never overlap an
+     * appointment, fit inside the working hours and are not in the past.
+     * Within each stretch of free time, consecutive slots follow one another
+     * without gaps.
+     *
+     * @param dentistaId The ID of the dentist, or null to search by specialty.
+     * @param especialidade The specialty, or null to search by dentist.
+     * @param de The first day of the period.
+     * @param ate The last day of the period, inclusive.
+     * @param duracaoMinutos The length of the slots, or null for the default duration.
+     * @return The free slots of each dentist; for a specialty, the dentists are ordered by name.
+     * @throws RequisicaoInvalidaException if neither or both of dentistaId and especialidade are given,
+     * the dentist does not exist, the period is inverted or longer than {@value #DIAS_MAXIMOS} days,
+     * or the duration is not between 1 and {@value Consulta#DURACAO_MAXIMA_MINUTOS} minutes.
+     */
+    @Transactional(readOnly = true)
+    public List<DisponibilidadeDentista> buscarHorariosLivres(UUID dentistaId, String especialidade,
+                                                             LocalDate de, LocalDate ate, Integer duracaoMinutos) {
+        boolean porEspecialidade = especialidade != null && !especialidade.isBlank();
+        if ((dentistaId == null) == !porEspecialidade) {
+            throw new RequisicaoInvalidaException("Informe o dentista ou a especialidade, mas não ambos.");
+        }
+        if (ate.isBefore(de)) {
+            throw new RequisicaoInvalidaException("O fim do período deve ser posterior ao início.");
+        }
+        if (ChronoUnit.DAYS.between(de, ate) >= DIAS_MAXIMOS) {
+            throw new RequisicaoInvalidaException("O período deve ter no máximo " + DIAS_MAXIMOS + " dias.");
+        }
+        int duracao = duracaoMinutos == null ? Consulta.DURACAO_PADRAO_MINUTOS : duracaoMinutos;
+        if (duracao < 1 || duracao > Consulta.DURACAO_MAXIMA_MINUTOS) {
+            throw new RequisicaoInvalidaException("A duração da consulta deve estar entre 1 e "
+                    + Consulta.DURACAO_MAXIMA_MINUTOS + " minutos");
+        }
+
+        List<Dentista> dentistas = porEspecialidade
+                ? dentistaRepository.findByEspecialidadeOrderByNome(especialidade.trim())
+                : List.of(dentistaRepository.findById(dentistaId)
+                        .orElseThrow(() -> new RequisicaoInvalidaException("Dentista não encontrado")));
+        if (dentistas.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDate primeiroDia = de.isBefore(agora.toLocalDate()) ? agora.toLocalDate() : de;
+        int dias = (int) ChronoUnit.DAYS.between(primeiroDia, ate) + 1;
+        Map<UUID, BitSet[]> ocupados = new HashMap<>();
+        if (dias > 0) {
+            for (Dentista dentista : dentistas) {
+                ocupados.put(dentista.getId(), new BitSet[dias]);
+            }
+            // An appointment that reaches into the period starts at most DURACAO_MAXIMA before it.
+            for (IntervaloAgendado intervalo : consultaRepository.buscarIntervalosDosDentistas(ocupados.keySet(),
+                    primeiroDia.atStartOfDay().minusMinutes(Consulta.DURACAO_MAXIMA_MINUTOS),
+                    ate.plusDays(1).atStartOfDay())) {
+                marcarOcupado(ocupados.get(intervalo.getDentistaId()), primeiroDia, intervalo);
+            }
+        }
+
+        int blocosPorHorario = (duracao + granularidade - 1) / granularidade;
+        List<DisponibilidadeDentista> disponibilidades = new ArrayList<>(dentistas.size());
+        for (Dentista dentista : dentistas) {
+            List<LocalDateTime> horarios = new ArrayList<>();
+            for (int i = 0; i < dias; i++) {
+                LocalDate dia = primeiroDia.plusDays(i);
+                if (diasDeAtendimento.contains(dia.getDayOfWeek())) {
+                    BitSet livres = livresNoDia(dia, ocupados.get(dentista.getId())[i], agora);
+                    adicionarHorarios(horarios, dia, livres, blocosPorHorario);
+                }
+            }
+            disponibilidades.add(new DisponibilidadeDentista(dentista.getId(), dentista.getNome(),
+                    dentista.getEspecialidade(), duracao, horarios));
+        }
+        return disponibilidades;
+    }
+
+    /**
+     * Sets the blocks of one working hours range, "HH:mm-HH:mm", in the template.
+     * A range that does not start or end on a block boundary is shrunk to the
+     * whole blocks inside it.
+     */
+    private void marcarTurno(String turno) {
+        int separador = turno.indexOf('-');
+        try {
+            LocalTime inicio = LocalTime.parse(turno.substring(0, separador).trim());
+            LocalTime fim = LocalTime.parse(turno.substring(separador + 1).trim());
+            if (!fim.isAfter(inicio)) {
+                throw new IllegalArgumentException("Turno de atendimento termina antes de começar: " + turno);
+            }
+            int primeiroBloco = (inicio.toSecondOfDay() / 60 + granularidade - 1) / granularidade;
+            int fimDosBlocos = fim.toSecondOfDay() / 60 / granularidade;
+            if (fimDosBlocos > primeiroBloco) {
+                expediente.set(primeiroBloco, fimDosBlocos);
+            }
+        } catch (StringIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Turno de atendimento inválido (esperado HH:mm-HH:mm): " + turno, e);
+        }
+    }
+
+    /**
+     * Clears, in each day's bitmap, the blocks touched by the appointment.
+     * Blocks only partly covered count as busy.
+     */
+    private void marcarOcupado(BitSet[] ocupadosPorDia, LocalDate primeiroDia, IntervaloAgendado intervalo) {
+        long inicio = Duration.between(primeiroDia.atStartOfDay(), intervalo.getInicio()).toMinutes();
+        long fim = Duration.between(primeiroDia.atStartOfDay(), intervalo.getFim()).toMinutes();
+        long primeiroBloco = Math.max(0, Math.floorDiv(inicio, granularidade));
+        long fimDosBlocos = Math.min((long) ocupadosPorDia.length * MINUTOS_POR_DIA / granularidade,
+                Math.floorDiv(fim + granularidade - 1, granularidade));
+        int blocosPorDia = MINUTOS_POR_DIA / granularidade;
+        for (long bloco = primeiroBloco; bloco < fimDosBlocos; ) {
+            int dia = (int) (bloco / blocosPorDia);
+            int fimNoDia = (int) Math.min(fimDosBlocos - (long) dia * blocosPorDia, blocosPorDia);
+            if (ocupadosPorDia[dia] == null) {
+                ocupadosPorDia[dia] = new BitSet(blocosPorDia);
+            }
+            ocupadosPorDia[dia].set((int) (bloco % blocosPorDia), fimNoDia);
+            bloco = (long) dia * blocosPorDia + fimNoDia;
+        }
+    }
+
+    /**
+     * Gets the bitmap of the blocks of a day that are inside the working hours,
+     * not busy and not in the past.
+     */
+    private BitSet livresNoDia(LocalDate dia, BitSet ocupados, LocalDateTime agora) {
+        BitSet livres = (BitSet) expediente.clone();
+        if (ocupados != null) {
+            livres.andNot(ocupados);
+        }
+        if (dia.equals(agora.toLocalDate())) {
+            int minutoAtual = agora.toLocalTime().toSecondOfDay() / 60;
+            livres.clear(0, (minutoAtual + granularidade - 1) / granularidade);
+        }
+        return livres;
+    }
+
+    /**
+     * Adds the start of every slot of blocosPorHorario blocks that fits in the
+     * runs of free blocks, packing the slots from the start of each run.
+     */
+    private void adicionarHorarios(List<LocalDateTime> horarios, LocalDate dia, BitSet livres, int blocosPorHorario) {
+        LocalDateTime inicioDoDia = dia.atStartOfDay();
+        for (int bloco = livres.nextSetBit(0); bloco >= 0; ) {
+            int fimDoTrecho = livres.nextClearBit(bloco);
+            for (; bloco + blocosPorHorario <= fimDoTrecho; bloco += blocosPorHorario) {
+                horarios.add(inicioDoDia.plusMinutes((long) bloco * granularidade));
+            }
+            bloco = livres.nextSetBit(fimDoTrecho);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service that exports patients and appointments as CSV or NDJSON.
+ * Rows are read through a forward-only database cursor, fetching
+ * "consultorio.exportacao.tamanho-busca" rows at a time, and each row is
+ * written to the output as soon as it is read, so memory use does not depend
+ * on the number of rows.
+ *
+ * The cursor lives in a read-only transaction. A plain SELECT takes no row
+ * locks and does not block writers; the whole export sees one consistent
+ * snapshot of the table.
+ */
+@Service
+public class ExportacaoService {
+
+    /**
+     * Fields of an exported patient, in column order. They are the Paciente
+     * properties, so an exported CSV can be imported again.
+     */
+    static final List<String> CAMPOS_PACIENTE = List.of("id", "nome", "cpf", "email", "telefoneWhatsapp",
+            "dataNascimento", "dataUltimaConsulta", "ultimoProcedimento", "dataUltimoContato");
+
+    /**
+     * Fields of an exported appointment, in column order. They are the
+     * ConsultaView properties, with the patient and dentist flattened.
+     */
+    static final List<String> CAMPOS_CONSULTA = List.of("id", "dataHora", "duracaoMinutos",
+            "pacienteId", "pacienteNome", "pacienteTelefoneWhatsapp",
+            "dentistaId", "dentistaNome", "dentistaEspecialidade");
+
+    private static final String SELECIONAR_PACIENTES = """
+            select id, nome, cpf, email, telefone_whatsapp, data_nascimento,
+                   data_ultima_consulta, ultimo_procedimento, data_ultimo_contato
+            from pacientes
+            """;
+
+    private static final String SELECIONAR_CONSULTAS = """
+            select c.id, c.data_hora, c.duracao_minutos,
+                   p.id, p.nome, p.telefone_whatsapp,
+                   d.id, d.nome, d.especialidade
+            from consultas c
+            join pacientes p on p.id = c.paciente_id
+            join dentistas d on d.id = c.dentista_id
+            """;
+
+    private final JdbcTemplate cursor;
+    private final TransactionTemplate transacaoDeLeitura;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+            .build();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param dataSource The data source the cursors are opened on.
+     * @param transactionManager The transaction manager of the read-only transactions.
+     * @param objectMapper The JSON mapper, used to write NDJSON.
+     * @param tamanhoBusca The number of rows fetched from the cursor at a time.
+     */
+    @Autowired
+    public ExportacaoService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${consultorio.exportacao.tamanho-busca:1000}") int tamanhoBusca) {
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(tamanhoBusca);
+        this.transacaoDeLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoDeLeitura.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every patient to the output.
+     *
+     * @param formato The format of the output.
+     * @param saida The output; it is flushed but not closed.
+     */
+    public void exportarPacientes(FormatoExportacao formato, OutputStream saida) {
+        exportar(SELECIONAR_PACIENTES, List.of(), CAMPOS_PACIENTE, formato, saida);
+    }
+
+    /**
+     * Writes the appointments in the interval [inicio, fim) to the output, in
+     * order of date and time.
+     *
+     * @param inicio The start of the interval, inclusive, or null for no lower bound.
+     * @param fim The end of the interval, exclusive, or null for no upper bound.
+     * @param formato The format of the output.
+     * @param saida The output; it is flushed but not closed.
+     * @throws RequisicaoInvalidaException if the interval ends before it starts.
+     */
+    public void exportarConsultas(LocalDateTime inicio, LocalDateTime fim, FormatoExportacao formato, OutputStream saida) {
+        validarPeriodo(inicio, fim);
+        StringBuilder sql = new StringBuilder(SELECIONAR_CONSULTAS).append("where true");
+        List<Object> parametros = new ArrayList<>();
+        if (inicio != null) {
+            sql.append(" and c.data_hora >= ?");
+            parametros.add(inicio);
+        }
+        if (fim != null) {
+            sql.append(" and c.data_hora < ?");
+            parametros.add(fim);
+        }
+        sql.append(" order by c.data_hora, c.id");
+        exportar(sql.toString(), parametros, CAMPOS_CONSULTA, formato, saida);
+    }
+
+    /**
+     * Checks that a period of the appointment export is well formed.
+     *
+     * @param inicio The start of the period, or null.
+     * @param fim The end of the period, or null.
+     * @throws RequisicaoInvalidaException if the period ends before it starts.
+     */
+    public static void validarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio != null && fim != null && fim.isBefore(inicio)) {
+            throw new RequisicaoInvalidaException("O fim do período deve ser posterior ao início.");
+        }
+    }
+
+    private void exportar(String sql, List<Object> parametros, List<String> campos,
+                          FormatoExportacao formato, OutputStream saida) {
+        try (Escritor escritor = formato == FormatoExportacao.CSV
+                ? new EscritorCsv(campos, saida)
+                : new EscritorNdjson(campos, saida)) {
+            Object[] valores = new Object[campos.size()];
+            RowCallbackHandler linha = resultado -> {
+                for (int i = 0; i < valores.length; i++) {
+                    valores[i] = valorExportado(resultado, i + 1);
+                }
+                escritor.escrever(valores);
+            };
+            transacaoDeLeitura.executeWithoutResult(status -> cursor.query(sql, linha, parametros.toArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a column as a JSON-friendly value: dates and times in ISO-8601,
+     * UUIDs as text, numbers and text as they are.
+     */
+    private static Object valorExportado(ResultSet resultado, int coluna) throws SQLException {
+        Object valor = resultado.getObject(coluna);
+        if (valor instanceof Date data) {
+            return data.toLocalDate().toString();
+        }
+        if (valor instanceof Timestamp instante) {
+            return instante.toLocalDateTime().toString();
+        }
+        if (valor == null || valor instanceof Number || valor instanceof String) {
+            return valor;
+        }
+        return valor.toString();
+    }
+
+    /**
+     * Writes rows in one of the export formats.
+     */
+    private interface Escritor extends Closeable {
+
+        void escrever(Object[] valores);
+    }
+
+    private final class EscritorNdjson implements Escritor {
+        private final List<String> campos;
+        private final JsonGenerator gerador;
+
+        EscritorNdjson(List<String> campos, OutputStream saida) throws IOException {
+            this.campos = campos;
+            this.gerador = objectMapper.getFactory().createGenerator(saida);
+            this.gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.gerador.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void escrever(Object[] valores) {
+            try {
+                gerador.writeStartObject();
+                for (int i = 0; i < valores.length; i++) {
+                    gerador.writeObjectField(campos.get(i), valores[i]);
+                }
+                gerador.writeEndObject();
+                gerador.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            gerador.close();
+        }
+    }
+
+    private final class EscritorCsv implements Escritor {
+        private final SequenceWriter escritor;
+
+        EscritorCsv(List<String> campos, OutputStream saida) throws IOException {
+            CsvSchema.Builder esquema = CsvSchema.builder().setUseHeader(true);
+            campos.forEach(esquema::addColumn);
+            this.escritor = csvMapper.writer(esquema.build()).writeValues(saida);
+        }
+
+        @Override
+        public void escrever(Object[] valores) {
+            try {
+                escritor.write(valores);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            escritor.close();
+        }
+    }
+}
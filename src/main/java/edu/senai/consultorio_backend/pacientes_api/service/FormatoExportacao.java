@@ -0,0 +1,57 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import java.util.Locale;
+
+/**
+ * File formats produced by the exports.
+ */
+public enum FormatoExportacao {
+
+    /**
+     * Comma-separated values with a header row naming the fields.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Newline-delimited JSON: one object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String tipoDeConteudo;
+    private final String extensao;
+
+    FormatoExportacao(String tipoDeConteudo, String extensao) {
+        this.tipoDeConteudo = tipoDeConteudo;
+        this.extensao = extensao;
+    }
+
+    /**
+     * Gets the media type of the format.
+     * @return The media type, for the Content-Type header.
+     */
+    public String getTipoDeConteudo() {
+        return tipoDeConteudo;
+    }
+
+    /**
+     * Gets the file extension of the format.
+     * @return The file extension, without the dot.
+     */
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Finds the format with the given name, ignoring case.
+     * @param nome The name of the format, such as "csv" or "ndjson".
+     * @return The format.
+     * @throws RequisicaoInvalidaException if there is no format with that name.
+     */
+    public static FormatoExportacao deNome(String nome) {
+        try {
+            return valueOf(nome.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequisicaoInvalidaException("Formato de exportação inválido: " + nome + ". Use csv ou ndjson.");
+        }
+    }
+}
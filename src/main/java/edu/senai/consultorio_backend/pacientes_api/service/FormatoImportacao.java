@@ -0,0 +1,17 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+/**
+ * File formats accepted by the patient import.
+ */
+public enum FormatoImportacao {
+
+    /**
+     * Comma-separated values with a header row naming the Paciente properties.
+     */
+    CSV,
+
+    /**
+     * Newline-delimited JSON: one Paciente object per line.
+     */
+    NDJSON
+}
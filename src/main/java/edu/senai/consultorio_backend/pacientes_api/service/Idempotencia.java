@@ -0,0 +1,260 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs writes at most once per Idempotency-Key.
+ * The response of the first request with a key is stored, in the same
+ * transaction as the write, in the "chaves_idempotencia" table, and kept for
+ * "consultorio.idempotencia.validade"; a retry with the same key gets that
+ * response back without running the write again. Keys belong to a user and
+ * an operation, so clients cannot collide with each other.
+ *
+ * <ul>
+ *     <li>The latest responses are also kept in a bounded local cache, so most
+ *     retries do not touch the database.</li>
+ *     <li>Concurrent requests with the same key run one at a time: within an
+ *     instance the others wait for the cache entry of the first, and across
+ *     instances each key takes a transaction-scoped PostgreSQL advisory lock.
+ *     Requests with different keys never wait for each other.</li>
+ *     <li>Only writes that commit are stored. When one fails, the client gets
+ *     the error and its retry runs the write again.</li>
+ *     <li>A key sent again with a different body is rejected.</li>
+ * </ul>
+ */
+@Service
+public class Idempotencia {
+
+    /**
+     * The longest key accepted, as in the "chave" column.
+     */
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private static final String BLOQUEAR = "select pg_advisory_xact_lock(hashtext('chaves_idempotencia'), hashtext(?))";
+
+    private static final String LER = """
+            select impressao, status, location, etag, corpo
+            from chaves_idempotencia
+            where usuario = ? and operacao = ? and chave = ? and expira_em > now()
+            """;
+
+    private static final String GRAVAR = """
+            insert into chaves_idempotencia (usuario, operacao, chave, impressao, status, location, etag, corpo, expira_em)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (usuario, operacao, chave) do update
+            set impressao = excluded.impressao, status = excluded.status, location = excluded.location,
+                etag = excluded.etag, corpo = excluded.corpo, expira_em = excluded.expira_em
+            """;
+
+    private static final String LIMPAR = "delete from chaves_idempotencia where expira_em <= now()";
+
+    /**
+     * A response, as stored for the retries.
+     *
+     * @param status The HTTP status.
+     * @param location The Location header, or null.
+     * @param etag The ETag header, or null.
+     * @param corpo The body: the object returned by the write the first time,
+     *              and its JSON tree on retries.
+     */
+    public record Resposta(int status, String location, String etag, Object corpo) {
+    }
+
+    private record Chave(String usuario, String operacao, String valor) {
+    }
+
+    private record Guardada(String impressao, Resposta resposta) {
+    }
+
+    /**
+     * The outcome of the transaction of the first request with a key in this
+     * instance: the response, its body as stored, and whether it came from
+     * the table instead of the write.
+     */
+    private record Execucao(Guardada guardada, String corpo, boolean repetida) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration validade;
+    private final AsyncCache<Chave, Guardada> cache;
+    private final RowMapper<Guardada> mapeamento;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate The JDBC template used to read and store the responses.
+     * @param transactionManager The transaction manager shared by the write and its response.
+     * @param objectMapper The JSON mapper, used to store the bodies and the request fingerprints.
+     * @param registro The meter registry that receives the cache statistics.
+     * @param validade How long a key is remembered.
+     * @param tamanhoCache The most responses kept in memory.
+     */
+    @Autowired
+    public Idempotencia(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry registro,
+            @Value("${consultorio.idempotencia.validade:24h}") Duration validade,
+            @Value("${consultorio.idempotencia.tamanho-cache:10000}") long tamanhoCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validade = validade;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoCache)
+                .expireAfterWrite(validade)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registro, cache, "idempotencia");
+        this.mapeamento = (linha, numero) -> new Guardada(linha.getString("impressao"), new Resposta(
+                linha.getInt("status"), linha.getString("location"), linha.getString("etag"),
+                lerCorpo(linha.getString("corpo"))));
+    }
+
+    /**
+     * Runs a write once for the given key, or returns the response stored by
+     * the first run. The write runs in a transaction that also stores its
+     * response; transactional services it calls join that transaction.
+     *
+     * @param operacao The name of the operation, e.g. "consultas.agendar".
+     * @param usuario The user who sent the request.
+     * @param valor The Idempotency-Key sent by the client.
+     * @param requisicao The request body, compared with the one of the first run.
+     * @param escrita Runs the write and builds its response.
+     * @return The response of the first run.
+     * @throws RequisicaoInvalidaException if the key is blank or longer than {@value #TAMANHO_MAXIMO_CHAVE} characters.
+     * @throws ChaveDeIdempotenciaReutilizadaException if the key was first used with a different body.
+     */
+    public Resposta executar(String operacao, String usuario, String valor, Object requisicao, Supplier<Resposta> escrita) {
+        if (valor.isBlank() || valor.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new RequisicaoInvalidaException(
+                    "O cabeçalho Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+        }
+        Chave chave = new Chave(usuario, operacao, valor);
+        String impressao = impressao(requisicao);
+        while (true) {
+            CompletableFuture<Guardada> minha = new CompletableFuture<>();
+            CompletableFuture<Guardada> existente = cache.get(chave, (k, executor) -> minha);
+            if (existente == minha) {
+                return executarPrimeiro(chave, impressao, escrita, minha);
+            }
+            Guardada guardada;
+            try {
+                guardada = existente.join();
+            } catch (CompletionException e) {
+                // The request holding the key failed and stored nothing: run the write.
+                continue;
+            }
+            return repetir(guardada, impressao);
+        }
+    }
+
+    /**
+     * Removes the expired keys from the table.
+     */
+    @Scheduled(fixedDelayString = "${consultorio.idempotencia.limpeza:1h}")
+    public void limpar() {
+        jdbcTemplate.update(LIMPAR);
+    }
+
+    /**
+     * Runs the write, or takes its response from the table, while holding the
+     * cache entry of the key; the entry is completed with the response, or
+     * with the failure, which also removes it.
+     */
+    private Resposta executarPrimeiro(Chave chave, String impressao, Supplier<Resposta> escrita,
+                                      CompletableFuture<Guardada> entrada) {
+        Execucao execucao;
+        try {
+            execucao = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList(BLOQUEAR, chave.usuario() + "\n" + chave.operacao() + "\n" + chave.valor());
+                List<Guardada> existentes = jdbcTemplate.query(LER, mapeamento,
+                        chave.usuario(), chave.operacao(), chave.valor());
+                if (!existentes.isEmpty()) {
+                    return new Execucao(existentes.get(0), null, true);
+                }
+                Resposta resposta = escrita.get();
+                String corpo = escreverCorpo(resposta.corpo());
+                jdbcTemplate.update(GRAVAR, chave.usuario(), chave.operacao(), chave.valor(), impressao,
+                        resposta.status(), resposta.location(), resposta.etag(), corpo,
+                        Timestamp.from(Instant.now().plus(validade)));
+                return new Execucao(new Guardada(impressao, resposta), corpo, false);
+            });
+        } catch (RuntimeException | Error e) {
+            entrada.completeExceptionally(e);
+            throw e;
+        }
+        if (execucao.repetida()) {
+            entrada.complete(execucao.guardada());
+            return repetir(execucao.guardada(), impressao);
+        }
+        // Retries get the JSON tree, as if read from the table.
+        Resposta resposta = execucao.guardada().resposta();
+        entrada.complete(new Guardada(impressao,
+                new Resposta(resposta.status(), resposta.location(), resposta.etag(), lerCorpo(execucao.corpo()))));
+        return resposta;
+    }
+
+    private static Resposta repetir(Guardada guardada, String impressao) {
+        if (!guardada.impressao().equals(impressao)) {
+            throw new ChaveDeIdempotenciaReutilizadaException(
+                    "Esta Idempotency-Key já foi usada em uma requisição com outro conteúdo");
+        }
+        return guardada.resposta();
+    }
+
+    /**
+     * Hashes the request body, as serialized by the API's JSON mapper.
+     */
+    private String impressao(Object requisicao) {
+        try {
+            byte[] conteudo = objectMapper.writeValueAsBytes(requisicao);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular a impressão da requisição", e);
+        }
+    }
+
+    private String escreverCorpo(Object corpo) {
+        try {
+            return corpo == null ? null : objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao guardar a resposta", e);
+        }
+    }
+
+    private Object lerCorpo(String corpo) {
+        try {
+            return corpo == null ? null : objectMapper.readTree(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta guardada ilegível", e);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import edu.senai.consultorio_backend.pacientes_api.dto.ImportacaoPacientes;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that bulk-loads patients from CSV or NDJSON files.
+ * The request only copies the uploaded file to a temporary file, which holds
+ * no database connection, and returns; the import runs on the application's
+ * task executor ("applicationTaskExecutor", on virtual threads by default
+ * and bounded by "spring.task.execution.simple.concurrency-limit"), and the
+ * temporary file is deleted when it ends. An import cut short by a restart
+ * may be sent again: the rows already inserted are rejected as duplicates.
+ *
+ * The file is read as a stream, one row at a time, and valid rows are
+ * inserted in chunks of "consultorio.importacao.tamanho-lote" rows, each chunk
+ * in its own transaction and as a single INSERT statement. Memory use depends
+ * on the chunk size, not on the size of the file.
+ *
+ * The insert uses ON CONFLICT DO NOTHING, so a row whose CPF or email is
+ * already taken (by an existing patient or by an earlier row of the same file)
+ * does not abort the chunk: it is left out of the RETURNING list and goes to
+ * the rejected rows of the report instead. The rows are written with plain
+ * SQL rather than through JPA; Paciente has no entity listeners and is not in
+ * the second-level cache, and everything derived on write (the version
+ * column's default, "nome_busca", the recall date and the table version
+ * counters) is kept by the database itself, so nothing is skipped.
+ *
+ * Each import is tracked in memory while it runs and for
+ * "consultorio.importacao.retencao" after it ends, so its progress can be
+ * followed from other requests.
+ */
+@Service
+public class ImportacaoPacientesService {
+
+    /**
+     * Prefix of the meter names.
+     */
+    public static final String METRICA_IMPORTACAO = "pacientes.importacao";
+
+    private static final String INSERIR_PACIENTE = """
+            insert into pacientes (id, nome, cpf, email, telefone_whatsapp, data_nascimento,
+                                   data_ultima_consulta, ultimo_procedimento, data_ultimo_contato)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict do nothing
+            """;
+
+    /**
+     * Inserts a whole chunk in one statement: each column arrives as an array,
+     * unnest() turns the arrays back into rows, and RETURNING tells which rows
+     * were inserted. This avoids the per-row protocol round trip of a JDBC
+     * batch, which costs more than the insert itself.
+     */
+    private static final String INSERIR_LOTE = """
+            insert into pacientes (id, nome, cpf, email, telefone_whatsapp, data_nascimento,
+                                   data_ultima_consulta, ultimo_procedimento, data_ultimo_contato)
+            select * from unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[],
+                                 ?::date[], ?::varchar[], ?::date[])
+            on conflict do nothing
+            returning id
+            """;
+
+    private static final String MOTIVO_DUPLICADO = "CPF ou e-mail já cadastrado.";
+
+    private static final int TAMANHO_TEXTO = 255;
+    private static final int TAMANHO_TELEFONE = 15;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor executor;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int tamanhoLote;
+    private final int maximoDeRejeicoesRelatadas;
+    private final Duration retencao;
+    private final Map<UUID, ImportacaoPacientes> importacoes = new ConcurrentHashMap<>();
+
+    private final Counter linhasInseridas;
+    private final Counter linhasRejeitadas;
+    private final Timer duracaoDoLote;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate The JDBC template used for the batched inserts.
+     * @param transactionManager The transaction manager that scopes each chunk.
+     * @param objectMapper The JSON mapper, used to read NDJSON rows and to convert CSV rows.
+     * @param executor The executor that runs the imports.
+     * @param registro The meter registry that receives the import metrics.
+     * @param tamanhoLote The number of rows inserted per transaction.
+     * @param maximoDeRejeicoesRelatadas How many rejected rows each report keeps.
+     * @param retencao How long a finished import stays available for queries.
+     */
+    @Autowired
+    public ImportacaoPacientesService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            MeterRegistry registro,
+            @Value("${consultorio.importacao.tamanho-lote:1000}") int tamanhoLote,
+            @Value("${consultorio.importacao.maximo-rejeicoes-relatadas:1000}") int maximoDeRejeicoesRelatadas,
+            @Value("${consultorio.importacao.retencao:1h}") Duration retencao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.tamanhoLote = tamanhoLote;
+        this.maximoDeRejeicoesRelatadas = maximoDeRejeicoesRelatadas;
+        this.retencao = retencao;
+        this.linhasInseridas = Counter.builder(METRICA_IMPORTACAO + ".linhas")
+                .description("Rows processed by patient imports")
+                .tag("desfecho", "inserida")
+                .register(registro);
+        this.linhasRejeitadas = Counter.builder(METRICA_IMPORTACAO + ".linhas")
+                .description("Rows processed by patient imports")
+                .tag("desfecho", "rejeitada")
+                .register(registro);
+        this.duracaoDoLote = Timer.builder(METRICA_IMPORTACAO + ".lote")
+                .description("Time to insert one chunk of imported patients, in its own transaction")
+                .register(registro);
+    }
+
+    /**
+     * Starts importing the patients of a file.
+     * The content is copied to a temporary file and the import is handed to
+     * the executor; its progress and report are then available through
+     * {@link #buscarImportacao(UUID)}.
+     *
+     * @param entrada The content of the file; it is read to the end but not closed.
+     * @param formato The format of the file.
+     * @return The import, just started.
+     * @throws IOException if the content cannot be read or stored.
+     */
+    public ImportacaoPacientes importar(InputStream entrada, FormatoImportacao formato) throws IOException {
+        descartarImportacoesAntigas();
+        Path arquivo = Files.createTempFile("importacao-pacientes-", "." + formato.name().toLowerCase());
+        try {
+            Files.copy(entrada, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            ImportacaoPacientes importacao = new ImportacaoPacientes(formato, maximoDeRejeicoesRelatadas);
+            importacoes.put(importacao.getId(), importacao);
+            executor.execute(() -> processar(arquivo, importacao));
+            return importacao;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(arquivo);
+            throw e;
+        }
+    }
+
+    /**
+     * Imports the patients of a stored file, reading it to the end, and then
+     * deletes the file. Invalid and duplicated rows are rejected one by one and
+     * reported; the import only stops early if the file itself is malformed
+     * beyond the current row (the valid rows read until then are still
+     * inserted) or the database fails (the chunks already committed are kept).
+     */
+    private void processar(Path arquivo, ImportacaoPacientes importacao) {
+        List<LinhaImportada> lote = new ArrayList<>(tamanhoLote);
+        try (Reader leitor = new InputStreamReader(Files.newInputStream(arquivo), StandardCharsets.UTF_8)) {
+            if (importacao.getFormato() == FormatoImportacao.CSV) {
+                lerCsv(leitor, importacao, lote);
+            } else {
+                lerNdjson(leitor, importacao, lote);
+            }
+            inserirLote(lote, importacao);
+            importacao.concluir(null);
+        } catch (IOException | UncheckedIOException e) {
+            try {
+                inserirLote(lote, importacao);
+                importacao.concluir("Arquivo ilegível após " + importacao.getLinhasLidas() + " linhas lidas: "
+                        + e.getMessage());
+            } catch (RuntimeException falha) {
+                importacao.concluir("A importação foi interrompida: " + falha.getMessage());
+            }
+        } catch (RuntimeException e) {
+            importacao.concluir("A importação foi interrompida: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                // The temporary directory is cleaned by the operating system.
+            }
+        }
+    }
+
+    /**
+     * Finds an import that is running or finished recently.
+     *
+     * @param id The ID of the import.
+     * @return The import, or empty if it does not exist or has been discarded.
+     */
+    public Optional<ImportacaoPacientes> buscarImportacao(UUID id) {
+        return Optional.ofNullable(importacoes.get(id));
+    }
+
+    /**
+     * Lists the imports that are running or finished recently, newest first.
+     *
+     * @return The imports.
+     */
+    public List<ImportacaoPacientes> listarImportacoes() {
+        descartarImportacoesAntigas();
+        return importacoes.values().stream()
+                .sorted(Comparator.comparing(ImportacaoPacientes::getIniciadaEm).reversed())
+                .toList();
+    }
+
+    /**
+     * Reads a CSV file whose header row names the Paciente properties.
+     * Rows are read as text and converted afterwards, so that a malformed value
+     * rejects only its own row. Line numbers count the header as line 1.
+     */
+    private void lerCsv(Reader leitor, ImportacaoPacientes importacao, List<LinhaImportada> lote) throws IOException {
+        CsvSchema esquema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> linhas = csvMapper.readerForMapOf(String.class)
+                .with(esquema).readValues(leitor)) {
+            long numero = 1;
+            while (linhas.hasNextValue()) {
+                Map<String, String> campos = linhas.nextValue();
+                numero++;
+                importacao.registrarLinhaLida();
+                campos.values().removeIf(valor -> valor == null || valor.isBlank());
+                Paciente paciente;
+                try {
+                    paciente = objectMapper.convertValue(campos, Paciente.class);
+                } catch (IllegalArgumentException e) {
+                    rejeitar(importacao, numero, "Valor inválido: " + causaOriginal(e));
+                    continue;
+                }
+                aceitar(paciente, numero, importacao, lote);
+            }
+        }
+    }
+
+    /**
+     * Reads a newline-delimited JSON file, one patient object per line.
+     * Blank lines are skipped but still counted in the line numbers.
+     */
+    private void lerNdjson(Reader leitor, ImportacaoPacientes importacao, List<LinhaImportada> lote) throws IOException {
+        BufferedReader linhas = new BufferedReader(leitor);
+        long numero = 0;
+        String linha;
+        while ((linha = linhas.readLine()) != null) {
+            numero++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            importacao.registrarLinhaLida();
+            Paciente paciente;
+            try {
+                paciente = objectMapper.readValue(linha, Paciente.class);
+            } catch (JsonProcessingException e) {
+                rejeitar(importacao, numero, "JSON inválido: " + e.getOriginalMessage());
+                continue;
+            }
+            aceitar(paciente, numero, importacao, lote);
+        }
+    }
+
+    /**
+     * Validates a parsed row and adds it to the current chunk, inserting the
+     * chunk once it is full.
+     */
+    private void aceitar(Paciente paciente, long numero, ImportacaoPacientes importacao, List<LinhaImportada> lote) {
+        String motivo = validar(paciente);
+        if (motivo != null) {
+            rejeitar(importacao, numero, motivo);
+            return;
+        }
+        paciente.setId(UUID.randomUUID());
+        lote.add(new LinhaImportada(numero, paciente));
+        if (lote.size() >= tamanhoLote) {
+            inserirLote(lote, importacao);
+        }
+    }
+
+    /**
+     * Checks the row against the constraints of the "pacientes" table, so that
+     * a bad row is reported on its own instead of failing its whole chunk.
+     * The CPF is normalized to its 11 digits.
+     *
+     * @return The reason the row is invalid, or null if it is valid.
+     */
+    private static String validar(Paciente paciente) {
+        if (paciente.getNome() == null || paciente.getNome().isBlank()) {
+            return "O nome é obrigatório.";
+        }
+        if (paciente.getNome().length() > TAMANHO_TEXTO) {
+            return "O nome tem mais de " + TAMANHO_TEXTO + " caracteres.";
+        }
+        String cpf = paciente.getCpf() == null ? "" : paciente.getCpf().replaceAll("\\D", "");
+        if (cpf.length() != 11) {
+            return "O CPF deve ter 11 dígitos.";
+        }
+        paciente.setCpf(cpf);
+        if (paciente.getEmail() == null || !paciente.getEmail().contains("@")) {
+            return "E-mail inválido.";
+        }
+        if (paciente.getEmail().length() > TAMANHO_TEXTO) {
+            return "O e-mail tem mais de " + TAMANHO_TEXTO + " caracteres.";
+        }
+        if (paciente.getTelefoneWhatsapp() == null || paciente.getTelefoneWhatsapp().isBlank()) {
+            return "O telefone do WhatsApp é obrigatório.";
+        }
+        if (paciente.getTelefoneWhatsapp().length() > TAMANHO_TELEFONE) {
+            return "O telefone do WhatsApp tem mais de " + TAMANHO_TELEFONE + " caracteres.";
+        }
+        if (paciente.getDataNascimento() == null) {
+            return "A data de nascimento é obrigatória.";
+        }
+        if (paciente.getUltimoProcedimento() != null && paciente.getUltimoProcedimento().length() > TAMANHO_TEXTO) {
+            return "O último procedimento tem mais de " + TAMANHO_TEXTO + " caracteres.";
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the rows of the chunk in one transaction and one statement, then
+     * empties the chunk. Rows that hit a unique constraint are not returned by
+     * the insert and are rejected. If the statement fails on another integrity
+     * constraint, the rows are retried one by one so that only the offending
+     * row is rejected.
+     */
+    private void inserirLote(List<LinhaImportada> lote, ImportacaoPacientes importacao) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Timer.Sample amostra = Timer.start();
+        try {
+            Set<UUID> inseridos = transactionTemplate.execute(status ->
+                    jdbcTemplate.execute((ConnectionCallback<Set<UUID>>) conexao -> inserirColunas(conexao, lote)));
+            int inseridas = 0;
+            for (LinhaImportada linha : lote) {
+                if (inseridos.contains(linha.paciente().getId())) {
+                    inseridas++;
+                } else {
+                    rejeitar(importacao, linha.numero(), MOTIVO_DUPLICADO);
+                }
+            }
+            registrarInseridas(importacao, inseridas);
+        } catch (DataIntegrityViolationException e) {
+            inserirUmAUm(lote, importacao);
+        } finally {
+            amostra.stop(duracaoDoLote);
+            lote.clear();
+        }
+    }
+
+    private static Set<UUID> inserirColunas(Connection conexao, List<LinhaImportada> lote) throws SQLException {
+        int tamanho = lote.size();
+        Object[] ids = new Object[tamanho];
+        Object[] nomes = new Object[tamanho];
+        Object[] cpfs = new Object[tamanho];
+        Object[] emails = new Object[tamanho];
+        Object[] telefones = new Object[tamanho];
+        Object[] nascimentos = new Object[tamanho];
+        Object[] ultimasConsultas = new Object[tamanho];
+        Object[] procedimentos = new Object[tamanho];
+        Object[] ultimosContatos = new Object[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            Paciente paciente = lote.get(i).paciente();
+            ids[i] = paciente.getId();
+            nomes[i] = paciente.getNome();
+            cpfs[i] = paciente.getCpf();
+            emails[i] = paciente.getEmail();
+            telefones[i] = paciente.getTelefoneWhatsapp();
+            nascimentos[i] = Objects.toString(paciente.getDataNascimento(), null);
+            ultimasConsultas[i] = Objects.toString(paciente.getDataUltimaConsulta(), null);
+            procedimentos[i] = paciente.getUltimoProcedimento();
+            ultimosContatos[i] = Objects.toString(paciente.getDataUltimoContato(), null);
+        }
+        try (PreparedStatement instrucao = conexao.prepareStatement(INSERIR_LOTE)) {
+            instrucao.setArray(1, conexao.createArrayOf("uuid", ids));
+            instrucao.setArray(2, conexao.createArrayOf("varchar", nomes));
+            instrucao.setArray(3, conexao.createArrayOf("varchar", cpfs));
+            instrucao.setArray(4, conexao.createArrayOf("varchar", emails));
+            instrucao.setArray(5, conexao.createArrayOf("varchar", telefones));
+            instrucao.setArray(6, conexao.createArrayOf("varchar", nascimentos));
+            instrucao.setArray(7, conexao.createArrayOf("varchar", ultimasConsultas));
+            instrucao.setArray(8, conexao.createArrayOf("varchar", procedimentos));
+            instrucao.setArray(9, conexao.createArrayOf("varchar", ultimosContatos));
+            Set<UUID> inseridos = new HashSet<>(tamanho * 2);
+            try (ResultSet linhas = instrucao.executeQuery()) {
+                while (linhas.next()) {
+                    inseridos.add(linhas.getObject(1, UUID.class));
+                }
+            }
+            return inseridos;
+        }
+    }
+
+    private void inserirUmAUm(List<LinhaImportada> lote, ImportacaoPacientes importacao) {
+        for (LinhaImportada linha : lote) {
+            try {
+                Integer contagem = transactionTemplate.execute(status ->
+                        jdbcTemplate.update(INSERIR_PACIENTE, instrucao -> preencher(instrucao, linha.paciente())));
+                if (contagem != null && contagem == 0) {
+                    rejeitar(importacao, linha.numero(), MOTIVO_DUPLICADO);
+                } else {
+                    registrarInseridas(importacao, 1);
+                }
+            } catch (DataIntegrityViolationException e) {
+                rejeitar(importacao, linha.numero(), e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private static void preencher(PreparedStatement instrucao, Paciente paciente) throws SQLException {
+        instrucao.setObject(1, paciente.getId());
+        instrucao.setString(2, paciente.getNome());
+        instrucao.setString(3, paciente.getCpf());
+        instrucao.setString(4, paciente.getEmail());
+        instrucao.setString(5, paciente.getTelefoneWhatsapp());
+        instrucao.setObject(6, paciente.getDataNascimento());
+        instrucao.setObject(7, paciente.getDataUltimaConsulta());
+        instrucao.setString(8, paciente.getUltimoProcedimento());
+        instrucao.setObject(9, paciente.getDataUltimoContato());
+    }
+
+    private void registrarInseridas(ImportacaoPacientes importacao, int quantidade) {
+        importacao.registrarInseridas(quantidade);
+        linhasInseridas.increment(quantidade);
+    }
+
+    private void rejeitar(ImportacaoPacientes importacao, long numero, String motivo) {
+        importacao.registrarRejeicao(numero, motivo);
+        linhasRejeitadas.increment();
+    }
+
+    /**
+     * Forgets the imports that finished longer ago than the retention period.
+     */
+    private void descartarImportacoesAntigas() {
+        Instant limite = Instant.now().minus(retencao);
+        importacoes.values().removeIf(importacao ->
+                importacao.getConcluidaEm() != null && importacao.getConcluidaEm().isBefore(limite));
+    }
+
+    private static String causaOriginal(IllegalArgumentException e) {
+        return e.getCause() instanceof JsonProcessingException causa ? causa.getOriginalMessage() : e.getMessage();
+    }
+
+    /**
+     * A valid row waiting in the current chunk, with its line in the file.
+     */
+    private record LinhaImportada(long numero, Paciente paciente) {
+    }
+}
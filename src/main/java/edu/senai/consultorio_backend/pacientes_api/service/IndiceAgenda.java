@@ -0,0 +1,181 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the busy intervals of each dentist.
+ * It lets the booking path check for overlapping appointments without a
+ * query per booking: each dentist has a sorted map of intervals keyed by
+ * start time, filled lazily one day at a time from {@link ConsultaRepository}
+ * and kept in step as appointments are booked and cancelled.
+ *
+ * Reservations are made inside the booking transaction and undone if that
+ * transaction rolls back; cancellations are applied once their transaction
+ * commits. The index only sees bookings made through this application
+ * instance, so every instance must route its bookings through it.
+ */
+@Component
+public class IndiceAgenda {
+
+    private final ConsultaRepository consultaRepository;
+    private final Map<UUID, AgendaDoDentista> agendas = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new IndiceAgenda with the given repository.
+     * @param consultaRepository The repository used to load the appointments of a day.
+     */
+    @Autowired
+    public IndiceAgenda(ConsultaRepository consultaRepository) {
+        this.consultaRepository = consultaRepository;
+    }
+
+    /**
+     * Reserves the interval [dataHora, dataHora + duracaoMinutos) in the dentist's agenda.
+     * When called inside a transaction, the reservation is released again if the
+     * transaction does not commit.
+     *
+     * @param dentistaId The ID of the dentist.
+     * @param dataHora The date and time the appointment starts.
+     * @param duracaoMinutos The duration of the appointment, in minutes.
+     * @throws ConflitoDeAgendaException if the interval overlaps an existing appointment.
+     */
+    public void reservar(UUID dentistaId, LocalDateTime dataHora, int duracaoMinutos) {
+        LocalDateTime fim = dataHora.plusMinutes(duracaoMinutos);
+        AgendaDoDentista agenda = agendas.computeIfAbsent(dentistaId, id -> new AgendaDoDentista());
+        agenda.lock.lock();
+        try {
+            // An interval that overlaps [dataHora, fim) starts at most DURACAO_MAXIMA before dataHora.
+            LocalDateTime inicioDaBusca = dataHora.minusMinutes(Consulta.DURACAO_MAXIMA_MINUTOS);
+            descartarPassado(agenda, inicioDaBusca.toLocalDate());
+            carregarDias(dentistaId, agenda, inicioDaBusca.toLocalDate(), fim.toLocalDate());
+
+            for (Map.Entry<LocalDateTime, LocalDateTime> intervalo
+                    : agenda.intervalos.subMap(inicioDaBusca, true, fim, false).entrySet()) {
+                if (intervalo.getValue().isAfter(dataHora)) {
+                    throw new ConflitoDeAgendaException("O dentista já possui uma consulta entre "
+                            + intervalo.getKey() + " e " + intervalo.getValue());
+                }
+            }
+            agenda.intervalos.put(dataHora, fim);
+        } finally {
+            agenda.lock.unlock();
+        }
+        aoFimDaTransacao(false, () -> liberar(dentistaId, dataHora));
+    }
+
+    /**
+     * Removes the appointment that starts at dataHora from the dentist's agenda.
+     * When called inside a transaction, the removal only happens once the
+     * transaction commits.
+     *
+     * @param dentistaId The ID of the dentist.
+     * @param dataHora The date and time the cancelled appointment starts.
+     */
+    public void cancelar(UUID dentistaId, LocalDateTime dataHora) {
+        aoFimDaTransacao(true, () -> liberar(dentistaId, dataHora));
+    }
+
+    /**
+     * Forgets every loaded day, forcing the next booking of each dentist to
+     * reload its agenda from the database.
+     */
+    public void invalidar() {
+        agendas.clear();
+    }
+
+    private void liberar(UUID dentistaId, LocalDateTime dataHora) {
+        AgendaDoDentista agenda = agendas.get(dentistaId);
+        if (agenda != null) {
+            agenda.lock.lock();
+            try {
+                agenda.intervalos.remove(dataHora);
+            } finally {
+                agenda.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops the days before yesterday, which new bookings rarely touch, but
+     * keeps those from primeiroDiaUsado on, which the current check needs.
+     * Must be called while holding the agenda's lock.
+     */
+    private static void descartarPassado(AgendaDoDentista agenda, LocalDate primeiroDiaUsado) {
+        LocalDate ontem = LocalDate.now().minusDays(1);
+        LocalDate limite = primeiroDiaUsado.isBefore(ontem) ? primeiroDiaUsado : ontem;
+        agenda.diasCarregados.removeIf(dia -> dia.isBefore(limite));
+        agenda.intervalos.headMap(limite.atStartOfDay()).clear();
+    }
+
+    /**
+     * Loads every day of [primeiroDia, ultimoDia] not yet in the agenda with a
+     * single range query. Must be called while holding the agenda's lock.
+     */
+    private void carregarDias(UUID dentistaId, AgendaDoDentista agenda, LocalDate primeiroDia, LocalDate ultimoDia) {
+        LocalDate primeiroAusente = null;
+        LocalDate ultimoAusente = null;
+        for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            if (!agenda.diasCarregados.contains(dia)) {
+                primeiroAusente = primeiroAusente == null ? dia : primeiroAusente;
+                ultimoAusente = dia;
+            }
+        }
+        if (primeiroAusente == null) {
+            return;
+        }
+
+        for (IntervaloAgendado intervalo : consultaRepository.buscarIntervalos(dentistaId,
+                primeiroAusente.atStartOfDay(), ultimoAusente.plusDays(1).atStartOfDay())) {
+            agenda.intervalos.putIfAbsent(intervalo.getInicio(), intervalo.getFim());
+        }
+        for (LocalDate dia = primeiroAusente; !dia.isAfter(ultimoAusente); dia = dia.plusDays(1)) {
+            agenda.diasCarregados.add(dia);
+        }
+    }
+
+    private static void aoFimDaTransacao(boolean somenteSeConfirmada, Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (somenteSeConfirmada) {
+                acao.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == somenteSeConfirmada) {
+                    acao.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * The loaded part of one dentist's agenda. Guarded by its own lock, which is
+     * a {@link ReentrantLock} rather than a monitor because it is held across the
+     * query that loads missing days, and a virtual thread blocked on I/O inside a
+     * synchronized block would pin its carrier thread.
+     */
+    private static final class AgendaDoDentista {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NavigableMap<LocalDateTime, LocalDateTime> intervalos = new TreeMap<>();
+        private final Set<LocalDate> diasCarregados = new HashSet<>();
+    }
+}
@@ -1,14 +1,26 @@
 package edu.senai.consultorio_backend.pacientes_api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
 import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Service class for the Patient entity.
@@ -21,7 +33,39 @@ import java.util.UUID;
 @Service
 public class PacienteService {
 
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    public static final int TAMANHO_PAGINA_PADRAO = 50;
+
+    /**
+     * Largest page size a client may ask for; larger values are capped.
+     */
+    public static final int TAMANHO_PAGINA_MAXIMO = 200;
+
+    /**
+     * Page size of the search results when the client does not ask for one.
+     */
+    public static final int TAMANHO_PAGINA_BUSCA = 20;
+
+    /**
+     * Largest page size of the search results; larger values are capped.
+     */
+    public static final int TAMANHO_PAGINA_BUSCA_MAXIMO = 100;
+
+    /**
+     * Search terms made only of digits and phone/CPF punctuation.
+     */
+    private static final Pattern TERMO_NUMERICO = Pattern.compile("[\\d\\s().+-]+");
+
+    /**
+     * Fields that a merge patch cannot clear, the NOT NULL columns.
+     */
+    private static final Set<String> CAMPOS_OBRIGATORIOS = Set.of("nome", "cpf", "email", "telefoneWhatsapp", "dataNascimento");
+
     private final PacienteRepository pacienteRepository;
+    private final EntityManager entityManager;
+    private final AplicadorMergePatch aplicadorMergePatch;
 
     /**
      * Constructor for dependency injection of PacienteRepository.
@@ -29,22 +73,115 @@ public class PacienteService {
      * This is the recommended way of dependency injection (via constructor).
      *
      * @param pacienteRepository The patient repository instance.
+     * @param entityManager The shared entity manager, used to detach streamed patients.
+     * @param aplicadorMergePatch Applies the partial updates.
      */
     @Autowired
-    public PacienteService(PacienteRepository pacienteRepository) {
+    public PacienteService(PacienteRepository pacienteRepository, EntityManager entityManager,
+                           AplicadorMergePatch aplicadorMergePatch) {
         this.pacienteRepository = pacienteRepository;
+        this.entityManager = entityManager;
+        this.aplicadorMergePatch = aplicadorMergePatch;
+    }
+
+    /**
+     * Retrieves one page of patients ordered by name and ID.
+     * Pagination is keyset based: the cursor encodes the (nome, id) of the last
+     * patient already read, so every page costs the same index seek no matter
+     * how deep into the listing the client is.
+     *
+     * @param cursor The opaque cursor returned with the previous page, or null for the first page.
+     * @param limite The requested page size, or null for the default size.
+     * @return The page of patients and the cursor of the next page.
+     * @throws RequisicaoInvalidaException if the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<Paciente> listarPagina(String cursor, Integer limite) {
+        int tamanho = limite == null ? TAMANHO_PAGINA_PADRAO : Math.clamp(limite, 1, TAMANHO_PAGINA_MAXIMO);
+        // One extra row tells whether a next page exists without a count query.
+        PageRequest pagina = PageRequest.of(0, tamanho + 1);
+
+        List<Paciente> pacientes;
+        if (cursor == null || cursor.isBlank()) {
+            pacientes = pacienteRepository.buscarPrimeiraPagina(pagina);
+        } else {
+            Paciente ultimo = decodificarCursor(cursor);
+            pacientes = pacienteRepository.buscarPaginaApos(ultimo.getNome(), ultimo.getId(), pagina);
+        }
+
+        if (pacientes.size() <= tamanho) {
+            return new PaginaCursor<>(pacientes, null);
+        }
+        List<Paciente> itens = pacientes.subList(0, tamanho);
+        return new PaginaCursor<>(itens, codificarCursor(itens.get(tamanho - 1)));
     }
 
     /**
-     * Retrieves and returns all registered patients.
-     * The @Transactional(readOnly = true) annotation optimizes the query,
-     * indicating that this is a read-only operation.
+     * Searches patients by a free-text term, most relevant first.
+     * A numeric term (digits with optional CPF or phone punctuation) is matched
+     * as an exact value or prefix of the CPF and the WhatsApp phone; any other
+     * term is matched as a prefix of the email and as a prefix, word prefix or
+     * fragment of the name, ignoring case and accents, with misspellings of
+     * three or more characters caught by trigram similarity. All of it is
+     * answered by the indexes created in V3__busca_de_pacientes.sql.
+     *
+     * Results are paged by keyset on the ranking itself: the cursor encodes the
+     * rank, similarity, name and ID of the last patient already read, so a
+     * deep page costs no more than the first and does not repeat or skip
+     * patients when others are registered meanwhile.
      *
-     * @return A list of all Patient objects.
+     * @param termo The search term.
+     * @param cursor The opaque cursor returned with the previous page, or null for the first page.
+     * @param limite The requested page size, or null for the default size.
+     * @return The page of matching patients and the cursor of the next page.
+     * @throws RequisicaoInvalidaException if the term is blank or the cursor is malformed.
      */
     @Transactional(readOnly = true)
-    public List<Paciente> listarTodos() {
-        return pacienteRepository.findAll();
+    public PaginaCursor<Paciente> buscar(String termo, String cursor, Integer limite) {
+        if (termo == null || termo.isBlank()) {
+            throw new RequisicaoInvalidaException("O termo de busca é obrigatório.");
+        }
+        String texto = termo.strip();
+        int tamanho = limite == null ? TAMANHO_PAGINA_BUSCA : Math.clamp(limite, 1, TAMANHO_PAGINA_BUSCA_MAXIMO);
+        PosicaoNaBusca apos = decodificarPosicaoNaBusca(cursor);
+
+        List<Object[]> resultados;
+        if (TERMO_NUMERICO.matcher(texto).matches()) {
+            String digitos = texto.replaceAll("\\D", "");
+            if (digitos.isEmpty()) {
+                throw new RequisicaoInvalidaException("Termo de busca inválido: " + termo);
+            }
+            resultados = pacienteRepository.buscar(digitos, "", "", "",
+                    apos.faixa(), apos.semelhanca(), apos.nome(), apos.id(), tamanho + 1);
+        } else {
+            String prefixo = escaparLike(texto);
+            resultados = pacienteRepository.buscar("", prefixo.toLowerCase(Locale.ROOT), prefixo, texto,
+                    apos.faixa(), apos.semelhanca(), apos.nome(), apos.id(), tamanho + 1);
+        }
+
+        List<Paciente> pacientes = resultados.stream().limit(tamanho).map(linha -> (Paciente) linha[0]).toList();
+        if (resultados.size() <= tamanho) {
+            return new PaginaCursor<>(pacientes, null);
+        }
+        return new PaginaCursor<>(pacientes, codificarPosicaoNaBusca(resultados.get(tamanho - 1)));
+    }
+
+    /**
+     * Hands every patient, in (nome, id) order, to the given consumer.
+     * Rows are read through a JDBC cursor with a bounded fetch size and each
+     * patient is detached once consumed, so memory use does not grow with the
+     * size of the table.
+     *
+     * @param consumidor The consumer that receives each patient.
+     */
+    @Transactional(readOnly = true)
+    public void percorrerTodos(Consumer<Paciente> consumidor) {
+        try (Stream<Paciente> pacientes = pacienteRepository.transmitirTodos()) {
+            pacientes.forEach(paciente -> {
+                consumidor.accept(paciente);
+                entityManager.detach(paciente);
+            });
+        }
     }
 
     /**
@@ -60,6 +197,17 @@ public class PacienteService {
                 .orElseThrow(() -> new EntityNotFoundException("Paciente não encontrado com o ID: " + id));
     }
 
+    /**
+     * Finds the version of a patient, its strong ETag, without loading it.
+     *
+     * @param id The UUID of the patient.
+     * @return The version of the patient, if it exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersao(UUID id) {
+        return pacienteRepository.buscarVersao(id);
+    }
+
     /**
      * Registers a new patient in the database.
      *
@@ -82,8 +230,27 @@ public class PacienteService {
      */
     @Transactional
     public Paciente atualizar(UUID id, Paciente pacienteDetails) {
+        return atualizar(id, pacienteDetails, null);
+    }
+
+    /**
+     * Updates the data of an existing patient, provided it is still at the
+     * version the client last read (optimistic concurrency through If-Match).
+     * The check is repeated by Hibernate, which only updates the row if its
+     * version did not change in the meantime.
+     *
+     * @param id The UUID of the patient to be updated.
+     * @param pacienteDetails The Patient object with the new data.
+     * @param versaoEsperada The version the client last read, or null for an unconditional update.
+     * @return The updated Patient object; its version is incremented when the transaction commits.
+     * @throws EntityNotFoundException if the patient to be updated is not found.
+     * @throws VersaoDesatualizadaException if the patient is no longer at the expected version.
+     */
+    @Transactional
+    public Paciente atualizar(UUID id, Paciente pacienteDetails, Long versaoEsperada) {
         Paciente pacienteExistente = buscarPorId(id); // Reuses the find by ID
-        
+        verificarVersao(pacienteExistente, versaoEsperada);
+
         pacienteExistente.setNome(pacienteDetails.getNome());
         pacienteExistente.setCpf(pacienteDetails.getCpf());
         pacienteExistente.setEmail(pacienteDetails.getEmail());
@@ -96,6 +263,40 @@ public class PacienteService {
         return pacienteRepository.save(pacienteExistente);
     }
 
+    /**
+     * Updates only the fields of a patient present in a JSON Merge Patch
+     * (RFC 7396), provided it is still at the version the client last read.
+     * Only the columns whose value changed are written; when the patch
+     * changes nothing, there is no UPDATE and the version stays the same.
+     *
+     * @param id The UUID of the patient to be updated.
+     * @param patch The merge patch: the fields to change, with null for the optional fields to clear.
+     * @param versaoEsperada The version the client last read, or null for an unconditional update.
+     * @return The updated Patient object; its version is incremented when the transaction commits, if anything changed.
+     * @throws EntityNotFoundException if the patient to be updated is not found.
+     * @throws VersaoDesatualizadaException if the patient is no longer at the expected version.
+     * @throws RequisicaoInvalidaException if the patch is malformed or clears a required field.
+     */
+    @Transactional
+    public Paciente atualizarParcialmente(UUID id, JsonNode patch, Long versaoEsperada) {
+        Paciente paciente = buscarPorId(id);
+        verificarVersao(paciente, versaoEsperada);
+        aplicadorMergePatch.aplicar(patch, paciente, CAMPOS_OBRIGATORIOS);
+        return pacienteRepository.save(paciente);
+    }
+
+    /**
+     * Checks that a patient is still at the version the client last read.
+     *
+     * @throws VersaoDesatualizadaException if it is not.
+     */
+    private static void verificarVersao(Paciente paciente, Long versaoEsperada) {
+        if (versaoEsperada != null && !versaoEsperada.equals(paciente.getVersao())) {
+            throw new VersaoDesatualizadaException("O paciente foi alterado desde a versão " + versaoEsperada
+                    + "; a versão atual é " + paciente.getVersao() + ".");
+        }
+    }
+
     /**
      * Deletes a patient from the database by their ID.
      *
@@ -109,4 +310,76 @@ public class PacienteService {
         }
         pacienteRepository.deleteById(id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Escapes the LIKE wildcards of a search term, so that it only matches literally.
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * The keyset position of a patient in the search ranking.
+     */
+    private record PosicaoNaBusca(int faixa, double semelhanca, String nome, UUID id) {
+
+        /**
+         * The position before every result, where the first page starts.
+         */
+        static final PosicaoNaBusca INICIO = new PosicaoNaBusca(-1, 0, "", new UUID(0, 0));
+    }
+
+    /**
+     * Encodes the ranking position of a search result, {Paciente, faixa,
+     * semelhanca}, as an opaque, URL-safe cursor. The name comes last so it
+     * may contain any character.
+     */
+    private static String codificarPosicaoNaBusca(Object[] resultado) {
+        Paciente paciente = (Paciente) resultado[0];
+        String posicao = resultado[1] + ":" + resultado[2] + ":" + paciente.getId() + ":" + paciente.getNome();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #codificarPosicaoNaBusca(Object[])},
+     * or returns the start of the ranking when there is none.
+     */
+    private static PosicaoNaBusca decodificarPosicaoNaBusca(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return PosicaoNaBusca.INICIO;
+        }
+        try {
+            String[] campos = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+            return new PosicaoNaBusca(Integer.parseInt(campos[0]), Double.parseDouble(campos[1]), campos[3],
+                    UUID.fromString(campos[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+
+    /**
+     * Encodes the keyset position of a patient as an opaque, URL-safe cursor.
+     * The fixed-length UUID comes first so the name may contain any character.
+     */
+    private static String codificarCursor(Paciente paciente) {
+        String posicao = paciente.getId() + ":" + paciente.getNome();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #codificarCursor(Paciente)} into a
+     * patient carrying only the keyset fields.
+     */
+    private static Paciente decodificarCursor(String cursor) {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf(':');
+            Paciente ultimo = new Paciente();
+            ultimo.setId(UUID.fromString(posicao.substring(0, separador)));
+            ultimo.setNome(posicao.substring(separador + 1));
+            return ultimo;
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+
+import java.util.List;
+
+/**
+ * Destination of the appointment events drained from the outbox by
+ * {@link DespachanteDeEventos}. Exactly one implementation is active, chosen
+ * by "consultorio.eventos.publicador"; a broker client would be another one.
+ *
+ * Delivery is at least once: a batch that fails, or whose removal from the
+ * outbox fails after publishing, is published again, so consumers must
+ * tolerate duplicates (the event ID identifies them).
+ */
+public interface PublicadorDeEventos {
+
+    /**
+     * Publishes a batch of events, oldest first. When the method returns, the
+     * events must be durable at the destination: they are then removed from
+     * the outbox.
+     *
+     * @param eventos The events, in the order they happened.
+     * @throws Exception if the batch could not be published; it stays in the outbox and is retried.
+     */
+    void publicar(List<EventoConsulta> eventos) throws Exception;
+}
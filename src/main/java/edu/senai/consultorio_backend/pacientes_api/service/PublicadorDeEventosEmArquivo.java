@@ -0,0 +1,67 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the appointment events to a newline-delimited JSON file, one event
+ * per line, for local runs where another process tails the file.
+ * Each batch is written with a single write and forced to disk before the
+ * events leave the outbox, so a crash can repeat the last batch in the file
+ * but never lose it.
+ */
+@Component
+@ConditionalOnProperty(name = "consultorio.eventos.publicador", havingValue = "arquivo")
+public class PublicadorDeEventosEmArquivo implements PublicadorDeEventos {
+
+    private final Path arquivo;
+    private final ObjectWriter escritor;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param objectMapper The JSON mapper that writes the events.
+     * @param arquivo The file the events are appended to; it is created if it does not exist.
+     */
+    @Autowired
+    public PublicadorDeEventosEmArquivo(ObjectMapper objectMapper,
+                                        @Value("${consultorio.eventos.arquivo:eventos-consultas.ndjson}") Path arquivo) {
+        this.arquivo = arquivo;
+        this.escritor = objectMapper.writerFor(EventoConsulta.class);
+    }
+
+    @Override
+    public void publicar(List<EventoConsulta> eventos) throws IOException {
+        ByteArrayOutputStream linhas = new ByteArrayOutputStream(eventos.size() * 256);
+        for (EventoConsulta evento : eventos) {
+            escritor.writeValue(linhas, evento);
+            linhas.write('\n');
+        }
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        try (FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer conteudo = ByteBuffer.wrap(linhas.toByteArray());
+            while (conteudo.hasRemaining()) {
+                canal.write(conteudo);
+            }
+            canal.force(false);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes the appointment events inside the application, as Spring
+ * application events: any bean can receive them with an
+ * {@code @EventListener} method for {@link EventoConsulta}. The listeners run
+ * synchronously on the dispatcher's thread, so a listener that throws makes
+ * the batch be published again.
+ *
+ * This is the default publisher, meant for local runs and tests; nothing
+ * outside the process sees the events.
+ */
+@Component
+@ConditionalOnProperty(name = "consultorio.eventos.publicador", havingValue = "memoria", matchIfMissing = true)
+public class PublicadorDeEventosEmMemoria implements PublicadorDeEventos {
+
+    private final ApplicationEventPublisher publicadorDaAplicacao;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param publicadorDaAplicacao The application context, which delivers the events to the listeners.
+     */
+    @Autowired
+    public PublicadorDeEventosEmMemoria(ApplicationEventPublisher publicadorDaAplicacao) {
+        this.publicadorDaAplicacao = publicadorDaAplicacao;
+    }
+
+    @Override
+    public void publicar(List<EventoConsulta> eventos) {
+        eventos.forEach(publicadorDaAplicacao::publishEvent);
+    }
+}
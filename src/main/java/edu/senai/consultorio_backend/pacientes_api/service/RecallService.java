@@ -0,0 +1,186 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.FaixaRecall;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service that groups patients into recall buckets for re-engagement campaigns.
+ * A patient's reference date is the latest of the last appointment and the
+ * last contact; it is kept by the database in the generated column
+ * "data_referencia_recall", so it is recomputed on every write that changes
+ * either date. The buckets are the months configured in
+ * "consultorio.recall.faixas-meses" (6, 12 and 24 by default): a patient is
+ * in the largest bucket whose number of months has passed since the reference
+ * date. Each bucket is a range of the indexed column, read page by page.
+ *
+ * Patients with neither an appointment nor a contact are in no bucket.
+ */
+@Service
+public class RecallService {
+
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    public static final int TAMANHO_PAGINA_PADRAO = 100;
+
+    /**
+     * Largest page size a client may ask for; larger values are capped.
+     */
+    public static final int TAMANHO_PAGINA_MAXIMO = 1000;
+
+    /**
+     * Lower bound of the oldest bucket: earlier than any real reference date.
+     */
+    private static final LocalDate DATA_MINIMA = LocalDate.of(1, 1, 1);
+
+    /**
+     * Lowest ID, so that (date, ID_MINIMO) is a keyset position before every
+     * patient with that reference date.
+     */
+    private static final UUID ID_MINIMO = new UUID(0, 0);
+
+    private final PacienteRepository pacienteRepository;
+    private final int[] faixasEmMeses;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param pacienteRepository The patient repository instance.
+     * @param faixasEmMeses The months that open each bucket.
+     */
+    @Autowired
+    public RecallService(PacienteRepository pacienteRepository,
+                         @Value("${consultorio.recall.faixas-meses:6,12,24}") int[] faixasEmMeses) {
+        this.pacienteRepository = pacienteRepository;
+        this.faixasEmMeses = Arrays.stream(faixasEmMeses).filter(meses -> meses > 0).distinct().sorted().toArray();
+        if (this.faixasEmMeses.length == 0) {
+            throw new IllegalArgumentException("consultorio.recall.faixas-meses deve ter ao menos um número de meses.");
+        }
+    }
+
+    /**
+     * Lists the recall buckets with the number of patients in each, as of today.
+     *
+     * @return The buckets, from the most recent to the oldest.
+     */
+    @Transactional(readOnly = true)
+    public List<FaixaRecall> listarFaixas() {
+        LocalDate hoje = LocalDate.now();
+        List<FaixaRecall> faixas = new ArrayList<>(faixasEmMeses.length);
+        for (int i = 0; i < faixasEmMeses.length; i++) {
+            LocalDate ate = hoje.minusMonths(faixasEmMeses[i]);
+            LocalDate desde = inicioDaFaixa(hoje, i);
+            long pacientes = pacienteRepository.contarRecall(desde == null ? DATA_MINIMA : desde, ate);
+            faixas.add(new FaixaRecall(faixasEmMeses[i], desde, ate, pacientes));
+        }
+        return faixas;
+    }
+
+    /**
+     * Retrieves one page of the patients in a recall bucket, most overdue first.
+     * Pagination is keyset based on (reference date, id), so every page is an
+     * index range read no matter how deep into the bucket the campaign is.
+     *
+     * @param meses The number of months that opens the bucket.
+     * @param cursor The opaque cursor returned with the previous page, or null for the first page.
+     * @param limite The requested page size, or null for the default size.
+     * @return The page of patients and the cursor of the next page.
+     * @throws RequisicaoInvalidaException if there is no such bucket or the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<Paciente> listarFaixa(int meses, String cursor, Integer limite) {
+        int indice = Arrays.binarySearch(faixasEmMeses, meses);
+        if (indice < 0) {
+            throw new RequisicaoInvalidaException("Faixa de recall inexistente: " + meses + ". Faixas: "
+                    + Arrays.stream(faixasEmMeses).mapToObj(String::valueOf).collect(Collectors.joining(", ")) + ".");
+        }
+        int tamanho = limite == null ? TAMANHO_PAGINA_PADRAO : Math.clamp(limite, 1, TAMANHO_PAGINA_MAXIMO);
+        LocalDate hoje = LocalDate.now();
+        LocalDate ate = hoje.minusMonths(meses);
+
+        Posicao apos;
+        if (cursor == null || cursor.isBlank()) {
+            LocalDate desde = inicioDaFaixa(hoje, indice);
+            apos = new Posicao(desde == null ? DATA_MINIMA : desde, ID_MINIMO);
+        } else {
+            apos = decodificarCursor(cursor);
+        }
+
+        // One extra row tells whether a next page exists without a count query.
+        List<Paciente> pacientes = pacienteRepository.buscarPaginaDeRecall(ate, apos.data(), apos.id(), tamanho + 1);
+        if (pacientes.size() <= tamanho) {
+            return new PaginaCursor<>(pacientes, null);
+        }
+        List<Paciente> itens = pacientes.subList(0, tamanho);
+        Paciente ultimo = itens.get(tamanho - 1);
+        return new PaginaCursor<>(itens, codificarCursor(new Posicao(dataDeReferencia(ultimo), ultimo.getId())));
+    }
+
+    /**
+     * Gets the inclusive lower bound of the bucket at the given position: the
+     * upper bound of the next, older bucket.
+     *
+     * @return The lower bound, or null for the oldest bucket.
+     */
+    private LocalDate inicioDaFaixa(LocalDate hoje, int indice) {
+        return indice + 1 < faixasEmMeses.length ? hoje.minusMonths(faixasEmMeses[indice + 1]) : null;
+    }
+
+    /**
+     * Computes the recall reference date of a patient, as the database does
+     * for the "data_referencia_recall" column.
+     */
+    private static LocalDate dataDeReferencia(Paciente paciente) {
+        LocalDate consulta = paciente.getDataUltimaConsulta();
+        LocalDate contato = paciente.getDataUltimoContato();
+        if (consulta == null || (contato != null && contato.isAfter(consulta))) {
+            return contato;
+        }
+        return consulta;
+    }
+
+    /**
+     * Encodes a keyset position as an opaque, URL-safe cursor.
+     */
+    private static String codificarCursor(Posicao posicao) {
+        String texto = posicao.data() + ":" + posicao.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #codificarCursor(Posicao)}.
+     */
+    private static Posicao decodificarCursor(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(':');
+            return new Posicao(LocalDate.parse(texto.substring(0, separador)),
+                    UUID.fromString(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+
+    /**
+     * A keyset position in a recall bucket: the (reference date, id) of the
+     * last patient already read.
+     */
+    private record Posicao(LocalDate data, UUID id) {
+    }
+}
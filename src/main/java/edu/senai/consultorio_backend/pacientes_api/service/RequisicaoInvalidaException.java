@@ -0,0 +1,21 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request carries parameters that the service cannot accept,
+ * such as a malformed pagination cursor.
+ * It is translated into an HTTP 400 (Bad Request) response.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    /**
+     * Constructs a new RequisicaoInvalidaException with the given message.
+     * @param message The detail message.
+     */
+    public RequisicaoInvalidaException(String message) {
+        super(message);
+    }
+}
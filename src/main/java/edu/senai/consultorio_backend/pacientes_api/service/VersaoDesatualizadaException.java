@@ -0,0 +1,21 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an update is conditioned, through If-Match, on a version of the
+ * resource that is no longer the current one.
+ * It is translated into an HTTP 412 (Precondition Failed) response.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class VersaoDesatualizadaException extends RuntimeException {
+
+    /**
+     * Constructs a new VersaoDesatualizadaException with the given message.
+     * @param message The detail message.
+     */
+    public VersaoDesatualizadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that reads the version of whole tables, used as the weak ETag of
+ * the listings. Each table has a counter in "versoes_das_tabelas" that a
+ * statement trigger increments on every insert, update, delete or truncate
+ * (see V6__versoes_e_etags.sql), so reading a version is a primary key range
+ * scan that never touches the rows of the listing. The counter is split into
+ * shards, and each write increments one that no other open transaction holds
+ * (see V9__versoes_sem_bloqueio.sql), so concurrent writes to a table do not
+ * wait for each other; the version is the sum of the shards.
+ */
+@Service
+public class VersoesDasTabelas {
+
+    /**
+     * Name of the patients table.
+     */
+    public static final String PACIENTES = "pacientes";
+
+    /**
+     * Name of the dentists table.
+     */
+    public static final String DENTISTAS = "dentistas";
+
+    /**
+     * Name of the appointments table.
+     */
+    public static final String CONSULTAS = "consultas";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate The JDBC template used to read the counters.
+     */
+    @Autowired
+    public VersoesDasTabelas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Gets the combined version of one or more tables. The counters only
+     * grow, and only when a write commits, so their sum changes whenever any
+     * of the tables changes; a
+     * listing built from several tables, such as the agenda, uses all of them.
+     *
+     * @param tabelas The names of the tables.
+     * @return The sum of the versions of the tables.
+     */
+    public long versao(String... tabelas) {
+        Long versao = jdbcTemplate.queryForObject(
+                "select coalesce(sum(versao), 0)::bigint from versoes_das_tabelas where tabela = any(?)",
+                Long.class, (Object) tabelas);
+        return versao == null ? 0 : versao;
+    }
+}
@@ -0,0 +1,32 @@
+-- ===================================================================
+-- Ordem de entrega dos eventos das consultas.
+--
+-- "ocorrido_em" é lido do relógio da aplicação antes do commit, e os IDs vêm
+-- em blocos de 50 reservados por instância, então nenhum dos dois acompanha a
+-- ordem em que os eventos foram gravados. A coluna "ordem" recebe o próximo
+-- valor de uma sequência no próprio INSERT, pelo banco: um evento gravado
+-- depois que outra transação confirmou os seus (o cancelamento de uma
+-- consulta já agendada, o agendamento de um horário já liberado) tem sempre
+-- uma ordem maior e é publicado depois deles. O valor é atribuído no servidor,
+-- então os INSERTs continuam em lote, sem uma ida ao banco por evento.
+-- ===================================================================
+
+CREATE SEQUENCE IF NOT EXISTS eventos_consultas_ordem_seq;
+
+ALTER TABLE eventos_consultas ADD COLUMN IF NOT EXISTS ordem bigint;
+
+-- Eventos ainda não publicados mantêm a ordem em que seriam entregues antes.
+UPDATE eventos_consultas e
+SET ordem = o.posicao
+FROM (SELECT id, row_number() OVER (ORDER BY ocorrido_em, id) AS posicao FROM eventos_consultas) o
+WHERE e.id = o.id;
+
+SELECT setval('eventos_consultas_ordem_seq', coalesce(max(ordem), 0) + 1, false) FROM eventos_consultas;
+
+ALTER TABLE eventos_consultas
+    ALTER COLUMN ordem SET DEFAULT nextval('eventos_consultas_ordem_seq'),
+    ALTER COLUMN ordem SET NOT NULL;
+ALTER SEQUENCE eventos_consultas_ordem_seq OWNED BY eventos_consultas.ordem;
+
+DROP INDEX IF EXISTS idx_eventos_consultas_ocorrido_em;
+CREATE INDEX IF NOT EXISTS idx_eventos_consultas_ordem ON eventos_consultas (ordem);
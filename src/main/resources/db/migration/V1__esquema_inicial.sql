@@ -0,0 +1,43 @@
+-- ===================================================================
+-- Esquema inicial do banco do consultório.
+--
+-- Reproduz as tabelas que o Hibernate criava com ddl-auto=update. Os comandos
+-- usam IF NOT EXISTS para que bancos já existentes, criados pelo Hibernate,
+-- possam receber esta migração sem erro (ver spring.flyway.baseline-version).
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS pacientes (
+    id                   uuid         NOT NULL,
+    nome                 varchar(255) NOT NULL,
+    cpf                  varchar(11)  NOT NULL,
+    email                varchar(255) NOT NULL,
+    telefone_whatsapp    varchar(15)  NOT NULL,
+    data_nascimento      date         NOT NULL,
+    data_ultima_consulta date,
+    ultimo_procedimento  varchar(255),
+    data_ultimo_contato  date,
+    CONSTRAINT pacientes_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_pacientes_cpf UNIQUE (cpf),
+    CONSTRAINT uk_pacientes_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS dentistas (
+    id            uuid         NOT NULL,
+    nome          varchar(255) NOT NULL,
+    especialidade varchar(255) NOT NULL,
+    CONSTRAINT dentistas_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS consultas (
+    id          uuid         NOT NULL,
+    paciente_id uuid         NOT NULL,
+    dentista_id uuid         NOT NULL,
+    data_hora   timestamp(6) NOT NULL,
+    CONSTRAINT consultas_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_consultas_paciente FOREIGN KEY (paciente_id) REFERENCES pacientes (id),
+    CONSTRAINT fk_consultas_dentista FOREIGN KEY (dentista_id) REFERENCES dentistas (id)
+);
+
+-- Duração das consultas, usada na verificação de conflitos de horário.
+-- Consultas sem duração são tratadas como de 30 minutos pela aplicação.
+ALTER TABLE consultas ADD COLUMN IF NOT EXISTS duracao_minutos integer;
@@ -0,0 +1,19 @@
+-- ===================================================================
+-- Índices que sustentam as consultas declaradas nos repositórios.
+--
+-- Cada método de repositório indica, com @IndiceDeSuporte, o índice que usa;
+-- o teste IndicesDeSuporteTest falha o build se algum índice citado não for
+-- criado por uma migração.
+-- ===================================================================
+
+-- Agenda de um dentista em um período (IndiceAgenda e agenda do dia).
+CREATE INDEX IF NOT EXISTS idx_consultas_dentista_data_hora ON consultas (dentista_id, data_hora);
+
+-- Histórico de consultas de um paciente e exclusão de pacientes (chave estrangeira).
+CREATE INDEX IF NOT EXISTS idx_consultas_paciente_id ON consultas (paciente_id);
+
+-- Listagem geral de consultas ordenada por data.
+CREATE INDEX IF NOT EXISTS idx_consultas_data_hora ON consultas (data_hora);
+
+-- Paginação por keyset e transmissão da listagem de pacientes, em ordem de (nome, id).
+CREATE INDEX IF NOT EXISTS idx_pacientes_nome_id ON pacientes (nome, id);
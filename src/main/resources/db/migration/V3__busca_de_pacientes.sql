@@ -0,0 +1,36 @@
+-- ===================================================================
+-- Busca de pacientes (GET /api/pacientes/search).
+--
+-- O nome é comparado sem acentos e sem diferenciar maiúsculas; CPF, telefone
+-- e e-mail, por prefixo. Cada critério tem o seu índice, e o PostgreSQL os
+-- combina (BitmapOr) em vez de percorrer a tabela.
+-- ===================================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() é apenas STABLE (depende do dicionário configurado), e índices
+-- exigem funções IMMUTABLE. Este invólucro fixa o dicionário e o esquema, o
+-- que o torna seguro para uso em índices.
+CREATE OR REPLACE FUNCTION consultorio_normalizar(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$;
+
+-- Nome normalizado, calculado uma vez na escrita. Guardá-lo evita chamar
+-- unaccent() de novo para cada linha conferida pelo índice e para cada linha
+-- ordenada por semelhança, o que dominava o tempo das buscas amplas.
+ALTER TABLE pacientes ADD COLUMN IF NOT EXISTS nome_busca text
+    GENERATED ALWAYS AS (consultorio_normalizar(nome)) STORED;
+
+-- Trigramas do nome normalizado: trechos no meio do nome ("silva" em
+-- "Ana Silva") e semelhança aproximada, para termos com 3 ou mais letras.
+CREATE INDEX IF NOT EXISTS idx_pacientes_nome_trgm ON pacientes USING gin (nome_busca gin_trgm_ops);
+
+-- Prefixo do nome normalizado, inclusive para termos com 1 ou 2 letras.
+CREATE INDEX IF NOT EXISTS idx_pacientes_nome_prefixo ON pacientes (nome_busca text_pattern_ops);
+
+-- Prefixos de CPF, telefone e e-mail (text_pattern_ops permite LIKE 'x%'
+-- independentemente da collation do banco).
+CREATE INDEX IF NOT EXISTS idx_pacientes_cpf_prefixo ON pacientes (cpf text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_pacientes_telefone_prefixo ON pacientes (telefone_whatsapp text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_pacientes_email_prefixo ON pacientes (lower(email) text_pattern_ops);
@@ -0,0 +1,19 @@
+-- ===================================================================
+-- Recall de pacientes (GET /api/recall).
+--
+-- A data de referência do recall é a mais recente entre a última consulta e
+-- o último contato. Como coluna gerada, o próprio PostgreSQL a recalcula em
+-- cada INSERT ou UPDATE que altere essas datas, seja pelo JPA, seja pela
+-- importação em massa; cada faixa de recall é então um intervalo desta coluna.
+--
+-- Adicionar uma coluna STORED reescreve a tabela (com bloqueio exclusivo),
+-- o que em bases grandes deve ser feito fora do horário de atendimento.
+-- ===================================================================
+
+ALTER TABLE pacientes ADD COLUMN IF NOT EXISTS data_referencia_recall date
+    GENERATED ALWAYS AS (greatest(data_ultima_consulta, data_ultimo_contato)) STORED;
+
+-- Faixas e páginas do recall: intervalo de datas em ordem de (data, id).
+-- Pacientes sem consulta nem contato registrados não entram no recall.
+CREATE INDEX IF NOT EXISTS idx_pacientes_recall ON pacientes (data_referencia_recall, id)
+    WHERE data_referencia_recall IS NOT NULL;
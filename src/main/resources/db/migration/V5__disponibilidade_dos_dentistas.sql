@@ -0,0 +1,9 @@
+-- ===================================================================
+-- Disponibilidade dos dentistas (GET /api/disponibilidade).
+--
+-- A busca de horários livres por especialidade lista os dentistas daquela
+-- especialidade em ordem de nome; as consultas de todos eles no período são
+-- lidas de uma vez pelo índice idx_consultas_dentista_data_hora (V2).
+-- ===================================================================
+
+CREATE INDEX IF NOT EXISTS idx_dentistas_especialidade ON dentistas (especialidade, nome);
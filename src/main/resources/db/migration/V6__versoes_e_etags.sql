@@ -0,0 +1,50 @@
+-- ===================================================================
+-- Versões para ETags e controle de concorrência otimista.
+--
+-- Cada linha tem uma coluna "versao" (@Version no JPA), incrementada pelo
+-- Hibernate a cada atualização: é a ETag forte de GET /{id} e o valor
+-- comparado com If-Match. As linhas existentes e as inseridas por JDBC (a
+-- importação em massa) começam na versão 0.
+-- ===================================================================
+
+ALTER TABLE pacientes ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
+ALTER TABLE dentistas ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
+ALTER TABLE consultas ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
+
+-- Versão de cada tabela, para as ETags fracas das listagens: um contador
+-- incrementado por gatilho a cada INSERT, UPDATE, DELETE ou TRUNCATE, venha a
+-- escrita do Hibernate, da importação por JDBC ou de SQL direto. Ler a versão
+-- de uma listagem é uma busca pela chave primária, sem tocar nas linhas.
+--
+-- O contador é transacional: quem lê só enxerga o incremento depois do COMMIT
+-- da escrita, junto com os dados. Em troca, as escritas em uma mesma tabela
+-- aguardam umas às outras no UPDATE do contador até o fim da transação.
+CREATE TABLE IF NOT EXISTS versoes_das_tabelas (
+    tabela varchar(63) NOT NULL,
+    versao bigint      NOT NULL DEFAULT 0,
+    CONSTRAINT versoes_das_tabelas_pkey PRIMARY KEY (tabela)
+);
+
+INSERT INTO versoes_das_tabelas (tabela) VALUES ('pacientes'), ('dentistas'), ('consultas')
+ON CONFLICT (tabela) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION consultorio_registrar_alteracao() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE versoes_das_tabelas SET versao = versao + 1 WHERE tabela = TG_TABLE_NAME;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_pacientes_versao ON pacientes;
+CREATE TRIGGER trg_pacientes_versao AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON pacientes
+    FOR EACH STATEMENT EXECUTE FUNCTION consultorio_registrar_alteracao();
+
+DROP TRIGGER IF EXISTS trg_dentistas_versao ON dentistas;
+CREATE TRIGGER trg_dentistas_versao AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON dentistas
+    FOR EACH STATEMENT EXECUTE FUNCTION consultorio_registrar_alteracao();
+
+DROP TRIGGER IF EXISTS trg_consultas_versao ON consultas;
+CREATE TRIGGER trg_consultas_versao AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON consultas
+    FOR EACH STATEMENT EXECUTE FUNCTION consultorio_registrar_alteracao();
@@ -0,0 +1,31 @@
+-- ===================================================================
+-- Outbox transacional dos eventos das consultas.
+--
+-- Cada agendamento ou cancelamento grava um evento nesta tabela, na mesma
+-- transação que altera "consultas": o evento existe se, e somente se, a
+-- alteração foi confirmada. O despachante (DespachanteDeEventos) lê os eventos
+-- em lotes, na ordem em que ocorreram, entrega-os ao publicador configurado e
+-- então os apaga.
+--
+-- Os IDs vêm de uma sequência com incremento 50, igual ao allocationSize da
+-- entidade: o Hibernate reserva 50 IDs por nextval e os atribui em memória, de
+-- modo que gravar os eventos não custa uma ida ao banco por ID, e os INSERTs
+-- entram no mesmo lote JDBC.
+-- ===================================================================
+
+CREATE SEQUENCE IF NOT EXISTS eventos_consultas_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS eventos_consultas (
+    id              bigint      NOT NULL,
+    tipo            varchar(20) NOT NULL,
+    consulta_id     uuid        NOT NULL,
+    paciente_id     uuid        NOT NULL,
+    dentista_id     uuid        NOT NULL,
+    data_hora       timestamp   NOT NULL,
+    duracao_minutos integer,
+    ocorrido_em     timestamptz NOT NULL,
+    CONSTRAINT eventos_consultas_pkey PRIMARY KEY (id)
+);
+
+-- Ordem de entrega: o despachante lê sempre os eventos mais antigos primeiro.
+CREATE INDEX IF NOT EXISTS idx_eventos_consultas_ocorrido_em ON eventos_consultas (ocorrido_em, id);
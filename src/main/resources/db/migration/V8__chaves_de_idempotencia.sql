@@ -0,0 +1,27 @@
+-- ===================================================================
+-- Respostas guardadas das requisições com Idempotency-Key.
+--
+-- Um cliente que reenvia POST /api/consultas/agendar ou POST /api/pacientes
+-- com a mesma chave (por exemplo, após um timeout) recebe a resposta da
+-- primeira execução, sem que a escrita seja repetida. A resposta é gravada na
+-- mesma transação que a escrita: ela existe se, e somente se, a escrita foi
+-- confirmada. As chaves são por usuário e por operação, e valem até
+-- "expira_em"; uma tarefa agendada apaga as vencidas.
+-- ===================================================================
+
+CREATE TABLE IF NOT EXISTS chaves_idempotencia (
+    usuario   varchar(255) NOT NULL,
+    operacao  varchar(50)  NOT NULL,
+    chave     varchar(255) NOT NULL,
+    -- SHA-256 do corpo da requisição: a mesma chave com outro corpo é rejeitada.
+    impressao varchar(64)  NOT NULL,
+    status    smallint     NOT NULL,
+    location  text,
+    etag      text,
+    corpo     text,
+    expira_em timestamptz  NOT NULL,
+    CONSTRAINT chaves_idempotencia_pkey PRIMARY KEY (usuario, operacao, chave)
+);
+
+-- Limpeza das chaves vencidas.
+CREATE INDEX IF NOT EXISTS idx_chaves_idempotencia_expira_em ON chaves_idempotencia (expira_em);
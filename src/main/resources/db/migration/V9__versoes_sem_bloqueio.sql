@@ -0,0 +1,47 @@
+-- ===================================================================
+-- Contadores de versão das tabelas sem fila entre as escritas.
+--
+-- Em V6, cada escrita incrementava a única linha da tabela em
+-- versoes_das_tabelas e segurava o bloqueio dessa linha até o COMMIT: duas
+-- transações que escreviam na mesma tabela (agendamentos de dentistas
+-- diferentes, um lote da importação e um cadastro) esperavam uma pela outra.
+--
+-- Agora cada tabela tem 32 fatias. O gatilho incrementa a primeira fatia que
+-- nenhuma outra transação em andamento está segurando (FOR UPDATE SKIP
+-- LOCKED), e a versão da tabela é a soma das fatias. As escritas só esperam
+-- quando há mais de 32 transações escrevendo na mesma tabela ao mesmo tempo.
+-- O incremento continua transacional: a soma só muda com o COMMIT da escrita,
+-- junto com os dados, e sempre aumenta.
+-- ===================================================================
+
+ALTER TABLE versoes_das_tabelas ADD COLUMN IF NOT EXISTS fatia smallint NOT NULL DEFAULT 0;
+ALTER TABLE versoes_das_tabelas DROP CONSTRAINT IF EXISTS versoes_das_tabelas_pkey;
+ALTER TABLE versoes_das_tabelas ADD CONSTRAINT versoes_das_tabelas_pkey PRIMARY KEY (tabela, fatia);
+
+INSERT INTO versoes_das_tabelas (tabela, fatia)
+SELECT tabela, fatia
+FROM unnest(ARRAY['pacientes', 'dentistas', 'consultas']) AS tabela, generate_series(0, 31) AS fatia
+ON CONFLICT (tabela, fatia) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION consultorio_registrar_alteracao() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    livre smallint;
+BEGIN
+    -- A fatia já segurada por esta transação não é pulada, então as próximas
+    -- instruções da mesma transação reutilizam a fatia que ela já tem.
+    SELECT fatia INTO livre
+    FROM versoes_das_tabelas
+    WHERE tabela = TG_TABLE_NAME
+    ORDER BY fatia
+    LIMIT 1
+    FOR UPDATE SKIP LOCKED;
+    IF livre IS NULL THEN
+        -- Todas as fatias estão com outras transações: espera por uma delas.
+        livre := floor(random() * 32)::smallint;
+    END IF;
+    UPDATE versoes_das_tabelas SET versao = versao + 1 WHERE tabela = TG_TABLE_NAME AND fatia = livre;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,176 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CachingOpaqueTokenIntrospectorTest {
+
+    private static final Instant AGORA = Instant.parse("2025-09-08T12:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final Clock clock = Clock.fixed(AGORA, ZoneOffset.UTC);
+    private final AtomicInteger chamadas = new AtomicInteger();
+
+    private OpaqueTokenIntrospector servidor;
+
+    @BeforeEach
+    void setUp() {
+        servidor = token -> {
+            chamadas.incrementAndGet();
+            if (token.startsWith("inativo")) {
+                throw new BadOpaqueTokenException("Provided token isn't active");
+            }
+            if (token.startsWith("indisponivel")) {
+                throw new OAuth2IntrospectionException("Connection refused");
+            }
+            return principal(AGORA.plus(Duration.ofHours(1)));
+        };
+    }
+
+    @Test
+    void testTokenAtivoEhServidoDoCache() {
+        CachingOpaqueTokenIntrospector introspector = introspector(servidor);
+
+        OAuth2AuthenticatedPrincipal primeiro = introspector.introspect("token");
+        OAuth2AuthenticatedPrincipal segundo = introspector.introspect("token");
+
+        assertSame(primeiro, segundo);
+        assertEquals(1, chamadas.get());
+        assertEquals(1, introspector.estatisticas().hitCount());
+        assertEquals(1, introspector.estatisticas().missCount());
+    }
+
+    @Test
+    void testTokenAtivoExpiraAoFimDoTtl() {
+        CachingOpaqueTokenIntrospector introspector = introspector(servidor);
+
+        introspector.introspect("token");
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+        introspector.introspect("token");
+
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    void testTokenAtivoNaoSobreviveAoExp() {
+        CachingOpaqueTokenIntrospector introspector = introspector(
+                token -> {
+                    chamadas.incrementAndGet();
+                    return principal(AGORA.plus(Duration.ofSeconds(5)));
+                });
+
+        introspector.introspect("token");
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        introspector.introspect("token");
+
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    void testTokenInativoEhCacheadoPeloTtlNegativo() {
+        CachingOpaqueTokenIntrospector introspector = introspector(servidor);
+
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inativo"));
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inativo"));
+        assertEquals(1, chamadas.get());
+        assertEquals(2, introspector.rejeicoesDeTokensInativos());
+
+        nanos.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inativo"));
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    void testFalhaDoServidorNaoEhCacheada() {
+        CachingOpaqueTokenIntrospector introspector = introspector(servidor);
+
+        assertThrows(OAuth2IntrospectionException.class, () -> introspector.introspect("indisponivel"));
+        assertThrows(OAuth2IntrospectionException.class, () -> introspector.introspect("indisponivel"));
+
+        assertEquals(2, chamadas.get());
+        assertEquals(0, introspector.tamanho());
+    }
+
+    @Test
+    void testIntrospeccoesConcorrentesDoMesmoTokenSaoUnificadas() throws Exception {
+        CountDownLatch servidorChamado = new CountDownLatch(1);
+        CountDownLatch liberarServidor = new CountDownLatch(1);
+        CachingOpaqueTokenIntrospector introspector = introspector(token -> {
+            chamadas.incrementAndGet();
+            servidorChamado.countDown();
+            try {
+                liberarServidor.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return principal(AGORA.plus(Duration.ofHours(1)));
+        });
+
+        CompletableFuture<OAuth2AuthenticatedPrincipal> primeira =
+                CompletableFuture.supplyAsync(() -> introspector.introspect("token"));
+        servidorChamado.await(5, TimeUnit.SECONDS);
+        CompletableFuture<OAuth2AuthenticatedPrincipal> segunda =
+                CompletableFuture.supplyAsync(() -> introspector.introspect("token"));
+        liberarServidor.countDown();
+
+        assertSame(primeira.get(5, TimeUnit.SECONDS), segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void testMetricasDaIntrospeccao() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        CachingOpaqueTokenIntrospector introspector = introspector(servidor);
+        introspector.bindTo(registro);
+
+        introspector.introspect("token");
+        introspector.introspect("token");
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("inativo"));
+        assertThrows(OAuth2IntrospectionException.class, () -> introspector.introspect("indisponivel"));
+
+        String metrica = CachingOpaqueTokenIntrospector.METRICA_INTROSPECCAO;
+        assertEquals(1, registro.get(metrica).tag("desfecho", "ativo").timer().count());
+        assertEquals(1, registro.get(metrica).tag("desfecho", "inativo").timer().count());
+        assertEquals(1, registro.get(metrica).tag("desfecho", "erro").timer().count());
+        assertEquals(1, registro.get(metrica + ".rejeicoes").functionCounter().count());
+        assertEquals(1, registro.get("cache.gets").tag("cache", "introspeccao").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    private CachingOpaqueTokenIntrospector introspector(OpaqueTokenIntrospector delegate) {
+        return new CachingOpaqueTokenIntrospector(delegate, Duration.ofSeconds(60), Duration.ofSeconds(10),
+                100, clock, ticker);
+    }
+
+    private static OAuth2AuthenticatedPrincipal principal(Instant expiraEm) {
+        return new DefaultOAuth2AuthenticatedPrincipal("usuario",
+                Map.of(OAuth2TokenIntrospectionClaimNames.ACTIVE, true,
+                        OAuth2TokenIntrospectionClaimNames.EXP, expiraEm),
+                Collections.emptyList());
+    }
+}
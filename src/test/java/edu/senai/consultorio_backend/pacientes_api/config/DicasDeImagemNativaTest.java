@@ -0,0 +1,50 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DicasDeImagemNativaTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new DicasDeImagemNativa().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testEntidadesSaoAcessiveisPorReflexao() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Consulta.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+    }
+
+    @Test
+    void testCorpoDoAgendamentoPodeSerLidoPeloJackson() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(AgendamentoRequest.class.getMethod("setDentistaId", UUID.class)).invoke()
+                .test(hints));
+    }
+
+    @Test
+    void testListenerDaSessaoHibernatePodeSerCriadoPeloNome() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(MetricasDaSessaoHibernate.class.getConstructor()).invoke().test(hints));
+    }
+
+    @Test
+    void testProxyDasConexoesERegioesDoCache() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ConnectionProxy.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("application.conf").test(hints));
+    }
+}
@@ -0,0 +1,189 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FiltroDeCargaTest {
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private long agora = 0;
+
+    private LimiteDeConcorrencia limiteDeConcorrencia;
+    private FiltroDeCarga filtro;
+
+    @BeforeEach
+    void setUp() {
+        LimiteDeTaxa limiteDeTaxa = new LimiteDeTaxa(Map.of(
+                GrupoDeEndpoints.LEITURA, new LimiteDeTaxa.Taxa(2, 3),
+                GrupoDeEndpoints.ESCRITA, new LimiteDeTaxa.Taxa(1, 1),
+                GrupoDeEndpoints.TRANSMISSAO, new LimiteDeTaxa.Taxa(0.1, 1),
+                GrupoDeEndpoints.ASSINATURA, new LimiteDeTaxa.Taxa(0.2, 8)),
+                100, () -> agora);
+        limiteDeConcorrencia = new LimiteDeConcorrencia(1, 1, 10, Duration.ofMillis(500), 0.9);
+        filtro = new FiltroDeCarga(limiteDeTaxa, limiteDeConcorrencia, 2, new ObjectMapper(), registro);
+        autenticar("ana");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRajadaAcimaDaTaxaRecebe429ComRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, executar("GET", "/api/pacientes").getStatus());
+        }
+        MockHttpServletResponse rejeitada = executar("GET", "/api/pacientes");
+
+        assertEquals(429, rejeitada.getStatus());
+        assertEquals("1", rejeitada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("application/problem+json", rejeitada.getContentType());
+        assertTrue(rejeitada.getContentAsString().contains("\"status\":429"));
+        assertEquals(1, rejeicoes("taxa", "leitura"));
+
+        agora += Duration.ofMillis(500).toNanos();
+        assertEquals(200, executar("GET", "/api/pacientes").getStatus());
+    }
+
+    @Test
+    void testCadaClienteECadaGrupoTemSeuLimite() throws Exception {
+        assertEquals(200, executar("POST", "/api/consultas/agendar").getStatus());
+        assertEquals(429, executar("POST", "/api/consultas/agendar").getStatus());
+        assertEquals(200, executar("GET", "/api/consultas").getStatus());
+
+        autenticar("bruno");
+        assertEquals(200, executar("POST", "/api/consultas/agendar").getStatus());
+    }
+
+    @Test
+    void testTransmissaoTemLimiteProprioEIndicaEsperaEmSegundos() throws Exception {
+        assertEquals(200, executar("GET", "/api/pacientes/exportacao").getStatus());
+        MockHttpServletResponse rejeitada = executar("GET", "/api/consultas/exportacao");
+
+        assertEquals(429, rejeitada.getStatus());
+        assertEquals("10", rejeitada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejeicoes("taxa", "transmissao"));
+    }
+
+    @Test
+    void testAssinaturasDeVariosDentistasEReconexoesSaoAdmitidas() throws Exception {
+        limiteDeConcorrencia.adquirir();
+
+        // Four dentists followed, then every stream reopened after the server closed them.
+        for (int i = 0; i < 8; i++) {
+            MockHttpServletResponse assinatura = executar("GET",
+                    "/api/consultas/dentista/" + (i % 4) + "/alteracoes");
+            assertEquals(200, assinatura.getStatus());
+        }
+        assertEquals(429, executar("GET", "/api/consultas/dentista/0/alteracoes").getStatus());
+        assertEquals(1, rejeicoes("taxa", "assinatura"));
+        // They use neither the bucket of the transfers nor the concurrency limit.
+        assertEquals(200, executar("GET", "/api/pacientes/exportacao").getStatus());
+        assertEquals(0, rejeicoes("concorrencia", "assinatura"));
+    }
+
+    @Test
+    void testAcimaDoLimiteDeConcorrenciaRecebe503() throws Exception {
+        limiteDeConcorrencia.adquirir();
+
+        MockHttpServletResponse rejeitada = executar("GET", "/api/pacientes");
+
+        assertEquals(503, rejeitada.getStatus());
+        assertEquals("1", rejeitada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejeicoes("concorrencia", "leitura"));
+        // Long-running transfers are not counted.
+        assertEquals(200, executar("GET", "/api/pacientes/exportacao").getStatus());
+    }
+
+    @Test
+    void testTransmissoesSimultaneasSaoLimitadasAteOFimDaResposta() throws Exception {
+        MockHttpServletRequest exportacao = new MockHttpServletRequest("GET", "/api/pacientes/exportacao");
+        MockHttpServletRequest listagem = new MockHttpServletRequest("GET", "/api/pacientes");
+        listagem.setParameter("stream", "true");
+        iniciarTransmissao("ana", exportacao);
+        iniciarTransmissao("bruno", listagem);
+
+        autenticar("carla");
+        MockHttpServletResponse rejeitada = executar("GET", "/api/consultas/exportacao");
+
+        assertEquals(503, rejeitada.getStatus());
+        assertEquals("1", rejeitada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejeicoes("concorrencia", "transmissao"));
+        assertEquals(2, transmissoesEmAndamento());
+
+        ((MockAsyncContext) exportacao.getAsyncContext()).complete();
+        assertEquals(1, transmissoesEmAndamento());
+        agora += Duration.ofSeconds(10).toNanos();
+        assertEquals(200, executar("GET", "/api/consultas/exportacao").getStatus());
+        assertEquals(1, transmissoesEmAndamento());
+    }
+
+    @Test
+    void testRequisicaoTerminadaLiberaOLimite() throws Exception {
+        executar("GET", "/api/pacientes");
+
+        assertEquals(0, limiteDeConcorrencia.getEmAndamento());
+    }
+
+    @Test
+    void testRequisicoesSemAutenticacaoOuForaDaApiNaoSaoLimitadas() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, executar("GET", "/actuator/health").getStatus());
+        }
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, executar("GET", "/api/pacientes").getStatus());
+        }
+    }
+
+    private MockHttpServletResponse executar(String metodo, String caminho) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        filtro.doFilter(request, response, chain);
+        return response;
+    }
+
+    /**
+     * Runs a transfer whose response is still being written asynchronously.
+     */
+    private void iniciarTransmissao(String usuario, MockHttpServletRequest request) throws Exception {
+        autenticar(usuario);
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, (req, res) -> req.startAsync());
+        assertEquals(200, response.getStatus());
+    }
+
+    private double transmissoesEmAndamento() {
+        return registro.get(FiltroDeCarga.METRICA_LIMITES + ".transmissao.em-andamento").gauge().value();
+    }
+
+    private static void autenticar(String usuario) {
+        TestingAuthenticationToken autenticacao = new TestingAuthenticationToken(usuario, null, "SCOPE_api");
+        SecurityContextHolder.getContext().setAuthentication(autenticacao);
+    }
+
+    private double rejeicoes(String motivo, String grupo) {
+        return registro.get(FiltroDeCarga.METRICA_LIMITES + ".rejeicoes")
+                .tag("motivo", motivo).tag("grupo", grupo).counter().count();
+    }
+}
@@ -0,0 +1,136 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import edu.senai.consultorio_backend.pacientes_api.controllers.PacienteController;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
+import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PacienteController.class)
+@Import(FormatosDeRespostaConfig.class)
+public class FormatosDeRespostaConfigTest {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PacienteService pacienteService;
+
+    @MockBean
+    private VersoesDasTabelas versoesDasTabelas;
+
+    @MockBean
+    private Idempotencia idempotencia;
+
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        paciente = new Paciente(UUID.randomUUID(), "Nome Teste", "12345678901", "teste@email.com", "11999998888",
+                LocalDate.of(1990, 1, 15), null, null, null);
+        when(pacienteService.listarPagina(null, null)).thenReturn(new PaginaCursor<>(List.of(paciente), null));
+    }
+
+    @Test
+    @WithMockUser
+    void testJsonContinuaOPadrao() throws Exception {
+        mockMvc.perform(get("/api/pacientes").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andExpect(jsonPath("$.itens[0].dataNascimento").value("1990-01-15"));
+    }
+
+    @Test
+    @WithMockUser
+    void testRespondeEmCbor() throws Exception {
+        byte[] corpo = mockMvc.perform(get("/api/pacientes").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode pagina = new ObjectMapper(new CBORFactory()).readTree(corpo);
+        assertEquals("Nome Teste", pagina.at("/itens/0/nome").asText());
+        assertEquals("1990-01-15", pagina.at("/itens/0/dataNascimento").asText());
+    }
+
+    @Test
+    @WithMockUser
+    void testRespondeEmSmileMenorQueJson() throws Exception {
+        byte[] json = mockMvc.perform(get("/api/pacientes").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/api/pacientes").accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(paciente.getId().toString(),
+                new ObjectMapper(new SmileFactory()).readTree(smile).at("/itens/0/id").asText());
+        assertTrue(smile.length < json.length);
+    }
+
+    @Test
+    @WithMockUser
+    void testCadaFormatoTemSuaEtag() throws Exception {
+        when(versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES)).thenReturn(42L);
+        when(pacienteService.buscarVersao(paciente.getId())).thenReturn(Optional.of(3L));
+        when(pacienteService.buscarPorId(paciente.getId())).thenReturn(paciente);
+
+        mockMvc.perform(get("/api/pacientes").accept(MediaType.ALL))
+                .andExpect(header().string("ETag", "W/\"42\""));
+        mockMvc.perform(get("/api/pacientes").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "W/\"42-cbor\""));
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()).accept(APPLICATION_SMILE))
+                .andExpect(header().string("ETag", "\"3-smile\""));
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId())
+                        .header("Accept", "application/cbor;q=0.5, application/json"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testEtagDeOutroFormatoNaoRetorna304() throws Exception {
+        when(pacienteService.buscarVersao(paciente.getId())).thenReturn(Optional.of(3L));
+        when(pacienteService.buscarPorId(paciente.getId())).thenReturn(paciente);
+
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()).accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()).accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"3-cbor\""))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,109 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LimiteDeConcorrenciaTest {
+
+    private static final long RAPIDA = Duration.ofMillis(50).toNanos();
+    private static final long LENTA = Duration.ofSeconds(2).toNanos();
+
+    private final LimiteDeConcorrencia limite =
+            new LimiteDeConcorrencia(4, 2, 6, Duration.ofMillis(500), 0.5);
+
+    @Test
+    void testRejeitaAcimaDoLimite() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limite.adquirir());
+        }
+        assertFalse(limite.adquirir());
+        assertEquals(4, limite.getEmAndamento());
+
+        limite.liberar(RAPIDA, false);
+        assertTrue(limite.adquirir());
+    }
+
+    @Test
+    void testRespostaLentaReduzOLimiteAteOMinimo() {
+        limite.adquirir();
+        limite.liberar(LENTA, false);
+        assertEquals(2, limite.getLimite());
+
+        limite.adquirir();
+        limite.liberar(LENTA, false);
+        assertEquals(2, limite.getLimite());
+        assertEquals(0, limite.getEmAndamento());
+    }
+
+    @Test
+    void testFaltaDeConexaoReduzOLimite() {
+        limite.adquirir();
+        limite.liberar(RAPIDA, true);
+        assertEquals(2, limite.getLimite());
+    }
+
+    @Test
+    void testLimiteEmUsoCresceAteOMaximo() {
+        for (int rodada = 0; rodada < 50; rodada++) {
+            int admitidas = 0;
+            while (limite.adquirir()) {
+                admitidas++;
+            }
+            for (int i = 0; i < admitidas; i++) {
+                limite.liberar(RAPIDA, false);
+            }
+        }
+        assertEquals(6, limite.getLimite());
+    }
+
+    @Test
+    void testLimitePoucoUsadoNaoCresce() {
+        for (int i = 0; i < 100; i++) {
+            limite.adquirir();
+            limite.liberar(RAPIDA, false);
+        }
+        assertEquals(4, limite.getLimite());
+    }
+
+    @Test
+    void testRajadaDeRespostasLentasReduzOLimiteUmaVez() throws Exception {
+        long[] agora = {0};
+        LimiteDeConcorrencia aimd =
+                new LimiteDeConcorrencia(40, 1, 100, Duration.ofMillis(500), 0.9, () -> agora[0]);
+        for (int i = 0; i < 40; i++) {
+            assertTrue(aimd.adquirir());
+        }
+        agora[0] += LENTA;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> liberacoes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                liberacoes.add(executor.submit(() -> aimd.liberar(LENTA, false)));
+            }
+            for (Future<?> liberacao : liberacoes) {
+                liberacao.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(36, aimd.getLimite());
+        assertEquals(0, aimd.getEmAndamento());
+
+        agora[0] += RAPIDA;
+        assertTrue(aimd.adquirir());
+        agora[0] += LENTA;
+        aimd.liberar(LENTA, false);
+        assertEquals(32, aimd.getLimite());
+    }
+}
@@ -0,0 +1,72 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LimiteDeTaxaTest {
+
+    private long agora = 0;
+
+    private final LimiteDeTaxa limiteDeTaxa = new LimiteDeTaxa(Map.of(
+            GrupoDeEndpoints.LEITURA, new LimiteDeTaxa.Taxa(2, 3),
+            GrupoDeEndpoints.ESCRITA, new LimiteDeTaxa.Taxa(1, 1),
+            GrupoDeEndpoints.TRANSMISSAO, new LimiteDeTaxa.Taxa(0.1, 1)),
+            100, () -> agora);
+
+    @Test
+    void testAdmiteARajadaEDepoisIndicaAEspera() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+        }
+        assertEquals(Duration.ofMillis(500).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+
+        agora += Duration.ofMillis(200).toNanos();
+        assertEquals(Duration.ofMillis(300).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+    }
+
+    @Test
+    void testRecarregaNaTaxaSustentada() {
+        for (int i = 0; i < 3; i++) {
+            limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            agora += Duration.ofMillis(500).toNanos();
+            assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+            assertEquals(Duration.ofMillis(500).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+        }
+    }
+
+    @Test
+    void testRecargaNaoPassaDaRajada() {
+        agora += Duration.ofMinutes(1).toNanos();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+        }
+        assertEquals(Duration.ofMillis(500).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+    }
+
+    @Test
+    void testBaldeDeClienteInativoExpiraCheio() {
+        assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.TRANSMISSAO));
+        assertEquals(Duration.ofSeconds(10).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.TRANSMISSAO));
+
+        agora += Duration.ofMinutes(11).toNanos();
+        assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.TRANSMISSAO));
+        assertEquals(Duration.ofSeconds(10).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.TRANSMISSAO));
+    }
+
+    @Test
+    void testCadaClienteECadaGrupoTemSeuBalde() {
+        assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.ESCRITA));
+        assertEquals(Duration.ofSeconds(1).toNanos(), limiteDeTaxa.admitir("ana", GrupoDeEndpoints.ESCRITA));
+
+        assertEquals(0, limiteDeTaxa.admitir("bruno", GrupoDeEndpoints.ESCRITA));
+        assertEquals(0, limiteDeTaxa.admitir("ana", GrupoDeEndpoints.LEITURA));
+    }
+}
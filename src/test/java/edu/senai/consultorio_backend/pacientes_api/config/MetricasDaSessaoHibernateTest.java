@@ -0,0 +1,43 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricasDaSessaoHibernateTest {
+
+    private static final String PREFIXO = MetricasDaSessaoHibernate.PREFIXO;
+
+    @Test
+    void testRegistraOQueCadaSessaoFezAoTerminar() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+        MetricasDaSessaoHibernate primeira = new MetricasDaSessaoHibernate(registro);
+        primeira.jdbcExecuteStatementStart();
+        primeira.jdbcExecuteStatementEnd();
+        primeira.jdbcExecuteStatementStart();
+        primeira.jdbcExecuteStatementEnd();
+        primeira.jdbcExecuteBatchStart();
+        primeira.jdbcExecuteBatchEnd();
+        primeira.partialFlushEnd(0, 0);
+        primeira.flushEnd(3, 0);
+        primeira.end();
+
+        MetricasDaSessaoHibernate segunda = new MetricasDaSessaoHibernate(registro);
+        segunda.jdbcExecuteStatementStart();
+        segunda.jdbcExecuteStatementEnd();
+        segunda.end();
+
+        assertEquals(2, registro.get(PREFIXO + ".instrucoes").summary().count());
+        assertEquals(4, registro.get(PREFIXO + ".instrucoes").summary().totalAmount());
+        assertEquals(3, registro.get(PREFIXO + ".instrucoes").summary().max());
+        assertEquals(1, registro.get(PREFIXO + ".flushes").summary().totalAmount());
+        assertEquals(3, registro.get(PREFIXO + ".entidades.sincronizadas").summary().totalAmount());
+        assertEquals(2, registro.get(PREFIXO + ".jdbc").timer().count());
+        assertTrue(registro.get(PREFIXO + ".jdbc").timer().totalTime(TimeUnit.NANOSECONDS) >= 0);
+    }
+}
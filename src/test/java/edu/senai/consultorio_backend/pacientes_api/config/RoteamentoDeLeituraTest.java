@@ -0,0 +1,136 @@
+package edu.senai.consultorio_backend.pacientes_api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RoteamentoDeLeituraTest {
+
+    private final DataSource primario = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection conexaoPrimario = mock(Connection.class);
+    private final Connection conexaoReplica = mock(Connection.class);
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    private RoteamentoDeLeitura roteamento;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        roteamento = new RoteamentoDeLeitura(primario, replica, Duration.ofSeconds(10), registro);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RoteamentoDeLeitura.encerrarRequisicao();
+    }
+
+    @Test
+    void testTransacaoSomenteLeituraUsaReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(conexaoReplica, roteamento.getConnection());
+        assertEquals(1, leituras("replica"));
+    }
+
+    @Test
+    void testTransacaoDeEscritaUsaPrimario() throws SQLException {
+        assertSame(conexaoPrimario, roteamento.getConnection());
+        assertEquals(0, leituras("replica") + leituras("primario"));
+    }
+
+    @Test
+    void testReplicaQueRecusaConexaoCedeLugarAoPrimario() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(conexaoPrimario, roteamento.getConnection());
+        assertFalse(roteamento.isReplicaDisponivel());
+        assertSame(conexaoPrimario, roteamento.getConnection());
+        assertEquals(2, leituras("primario"));
+    }
+
+    @Test
+    void testReplicaAtrasadaCedeLugarAoPrimarioAteAlcancar() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        atrasoDaReplica(30.0);
+        roteamento.verificarReplica();
+        assertFalse(roteamento.isReplicaDisponivel());
+        assertSame(conexaoPrimario, roteamento.getConnection());
+        assertEquals(30.0, registro.get(RoteamentoDeLeitura.METRICA_REPLICA + ".atraso").gauge().value());
+
+        atrasoDaReplica(0.5);
+        roteamento.verificarReplica();
+        assertTrue(roteamento.isReplicaDisponivel());
+        assertSame(conexaoReplica, roteamento.getConnection());
+    }
+
+    @Test
+    void testRequisicaoQueEscreveuLeDoPrimario() throws SQLException {
+        RoteamentoDeLeitura.iniciarRequisicao(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(conexaoReplica, roteamento.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(conexaoPrimario, roteamento.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(conexaoPrimario, roteamento.getConnection());
+
+        RoteamentoDeLeitura.encerrarRequisicao();
+        assertSame(conexaoReplica, roteamento.getConnection());
+    }
+
+    @Test
+    void testRequisicaoQueExigePrimarioLeDoPrimario() throws SQLException {
+        RoteamentoDeLeitura.iniciarRequisicao(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(conexaoPrimario, roteamento.getConnection());
+        assertEquals(1, leituras("primario"));
+    }
+
+    private double leituras(String destino) {
+        return registro.get(RoteamentoDeLeitura.METRICA_REPLICA + ".leituras").tag("destino", destino).counter().count();
+    }
+
+    /**
+     * Makes the replica answer the next check with the given lag, in seconds.
+     */
+    private void atrasoDaReplica(double segundos) throws SQLException {
+        Connection conexao = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultado = mock(ResultSet.class);
+        ResultSetMetaData metadados = mock(ResultSetMetaData.class);
+        when(replica.getConnection()).thenReturn(conexao, conexaoReplica);
+        when(conexao.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultado);
+        when(resultado.next()).thenReturn(true, false);
+        when(resultado.getMetaData()).thenReturn(metadados);
+        when(metadados.getColumnCount()).thenReturn(1);
+        when(resultado.getDouble(1)).thenReturn(segundos);
+    }
+}
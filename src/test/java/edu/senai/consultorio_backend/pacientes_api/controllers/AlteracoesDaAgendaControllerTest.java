@@ -0,0 +1,113 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AlteracaoAgenda;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.service.AlteracoesDaAgenda;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AlteracoesDaAgendaController.class)
+public class AlteracoesDaAgendaControllerTest {
+
+    private static final LocalDate DIA = LocalDate.of(2026, 11, 2);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AlteracoesDaAgenda alteracoesDaAgenda;
+
+    private final UUID dentistaId = UUID.randomUUID();
+
+    private static String aguardarConteudo(MockHttpServletResponse resposta, String esperado) throws Exception {
+        for (int tentativa = 0; tentativa < 100 && !resposta.getContentAsString().contains(esperado); tentativa++) {
+            Thread.sleep(20);
+        }
+        return resposta.getContentAsString();
+    }
+
+    @Test
+    @WithMockUser
+    void testNovaConexaoRecebeConectadoEAsAlteracoes() throws Exception {
+        AtomicReference<AlteracoesDaAgenda.Assinante> assinante = new AtomicReference<>();
+        when(alteracoesDaAgenda.assinar(eq(dentistaId), eq(DIA), isNull(), any())).thenAnswer(invocacao -> {
+            assinante.set(invocacao.getArgument(3));
+            return new AlteracoesDaAgenda.Assinatura(true, "abc-7");
+        });
+
+        MockHttpServletResponse resposta = mockMvc.perform(get("/api/consultas/dentista/" + dentistaId + "/alteracoes")
+                        .param("dia", "2026-11-02"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        UUID consultaId = UUID.randomUUID();
+        assinante.get().entregar(new AlteracaoAgenda("abc-8", EventoConsulta.Tipo.CANCELADA, consultaId, dentistaId,
+                DIA.atTime(9, 0), null));
+
+        String conteudo = aguardarConteudo(resposta, consultaId.toString());
+        assertTrue(conteudo.startsWith("id:abc-7\nevent:conectado\n"), conteudo);
+        assertTrue(conteudo.contains("id:abc-8\nevent:cancelada\ndata:{\"tipo\":\"CANCELADA\",\"consultaId\":\""
+                + consultaId + "\""), conteudo);
+    }
+
+    @Test
+    @WithMockUser
+    void testRetomadaSemHistoricoRecebeReinicio() throws Exception {
+        when(alteracoesDaAgenda.assinar(eq(dentistaId), eq(DIA), eq("antiga-3"), any()))
+                .thenReturn(new AlteracoesDaAgenda.Assinatura(false, "abc-9"));
+
+        MockHttpServletResponse resposta = mockMvc.perform(get("/api/consultas/dentista/" + dentistaId + "/alteracoes")
+                        .param("dia", "2026-11-02")
+                        .header("Last-Event-ID", "antiga-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        String conteudo = aguardarConteudo(resposta, "\"dia\"");
+        assertTrue(conteudo.startsWith("id:abc-9\nevent:reinicio\ndata:"), conteudo);
+    }
+
+    @Test
+    @WithMockUser
+    void testClienteLentoEDesconectado() throws Exception {
+        AtomicReference<AlteracoesDaAgenda.Assinante> assinante = new AtomicReference<>();
+        when(alteracoesDaAgenda.assinar(eq(dentistaId), eq(DIA), eq("abc-1"), any())).thenAnswer(invocacao -> {
+            AlteracoesDaAgenda.Assinante transmissao = invocacao.getArgument(3);
+            assinante.set(transmissao);
+            // Replays more changes than the client's queue holds.
+            boolean coube = true;
+            for (int i = 2; i < 400 && coube; i++) {
+                coube = transmissao.entregar(new AlteracaoAgenda("abc-" + i, EventoConsulta.Tipo.AGENDADA,
+                        UUID.randomUUID(), dentistaId, DIA.atTime(8, 0), null));
+            }
+            return new AlteracoesDaAgenda.Assinatura(true, "abc-400");
+        });
+
+        mockMvc.perform(get("/api/consultas/dentista/" + dentistaId + "/alteracoes")
+                        .param("dia", "2026-11-02")
+                        .header("Last-Event-ID", "abc-1"))
+                .andExpect(request().asyncStarted());
+
+        verify(alteracoesDaAgenda, timeout(2000)).cancelar(dentistaId, DIA, assinante.get());
+    }
+}
@@ -0,0 +1,98 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.service.DentistaService;
+import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks, with the application's real transaction management, that the
+ * version behind an ETag and the body are read in the same read-only
+ * transaction, so the read replica routing sends both to the same database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConsistenciaDasEtagsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PacienteService pacienteService;
+
+    @MockBean
+    private DentistaService dentistaService;
+
+    @MockBean
+    private VersoesDasTabelas versoesDasTabelas;
+
+    private final List<String> transacoes = new ArrayList<>();
+
+    @Test
+    @WithMockUser
+    void testEtagFracaEListagemNaMesmaTransacaoSomenteLeitura() throws Exception {
+        when(versoesDasTabelas.versao(any())).thenAnswer(invocacao -> {
+            registrarTransacao();
+            return 7L;
+        });
+        when(pacienteService.listarPagina(any(), any())).thenAnswer(invocacao -> {
+            registrarTransacao();
+            return new PaginaCursor<>(List.of(), null);
+        });
+
+        mockMvc.perform(get("/api/pacientes")).andExpect(status().isOk());
+
+        assertMesmaTransacao();
+    }
+
+    @Test
+    @WithMockUser
+    void testEtagForteERecursoNaMesmaTransacaoSomenteLeitura() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(dentistaService.buscarVersao(id)).thenAnswer(invocacao -> {
+            registrarTransacao();
+            return Optional.of(3L);
+        });
+        when(dentistaService.buscarPorId(id)).thenAnswer(invocacao -> {
+            registrarTransacao();
+            return new Dentista();
+        });
+
+        mockMvc.perform(get("/api/dentistas/" + id)).andExpect(status().isOk());
+
+        assertMesmaTransacao();
+    }
+
+    private void registrarTransacao() {
+        assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+        assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        transacoes.add(TransactionSynchronizationManager.getCurrentTransactionName());
+    }
+
+    private void assertMesmaTransacao() {
+        assertEquals(2, transacoes.size());
+        assertTrue(transacoes.get(0).contains("Controller"), transacoes.get(0));
+        assertEquals(transacoes.get(0), transacoes.get(1));
+    }
+}
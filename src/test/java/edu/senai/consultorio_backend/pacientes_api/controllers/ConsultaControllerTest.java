@@ -2,11 +2,18 @@ package edu.senai.consultorio_backend.pacientes_api.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendaDentista;
 import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.ConsultaView;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
 import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.ConflitoDeAgendaException;
+import edu.senai.consultorio_backend.pacientes_api.service.ChaveDeIdempotenciaReutilizadaException;
 import edu.senai.consultorio_backend.pacientes_api.service.ConsultaService;
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +26,17 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,10 +53,17 @@ public class ConsultaControllerTest {
     @MockBean
     private ConsultaService consultaService;
 
+    @MockBean
+    private VersoesDasTabelas versoesDasTabelas;
+
+    @MockBean
+    private Idempotencia idempotencia;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Consulta consulta;
+    private ConsultaView consultaView;
     private Paciente paciente;
     private Dentista dentista;
 
@@ -53,6 +73,9 @@ public class ConsultaControllerTest {
         paciente = new Paciente(UUID.randomUUID(), "Paciente Teste", "11122233344", "paciente@teste.com", "11999998888", LocalDate.now(), null, null, null);
         dentista = new Dentista(UUID.randomUUID(), "Dr. Teste", "Especialidade Teste");
         consulta = new Consulta(UUID.randomUUID(), paciente, dentista, LocalDateTime.now().plusDays(1));
+        consultaView = new ConsultaView(consulta.getId(), consulta.getDataHora(), 30,
+                paciente.getId(), paciente.getNome(), paciente.getTelefoneWhatsapp(),
+                dentista.getId(), dentista.getNome(), dentista.getEspecialidade());
     }
 
     @Test
@@ -63,7 +86,7 @@ public class ConsultaControllerTest {
         request.setDentistaId(dentista.getId());
         request.setDataHora(consulta.getDataHora());
 
-        when(consultaService.agendar(any(UUID.class), any(UUID.class), any(LocalDateTime.class))).thenReturn(consulta);
+        when(consultaService.agendar(any(UUID.class), any(UUID.class), any(LocalDateTime.class), any())).thenReturn(consulta);
 
         mockMvc.perform(post("/api/consultas/agendar")
                 .with(csrf().asHeader())
@@ -74,14 +97,129 @@ public class ConsultaControllerTest {
                 .andExpect(jsonPath("$.id").value(consulta.getId().toString()));
     }
 
+    @Test
+    @WithMockUser(username = "recepcao")
+    void testAgendarComIdempotencyKeyDevolveRespostaGuardada() throws Exception {
+        AgendamentoRequest request = new AgendamentoRequest();
+        request.setPacienteId(paciente.getId());
+        request.setDentistaId(dentista.getId());
+        request.setDataHora(consulta.getDataHora());
+
+        String location = "http://localhost/api/consultas/agendar/" + consulta.getId();
+        when(idempotencia.executar(eq("consultas.agendar"), eq("recepcao"), eq("chave-1"), any(), any()))
+                .thenReturn(new Idempotencia.Resposta(201, location, null,
+                        objectMapper.createObjectNode().put("id", consulta.getId().toString())));
+
+        mockMvc.perform(post("/api/consultas/agendar")
+                .with(csrf().asHeader())
+                .header("Idempotency-Key", "chave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", location))
+                .andExpect(jsonPath("$.id").value(consulta.getId().toString()));
+
+        verify(consultaService, never()).agendar(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testAgendarComIdempotencyKeyReutilizada() throws Exception {
+        AgendamentoRequest request = new AgendamentoRequest();
+        request.setPacienteId(paciente.getId());
+        request.setDentistaId(dentista.getId());
+        request.setDataHora(consulta.getDataHora());
+
+        when(idempotencia.executar(any(), any(), eq("chave-1"), any(), any()))
+                .thenThrow(new ChaveDeIdempotenciaReutilizadaException("Esta Idempotency-Key já foi usada"));
+
+        mockMvc.perform(post("/api/consultas/agendar")
+                .with(csrf().asHeader())
+                .header("Idempotency-Key", "chave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser
+    void testAgendarComConflitoDeHorario() throws Exception {
+        AgendamentoRequest request = new AgendamentoRequest();
+        request.setPacienteId(paciente.getId());
+        request.setDentistaId(dentista.getId());
+        request.setDataHora(consulta.getDataHora());
+        request.setDuracaoMinutos(45);
+
+        when(consultaService.agendar(eq(paciente.getId()), eq(dentista.getId()), any(LocalDateTime.class), eq(45)))
+                .thenThrow(new ConflitoDeAgendaException("O dentista já possui uma consulta nesse horário"));
+
+        mockMvc.perform(post("/api/consultas/agendar")
+                .with(csrf().asHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser
+    void testAgendarEmLote() throws Exception {
+        AgendamentoRequest primeira = new AgendamentoRequest();
+        primeira.setPacienteId(paciente.getId());
+        primeira.setDentistaId(dentista.getId());
+        primeira.setDataHora(consulta.getDataHora());
+        AgendamentoRequest segunda = new AgendamentoRequest();
+        segunda.setPacienteId(paciente.getId());
+        segunda.setDentistaId(dentista.getId());
+        segunda.setDataHora(consulta.getDataHora());
+
+        ResultadoAgendamento agendado = ResultadoAgendamento.sucesso(0);
+        agendado.setConsultaId(consulta.getId());
+        when(consultaService.agendarEmLote(any()))
+                .thenReturn(List.of(agendado, ResultadoAgendamento.falha(1, "O dentista já possui uma consulta nesse horário")));
+
+        mockMvc.perform(post("/api/consultas/agendar/lote")
+                .with(csrf().asHeader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(primeira, segunda))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sucesso").value(true))
+                .andExpect(jsonPath("$[0].consultaId").value(consulta.getId().toString()))
+                .andExpect(jsonPath("$[1].sucesso").value(false))
+                .andExpect(jsonPath("$[1].indice").value(1));
+    }
+
     @Test
     @WithMockUser
     void testListarTodas() throws Exception {
-        when(consultaService.listarTodas()).thenReturn(Collections.singletonList(consulta));
+        when(consultaService.listarTodas()).thenReturn(Collections.singletonList(consultaView));
 
         mockMvc.perform(get("/api/consultas"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(consulta.getId().toString()));
+                .andExpect(jsonPath("$[0].id").value(consulta.getId().toString()))
+                .andExpect(jsonPath("$[0].pacienteNome").value("Paciente Teste"))
+                .andExpect(jsonPath("$[0].dentistaNome").value("Dr. Teste"));
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarPorId() throws Exception {
+        when(consultaService.buscarPorId(consulta.getId())).thenReturn(consultaView);
+
+        mockMvc.perform(get("/api/consultas/{id}", consulta.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(consulta.getId().toString()))
+                .andExpect(jsonPath("$.dentistaEspecialidade").value("Especialidade Teste"));
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarPorIdNaoModificadoRetorna304() throws Exception {
+        when(consultaService.buscarVersao(consulta.getId())).thenReturn(Optional.of("0.2.1"));
+
+        mockMvc.perform(get("/api/consultas/{id}", consulta.getId()).header("If-None-Match", "\"0.2.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"0.2.1\""));
+        verify(consultaService, never()).buscarPorId(any());
     }
 
     @Test
@@ -89,7 +227,7 @@ public class ConsultaControllerTest {
     void testBuscarConsultasDoDiaPorDentista() throws Exception {
         LocalDateTime dia = LocalDateTime.now();
         when(consultaService.buscarConsultasDoDiaPorDentista(eq(dentista.getId()), any(LocalDateTime.class)))
-                .thenReturn(Collections.singletonList(consulta));
+                .thenReturn(Collections.singletonList(consultaView));
 
         mockMvc.perform(get("/api/consultas/dentista/{dentistaId}", dentista.getId())
                 .param("dia", dia.toString()))
@@ -97,6 +235,48 @@ public class ConsultaControllerTest {
                 .andExpect(jsonPath("$[0].id").value(consulta.getId().toString()));
     }
 
+    @Test
+    @WithMockUser
+    void testBuscarAgenda() throws Exception {
+        LocalDate inicio = consulta.getDataHora().toLocalDate();
+        LocalDate fim = inicio.plusDays(2);
+        SortedMap<LocalDate, List<ConsultaView>> dias = new TreeMap<>();
+        dias.put(inicio, List.of(consultaView));
+        dias.put(inicio.plusDays(1), List.of());
+        when(consultaService.buscarAgenda(inicio, fim, List.of(dentista.getId()))).thenReturn(List.of(
+                new AgendaDentista(dentista.getId(), dentista.getNome(), dentista.getEspecialidade(), dias)));
+
+        mockMvc.perform(get("/api/consultas/agenda")
+                .param("inicio", inicio.toString())
+                .param("fim", fim.toString())
+                .param("dentistaIds", dentista.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].dentistaId").value(dentista.getId().toString()))
+                .andExpect(jsonPath("$[0].dias['" + inicio + "'][0].id").value(consulta.getId().toString()))
+                .andExpect(jsonPath("$[0].dias['" + inicio.plusDays(1) + "']").isEmpty());
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarAgendaNaoModificadaRetorna304() throws Exception {
+        when(versoesDasTabelas.versao(VersoesDasTabelas.CONSULTAS, VersoesDasTabelas.PACIENTES, VersoesDasTabelas.DENTISTAS))
+                .thenReturn(15L);
+
+        mockMvc.perform(get("/api/consultas/agenda")
+                .param("inicio", "2025-12-01")
+                .param("fim", "2025-12-08")
+                .header("If-None-Match", "W/\"15\""))
+                .andExpect(status().isNotModified());
+        verify(consultaService, never()).buscarAgenda(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarAgendaSemPeriodoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/consultas/agenda").param("inicio", "2025-12-01"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testCancelar() throws Exception {
@@ -1,8 +1,11 @@
 package edu.senai.consultorio_backend.pacientes_api.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
 import edu.senai.consultorio_backend.pacientes_api.service.DentistaService;
+import edu.senai.consultorio_backend.pacientes_api.service.RequisicaoInvalidaException;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +16,14 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,6 +40,9 @@ public class DentistaControllerTest {
     @MockBean
     private DentistaService dentistaService;
 
+    @MockBean
+    private VersoesDasTabelas versoesDasTabelas;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +73,29 @@ public class DentistaControllerTest {
                 .andExpect(jsonPath("$.id").value(dentista.getId().toString()));
     }
 
+    @Test
+    @WithMockUser
+    void testBuscarPorIdNaoModificadoRetorna304() throws Exception {
+        when(dentistaService.buscarVersao(dentista.getId())).thenReturn(Optional.of(1L));
+
+        mockMvc.perform(get("/api/dentistas/{id}", dentista.getId()).header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1\""));
+        verify(dentistaService, never()).buscarPorId(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testListarTodosRetornaETagFraca() throws Exception {
+        when(versoesDasTabelas.versao(VersoesDasTabelas.DENTISTAS)).thenReturn(7L);
+        when(dentistaService.listarTodos()).thenReturn(Collections.singletonList(dentista));
+
+        mockMvc.perform(get("/api/dentistas").header("If-None-Match", "W/\"6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"7\""))
+                .andExpect(jsonPath("$[0].nome").value("Dr. Teste"));
+    }
+
     @Test
     @WithMockUser
     void testCadastrar() throws Exception {
@@ -92,6 +124,34 @@ public class DentistaControllerTest {
                 .andExpect(jsonPath("$.nome").value("Dr. Teste Atualizado"));
     }
 
+    @Test
+    @WithMockUser
+    void testAtualizarParcialmente() throws Exception {
+        Dentista dentistaAtualizado = new Dentista(dentista.getId(), "Dr. Teste", "Ortodontia");
+        when(dentistaService.atualizarParcialmente(eq(dentista.getId()), any(JsonNode.class))).thenReturn(dentistaAtualizado);
+
+        mockMvc.perform(patch("/api/dentistas/{id}", dentista.getId())
+                .with(csrf().asHeader())
+                .contentType("application/merge-patch+json")
+                .content("{\"especialidade\":\"Ortodontia\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Dr. Teste"))
+                .andExpect(jsonPath("$.especialidade").value("Ortodontia"));
+    }
+
+    @Test
+    @WithMockUser
+    void testAtualizarParcialmenteComCampoObrigatorioNuloRetorna400() throws Exception {
+        when(dentistaService.atualizarParcialmente(eq(dentista.getId()), any(JsonNode.class)))
+                .thenThrow(new RequisicaoInvalidaException("O campo nome é obrigatório e não pode ser removido."));
+
+        mockMvc.perform(patch("/api/dentistas/{id}", dentista.getId())
+                .with(csrf().asHeader())
+                .contentType("application/merge-patch+json")
+                .content("{\"nome\":null}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testDeletar() throws Exception {
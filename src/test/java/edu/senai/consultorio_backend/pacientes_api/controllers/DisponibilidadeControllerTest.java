@@ -0,0 +1,69 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.DisponibilidadeDentista;
+import edu.senai.consultorio_backend.pacientes_api.service.DisponibilidadeService;
+import edu.senai.consultorio_backend.pacientes_api.service.RequisicaoInvalidaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DisponibilidadeController.class)
+public class DisponibilidadeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DisponibilidadeService disponibilidadeService;
+
+    @Test
+    @WithMockUser
+    void testBuscarHorariosLivresPorEspecialidade() throws Exception {
+        LocalDate de = LocalDate.of(2026, 11, 2);
+        LocalDate ate = LocalDate.of(2026, 11, 30);
+        UUID dentistaId = UUID.randomUUID();
+        when(disponibilidadeService.buscarHorariosLivres(null, "Ortodontia", de, ate, 45)).thenReturn(List.of(
+                new DisponibilidadeDentista(dentistaId, "Dr. Teste", "Ortodontia", 45,
+                        List.of(de.atTime(8, 0), de.atTime(8, 45)))));
+
+        mockMvc.perform(get("/api/disponibilidade")
+                .param("especialidade", "Ortodontia")
+                .param("de", "2026-11-02")
+                .param("ate", "2026-11-30")
+                .param("duracaoMinutos", "45"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].dentistaId").value(dentistaId.toString()))
+                .andExpect(jsonPath("$[0].duracaoMinutos").value(45))
+                .andExpect(jsonPath("$[0].horarios[1]").value("2026-11-02T08:45:00"));
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarSemDentistaNemEspecialidadeRetorna400() throws Exception {
+        LocalDate dia = LocalDate.of(2026, 11, 2);
+        when(disponibilidadeService.buscarHorariosLivres(null, null, dia, dia, null))
+                .thenThrow(new RequisicaoInvalidaException("Informe o dentista ou a especialidade, mas não ambos."));
+
+        mockMvc.perform(get("/api/disponibilidade").param("de", "2026-11-02").param("ate", "2026-11-02"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarSemPeriodoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/disponibilidade").param("dentistaId", UUID.randomUUID().toString()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,105 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.service.ExportacaoService;
+import edu.senai.consultorio_backend.pacientes_api.service.FormatoExportacao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ExportacaoController.class)
+public class ExportacaoControllerTest {
+
+    private static final String LINHA = "{\"id\":\"1\",\"nome\":\"Nome Teste\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportacaoService exportacaoService;
+
+    @Test
+    @WithMockUser
+    void testExportarPacientesEmCsv() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(1);
+            saida.write("id,nome\n1,Nome Teste\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportacaoService).exportarPacientes(eq(FormatoExportacao.CSV), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/pacientes/exportacao").param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"pacientes.csv\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("id,nome\n1,Nome Teste\n"));
+    }
+
+    @Test
+    @WithMockUser
+    void testExportarConsultasComGzip() throws Exception {
+        LocalDateTime inicio = LocalDateTime.of(2025, 12, 1, 0, 0);
+        LocalDateTime fim = LocalDateTime.of(2026, 1, 1, 0, 0);
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(3);
+            saida.write(LINHA.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportacaoService).exportarConsultas(eq(inicio), eq(fim), eq(FormatoExportacao.NDJSON), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/consultas/exportacao")
+                .param("inicio", "2025-12-01T00:00:00")
+                .param("fim", "2026-01-01T00:00:00")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] corpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream descompactado = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            assertEquals(LINHA, new String(descompactado.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void testFormatoInvalidoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/pacientes/exportacao").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testPeriodoInvertidoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/consultas/exportacao")
+                .param("inicio", "2026-01-01T00:00:00")
+                .param("fim", "2025-12-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,104 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.ImportacaoPacientes;
+import edu.senai.consultorio_backend.pacientes_api.service.FormatoImportacao;
+import edu.senai.consultorio_backend.pacientes_api.service.ImportacaoPacientesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ImportacaoPacientesController.class)
+public class ImportacaoPacientesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImportacaoPacientesService importacaoService;
+
+    @Test
+    @WithMockUser
+    void testImportarCsv() throws Exception {
+        ImportacaoPacientes importacao = new ImportacaoPacientes(FormatoImportacao.CSV, 10);
+        when(importacaoService.importar(any(InputStream.class), eq(FormatoImportacao.CSV))).thenReturn(importacao);
+
+        String csv = "nome,cpf,email,telefoneWhatsapp,dataNascimento\n"
+                + "Ana,12345678901,ana@email.com,11999998888,1990-01-15\n"
+                + "Bia,12345678901,ana@email.com,11999997777,1991-02-20\n";
+        mockMvc.perform(post("/api/pacientes/importacoes").with(csrf().asHeader())
+                .contentType(ImportacaoPacientesController.TEXT_CSV)
+                .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/pacientes/importacoes/" + importacao.getId()))
+                .andExpect(jsonPath("$.situacao").value("EM_ANDAMENTO"))
+                .andExpect(jsonPath("$.inseridas").value(0));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportarNdjson() throws Exception {
+        ImportacaoPacientes importacao = new ImportacaoPacientes(FormatoImportacao.NDJSON, 10);
+        when(importacaoService.importar(any(InputStream.class), eq(FormatoImportacao.NDJSON))).thenReturn(importacao);
+
+        mockMvc.perform(post("/api/pacientes/importacoes").with(csrf().asHeader())
+                .contentType(ImportacaoPacientesController.APPLICATION_NDJSON)
+                .content("{\"nome\":\"Ana\"}\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.formato").value("NDJSON"));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportarFormatoNaoSuportadoRetorna415() throws Exception {
+        mockMvc.perform(post("/api/pacientes/importacoes").with(csrf().asHeader())
+                .contentType("application/xml")
+                .content("<pacientes/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @WithMockUser
+    void testAcompanharImportacao() throws Exception {
+        ImportacaoPacientes importacao = new ImportacaoPacientes(FormatoImportacao.CSV, 10);
+        importacao.registrarLinhaLida();
+        when(importacaoService.buscarImportacao(importacao.getId())).thenReturn(Optional.of(importacao));
+        when(importacaoService.listarImportacoes()).thenReturn(Collections.singletonList(importacao));
+
+        mockMvc.perform(get("/api/pacientes/importacoes/{id}", importacao.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.situacao").value("EM_ANDAMENTO"))
+                .andExpect(jsonPath("$.linhasLidas").value(1));
+        mockMvc.perform(get("/api/pacientes/importacoes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(importacao.getId().toString()));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportacaoInexistenteRetorna404() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(importacaoService.buscarImportacao(id)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/pacientes/importacoes/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,9 +1,14 @@
 package edu.senai.consultorio_backend.pacientes_api.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
 import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.Idempotencia;
 import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import edu.senai.consultorio_backend.pacientes_api.service.VersaoDesatualizadaException;
+import edu.senai.consultorio_backend.pacientes_api.service.VersoesDasTabelas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +17,31 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PacienteController.class)
@@ -36,6 +53,12 @@ public class PacienteControllerTest {
     @MockBean
     private PacienteService pacienteService;
 
+    @MockBean
+    private VersoesDasTabelas versoesDasTabelas;
+
+    @MockBean
+    private Idempotencia idempotencia;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -50,13 +73,68 @@ public class PacienteControllerTest {
     @Test
     @WithMockUser
     void testListarTodos() throws Exception {
-        when(pacienteService.listarTodos()).thenReturn(Collections.singletonList(paciente));
+        when(pacienteService.listarPagina(null, null))
+                .thenReturn(new PaginaCursor<>(Collections.singletonList(paciente), "cursor-seguinte"));
 
         mockMvc.perform(get("/api/pacientes"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].nome").value("Nome Teste"))
+                .andExpect(jsonPath("$.proximoCursor").value("cursor-seguinte"));
+    }
+
+    @Test
+    @WithMockUser
+    void testListarTodosComCursor() throws Exception {
+        when(pacienteService.listarPagina("cursor-seguinte", 10))
+                .thenReturn(new PaginaCursor<>(Collections.singletonList(paciente), null));
+
+        mockMvc.perform(get("/api/pacientes")
+                .param("cursor", "cursor-seguinte")
+                .param("limite", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].id").value(paciente.getId().toString()))
+                .andExpect(jsonPath("$.proximoCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    void testTransmitirTodos() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Paciente> consumidor = invocation.getArgument(0);
+            consumidor.accept(paciente);
+            return null;
+        }).when(pacienteService).percorrerTodos(any(Consumer.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/pacientes").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].nome").value("Nome Teste"));
     }
 
+    @Test
+    @WithMockUser
+    void testBuscar() throws Exception {
+        when(pacienteService.buscar("joão", null, null))
+                .thenReturn(new PaginaCursor<>(Collections.singletonList(paciente), "20"));
+
+        mockMvc.perform(get("/api/pacientes/search").param("q", "joão"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].nome").value("Nome Teste"))
+                .andExpect(jsonPath("$.proximoCursor").value("20"));
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarSemTermoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/pacientes/search"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testBuscarPorId() throws Exception {
@@ -67,6 +145,50 @@ public class PacienteControllerTest {
                 .andExpect(jsonPath("$.id").value(paciente.getId().toString()));
     }
 
+    @Test
+    @WithMockUser
+    void testBuscarPorIdRetornaETag() throws Exception {
+        when(pacienteService.buscarVersao(paciente.getId())).thenReturn(Optional.of(3L));
+        when(pacienteService.buscarPorId(paciente.getId())).thenReturn(paciente);
+
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testBuscarPorIdNaoModificadoRetorna304() throws Exception {
+        when(pacienteService.buscarVersao(paciente.getId())).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+        verify(pacienteService, never()).buscarPorId(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testListarTodosNaoModificadoRetorna304() throws Exception {
+        when(versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES)).thenReturn(42L);
+
+        mockMvc.perform(get("/api/pacientes").header("If-None-Match", "W/\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"42\""));
+        verify(pacienteService, never()).listarPagina(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testPoolDeConexoesEsgotadoRetorna503() throws Exception {
+        when(pacienteService.buscarPorId(paciente.getId()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+
+        mockMvc.perform(get("/api/pacientes/{id}", paciente.getId()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     @WithMockUser
     void testCadastrar() throws Exception {
@@ -85,7 +207,7 @@ public class PacienteControllerTest {
     @WithMockUser
     void testAtualizar() throws Exception {
         Paciente pacienteAtualizado = new Paciente(paciente.getId(), "Nome Atualizado", "12345678901", "teste@email.com", "11999998888", LocalDate.now(), null, null, null);
-        when(pacienteService.atualizar(eq(paciente.getId()), any(Paciente.class))).thenReturn(pacienteAtualizado);
+        when(pacienteService.atualizar(eq(paciente.getId()), any(Paciente.class), isNull())).thenReturn(pacienteAtualizado);
 
         mockMvc.perform(put("/api/pacientes/{id}", paciente.getId())
                 .with(csrf().asHeader())
@@ -95,6 +217,85 @@ public class PacienteControllerTest {
                 .andExpect(jsonPath("$.nome").value("Nome Atualizado"));
     }
 
+    @Test
+    @WithMockUser
+    void testAtualizarComIfMatch() throws Exception {
+        Paciente pacienteAtualizado = new Paciente(paciente.getId(), "Nome Atualizado", "12345678901", "teste@email.com", "11999998888", LocalDate.now(), null, null, null);
+        pacienteAtualizado.setVersao(4L);
+        when(pacienteService.atualizar(eq(paciente.getId()), any(Paciente.class), eq(3L))).thenReturn(pacienteAtualizado);
+
+        mockMvc.perform(put("/api/pacientes/{id}", paciente.getId())
+                .with(csrf().asHeader())
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pacienteAtualizado)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testAtualizarComIfMatchDeOutroFormato() throws Exception {
+        Paciente pacienteAtualizado = new Paciente(paciente.getId(), "Nome Atualizado", "12345678901", "teste@email.com", "11999998888", LocalDate.now(), null, null, null);
+        pacienteAtualizado.setVersao(4L);
+        when(pacienteService.atualizar(eq(paciente.getId()), any(Paciente.class), eq(3L))).thenReturn(pacienteAtualizado);
+
+        mockMvc.perform(put("/api/pacientes/{id}", paciente.getId())
+                .with(csrf().asHeader())
+                .header("If-Match", "\"3-cbor\"")
+                .accept(MediaType.APPLICATION_CBOR)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pacienteAtualizado)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4-cbor\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testAtualizarComVersaoDesatualizadaRetorna412() throws Exception {
+        when(pacienteService.atualizar(eq(paciente.getId()), any(Paciente.class), eq(2L)))
+                .thenThrow(new VersaoDesatualizadaException("Paciente alterado desde a versão 2."));
+
+        mockMvc.perform(put("/api/pacientes/{id}", paciente.getId())
+                .with(csrf().asHeader())
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(paciente)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser
+    void testAtualizarComIfMatchFracoRetorna412() throws Exception {
+        mockMvc.perform(put("/api/pacientes/{id}", paciente.getId())
+                .with(csrf().asHeader())
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(paciente)))
+                .andExpect(status().isPreconditionFailed());
+        verify(pacienteService, never()).atualizar(any(), any(), anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void testAtualizarParcialmente() throws Exception {
+        Paciente pacienteAtualizado = new Paciente(paciente.getId(), "Nome Teste", "12345678901", "novo@email.com", "11999998888", LocalDate.now(), null, null, null);
+        pacienteAtualizado.setVersao(5L);
+        when(pacienteService.atualizarParcialmente(eq(paciente.getId()),
+                argThat((JsonNode patch) -> patch.size() == 1 && "novo@email.com".equals(patch.get("email").asText())), eq(4L)))
+                .thenReturn(pacienteAtualizado);
+
+        mockMvc.perform(patch("/api/pacientes/{id}", paciente.getId())
+                .with(csrf().asHeader())
+                .header("If-Match", "\"4\"")
+                .contentType("application/merge-patch+json")
+                .content("{\"email\":\"novo@email.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.email").value("novo@email.com"))
+                .andExpect(jsonPath("$.versao").value(5));
+    }
+
     @Test
     @WithMockUser
     void testDeletar() throws Exception {
@@ -0,0 +1,77 @@
+package edu.senai.consultorio_backend.pacientes_api.controllers;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.FaixaRecall;
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.RecallService;
+import edu.senai.consultorio_backend.pacientes_api.service.RequisicaoInvalidaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RecallController.class)
+public class RecallControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RecallService recallService;
+
+    @Test
+    @WithMockUser
+    void testListarFaixas() throws Exception {
+        LocalDate hoje = LocalDate.of(2026, 6, 1);
+        when(recallService.listarFaixas()).thenReturn(List.of(
+                new FaixaRecall(6, hoje.minusMonths(12), hoje.minusMonths(6), 120),
+                new FaixaRecall(12, hoje.minusMonths(24), hoje.minusMonths(12), 80),
+                new FaixaRecall(24, null, hoje.minusMonths(24), 40)));
+
+        mockMvc.perform(get("/api/recall"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].meses").value(6))
+                .andExpect(jsonPath("$[0].referenciaDesde").value("2025-06-01"))
+                .andExpect(jsonPath("$[0].referenciaAte").value("2025-12-01"))
+                .andExpect(jsonPath("$[0].pacientes").value(120))
+                .andExpect(jsonPath("$[2].referenciaDesde").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testListarFaixa() throws Exception {
+        Paciente paciente = new Paciente(UUID.randomUUID(), "Nome Teste", "12345678901", "teste@email.com",
+                "11999998888", LocalDate.of(1990, 1, 15), LocalDate.of(2025, 3, 10), "Limpeza", null);
+        when(recallService.listarFaixa(12, "cursor-atual", 50))
+                .thenReturn(new PaginaCursor<>(Collections.singletonList(paciente), "cursor-seguinte"));
+
+        mockMvc.perform(get("/api/recall/{meses}", 12)
+                .param("cursor", "cursor-atual")
+                .param("limite", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].nome").value("Nome Teste"))
+                .andExpect(jsonPath("$.proximoCursor").value("cursor-seguinte"));
+    }
+
+    @Test
+    @WithMockUser
+    void testFaixaInexistenteRetorna400() throws Exception {
+        when(recallService.listarFaixa(7, null, null))
+                .thenThrow(new RequisicaoInvalidaException("Faixa de recall inexistente: 7. Faixas: 6, 12, 24."));
+
+        mockMvc.perform(get("/api/recall/{meses}", 7))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,106 @@
+package edu.senai.consultorio_backend.pacientes_api.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails the build when a repository query method is not backed by an index
+ * of the schema the migration scripts create. The indexes are read from
+ * pg_indexes on the PostgreSQL database of application.properties, migrated
+ * by Flyway, so only real indexes count (primary keys and unique constraints
+ * included, foreign keys and other constraints not).
+ */
+@SpringBootTest
+public class IndicesDeSuporteTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Set<String> indicesDoEsquema;
+
+    @BeforeEach
+    void lerIndices() {
+        indicesDoEsquema = new HashSet<>(jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class));
+    }
+
+    @Test
+    void testEsquemaTemIndices() {
+        assertTrue(indicesDoEsquema.contains("idx_consultas_dentista_data_hora"), indicesDoEsquema.toString());
+        assertFalse(indicesDoEsquema.contains("fk_consultas_paciente"), "Chave estrangeira tratada como índice");
+    }
+
+    @Test
+    void testTodaConsultaDeRepositorioTemIndiceDeSuporte() throws ClassNotFoundException {
+        List<String> problemas = new ArrayList<>();
+        for (Class<?> repositorio : repositorios()) {
+            for (Method metodo : repositorio.getDeclaredMethods()) {
+                if (metodo.isDefault() || Modifier.isStatic(metodo.getModifiers()) || metodo.isSynthetic()
+                        || sobrescreveMetodoHerdado(repositorio, metodo)) {
+                    continue;
+                }
+                IndiceDeSuporte indice = metodo.getAnnotation(IndiceDeSuporte.class);
+                if (indice == null) {
+                    problemas.add(repositorio.getSimpleName() + "." + metodo.getName() + " não declara @IndiceDeSuporte");
+                    continue;
+                }
+                for (String nome : indice.value()) {
+                    if (!indicesDoEsquema.contains(nome.toLowerCase())) {
+                        problemas.add(repositorio.getSimpleName() + "." + metodo.getName()
+                                + " usa o índice '" + nome + "', que nenhuma migração cria");
+                    }
+                }
+            }
+        }
+        assertTrue(problemas.isEmpty(), String.join("\n", problemas));
+    }
+
+    /**
+     * CRUD methods inherited from Spring Data (and redeclared only to add hints)
+     * are resolved by primary key or are deliberate full reads.
+     */
+    private static boolean sobrescreveMetodoHerdado(Class<?> repositorio, Method metodo) {
+        for (Class<?> superInterface : repositorio.getInterfaces()) {
+            if (ClassUtils.hasMethod(superInterface, metodo.getName(), metodo.getParameterTypes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Class<?>> repositorios() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        List<Class<?>> repositorios = new ArrayList<>();
+        for (BeanDefinition definicao : scanner.findCandidateComponents(IndiceDeSuporte.class.getPackageName())) {
+            repositorios.add(Class.forName(definicao.getBeanClassName()));
+        }
+        assertFalse(repositorios.isEmpty(), "Nenhum repositório encontrado");
+        return repositorios;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.senai.consultorio_backend.pacientes_api.repositories;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.PaginaCursor;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.service.PacienteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the patient search SQL against the PostgreSQL database of
+ * application.properties, migrated by Flyway.
+ */
+@SpringBootTest
+public class PacienteRepositoryTest {
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    private final String marcador = "Zq" + Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+    private final List<UUID> inseridos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pacienteRepository.deleteAllById(inseridos);
+    }
+
+    @Test
+    void testBuscaOrdenaPorRelevancia() {
+        UUID meio = cadastrar("Ana " + marcador + " Souza").getId();
+        UUID prefixo = cadastrar(marcador + " Lima").getId();
+        UUID fragmento = cadastrar("Bruno X" + marcador).getId();
+
+        List<UUID> ids = pacienteService.buscar(marcador, null, null).getItens().stream().map(Paciente::getId).toList();
+
+        assertEquals(List.of(prefixo, meio, fragmento), ids);
+    }
+
+    @Test
+    void testPaginasSeguemARelevanciaSemRepetirNemPular() {
+        for (int i = 0; i < 7; i++) {
+            cadastrar(marcador + " Prefixo " + i);
+            cadastrar("Ana " + marcador + " Palavra " + i);
+            cadastrar("Bruno X" + marcador + " Fragmento " + i);
+        }
+        List<UUID> esperados = pacienteService.buscar(marcador, null, 100).getItens().stream()
+                .map(Paciente::getId).toList();
+        assertEquals(21, esperados.size());
+
+        List<UUID> lidos = new ArrayList<>();
+        PaginaCursor<Paciente> pagina = pacienteService.buscar(marcador, null, 4);
+        lidos.addAll(pagina.getItens().stream().map(Paciente::getId).toList());
+        // A patient ranked before the cursor must not shift the next pages.
+        cadastrar(marcador + " Aaa");
+        while (pagina.getProximoCursor() != null) {
+            pagina = pacienteService.buscar(marcador, pagina.getProximoCursor(), 4);
+            lidos.addAll(pagina.getItens().stream().map(Paciente::getId).toList());
+        }
+
+        assertEquals(esperados.subList(0, 4), lidos.subList(0, 4));
+        assertEquals(esperados, lidos);
+    }
+
+    @Test
+    void testBuscaNumericaPorCpfExatoAntesDoPrefixo() {
+        String cpf = "9" + String.format("%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L));
+        Paciente exato = cadastrar("Exato " + marcador, cpf);
+        cadastrar("Prefixo " + marcador, cpf.substring(0, 10) + (cpf.charAt(10) == '0' ? '1' : '0'));
+
+        PaginaCursor<Paciente> primeira = pacienteService.buscar(cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "."
+                + cpf.substring(6, 9) + "-" + cpf.substring(9), null, 1);
+
+        assertEquals(exato.getId(), primeira.getItens().get(0).getId());
+        assertNull(pacienteService.buscar(cpf, primeira.getProximoCursor(), 1).getProximoCursor());
+    }
+
+    private Paciente cadastrar(String nome) {
+        return cadastrar(nome, "8" + String.format("%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L)));
+    }
+
+    private Paciente cadastrar(String nome, String cpf) {
+        Paciente paciente = new Paciente();
+        paciente.setNome(nome);
+        paciente.setCpf(cpf);
+        paciente.setEmail(UUID.randomUUID() + "@teste.com");
+        paciente.setTelefoneWhatsapp("119" + cpf.substring(3));
+        paciente.setDataNascimento(LocalDate.of(1990, 1, 1));
+        Paciente salvo = pacienteRepository.save(paciente);
+        inseridos.add(salvo.getId());
+        return salvo;
+    }
+}
@@ -0,0 +1,157 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AlteracaoAgenda;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AlteracoesDaAgendaTest {
+
+    private final LocalDate dia = LocalDate.of(2026, 11, 2);
+
+    private SimpleMeterRegistry registro;
+    private AlteracoesDaAgenda alteracoesDaAgenda;
+    private Paciente paciente;
+    private Dentista dentista;
+
+    @BeforeEach
+    void setUp() {
+        registro = new SimpleMeterRegistry();
+        alteracoesDaAgenda = new AlteracoesDaAgenda(registro, 3);
+        paciente = new Paciente(UUID.randomUUID(), "Paciente Teste", "12345678901", "teste@email.com", "11999998888",
+                LocalDate.of(1990, 1, 15), null, null, null);
+        dentista = new Dentista(UUID.randomUUID(), "Dr. Teste", "Ortodontia");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Consulta consulta(LocalDateTime dataHora) {
+        return new Consulta(UUID.randomUUID(), paciente, dentista, dataHora, 30);
+    }
+
+    /**
+     * A subscriber that buffers up to "capacidade" changes.
+     */
+    private static final class Fila implements AlteracoesDaAgenda.Assinante {
+        private final int capacidade;
+        private final List<AlteracaoAgenda> recebidas = new ArrayList<>();
+
+        Fila(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        @Override
+        public boolean entregar(AlteracaoAgenda alteracao) {
+            if (recebidas.size() == capacidade) {
+                return false;
+            }
+            recebidas.add(alteracao);
+            return true;
+        }
+
+        @Override
+        public void encerrar() {
+        }
+    }
+
+    @Test
+    void testEntregaSoAsAlteracoesDoTopico() {
+        Fila assinante = new Fila(10);
+        alteracoesDaAgenda.assinar(dentista.getId(), dia, null, assinante);
+
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA,
+                List.of(consulta(dia.atTime(9, 0)), consulta(dia.plusDays(1).atTime(9, 0))));
+
+        assertEquals(1, assinante.recebidas.size());
+        AlteracaoAgenda alteracao = assinante.recebidas.get(0);
+        assertEquals(EventoConsulta.Tipo.AGENDADA, alteracao.getTipo());
+        assertEquals("Paciente Teste", alteracao.getConsulta().getPacienteNome());
+    }
+
+    @Test
+    void testPublicaSoDepoisDoCommit() {
+        Fila assinante = new Fila(10);
+        alteracoesDaAgenda.assinar(dentista.getId(), dia, null, assinante);
+
+        TransactionSynchronizationManager.initSynchronization();
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.CANCELADA, List.of(consulta(dia.atTime(9, 0))));
+        assertTrue(assinante.recebidas.isEmpty());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, assinante.recebidas.size());
+        assertNull(assinante.recebidas.get(0).getConsulta());
+    }
+
+    @Test
+    void testRetomaAPartirDoUltimoIdRecebido() {
+        Fila primeiraConexao = new Fila(10);
+        AlteracoesDaAgenda.Assinatura inicial = alteracoesDaAgenda.assinar(dentista.getId(), dia, null, primeiraConexao);
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, List.of(consulta(dia.atTime(9, 0))));
+        alteracoesDaAgenda.cancelar(dentista.getId(), dia, primeiraConexao);
+        alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, List.of(consulta(dia.atTime(10, 0))));
+
+        Fila retomada = new Fila(10);
+        AlteracoesDaAgenda.Assinatura assinatura = alteracoesDaAgenda.assinar(dentista.getId(), dia,
+                primeiraConexao.recebidas.get(0).getId(), retomada);
+        assertTrue(assinatura.historicoCompleto());
+        assertEquals(1, retomada.recebidas.size());
+        assertEquals(dia.atTime(10, 0), retomada.recebidas.get(0).getDataHora());
+
+        Fila doInicio = new Fila(10);
+        assertTrue(alteracoesDaAgenda.assinar(dentista.getId(), dia, inicial.ultimoId(), doInicio).historicoCompleto());
+        assertEquals(2, doInicio.recebidas.size());
+    }
+
+    @Test
+    void testHistoricoPerdido() {
+        AlteracoesDaAgenda.Assinatura inicial = alteracoesDaAgenda.assinar(dentista.getId(), dia, null, new Fila(10));
+        for (int hora = 8; hora < 12; hora++) {
+            alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, List.of(consulta(dia.atTime(hora, 0))));
+        }
+
+        Fila atrasada = new Fila(10);
+        assertFalse(alteracoesDaAgenda.assinar(dentista.getId(), dia, inicial.ultimoId(), atrasada).historicoCompleto());
+        assertTrue(atrasada.recebidas.isEmpty());
+        assertFalse(alteracoesDaAgenda.assinar(dentista.getId(), dia, "outra-instancia-2", new Fila(10)).historicoCompleto());
+    }
+
+    @Test
+    void testDescartaAssinanteLento() {
+        Fila lenta = new Fila(1);
+        Fila rapida = new Fila(10);
+        alteracoesDaAgenda.assinar(dentista.getId(), dia, null, lenta);
+        alteracoesDaAgenda.assinar(dentista.getId(), dia, null, rapida);
+
+        for (int hora = 8; hora < 11; hora++) {
+            alteracoesDaAgenda.publicarAposCommit(EventoConsulta.Tipo.AGENDADA, List.of(consulta(dia.atTime(hora, 0))));
+        }
+
+        assertEquals(1, lenta.recebidas.size());
+        assertEquals(3, rapida.recebidas.size());
+        assertEquals(1, registro.get("agenda.alteracoes.descartados").counter().count());
+        assertEquals(1, registro.get("agenda.alteracoes.assinantes").gauge().value());
+    }
+}
@@ -0,0 +1,77 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AplicadorMergePatchTest {
+
+    private static final Set<String> CAMPOS_OBRIGATORIOS = Set.of("nome", "cpf", "email", "telefoneWhatsapp", "dataNascimento");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final AplicadorMergePatch aplicador = new AplicadorMergePatch(objectMapper);
+
+    private UUID id;
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        id = UUID.randomUUID();
+        paciente = new Paciente(id, "Nome Teste", "12345678901", "teste@email.com", "11999998888",
+                LocalDate.of(1990, 1, 15), LocalDate.of(2025, 6, 1), "Limpeza", null);
+        paciente.setVersao(3L);
+    }
+
+    @Test
+    void testAlteraApenasOsCamposEnviados() throws Exception {
+        aplicador.aplicar(objectMapper.readTree("{\"email\":\"novo@email.com\",\"dataUltimoContato\":\"2026-01-10\"}"),
+                paciente, CAMPOS_OBRIGATORIOS);
+
+        assertEquals("novo@email.com", paciente.getEmail());
+        assertEquals(LocalDate.of(2026, 1, 10), paciente.getDataUltimoContato());
+        assertEquals("Nome Teste", paciente.getNome());
+        assertEquals("12345678901", paciente.getCpf());
+        assertEquals(LocalDate.of(2025, 6, 1), paciente.getDataUltimaConsulta());
+    }
+
+    @Test
+    void testNuloRemoveCampoOpcional() throws Exception {
+        aplicador.aplicar(objectMapper.readTree("{\"ultimoProcedimento\":null}"), paciente, CAMPOS_OBRIGATORIOS);
+
+        assertNull(paciente.getUltimoProcedimento());
+        assertEquals(LocalDate.of(2025, 6, 1), paciente.getDataUltimaConsulta());
+    }
+
+    @Test
+    void testIgnoraIdEVersao() throws Exception {
+        aplicador.aplicar(objectMapper.readTree("{\"id\":\"" + UUID.randomUUID() + "\",\"versao\":9,\"nome\":\"Outro Nome\"}"),
+                paciente, CAMPOS_OBRIGATORIOS);
+
+        assertEquals(id, paciente.getId());
+        assertEquals(3L, paciente.getVersao());
+        assertEquals("Outro Nome", paciente.getNome());
+    }
+
+    @Test
+    void testRejeitaPatchInvalido() throws Exception {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> aplicador.aplicar(objectMapper.readTree("{\"cpf\":null}"), paciente, CAMPOS_OBRIGATORIOS));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> aplicador.aplicar(objectMapper.readTree("{\"nomee\":\"Typo\"}"), paciente, CAMPOS_OBRIGATORIOS));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> aplicador.aplicar(objectMapper.readTree("{\"dataNascimento\":\"ontem\"}"), paciente, CAMPOS_OBRIGATORIOS));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> aplicador.aplicar(objectMapper.readTree("[{\"nome\":\"Lista\"}]"), paciente, CAMPOS_OBRIGATORIOS));
+        assertEquals("12345678901", paciente.getCpf());
+    }
+}
@@ -0,0 +1,119 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the second-level and query caches of dentists through the Hibernate
+ * statistics, against the PostgreSQL database of application.properties.
+ * Only the counters of the dentist regions and entity are compared, so work
+ * done meanwhile by scheduled jobs does not disturb them.
+ */
+@SpringBootTest
+public class CacheDeDentistasTest {
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+    private UUID id;
+
+    @BeforeEach
+    void setUp() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        id = dentistaService.cadastrar(new Dentista(null, "Dra. Cache " + UUID.randomUUID(), "Ortodontia")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dentistaService.deletar(id);
+    }
+
+    @Test
+    void testBuscasRepetidasVemDoCacheDeEntidades() {
+        long carregamentos = carregamentosDoBanco();
+        long acertos = entidades().getHitCount();
+
+        for (int i = 0; i < 3; i++) {
+            dentistaService.buscarPorId(id);
+        }
+
+        assertEquals(carregamentos, carregamentosDoBanco());
+        assertEquals(acertos + 3, entidades().getHitCount());
+    }
+
+    @Test
+    void testListagemRepetidaVemDoCacheDeConsultas() {
+        dentistaService.listarTodos();
+        long acertos = listagem().getHitCount();
+        long carregamentos = carregamentosDoBanco();
+
+        dentistaService.listarTodos();
+        dentistaService.listarTodos();
+
+        assertEquals(acertos + 2, listagem().getHitCount());
+        assertEquals(carregamentos, carregamentosDoBanco());
+    }
+
+    @Test
+    void testAtualizacaoInvalidaAListagemESubstituiAEntidade() {
+        dentistaService.listarTodos();
+        dentistaService.buscarPorId(id);
+        long falhasDaListagem = listagem().getMissCount();
+
+        dentistaService.atualizar(id, new Dentista(null, "Dra. Atualizada " + id, "Endodontia"));
+
+        long carregamentos = carregamentosDoBanco();
+        Dentista atualizado = dentistaService.buscarPorId(id);
+        assertEquals("Dra. Atualizada " + id, atualizado.getNome());
+        assertEquals(carregamentos, carregamentosDoBanco());
+
+        assertTrue(dentistaService.listarTodos().stream()
+                .anyMatch(dentista -> dentista.getId().equals(id) && dentista.getEspecialidade().equals("Endodontia")));
+        assertEquals(falhasDaListagem + 1, listagem().getMissCount());
+    }
+
+    @Test
+    void testExclusaoRemoveODentistaDoCache() {
+        long acertos = entidades().getHitCount();
+        dentistaService.buscarPorId(id);
+        assertEquals(acertos + 1, entidades().getHitCount());
+
+        dentistaService.deletar(id);
+        long falhas = entidades().getMissCount();
+
+        assertTrue(dentistaService.buscarVersao(id).isEmpty());
+        assertEquals(falhas + 1, entidades().getMissCount());
+
+        id = dentistaService.cadastrar(new Dentista(null, "Dra. Cache " + UUID.randomUUID(), "Ortodontia")).getId();
+    }
+
+    private CacheRegionStatistics entidades() {
+        return estatisticas.getDomainDataRegionStatistics(Dentista.REGIAO_CACHE);
+    }
+
+    private CacheRegionStatistics listagem() {
+        return estatisticas.getQueryRegionStatistics(DentistaRepository.REGIAO_CACHE_LISTAGEM);
+    }
+
+    private long carregamentosDoBanco() {
+        return estatisticas.getEntityStatistics(Dentista.class.getName()).getLoadCount();
+    }
+}
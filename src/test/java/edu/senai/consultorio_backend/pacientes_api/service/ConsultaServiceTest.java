@@ -0,0 +1,169 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.AgendamentoRequest;
+import edu.senai.consultorio_backend.pacientes_api.dto.ResultadoAgendamento;
+import edu.senai.consultorio_backend.pacientes_api.entities.Consulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import edu.senai.consultorio_backend.pacientes_api.entities.Paciente;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.EventoConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.PacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConsultaServiceTest {
+
+    private final Paciente paciente = new Paciente(UUID.randomUUID(), "Maria", "12345678900", "maria@teste.com",
+            "11999999999", LocalDate.of(1990, 1, 1), null, null, null);
+    private final Dentista dentista = new Dentista(UUID.randomUUID(), "Dr. Teste", "Ortodontia");
+    private final LocalDate amanha = LocalDate.now().plusDays(1);
+
+    private ConsultaRepository consultaRepository;
+    private EventoConsultaRepository eventoConsultaRepository;
+    private ConsultaService consultaService;
+
+    @BeforeEach
+    void setUp() {
+        consultaRepository = mock(ConsultaRepository.class);
+        when(consultaRepository.buscarIntervalos(any(), any(), any())).thenReturn(Collections.emptyList());
+        // Assigns IDs as the database would, keeping the order of the batch.
+        when(consultaRepository.saveAll(anyIterable())).thenAnswer(invocacao -> {
+            List<Consulta> salvas = new ArrayList<>();
+            for (Consulta consulta : invocacao.<Iterable<Consulta>>getArgument(0)) {
+                consulta.setId(UUID.randomUUID());
+                salvas.add(consulta);
+            }
+            return salvas;
+        });
+        PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+        when(pacienteRepository.findAllById(any())).thenAnswer(invocacao ->
+                contem(invocacao.getArgument(0), paciente.getId()) ? List.of(paciente) : List.of());
+        DentistaRepository dentistaRepository = mock(DentistaRepository.class);
+        when(dentistaRepository.findById(any())).thenReturn(Optional.empty());
+        when(dentistaRepository.findById(dentista.getId())).thenReturn(Optional.of(dentista));
+        eventoConsultaRepository = mock(EventoConsultaRepository.class);
+        consultaService = new ConsultaService(consultaRepository, pacienteRepository, dentistaRepository,
+                new IndiceAgenda(consultaRepository), eventoConsultaRepository, mock(AlteracoesDaAgenda.class));
+    }
+
+    @Test
+    void testSobreposicaoDentroDoMesmoLoteFalhaSoNoItemPosterior() {
+        List<ResultadoAgendamento> resultados = consultaService.agendarEmLote(List.of(
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(9, 0), 60),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(9, 30), 30)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertFalse(resultados.get(1).isSucesso());
+        assertNull(resultados.get(1).getConsultaId());
+        assertEquals(1, salvas().size());
+    }
+
+    @Test
+    void testPacienteOuDentistaDesconhecidoFalhaSemAbortarOLote() {
+        List<ResultadoAgendamento> resultados = consultaService.agendarEmLote(List.of(
+                agendamento(UUID.randomUUID(), dentista.getId(), amanha.atTime(8, 0), 30),
+                agendamento(paciente.getId(), UUID.randomUUID(), amanha.atTime(8, 0), 30),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(8, 0), 30)));
+
+        assertEquals("Paciente não encontrado", resultados.get(0).getErro());
+        assertEquals("Dentista não encontrado", resultados.get(1).getErro());
+        assertTrue(resultados.get(2).isSucesso());
+        assertEquals(1, salvas().size());
+    }
+
+    @Test
+    void testDuracaoInvalidaFalhaENaoReservaOHorario() {
+        List<ResultadoAgendamento> resultados = consultaService.agendarEmLote(List.of(
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(10, 0), 0),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(10, 0),
+                        Consulta.DURACAO_MAXIMA_MINUTOS + 1),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(10, 0), 30)));
+
+        assertTrue(resultados.get(0).getErro().startsWith("A duração da consulta deve estar entre 1 e"));
+        assertFalse(resultados.get(1).isSucesso());
+        assertTrue(resultados.get(2).isSucesso());
+    }
+
+    @Test
+    void testConsultaIdCorrespondeAoIndiceComFalhasIntercaladas() {
+        List<AgendamentoRequest> lote = List.of(
+                agendamento(UUID.randomUUID(), dentista.getId(), amanha.atTime(8, 0), 30),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(9, 0), 30),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(9, 15), 30),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(11, 0), 30),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(12, 0), -5),
+                agendamento(paciente.getId(), dentista.getId(), amanha.atTime(13, 0), 30));
+
+        List<ResultadoAgendamento> resultados = consultaService.agendarEmLote(lote);
+
+        List<Consulta> salvas = salvas();
+        assertEquals(3, salvas.size());
+        int salva = 0;
+        for (int indice = 0; indice < lote.size(); indice++) {
+            ResultadoAgendamento resultado = resultados.get(indice);
+            assertEquals(indice, resultado.getIndice());
+            if (resultado.isSucesso()) {
+                Consulta consulta = salvas.get(salva++);
+                assertEquals(consulta.getId(), resultado.getConsultaId());
+                assertEquals(lote.get(indice).getDataHora(), consulta.getDataHora());
+            } else {
+                assertNull(resultado.getConsultaId());
+            }
+        }
+        assertEquals(List.of(false, true, false, true, false, true),
+                resultados.stream().map(ResultadoAgendamento::isSucesso).toList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoConsulta>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(eventoConsultaRepository).saveAll(eventos.capture());
+        assertEquals(3, eventos.getValue().size());
+    }
+
+    private List<Consulta> salvas() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<Consulta>> consultas = ArgumentCaptor.forClass(Iterable.class);
+        verify(consultaRepository).saveAll(consultas.capture());
+        List<Consulta> salvas = new ArrayList<>();
+        consultas.getValue().forEach(salvas::add);
+        return salvas;
+    }
+
+    private static boolean contem(Iterable<UUID> ids, UUID id) {
+        for (UUID atual : ids) {
+            if (id.equals(atual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AgendamentoRequest agendamento(UUID pacienteId, UUID dentistaId, LocalDateTime dataHora,
+                                                  Integer duracaoMinutos) {
+        AgendamentoRequest agendamento = new AgendamentoRequest();
+        agendamento.setPacienteId(pacienteId);
+        agendamento.setDentistaId(dentistaId);
+        agendamento.setDataHora(dataHora);
+        agendamento.setDuracaoMinutos(duracaoMinutos);
+        return agendamento;
+    }
+}
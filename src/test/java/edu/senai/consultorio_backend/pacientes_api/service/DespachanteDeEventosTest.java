@@ -0,0 +1,105 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DespachanteDeEventosTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private PublicadorDeEventos publicador;
+    private SimpleMeterRegistry registro;
+    private DespachanteDeEventos despachante;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        publicador = mock(PublicadorDeEventos.class);
+        registro = new SimpleMeterRegistry();
+        despachante = new DespachanteDeEventos(jdbcTemplate, transactionManager, publicador, registro, 2);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pendentes(List<EventoConsulta>... lotes) {
+        var resposta = when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2)));
+        for (List<EventoConsulta> lote : lotes) {
+            resposta = resposta.thenReturn(lote);
+        }
+    }
+
+    private static EventoConsulta evento(long id) {
+        return new EventoConsulta(id, EventoConsulta.Tipo.AGENDADA, UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), LocalDateTime.of(2026, 3, 2, 9, 0), 30, Instant.now());
+    }
+
+    @Test
+    void testPublicaERemoveLotesAteEsvaziar() throws Exception {
+        List<EventoConsulta> primeiro = List.of(evento(1), evento(2));
+        List<EventoConsulta> segundo = List.of(evento(3));
+        pendentes(primeiro, segundo);
+
+        despachante.despachar();
+
+        verify(publicador).publicar(primeiro);
+        verify(publicador).publicar(segundo);
+        ArgumentCaptor<Object> removidos = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(2)).update(anyString(), removidos.capture());
+        assertArrayEquals(new Long[]{1L, 2L}, (Long[]) removidos.getAllValues().get(0));
+        assertArrayEquals(new Long[]{3L}, (Long[]) removidos.getAllValues().get(1));
+        assertEquals(3, registro.get("consultas.eventos.publicados").counter().count());
+        assertEquals(2, registro.get("consultas.eventos.lote").timer().count());
+    }
+
+    @Test
+    void testNaoDespachaSemOBloqueio() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        assertEquals(0, despachante.despacharLote());
+
+        verify(publicador, never()).publicar(any());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testFalhaNaPublicacaoMantemOLote() throws Exception {
+        List<EventoConsulta> lote = List.of(evento(1));
+        pendentes(lote);
+        doThrow(new IOException("disco cheio")).when(publicador).publicar(lote);
+
+        assertThrows(IllegalStateException.class, () -> despachante.despacharLote());
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(transactionManager).rollback(any());
+        assertEquals(1, registro.get("consultas.eventos.falhas").counter().count());
+        assertEquals(0, registro.get("consultas.eventos.publicados").counter().count());
+    }
+}
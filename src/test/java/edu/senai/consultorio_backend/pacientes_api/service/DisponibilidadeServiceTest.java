@@ -0,0 +1,101 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.DisponibilidadeDentista;
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
+import edu.senai.consultorio_backend.pacientes_api.entities.Dentista;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import edu.senai.consultorio_backend.pacientes_api.repositories.DentistaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DisponibilidadeServiceTest {
+
+    private final Dentista dentista = new Dentista(UUID.randomUUID(), "Dr. Teste", "Ortodontia");
+    private final LocalDate segunda = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private ConsultaRepository consultaRepository;
+    private DisponibilidadeService disponibilidadeService;
+
+    @BeforeEach
+    void setUp() {
+        DentistaRepository dentistaRepository = mock(DentistaRepository.class);
+        when(dentistaRepository.findById(dentista.getId())).thenReturn(Optional.of(dentista));
+        when(dentistaRepository.findByEspecialidadeOrderByNome("Ortodontia")).thenReturn(List.of(dentista));
+        consultaRepository = mock(ConsultaRepository.class);
+        disponibilidadeService = new DisponibilidadeService(dentistaRepository, consultaRepository,
+                new DayOfWeek[]{DayOfWeek.MONDAY, DayOfWeek.TUESDAY}, new String[]{"08:00-12:00", "13:00-14:00"}, 15);
+    }
+
+    @Test
+    void testHorariosLivresDescontamConsultasEIntervalo() {
+        when(consultaRepository.buscarIntervalosDosDentistas(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new IntervaloAgendado(dentista.getId(), segunda.atTime(8, 0), 20),
+                        new IntervaloAgendado(dentista.getId(), segunda.atTime(10, 0), 90)));
+
+        List<LocalDateTime> horarios = disponibilidadeService
+                .buscarHorariosLivres(dentista.getId(), null, segunda, segunda, 30).get(0).getHorarios();
+
+        // 08:00-08:20 occupies the blocks up to 08:30; 10:00-11:30 leaves 11:30-12:00 and the afternoon.
+        assertEquals(List.of(segunda.atTime(8, 30), segunda.atTime(9, 0), segunda.atTime(9, 30),
+                segunda.atTime(11, 30), segunda.atTime(13, 0), segunda.atTime(13, 30)), horarios);
+    }
+
+    @Test
+    void testConsultaQueAtravessaAMeiaNoiteOcupaODiaSeguinte() {
+        DentistaRepository dentistaRepository = mock(DentistaRepository.class);
+        when(dentistaRepository.findById(dentista.getId())).thenReturn(Optional.of(dentista));
+        DisponibilidadeService plantao = new DisponibilidadeService(dentistaRepository, consultaRepository,
+                new DayOfWeek[]{DayOfWeek.MONDAY}, new String[]{"05:00-09:00"}, 15);
+        when(consultaRepository.buscarIntervalosDosDentistas(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new IntervaloAgendado(dentista.getId(), segunda.minusDays(1).atTime(23, 0), 480)));
+
+        List<LocalDateTime> horarios = plantao
+                .buscarHorariosLivres(dentista.getId(), null, segunda, segunda, 60).get(0).getHorarios();
+
+        assertEquals(List.of(segunda.atTime(7, 0), segunda.atTime(8, 0)), horarios);
+    }
+
+    @Test
+    void testPorEspecialidadeIgnoraDiasSemAtendimento() {
+        List<DisponibilidadeDentista> disponibilidades = disponibilidadeService
+                .buscarHorariosLivres(null, "Ortodontia", segunda, segunda.plusDays(6), 60);
+
+        assertEquals(1, disponibilidades.size());
+        // Monday and Tuesday only, 5 one-hour slots each.
+        assertEquals(10, disponibilidades.get(0).getHorarios().size());
+        assertTrue(disponibilidades.get(0).getHorarios().stream()
+                .allMatch(horario -> horario.toLocalDate().getDayOfWeek().getValue() <= 2));
+    }
+
+    @Test
+    void testRejeitaParametrosInvalidos() {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> disponibilidadeService.buscarHorariosLivres(null, null, segunda, segunda, null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> disponibilidadeService.buscarHorariosLivres(dentista.getId(), "Ortodontia", segunda, segunda, null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> disponibilidadeService.buscarHorariosLivres(dentista.getId(), null, segunda, segunda.minusDays(1), null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> disponibilidadeService.buscarHorariosLivres(dentista.getId(), null, segunda,
+                        segunda.plusDays(DisponibilidadeService.DIAS_MAXIMOS), null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> disponibilidadeService.buscarHorariosLivres(UUID.randomUUID(), null, segunda, segunda, null));
+    }
+}
@@ -0,0 +1,153 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotenciaTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private Idempotencia idempotencia;
+    private final AtomicInteger escritas = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        idempotencia = new Idempotencia(jdbcTemplate, transactionManager, new ObjectMapper(),
+                new SimpleMeterRegistry(), Duration.ofHours(24), 100);
+    }
+
+    private Idempotencia.Resposta escrever() {
+        escritas.incrementAndGet();
+        return new Idempotencia.Resposta(201, "/api/pacientes/1", "\"0\"", Map.of("id", "1"));
+    }
+
+    @Test
+    void testRepeticaoDevolveRespostaSemEscreverDeNovo() {
+        Idempotencia.Resposta primeira = idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "A"), this::escrever);
+        Idempotencia.Resposta repetida = idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "A"), this::escrever);
+
+        assertEquals(1, escritas.get());
+        assertEquals(Map.of("id", "1"), primeira.corpo());
+        assertEquals(201, repetida.status());
+        assertEquals("/api/pacientes/1", repetida.location());
+        assertEquals("\"0\"", repetida.etag());
+        assertEquals("1", assertInstanceOf(JsonNode.class, repetida.corpo()).get("id").asText());
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testChavesDeUsuariosDiferentesNaoSeConfundem() {
+        idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "A"), this::escrever);
+        idempotencia.executar("pacientes.cadastrar", "bia", "chave", Map.of("nome", "A"), this::escrever);
+
+        assertEquals(2, escritas.get());
+    }
+
+    @Test
+    void testChaveReutilizadaComOutroCorpoEhRejeitada() {
+        idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "A"), this::escrever);
+
+        assertThrows(ChaveDeIdempotenciaReutilizadaException.class, () ->
+                idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "B"), this::escrever));
+        assertEquals(1, escritas.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRespostaGuardadaNoBancoEhDevolvida() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any())).thenAnswer(invocacao -> {
+            RowMapper<Object> mapeamento = invocacao.getArgument(1);
+            ResultSet linha = mock(ResultSet.class);
+            when(linha.getString("impressao")).thenReturn(impressaoDe(Map.of("nome", "A")));
+            when(linha.getInt("status")).thenReturn(201);
+            when(linha.getString("location")).thenReturn("/api/pacientes/9");
+            when(linha.getString("corpo")).thenReturn("{\"id\":\"9\"}");
+            return List.of(mapeamento.mapRow(linha, 0));
+        });
+
+        Idempotencia.Resposta resposta = idempotencia.executar("pacientes.cadastrar", "ana", "chave", Map.of("nome", "A"), this::escrever);
+
+        assertEquals(0, escritas.get());
+        assertEquals("/api/pacientes/9", resposta.location());
+    }
+
+    @Test
+    void testFalhaNaoEhGuardada() {
+        assertThrows(ConflitoDeAgendaException.class, () ->
+                idempotencia.executar("consultas.agendar", "ana", "chave", Map.of(), () -> {
+                    throw new ConflitoDeAgendaException("O dentista já possui uma consulta nesse horário");
+                }));
+
+        idempotencia.executar("consultas.agendar", "ana", "chave", Map.of(), this::escrever);
+        assertEquals(1, escritas.get());
+    }
+
+    @Test
+    void testRequisicoesSimultaneasComAMesmaChaveEscrevemUmaVez() throws Exception {
+        CountDownLatch escrevendo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Idempotencia.Resposta> primeira = CompletableFuture.supplyAsync(() ->
+                idempotencia.executar("consultas.agendar", "ana", "chave", Map.of(), () -> {
+                    escrevendo.countDown();
+                    try {
+                        assertTrue(liberar.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return escrever();
+                }));
+        assertTrue(escrevendo.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Idempotencia.Resposta> segunda = CompletableFuture.supplyAsync(() ->
+                idempotencia.executar("consultas.agendar", "ana", "chave", Map.of(), this::escrever));
+        Thread.sleep(100);
+        liberar.countDown();
+
+        assertEquals(201, primeira.get(5, TimeUnit.SECONDS).status());
+        assertEquals(201, segunda.get(5, TimeUnit.SECONDS).status());
+        assertEquals(1, escritas.get());
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testChaveLongaDemaisEhRejeitada() {
+        assertThrows(RequisicaoInvalidaException.class, () ->
+                idempotencia.executar("consultas.agendar", "ana", "x".repeat(256), Map.of(), this::escrever));
+        assertEquals(0, escritas.get());
+    }
+
+    private static String impressaoDe(Object requisicao) throws Exception {
+        byte[] conteudo = new ObjectMapper().writeValueAsBytes(requisicao);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+    }
+}
@@ -0,0 +1,53 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.senai.consultorio_backend.pacientes_api.dto.ImportacaoPacientes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ImportacaoPacientesServiceTest {
+
+    private final List<Runnable> tarefas = new ArrayList<>();
+    private ImportacaoPacientesService importacaoService;
+
+    @BeforeEach
+    void setUp() {
+        importacaoService = new ImportacaoPacientesService(mock(JdbcTemplate.class),
+                mock(PlatformTransactionManager.class), new ObjectMapper().registerModule(new JavaTimeModule()),
+                tarefas::add, new SimpleMeterRegistry(), 1000, 10, Duration.ofHours(1));
+    }
+
+    @Test
+    void testRetornaAntesDeProcessarOArquivo() throws Exception {
+        String ndjson = "{\"nome\":\"Ana\",\"cpf\":\"123\"}\n\nnão é json\n";
+
+        ImportacaoPacientes importacao = importacaoService.importar(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), FormatoImportacao.NDJSON);
+
+        assertEquals(ImportacaoPacientes.Situacao.EM_ANDAMENTO, importacao.getSituacao());
+        assertEquals(0, importacao.getLinhasLidas());
+        assertSame(importacao, importacaoService.buscarImportacao(importacao.getId()).orElseThrow());
+        assertEquals(1, tarefas.size());
+
+        tarefas.get(0).run();
+
+        assertEquals(ImportacaoPacientes.Situacao.CONCLUIDA, importacao.getSituacao());
+        assertEquals(2, importacao.getLinhasLidas());
+        assertEquals(2, importacao.getRejeitadas());
+        assertEquals(3, importacao.getRejeicoes().get(1).getLinha());
+    }
+}
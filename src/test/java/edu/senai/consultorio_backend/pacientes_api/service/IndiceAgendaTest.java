@@ -0,0 +1,117 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import edu.senai.consultorio_backend.pacientes_api.dto.IntervaloAgendado;
+import edu.senai.consultorio_backend.pacientes_api.repositories.ConsultaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IndiceAgendaTest {
+
+    private final UUID dentistaId = UUID.randomUUID();
+    private final LocalDate amanha = LocalDate.now().plusDays(1);
+
+    private ConsultaRepository consultaRepository;
+    private IndiceAgenda indiceAgenda;
+
+    @BeforeEach
+    void setUp() {
+        consultaRepository = mock(ConsultaRepository.class);
+        when(consultaRepository.buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new IntervaloAgendado(dentistaId, amanha.atTime(10, 0), 60)));
+        indiceAgenda = new IndiceAgenda(consultaRepository);
+    }
+
+    @Test
+    void testRejeitaSobreposicaoComConsultaDoBanco() {
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, amanha.atTime(10, 30), 30));
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, amanha.atTime(9, 45), 30));
+    }
+
+    @Test
+    void testAceitaIntervalosAdjacentes() {
+        assertDoesNotThrow(() -> indiceAgenda.reservar(dentistaId, amanha.atTime(9, 30), 30));
+        assertDoesNotThrow(() -> indiceAgenda.reservar(dentistaId, amanha.atTime(11, 0), 30));
+    }
+
+    @Test
+    void testRejeitaSobreposicaoComReservaAnterior() {
+        indiceAgenda.reservar(dentistaId, amanha.atTime(14, 0), 90);
+
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, amanha.atTime(15, 0), 30));
+    }
+
+    @Test
+    void testConsultaQueAtravessaAMeiaNoite() {
+        indiceAgenda.reservar(dentistaId, amanha.atTime(23, 30), 60);
+
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, amanha.plusDays(1).atStartOfDay(), 30));
+    }
+
+    @Test
+    void testCancelamentoLiberaOHorario() {
+        indiceAgenda.reservar(dentistaId, amanha.atTime(8, 0), 30);
+        indiceAgenda.cancelar(dentistaId, amanha.atTime(10, 0));
+
+        assertDoesNotThrow(() -> indiceAgenda.reservar(dentistaId, amanha.atTime(10, 0), 30));
+    }
+
+    @Test
+    void testCarregaCadaDiaUmaUnicaVez() {
+        when(consultaRepository.buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        indiceAgenda.reservar(dentistaId, amanha.atTime(8, 0), 30);
+        indiceAgenda.reservar(dentistaId, amanha.atTime(16, 0), 30);
+
+        verify(consultaRepository, times(1))
+                .buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testRejeitaSobreposicaoNoPassado() {
+        LocalDate semanaPassada = LocalDate.now().minusDays(7);
+        when(consultaRepository.buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new IntervaloAgendado(dentistaId, semanaPassada.atTime(10, 0), 60)));
+
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, semanaPassada.atTime(10, 30), 30));
+        assertThrows(ConflitoDeAgendaException.class,
+                () -> indiceAgenda.reservar(dentistaId, semanaPassada.atTime(9, 45), 30));
+
+        verify(consultaRepository, times(1))
+                .buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDiasPassadosSaoDescartadosPorReservaFutura() {
+        LocalDate semanaPassada = LocalDate.now().minusDays(7);
+        when(consultaRepository.buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        indiceAgenda.reservar(dentistaId, semanaPassada.atTime(8, 0), 30);
+        indiceAgenda.reservar(dentistaId, amanha.atTime(8, 0), 30);
+        indiceAgenda.reservar(dentistaId, semanaPassada.atTime(9, 0), 30);
+
+        verify(consultaRepository, times(3))
+                .buscarIntervalos(eq(dentistaId), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+}
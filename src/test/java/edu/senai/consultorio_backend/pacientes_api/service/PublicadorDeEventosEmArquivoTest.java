@@ -0,0 +1,53 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import edu.senai.consultorio_backend.pacientes_api.entities.EventoConsulta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PublicadorDeEventosEmArquivoTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void testAcrescentaUmEventoPorLinha() throws Exception {
+        Path arquivo = diretorio.resolve("eventos/consultas.ndjson");
+        PublicadorDeEventosEmArquivo publicador = new PublicadorDeEventosEmArquivo(objectMapper, arquivo);
+        UUID consultaId = UUID.randomUUID();
+        EventoConsulta agendada = new EventoConsulta(1L, EventoConsulta.Tipo.AGENDADA, consultaId, UUID.randomUUID(),
+                UUID.randomUUID(), LocalDateTime.of(2026, 3, 2, 9, 0), 30, Instant.parse("2026-02-20T12:00:00Z"));
+        EventoConsulta cancelada = new EventoConsulta(2L, EventoConsulta.Tipo.CANCELADA, consultaId,
+                agendada.getPacienteId(), agendada.getDentistaId(), agendada.getDataHora(), 30,
+                Instant.parse("2026-02-21T08:30:00Z"));
+
+        publicador.publicar(List.of(agendada));
+        publicador.publicar(List.of(cancelada));
+
+        List<String> linhas = Files.readAllLines(arquivo);
+        assertEquals(2, linhas.size());
+        JsonNode primeira = objectMapper.readTree(linhas.get(0));
+        assertEquals(1, primeira.get("id").asLong());
+        assertEquals("AGENDADA", primeira.get("tipo").asText());
+        assertEquals(consultaId.toString(), primeira.get("consultaId").asText());
+        assertEquals("2026-03-02T09:00:00", primeira.get("dataHora").asText());
+        JsonNode segunda = objectMapper.readTree(linhas.get(1));
+        assertEquals("CANCELADA", segunda.get("tipo").asText());
+        assertEquals("2026-02-21T08:30:00Z", segunda.get("ocorridoEm").asText());
+    }
+}
@@ -0,0 +1,92 @@
+package edu.senai.consultorio_backend.pacientes_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against the PostgreSQL database of application.properties, migrated by Flyway.
+ */
+@SpringBootTest
+public class VersoesDasTabelasTest {
+
+    @Autowired
+    private VersoesDasTabelas versoesDasTabelas;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> inseridos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (UUID id : inseridos) {
+            jdbcTemplate.update("delete from pacientes where id = ?", id);
+        }
+    }
+
+    @Test
+    void testEscritasConcorrentesNaMesmaTabelaNaoEsperamUmaPelaOutra() throws SQLException {
+        long antes = versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES);
+        try (Connection primeira = dataSource.getConnection(); Connection segunda = dataSource.getConnection()) {
+            primeira.setAutoCommit(false);
+            segunda.setAutoCommit(false);
+            try (Statement statement = segunda.createStatement()) {
+                // Fails instead of waiting if the first transaction holds what the second needs.
+                statement.execute("set local lock_timeout = '2s'");
+            }
+            inserirPaciente(primeira);
+            inserirPaciente(segunda);
+            inserirPaciente(segunda);
+
+            assertEquals(antes, versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+
+            segunda.commit();
+            primeira.commit();
+        }
+        assertEquals(antes + 3, versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+    }
+
+    @Test
+    void testEscritaDesfeitaNaoMudaAVersao() throws SQLException {
+        long antes = versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES);
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            inserirPaciente(conexao);
+            conexao.rollback();
+        }
+        assertEquals(antes, versoesDasTabelas.versao(VersoesDasTabelas.PACIENTES));
+    }
+
+    private void inserirPaciente(Connection conexao) throws SQLException {
+        UUID id = UUID.randomUUID();
+        String cpf = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+        try (PreparedStatement insert = conexao.prepareStatement("""
+                insert into pacientes (id, nome, cpf, email, telefone_whatsapp, data_nascimento)
+                values (?, 'Teste de versão', ?, ?, '11999990000', date '1990-01-01')
+                """)) {
+            insert.setObject(1, id);
+            insert.setString(2, cpf);
+            insert.setString(3, id + "@teste.local");
+            insert.executeUpdate();
+        }
+        inseridos.add(id);
+    }
+}